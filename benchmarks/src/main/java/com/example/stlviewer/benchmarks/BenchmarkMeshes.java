@@ -0,0 +1,99 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.util.STLGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Closed test meshes of a given size for the benchmarks. The meshes are UV spheres, so every triangle has
+ * three neighbors and the vertices are shared like in a real model.
+ *
+ * @author  Lukas Erdmann
+ */
+public final class BenchmarkMeshes
+{
+    public static final double SPHERE_RADIUS = STLGenerator.DEFAULT_RADIUS;
+
+    private BenchmarkMeshes() {
+    }
+
+    /**
+     * Creates the triangles of a UV sphere with at least the given number of triangles.
+     *
+     * @param minTriangleCount  Minimum number of triangles
+     * @return                  Coordinates of the triangles, nine per triangle in counter-clockwise order
+     */
+    public static double[] sphere(int minTriangleCount) {
+        int slices = sphereSlices(minTriangleCount);
+        return STLGenerator.sphereCoordinates(SPHERE_RADIUS, slices, slices / 2);
+    }
+
+    /**
+     * Encodes a UV sphere with at least the given number of triangles as an STL file. The file is written by
+     * the generator, so it has the same triangles as {@link #sphere(int)}.
+     */
+    public static byte[] sphereSTL(int minTriangleCount, STLGenerator.Format format) throws IOException {
+        int slices = sphereSlices(minTriangleCount);
+        Path stlFile = Files.createTempFile("stlviewer-benchmark-", ".stl");
+        try {
+            new STLGenerator(format, 1).writeSphere(stlFile, SPHERE_RADIUS, slices, slices / 2);
+            return Files.readAllBytes(stlFile);
+        } finally {
+            Files.deleteIfExists(stlFile);
+        }
+    }
+
+    /**
+     * Finds the number of slices of a sphere with half as many stacks that has at least the given number of triangles.
+     */
+    private static int sphereSlices(int minTriangleCount) {
+        int slices = 4;
+        while (STLGenerator.sphereTriangleCount(slices, slices / 2) < minTriangleCount) {
+            slices += 2;
+        }
+        return slices;
+    }
+
+    public static int triangleCount(double[] coordinates) {
+        return coordinates.length / 9;
+    }
+
+    /**
+     * Creates the triangles as model objects. Equal vertices are shared if requested, like in the lean mode.
+     */
+    public static ArrayList<Triangle> toTriangles(double[] coordinates, boolean shareVertices) {
+        PolyhedronController vertexSharing = new PolyhedronController();
+        if (shareVertices) {
+            vertexSharing.enableVertexSharing();
+        }
+        ArrayList<Triangle> triangles = new ArrayList<>(triangleCount(coordinates));
+        for (int triangle = 0; triangle < triangleCount(coordinates); triangle++) {
+            Vertex[] vertices = new Vertex[3];
+            for (int vertex = 0; vertex < 3; vertex++) {
+                int offset = triangle * 9 + vertex * 3;
+                vertices[vertex] = vertexSharing.shareVertex(new Vertex(coordinates[offset], coordinates[offset + 1], coordinates[offset + 2]));
+            }
+            // The triangle derives its normal from the winding
+            triangles.add(new Triangle(vertices[0], vertices[1], vertices[2], null));
+        }
+        return triangles;
+    }
+
+    /**
+     * Creates a polyhedron with its bounding box and center defined, as it is after loading.
+     */
+    public static Polyhedron toPolyhedron(double[] coordinates) {
+        Polyhedron polyhedron = new Polyhedron(toTriangles(coordinates, false));
+        PolyhedronController controller = new PolyhedronController(polyhedron);
+        controller.defineBoundingBox();
+        controller.defineCenter();
+        return polyhedron;
+    }
+}
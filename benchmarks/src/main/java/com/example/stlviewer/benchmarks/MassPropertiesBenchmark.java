@@ -0,0 +1,71 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.model.MassProperties;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.util.MassPropertiesReduction;
+import com.example.stlviewer.util.TriangleArrays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single pass mass properties reduction on pools of different sizes, on a triangle list and on triangle arrays.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MassPropertiesBenchmark
+{
+    @Param({"100000", "1000000"})
+    public int triangleCount;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private MassPropertiesReduction massPropertiesReduction;
+    private ArrayList<Triangle> triangles;
+    private TriangleArrays triangleArrays;
+
+    @Setup
+    public void createTriangles() {
+        double[] coordinates = BenchmarkMeshes.sphere(triangleCount);
+        pool = new ForkJoinPool(parallelism);
+        massPropertiesReduction = new MassPropertiesReduction(pool);
+        triangles = BenchmarkMeshes.toTriangles(coordinates, false);
+        triangleArrays = TriangleArrays.fromCoordinates(coordinates);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MassProperties reduceTriangles() {
+        return massPropertiesReduction.reduce(triangles);
+    }
+
+    @Benchmark
+    public MassProperties reduceArrays() {
+        return massPropertiesReduction.reduce(triangleArrays);
+    }
+}
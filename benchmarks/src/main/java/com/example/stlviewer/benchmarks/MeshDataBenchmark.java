@@ -0,0 +1,66 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.util.MeshData;
+import com.example.stlviewer.util.OffHeapMesh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prepares the mesh arrays that {@code STLViewerController.createMesh} copies into the JavaFX mesh, in the
+ * standard and in the indexed layout of the lean mode, and from the segment of an off-heap mesh.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MeshDataBenchmark
+{
+    @Param({"1000", "100000", "1000000"})
+    public int triangleCount;
+
+    private Polyhedron polyhedron;
+    private OffHeapMesh offHeapMesh;
+
+    @Setup
+    public void createPolyhedron() {
+        polyhedron = BenchmarkMeshes.toPolyhedron(BenchmarkMeshes.sphere(triangleCount));
+        offHeapMesh = OffHeapMesh.fromPolyhedron(polyhedron);
+    }
+
+    @TearDown
+    public void closeOffHeapMesh() {
+        offHeapMesh.close();
+    }
+
+    @Benchmark
+    public MeshData prepareMesh() {
+        return MeshData.fromPolyhedron(polyhedron);
+    }
+
+    @Benchmark
+    public MeshData prepareIndexedMesh() {
+        return MeshData.indexedFromPolyhedron(polyhedron);
+    }
+
+    @Benchmark
+    public MeshData prepareOffHeapMesh() {
+        return MeshData.fromOffHeapMesh(offHeapMesh, polyhedron.getCenter());
+    }
+}
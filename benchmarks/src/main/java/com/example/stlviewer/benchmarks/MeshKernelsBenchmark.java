@@ -0,0 +1,73 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.util.MeshKernels;
+import com.example.stlviewer.util.ScalarMeshKernels;
+import com.example.stlviewer.util.TriangleArrays;
+import com.example.stlviewer.util.VectorMeshKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scalar and the SIMD mesh kernels on the same triangle arrays. The fork adds the Vector API module, so
+ * both implementations can be compared in one run.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", MeshKernels.VECTOR_MODULE})
+@State(Scope.Benchmark)
+public class MeshKernelsBenchmark
+{
+    @Param({"1000", "100000", "1000000"})
+    public int triangleCount;
+
+    @Param({MeshKernels.KERNELS_SCALAR, MeshKernels.KERNELS_VECTOR})
+    public String kernels;
+
+    private MeshKernels meshKernels;
+    private TriangleArrays triangleArrays;
+    private final double[] reference = new double[3];
+    private double[] areas;
+
+    @Setup
+    public void createTriangleArrays() {
+        meshKernels = kernels.equals(MeshKernels.KERNELS_VECTOR) ? new VectorMeshKernels() : new ScalarMeshKernels();
+        triangleArrays = TriangleArrays.fromCoordinates(BenchmarkMeshes.sphere(triangleCount));
+        areas = new double[triangleArrays.getTriangleCount()];
+    }
+
+    @Benchmark
+    public double volume() {
+        return meshKernels.volume(triangleArrays, reference);
+    }
+
+    @Benchmark
+    public double surfaceArea() {
+        return meshKernels.surfaceArea(triangleArrays);
+    }
+
+    @Benchmark
+    public double[] areas() {
+        meshKernels.areas(triangleArrays, areas);
+        return areas;
+    }
+
+    @Benchmark
+    public double[] boundingBox() {
+        return meshKernels.boundingBox(triangleArrays);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.util.MeshKernels;
+import com.example.stlviewer.util.MetricsReduction;
+import com.example.stlviewer.util.ScalarMeshKernels;
+import com.example.stlviewer.util.TriangleArrays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parallel metrics reduction on pools of different sizes, on a triangle list and on triangle arrays.
+ * {@code transformAndReduce} rotates the arrays by a quarter turn first, the recalculation after a transform.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsReductionBenchmark
+{
+    // Quarter turn around the z axis
+    private static final double[] ROTATION = {0, -1, 0, 0, 1, 0, 0, 0, 0, 0, 1, 0};
+
+    @Param({"100000", "1000000"})
+    public int triangleCount;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private final MeshKernels meshKernels = new ScalarMeshKernels();
+    private ForkJoinPool pool;
+    private MetricsReduction metricsReduction;
+    private ArrayList<Triangle> triangles;
+    private TriangleArrays triangleArrays;
+
+    @Setup
+    public void createTriangles() {
+        double[] coordinates = BenchmarkMeshes.sphere(triangleCount);
+        pool = new ForkJoinPool(parallelism);
+        metricsReduction = new MetricsReduction(pool, meshKernels);
+        triangles = BenchmarkMeshes.toTriangles(coordinates, false);
+        triangleArrays = TriangleArrays.fromCoordinates(coordinates);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MetricsReduction.Result reduceTriangles() {
+        return metricsReduction.reduce(triangles);
+    }
+
+    @Benchmark
+    public MetricsReduction.Result reduceArrays() {
+        return metricsReduction.reduce(triangleArrays);
+    }
+
+    @Benchmark
+    public MetricsReduction.Result transformAndReduce() {
+        meshKernels.transform(triangleArrays, ROTATION);
+        return metricsReduction.reduce(triangleArrays);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.model.OrientedBox;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.util.OrientedBoxFitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting the oriented bounding box of a sphere on pools of different sizes.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrientedBoxBenchmark
+{
+    @Param({"10000", "100000"})
+    public int triangleCount;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private OrientedBoxFitter orientedBoxFitter;
+    private ArrayList<Triangle> triangles;
+
+    @Setup
+    public void createTriangles() {
+        pool = new ForkJoinPool(parallelism);
+        orientedBoxFitter = new OrientedBoxFitter(pool, OrientedBoxFitter.DEFAULT_MAX_CANDIDATES);
+        triangles = BenchmarkMeshes.toTriangles(BenchmarkMeshes.sphere(triangleCount), true);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public OrientedBox fit() {
+        return orientedBoxFitter.fit(triangles);
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.util.MeshData;
+import com.example.stlviewer.util.MeshKernels;
+import com.example.stlviewer.util.STLGenerator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Performance regression suite with baselines stored in the repository. It generates a binary STL file with
+ * about a million triangles and runs three warmed-up scenarios on it: loading the file, analyzing the
+ * polyhedron and preparing the render mesh. The median throughput and allocation of every scenario are
+ * compared with the baseline file. <br>
+ * Allocations don't depend on the machine, so their tolerance is tight. Throughput does, so its tolerance only
+ * catches large regressions. The process exits with status 1 if a scenario regressed, which fails the
+ * {@code perf-regression} Maven profile. <br>
+ * The baseline records the machine it was measured on: the Java feature version, the mesh kernels and the
+ * number of cores. A baseline of another machine fails the comparison instead of reporting meaningless
+ * changes, so the baseline has to be recorded on the CI runner that checks it. Until a baseline is recorded,
+ * i.e. the file is missing or has no machine, the comparison is skipped with a warning. <br>
+ * Usage: {@code PerformanceRegressionSuite --baseline <file> [--update-baseline] [--triangles 1000000]} <br>
+ * With Maven: {@code mvn -Pperf-regression verify}, add {@code -Dperf.updateBaseline=--update-baseline} to
+ * record a new baseline.
+ *
+ * @author  Lukas Erdmann
+ */
+public class PerformanceRegressionSuite
+{
+    public static final int DEFAULT_TRIANGLE_COUNT = 1_000_000;
+    public static final int WARMUP_ITERATIONS = 3;
+    public static final int MEASUREMENT_ITERATIONS = 5;
+    public static final double DEFAULT_THROUGHPUT_TOLERANCE = 0.5;
+    public static final double DEFAULT_ALLOCATION_TOLERANCE = 0.15;
+    /**
+     * Absolute allowance for allocations of other threads, like the JIT compiler, so an allocation-free
+     * scenario doesn't fail on them.
+     */
+    public static final double ALLOCATION_SLACK_BYTES_PER_TRIANGLE = 1.0;
+    public static final String KEY_THROUGHPUT_TOLERANCE = "tolerance.throughput";
+    public static final String KEY_ALLOCATION_TOLERANCE = "tolerance.allocation";
+    public static final String KEY_THROUGHPUT_SUFFIX = ".trianglesPerSecond";
+    public static final String KEY_ALLOCATION_SUFFIX = ".bytesPerTriangle";
+    public static final String KEY_MACHINE_JAVA = "machine.java";
+    public static final String KEY_MACHINE_KERNELS = "machine.kernels";
+    public static final String KEY_MACHINE_CORES = "machine.cores";
+    public static final String KEY_MACHINE_OS = "machine.os";
+    public static final String KEY_MACHINE_JVM = "machine.jvm";
+    public static final int EXIT_REGRESSION = 1;
+
+    /**
+     * A timed operation on the generated file.
+     */
+    private interface Scenario
+    {
+        void run() throws IOException;
+    }
+
+    private final Path stlFile;
+    private final int triangleCount;
+    private Polyhedron polyhedron;
+
+    private PerformanceRegressionSuite(Path stlFile, int triangleCount) {
+        this.stlFile = stlFile;
+        this.triangleCount = triangleCount;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path baselinePath = null;
+        boolean updateBaseline = false;
+        int requestedTriangles = DEFAULT_TRIANGLE_COUNT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> baselinePath = Paths.get(args[++i]);
+                case "--update-baseline" -> updateBaseline = true;
+                case "--triangles" -> requestedTriangles = Integer.parseInt(args[++i]);
+                case "" -> { } // Unset optional argument of the Maven profile
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (baselinePath == null) {
+            throw new IllegalArgumentException("--baseline is required.");
+        }
+        if (!updateBaseline && !isRecorded(baselinePath)) {
+            System.err.println("Warning: no baseline has been recorded in " + baselinePath
+                    + ", skipping the comparison. Record it on the machine that checks it with --update-baseline.");
+            return;
+        }
+
+        Path stlFile = Files.createTempFile("stlviewer-regression-", ".stl");
+        try {
+            // A sphere with n slices and n / 2 stacks has n * (n - 2) triangles
+            int slices = (int) java.lang.Math.ceil(1 + java.lang.Math.sqrt(1.0 + requestedTriangles));
+            slices += slices % 2;
+            STLGenerator.Result generated = new STLGenerator(STLGenerator.Format.BINARY, 1)
+                    .writeSphere(stlFile, STLGenerator.DEFAULT_RADIUS, slices, slices / 2);
+            System.out.println("Generated " + generated);
+
+            PerformanceRegressionSuite suite = new PerformanceRegressionSuite(stlFile, (int) generated.getTriangleCount());
+            Properties results = suite.runAll();
+            if (updateBaseline) {
+                suite.writeBaseline(baselinePath, results);
+                System.out.println("Baseline written to " + baselinePath);
+            } else if (!suite.compare(baselinePath, results)) {
+                System.exit(EXIT_REGRESSION);
+            }
+        } finally {
+            Files.deleteIfExists(stlFile);
+        }
+    }
+
+    private Properties runAll() throws IOException {
+        Properties results = new Properties();
+        // Every scenario after the load uses the polyhedron of the last load
+        measure("load", () -> {
+            PolyhedronController controller = new PolyhedronController();
+            new STLReader().readSTLFile(stlFile.toString(), controller);
+            polyhedron = controller.getPolyhedron();
+        }, results);
+        measure("analysis", () -> {
+            // Like after loading, the metrics are computed with the mesh kernels and replace the previous ones
+            new PolyhedronController(polyhedron).calculateMetrics();
+        }, results);
+        measure("mesh", () -> MeshData.fromPolyhedron(polyhedron), results);
+        return results;
+    }
+
+    /**
+     * Runs the warmup and the measurement iterations of a scenario and stores the medians.
+     */
+    private void measure(String name, Scenario scenario, Properties results) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            scenario.run();
+        }
+        long[] durations = new long[MEASUREMENT_ITERATIONS];
+        long[] allocations = new long[MEASUREMENT_ITERATIONS];
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            System.gc();
+            // The load runs on two threads, so the allocations of all threads are counted
+            long allocatedBefore = threadBean.getTotalThreadAllocatedBytes();
+            long start = System.nanoTime();
+            scenario.run();
+            durations[i] = System.nanoTime() - start;
+            allocations[i] = threadBean.getTotalThreadAllocatedBytes() - allocatedBefore;
+        }
+        double trianglesPerSecond = triangleCount * 1e9 / median(durations);
+        double bytesPerTriangle = median(allocations) / (double) triangleCount;
+        results.setProperty(name + KEY_THROUGHPUT_SUFFIX, String.format(Locale.ROOT, "%.0f", trianglesPerSecond));
+        results.setProperty(name + KEY_ALLOCATION_SUFFIX, String.format(Locale.ROOT, "%.1f", bytesPerTriangle));
+        System.out.printf(Locale.ROOT, "%-10s %,14.0f triangles/s %10.1f B/triangle%n", name, trianglesPerSecond, bytesPerTriangle);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Compares the results with the baseline.
+     *
+     * @return  True if no scenario regressed beyond its tolerance
+     */
+    private boolean compare(Path baselinePath, Properties results) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselinePath)) {
+            baseline.load(reader);
+        }
+        if (!isSameMachine(baseline)) {
+            System.err.println("The baseline can't be compared on this machine, record it here with --update-baseline.");
+            return false;
+        }
+        double throughputTolerance = Double.parseDouble(baseline.getProperty(KEY_THROUGHPUT_TOLERANCE, String.valueOf(DEFAULT_THROUGHPUT_TOLERANCE)));
+        double allocationTolerance = Double.parseDouble(baseline.getProperty(KEY_ALLOCATION_TOLERANCE, String.valueOf(DEFAULT_ALLOCATION_TOLERANCE)));
+
+        List<String> regressions = new ArrayList<>();
+        for (String key : new TreeSet<>(results.stringPropertyNames())) {
+            String baselineValue = baseline.getProperty(key);
+            if (baselineValue == null) {
+                System.out.println("No baseline for " + key);
+                continue;
+            }
+            double expected = Double.parseDouble(baselineValue);
+            double actual = Double.parseDouble(results.getProperty(key));
+            // Throughput must not drop, allocations must not grow
+            boolean regressed = key.endsWith(KEY_THROUGHPUT_SUFFIX)
+                    ? actual < expected * (1 - throughputTolerance)
+                    : actual > expected * (1 + allocationTolerance) + ALLOCATION_SLACK_BYTES_PER_TRIANGLE;
+            String line = String.format(Locale.ROOT, "%-32s baseline=%.1f actual=%.1f change=%+.1f%%",
+                    key, expected, actual, expected == 0 ? 0 : (actual / expected - 1) * 100);
+            System.out.println((regressed ? "REGRESSION " : "ok         ") + line);
+            if (regressed) {
+                regressions.add(key);
+            }
+        }
+        if (!regressions.isEmpty()) {
+            System.err.println("Performance regressed in: " + String.join(", ", regressions));
+        }
+        return regressions.isEmpty();
+    }
+
+    /**
+     * Describes the machine the suite runs on. The values that decide the comparison are separate keys,
+     * the rest is informational.
+     */
+    private static Properties describeMachine() {
+        Properties machine = new Properties();
+        machine.setProperty(KEY_MACHINE_JAVA, String.valueOf(Runtime.version().feature()));
+        machine.setProperty(KEY_MACHINE_KERNELS, MeshKernels.fromSystemProperties().getName());
+        machine.setProperty(KEY_MACHINE_CORES, String.valueOf(Runtime.getRuntime().availableProcessors()));
+        machine.setProperty(KEY_MACHINE_OS, System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        machine.setProperty(KEY_MACHINE_JVM, System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        return machine;
+    }
+
+    /**
+     * @return  True if the baseline file exists and records the machine it was measured on
+     */
+    private static boolean isRecorded(Path baselinePath) throws IOException {
+        if (!Files.isRegularFile(baselinePath)) {
+            return false;
+        }
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselinePath)) {
+            baseline.load(reader);
+        }
+        return baseline.getProperty(KEY_MACHINE_JAVA) != null;
+    }
+
+    /**
+     * Checks that the baseline was recorded with the same Java version, kernels and number of cores.
+     */
+    private static boolean isSameMachine(Properties baseline) {
+        Properties machine = describeMachine();
+        boolean sameMachine = true;
+        for (String key : List.of(KEY_MACHINE_JAVA, KEY_MACHINE_KERNELS, KEY_MACHINE_CORES)) {
+            String recorded = baseline.getProperty(key);
+            if (!machine.getProperty(key).equals(recorded)) {
+                System.err.println("Baseline " + key + "=" + recorded + ", this machine " + key + "=" + machine.getProperty(key));
+                sameMachine = false;
+            }
+        }
+        String recordedOs = baseline.getProperty(KEY_MACHINE_OS);
+        if (recordedOs != null && !recordedOs.equals(machine.getProperty(KEY_MACHINE_OS))) {
+            System.out.println("Baseline recorded on " + recordedOs + ", running on " + machine.getProperty(KEY_MACHINE_OS));
+        }
+        return sameMachine;
+    }
+
+    private void writeBaseline(Path baselinePath, Properties results) throws IOException {
+        Properties baseline = new Properties();
+        baseline.putAll(results);
+        baseline.putAll(describeMachine());
+        baseline.setProperty(KEY_THROUGHPUT_TOLERANCE, String.valueOf(DEFAULT_THROUGHPUT_TOLERANCE));
+        baseline.setProperty(KEY_ALLOCATION_TOLERANCE, String.valueOf(DEFAULT_ALLOCATION_TOLERANCE));
+        try (Writer writer = Files.newBufferedWriter(baselinePath)) {
+            baseline.store(writer, "Performance baseline of " + triangleCount + " triangles. Update with --update-baseline.");
+        }
+    }
+}
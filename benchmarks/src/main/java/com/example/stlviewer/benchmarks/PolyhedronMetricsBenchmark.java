@@ -0,0 +1,69 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.model.Polyhedron;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Volume, surface area and bounding box of a loaded polyhedron. The controller caches the bounding box, so
+ * every invocation resets the metrics first. Each method is a parallel reduction on the common pool,
+ * {@code calculateMetrics} computes all three in one reduction.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolyhedronMetricsBenchmark
+{
+    @Param({"1000", "100000", "1000000"})
+    public int triangleCount;
+
+    private Polyhedron polyhedron;
+    private PolyhedronController controller;
+
+    @Setup
+    public void createPolyhedron() {
+        polyhedron = BenchmarkMeshes.toPolyhedron(BenchmarkMeshes.sphere(triangleCount));
+        controller = new PolyhedronController(polyhedron);
+    }
+
+    @Benchmark
+    public double calculateVolume() {
+        polyhedron.setVolume(0);
+        return controller.calculateVolume();
+    }
+
+    @Benchmark
+    public double calculateSurfaceArea() {
+        polyhedron.setSurfaceArea(0);
+        return controller.calculateSurfaceArea();
+    }
+
+    @Benchmark
+    public double[] defineBoundingBox() {
+        polyhedron.setBoundingBox(null);
+        return controller.defineBoundingBox();
+    }
+
+    @Benchmark
+    public Polyhedron calculateMetrics() {
+        controller.calculateMetrics();
+        return polyhedron;
+    }
+}
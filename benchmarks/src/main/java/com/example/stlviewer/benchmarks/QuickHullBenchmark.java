@@ -0,0 +1,76 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.util.QuickHull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The convex hull on pools of different sizes, of a sphere, where every vertex lies on the hull, and of a
+ * random point cloud, where few do.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuickHullBenchmark
+{
+    @Param({"100000", "1000000"})
+    public int triangleCount;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private QuickHull quickHull;
+    private ArrayList<Triangle> triangles;
+    private double[] cloud;
+
+    @Setup
+    public void createTriangles() {
+        pool = new ForkJoinPool(parallelism);
+        quickHull = new QuickHull(pool);
+        triangles = BenchmarkMeshes.toTriangles(BenchmarkMeshes.sphere(triangleCount), true);
+        // As many points as the sphere has vertices, uniformly in a cube
+        Random random = new Random(1);
+        cloud = new double[triangleCount / 2 * 3];
+        for (int i = 0; i < cloud.length; i++) {
+            cloud[i] = random.nextDouble();
+        }
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Polyhedron sphere() {
+        return quickHull.build(triangles);
+    }
+
+    @Benchmark
+    public Polyhedron cloud() {
+        return quickHull.build(cloud);
+    }
+}
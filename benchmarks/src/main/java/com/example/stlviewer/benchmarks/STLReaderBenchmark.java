@@ -0,0 +1,61 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.util.STLGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads binary and ASCII STL files from memory, including the hand-off to the controller thread and the
+ * metric calculation that ends a load.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class STLReaderBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int triangleCount;
+
+    private byte[] binaryFile;
+    private byte[] asciiFile;
+
+    @Setup
+    public void createFiles() throws IOException {
+        binaryFile = BenchmarkMeshes.sphereSTL(triangleCount, STLGenerator.Format.BINARY);
+        asciiFile = BenchmarkMeshes.sphereSTL(triangleCount, STLGenerator.Format.ASCII);
+    }
+
+    @Benchmark
+    public int readBinary() throws IOException {
+        PolyhedronController controller = new PolyhedronController();
+        new STLReader().readSTLStream(new ByteArrayInputStream(binaryFile), controller);
+        return controller.getPolyhedron().getTriangleCount();
+    }
+
+    @Benchmark
+    public int readAscii() throws IOException {
+        PolyhedronController controller = new PolyhedronController();
+        new STLReader().readSTLStream(new ByteArrayInputStream(asciiFile), controller);
+        return controller.getPolyhedron().getTriangleCount();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.TriangleMesh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the adjacency of a {@link TriangleMesh} and checks its tesselation. Adding a triangle compares it
+ * with every triangle of the mesh, so the sizes are smaller than in the other benchmarks.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TriangleMeshAdjacencyBenchmark
+{
+    @Param({"200", "1000", "4000"})
+    public int triangleCount;
+
+    private ArrayList<Triangle> triangles;
+
+    @Setup
+    public void createTriangles() {
+        triangles = BenchmarkMeshes.toTriangles(BenchmarkMeshes.sphere(triangleCount), true);
+    }
+
+    @Benchmark
+    public int buildAdjacency() {
+        TriangleMesh mesh = new TriangleMesh(triangles.size());
+        for (Triangle triangle : triangles) {
+            mesh.addTriangle(triangle);
+        }
+        return mesh.checkTesselation().size();
+    }
+}
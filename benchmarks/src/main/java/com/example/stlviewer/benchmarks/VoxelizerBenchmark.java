@@ -0,0 +1,73 @@
+package com.example.stlviewer.benchmarks;
+
+import com.example.stlviewer.util.SignedDistanceField;
+import com.example.stlviewer.util.TriangleArrays;
+import com.example.stlviewer.util.VoxelGrid;
+import com.example.stlviewer.util.Voxelizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Voxelization of a sphere and its narrow-band signed distance field on pools of different sizes, at the
+ * resolutions of the printability checks.
+ *
+ * @author  Lukas Erdmann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VoxelizerBenchmark
+{
+    @Param({"1000000"})
+    public int triangleCount;
+
+    @Param({"256", "512"})
+    public int resolution;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private Voxelizer voxelizer;
+    private TriangleArrays triangles;
+    private VoxelGrid paddedGrid;
+
+    @Setup
+    public void createTriangles() {
+        pool = new ForkJoinPool(parallelism);
+        voxelizer = new Voxelizer(pool);
+        triangles = TriangleArrays.fromCoordinates(BenchmarkMeshes.sphere(triangleCount));
+        paddedGrid = voxelizer.voxelize(triangles, resolution, Voxelizer.DEFAULT_BAND_WIDTH);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public VoxelGrid occupancy() {
+        return voxelizer.voxelize(triangles, resolution, 0);
+    }
+
+    @Benchmark
+    public SignedDistanceField signedDistanceField() {
+        return voxelizer.signedDistanceField(triangles, paddedGrid, Voxelizer.DEFAULT_BAND_WIDTH);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.stlviewer.cli;
+
+import com.example.stlviewer.control.BatchProcessor;
+import com.example.stlviewer.control.MeshCache;
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.util.MemoryEstimator;
+import com.example.stlviewer.util.MetricsReduction;
+import com.example.stlviewer.util.OffHeapMesh;
+import com.example.stlviewer.util.ProgressLog;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line entry point that loads STL files and prints their metrics or triangles without the viewer. <br>
+ * It only uses the core module, so no JavaFX class is loaded and no display is needed: <br>
+ * {@code java -cp stlviewer-core.jar:vecmath.jar com.example.stlviewer.cli.CommandLineMain [options] <file>...} <br>
+ * The results are written to the standard output, the progress messages of the reader are dropped unless
+ * {@code --verbose} is given, then they are written to the standard error. <br>
+ * With {@code --batch} all files of a directory or glob are processed by the {@link BatchProcessor} and
+ * summarized in one CSV or JSON report.
+ *
+ * @author  Lukas Erdmann
+ */
+public class CommandLineMain
+{
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final String USAGE = """
+            Usage: CommandLineMain [options] <file>...
+                   CommandLineMain --batch <directory|glob> [--report <file.csv|file.json>] [--threads <n>]
+              --metrics         Print volume, surface area, bounding box and center (default)
+              --triangles       Print every triangle
+              --triangle <i>    Print the triangle with the index i
+              --verbose         Print the progress of the reader to the standard error
+              --batch <input>   Process all STL files of a directory or glob in parallel
+              --report <file>   Report of the batch, JSON for .json, otherwise CSV (default: CSV to the output)
+              --threads <n>     Files processed at the same time (default: number of processors)
+              --cache           Load the files from the mesh cache and store them in it
+              --off-heap        Compute the metrics on the mapped file without loading the triangles into the heap
+              --help            Print this help""";
+
+    private boolean printMetrics;
+    private boolean printTriangles;
+    private int triangleIndex = -1;
+    private boolean verbose;
+    private String batchInput;
+    private Path reportPath;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private MeshCache meshCache;
+    private boolean offHeap;
+    private final List<String> filePaths = new ArrayList<>();
+
+    public static void main (String[] args)
+    {
+        CommandLineMain commandLine = new CommandLineMain();
+        try {
+            if (!commandLine.parseArguments(args)) {
+                System.out.println(USAGE);
+                return;
+            }
+        } catch (IllegalArgumentException exception) {
+            System.err.println(exception.getMessage());
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+        }
+        System.exit(commandLine.run());
+    }
+
+    /**
+     * Parses the arguments.
+     *
+     * @return  False if only the help was requested
+     */
+    private boolean parseArguments (String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--metrics" -> printMetrics = true;
+                case "--triangles" -> printTriangles = true;
+                case "--triangle" -> triangleIndex = Integer.parseInt(requireValue(args, i++));
+                case "--batch" -> batchInput = requireValue(args, i++);
+                case "--report" -> reportPath = Paths.get(requireValue(args, i++));
+                case "--threads" -> threads = Integer.parseInt(requireValue(args, i++));
+                case "--verbose" -> verbose = true;
+                case "--cache" -> meshCache = MeshCache.fromSystemProperties();
+                case "--off-heap" -> offHeap = true;
+                case "--help", "-h" -> {
+                    return false;
+                }
+                default -> {
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    }
+                    filePaths.add(args[i]);
+                }
+            }
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("--threads needs at least 1 thread.");
+        }
+        if (batchInput != null) {
+            if (!filePaths.isEmpty()) {
+                throw new IllegalArgumentException("--batch doesn't take single files.");
+            }
+            return true;
+        }
+        if (filePaths.isEmpty()) {
+            throw new IllegalArgumentException("No STL file given.");
+        }
+        // Without a selection the metrics are printed
+        if (!printTriangles && triangleIndex < 0) {
+            printMetrics = true;
+        }
+        if (offHeap && (printTriangles || triangleIndex >= 0)) {
+            throw new IllegalArgumentException("--off-heap only prints the metrics.");
+        }
+        return true;
+    }
+
+    private static String requireValue (String[] args, int optionIndex) {
+        if (optionIndex + 1 >= args.length) {
+            throw new IllegalArgumentException(args[optionIndex] + " needs a value.");
+        }
+        return args[optionIndex + 1];
+    }
+
+    /**
+     * Loads and prints every file. A file that can't be read is reported and the next file is loaded.
+     *
+     * @return  Exit status, {@link #EXIT_FAILURE} if any file failed
+     */
+    private int run () {
+        // The results are buffered, printing every triangle with an auto flushing stream is slow
+        PrintStream results = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)), false);
+        // The progress of the reader and the controller would end up between the results
+        ProgressLog.setOutput(verbose ? System.err : null);
+        if (batchInput != null) {
+            return runBatch(results);
+        }
+        ConsoleApplication console = new ConsoleApplication(results);
+        MemoryEstimator memoryEstimator = MemoryEstimator.fromSystemProperties();
+        int exitStatus = EXIT_SUCCESS;
+        for (String filePath : filePaths) {
+            try {
+                if (offHeap) {
+                    results.println(toOffHeapMetricsLine(filePath));
+                    continue;
+                }
+                Polyhedron polyhedron = load(filePath, memoryEstimator);
+                if (printMetrics) {
+                    results.println(toMetricsLine(filePath, polyhedron));
+                }
+                if (triangleIndex >= 0) {
+                    if (triangleIndex >= polyhedron.getTriangleCount()) {
+                        throw new IllegalArgumentException("Triangle " + triangleIndex + " doesn't exist, the file has "
+                                + polyhedron.getTriangleCount() + " triangles.");
+                    }
+                    console.printTriangleSingleData(polyhedron, triangleIndex);
+                }
+                if (printTriangles) {
+                    console.printTriangleAllData(polyhedron);
+                }
+            } catch (IOException | RuntimeException exception) {
+                results.flush();
+                System.err.println(filePath + ": " + (exception instanceof NoSuchFileException noSuchFile ? noSuchFile.getReason() : exception.getMessage()));
+                exitStatus = EXIT_FAILURE;
+            }
+        }
+        results.flush();
+        return exitStatus;
+    }
+
+    /**
+     * Processes the files of the batch input and writes the report.
+     *
+     * @return  Exit status, {@link #EXIT_FAILURE} if any file failed
+     */
+    private int runBatch (PrintStream results) {
+        try {
+            List<Path> files = BatchProcessor.findFiles(batchInput);
+            long start = System.nanoTime();
+            BatchProcessor batchProcessor = new BatchProcessor(threads, MemoryEstimator.fromSystemProperties());
+            batchProcessor.setMeshCache(meshCache);
+            List<BatchProcessor.FileResult> fileResults = batchProcessor.process(files);
+            long elapsedNanos = System.nanoTime() - start;
+            if (reportPath != null) {
+                try (Writer writer = Files.newBufferedWriter(reportPath)) {
+                    BatchProcessor.writeReport(fileResults, writer, BatchProcessor.formatOf(reportPath));
+                }
+                results.println(BatchProcessor.toSummaryLine(fileResults, elapsedNanos));
+            } else {
+                Writer writer = new OutputStreamWriter(results);
+                BatchProcessor.writeReport(fileResults, writer, BatchProcessor.ReportFormat.CSV);
+                writer.flush();
+                System.err.println(BatchProcessor.toSummaryLine(fileResults, elapsedNanos));
+            }
+            results.flush();
+            for (BatchProcessor.FileResult fileResult : fileResults) {
+                if (!fileResult.isSuccessful()) {
+                    return EXIT_FAILURE;
+                }
+            }
+            return EXIT_SUCCESS;
+        } catch (IOException exception) {
+            results.flush();
+            System.err.println(batchInput + ": " + exception.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return EXIT_FAILURE;
+        }
+    }
+
+    private Polyhedron load (String filePath, MemoryEstimator memoryEstimator) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(filePath, null, "File not found");
+        }
+        PolyhedronController polyhedronController = new PolyhedronController();
+        if (memoryEstimator.chooseLoadMode(path) == MemoryEstimator.LoadMode.LEAN) {
+            polyhedronController.enableVertexSharing();
+        }
+        if (meshCache != null) {
+            meshCache.load(path, new STLReader(), polyhedronController, true);
+        } else {
+            new STLReader().readSTLFile(filePath, polyhedronController);
+        }
+        return polyhedronController.getPolyhedron();
+    }
+
+    /**
+     * Computes the metrics of a file on an off-heap mesh, a binary file is only mapped.
+     */
+    private static String toOffHeapMetricsLine (String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(filePath, null, "File not found");
+        }
+        try (OffHeapMesh mesh = OffHeapMesh.read(path)) {
+            MetricsReduction.Result metrics = mesh.calculateMetrics(MetricsReduction.withCommonPool(PolyhedronController.getMeshKernels()));
+            // An empty mesh has no bounding box, like a polyhedron without triangles
+            double[] boundingBox = mesh.getTriangleCount() == 0 ? null : metrics.getBoundingBox();
+            return toMetricsLine(filePath, mesh.getTriangleCount(), metrics.getVolume(), metrics.getSurfaceArea(),
+                    boundingBox, boundingBox == null ? null : OffHeapMesh.centerOf(boundingBox));
+        }
+    }
+
+    /**
+     * Creates a single line with the metrics of a polyhedron that is easy to parse in scripts.
+     */
+    public static String toMetricsLine (String filePath, Polyhedron polyhedron) {
+        return toMetricsLine(filePath, polyhedron.getTriangleCount(), polyhedron.getVolume(), polyhedron.getSurfaceArea(),
+                polyhedron.getBoundingBox(), polyhedron.getCenter());
+    }
+
+    public static String toMetricsLine (String filePath, long triangleCount, double volume, double surfaceArea,
+                                        double[] boundingBox, Vertex center) {
+        return String.format(Locale.ROOT, "%s triangles=%d volume=%.6f surfaceArea=%.6f boundingBox=%s center=%s",
+                filePath, triangleCount, volume, surfaceArea,
+                boundingBox == null ? "[]" : Arrays.toString(boundingBox).replace(" ", ""),
+                center == null ? "none" : String.format(Locale.ROOT, "[%f,%f,%f]",
+                        center.getPosX(), center.getPosY(), center.getPosZ()));
+    }
+}
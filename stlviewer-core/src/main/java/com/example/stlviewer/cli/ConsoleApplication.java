@@ -1,16 +1,27 @@
-package com.example.stlviewer.view;
+package com.example.stlviewer.cli;
 
 import com.example.stlviewer.model.Polyhedron;
 
+import java.io.PrintStream;
 import java.util.Scanner;
 
 public class ConsoleApplication
 {
     private Scanner scanner;
+    private final PrintStream out;
 
     public ConsoleApplication ()
+    {
+        this(System.out);
+    }
+
+    /**
+     * @param out   Stream the data is printed to
+     */
+    public ConsoleApplication (PrintStream out)
     {
         this.scanner = new Scanner(System.in);
+        this.out = out;
     }
 
     public String requestFileNameAndPath()
@@ -34,19 +45,19 @@ public class ConsoleApplication
 
     public void printPolyhedronData(Polyhedron polyhedron)
     {
-        System.out.println(polyhedron.toString());
+        out.println(polyhedron.toString());
     }
 
     public void printTriangleSingleData(Polyhedron polyhedron, int index)
     {
-        System.out.println(polyhedron.getTriangles().get(index));
+        out.println(polyhedron.getTriangles().get(index));
     }
 
     public void printTriangleAllData(Polyhedron polyhedron)
     {
         for (int i = 0; i < polyhedron.getTriangles().size(); i++)
         {
-            System.out.println(polyhedron.getTriangles().get(i));
+            out.println(polyhedron.getTriangles().get(i));
         }
     }
 }
@@ -0,0 +1,399 @@
+package com.example.stlviewer.control;
+
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.util.MemoryEstimator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Processes many STL files in parallel and collects their metrics in one report. <br>
+ * Every file gets its own reader and controller, which run on the same worker thread of a fixed pool, so
+ * the files don't share any state. The reductions of a file run on its worker thread as well, the files
+ * already keep every worker busy. The biggest files are started first, so a big file that comes
+ * last doesn't keep a single worker busy after all others are done. The heap is shared by the workers, so
+ * a file only starts when its estimated footprint fits into the remaining memory budget.
+ *
+ * @author  Lukas Erdmann
+ */
+public class BatchProcessor
+{
+    public enum ReportFormat
+    {
+        CSV,
+        JSON
+    }
+
+    public static final String STL_EXTENSION = ".stl";
+    public static final String GLOB_CHARACTERS = "*?[{";
+    public static final String JSON_EXTENSION = ".json";
+    public static final String[] REPORT_COLUMNS = {"path", "bytes", "triangles", "volume", "surfaceArea",
+            "minX", "minY", "minZ", "maxX", "maxY", "maxZ", "loadMode", "millis", "error"};
+    public static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Metrics of a processed file, or the error if it couldn't be processed.
+     */
+    public static class FileResult
+    {
+        private final Path path;
+        private final long byteCount;
+        private final int triangleCount;
+        private final double volume;
+        private final double surfaceArea;
+        private final double[] boundingBox;
+        private final MemoryEstimator.LoadMode loadMode;
+        private final long durationNanos;
+        private final String error;
+
+        private FileResult(Path path, long byteCount, int triangleCount, double volume, double surfaceArea,
+                           double[] boundingBox, MemoryEstimator.LoadMode loadMode, long durationNanos, String error) {
+            this.path = path;
+            this.byteCount = byteCount;
+            this.triangleCount = triangleCount;
+            this.volume = volume;
+            this.surfaceArea = surfaceArea;
+            this.boundingBox = boundingBox;
+            this.loadMode = loadMode;
+            this.durationNanos = durationNanos;
+            this.error = error;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        public int getTriangleCount() {
+            return triangleCount;
+        }
+
+        public double getVolume() {
+            return volume;
+        }
+
+        public double getSurfaceArea() {
+            return surfaceArea;
+        }
+
+        /**
+         * @return  Minimum and maximum coordinates, null if the file failed or has no triangles
+         */
+        public double[] getBoundingBox() {
+            return boundingBox;
+        }
+
+        public MemoryEstimator.LoadMode getLoadMode() {
+            return loadMode;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return  Error message, null if the file was processed
+         */
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /**
+         * @return  Values in the order of {@link #REPORT_COLUMNS}, null for a missing value
+         */
+        private Object[] toValues() {
+            Object[] values = new Object[REPORT_COLUMNS.length];
+            values[0] = path.toString();
+            values[1] = byteCount;
+            values[12] = java.lang.Math.round(durationNanos / NANOS_PER_MILLI);
+            values[13] = error;
+            if (isSuccessful()) {
+                values[2] = triangleCount;
+                values[3] = volume;
+                values[4] = surfaceArea;
+                for (int i = 0; boundingBox != null && i < boundingBox.length; i++) {
+                    values[5 + i] = boundingBox[i];
+                }
+                values[11] = loadMode.name().toLowerCase(Locale.ROOT);
+            }
+            return values;
+        }
+    }
+
+    private final int parallelism;
+    private final MemoryEstimator memoryEstimator;
+    private MeshCache meshCache;
+
+    /**
+     * @param parallelism       Number of files processed at the same time
+     * @param memoryEstimator   Estimator with the memory budget shared by all files
+     */
+    public BatchProcessor(int parallelism, MemoryEstimator memoryEstimator) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+        this.memoryEstimator = memoryEstimator;
+    }
+
+    /**
+     * @param meshCache Cache the files are loaded from and stored in, null to parse every file
+     */
+    public void setMeshCache(MeshCache meshCache) {
+        this.meshCache = meshCache;
+    }
+
+    /**
+     * Finds the STL files of a directory and its subdirectories, or the files that match a glob like
+     * {@code parts/**}{@code /*.stl}. The glob is matched against the paths below the directory in front of
+     * the first glob character.
+     *
+     * @param directoryOrGlob   Directory or glob
+     * @return                  Files sorted by their path
+     * @throws IOException      If a directory can't be read
+     */
+    public static List<Path> findFiles(String directoryOrGlob) throws IOException {
+        Path directory;
+        PathMatcher matcher;
+        int globStart = indexOfGlobCharacter(directoryOrGlob);
+        if (globStart < 0) {
+            directory = Paths.get(directoryOrGlob);
+            if (!Files.isDirectory(directory)) {
+                throw new IOException("Not a directory: " + directoryOrGlob);
+            }
+            matcher = path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(STL_EXTENSION);
+        } else {
+            // The directory is the part of the glob up to the last separator before the first glob character
+            int separator = directoryOrGlob.lastIndexOf('/', globStart);
+            directory = Paths.get(separator < 0 ? "." : directoryOrGlob.substring(0, separator + 1));
+            PathMatcher globMatcher = FileSystems.getDefault().getPathMatcher("glob:" + directoryOrGlob.substring(separator + 1));
+            Path base = directory;
+            matcher = path -> globMatcher.matches(base.relativize(path));
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).filter(matcher::matches).sorted().toList();
+        }
+    }
+
+    private static int indexOfGlobCharacter(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Processes the files on a fixed pool, the biggest files first. A worker that waits for memory blocks,
+     * which a fork-join pool would compensate with more threads.
+     *
+     * @param files Files to process
+     * @return      A result for every file, sorted by the path
+     */
+    public List<FileResult> process(List<Path> files) throws InterruptedException {
+        record SizedFile(Path path, long byteCount) {}
+        List<SizedFile> sizedFiles = new ArrayList<>(files.size());
+        for (Path file : files) {
+            long byteCount;
+            try {
+                byteCount = Files.size(file);
+            } catch (IOException ioException) {
+                // The error is reported when the file is processed
+                byteCount = 0;
+            }
+            sizedFiles.add(new SizedFile(file, byteCount));
+        }
+        sizedFiles.sort(Comparator.comparingLong(SizedFile::byteCount).reversed());
+
+        // One permit per megabyte of the budget
+        int budgetPermits = (int) java.lang.Math.min(Integer.MAX_VALUE,
+                java.lang.Math.max(1, memoryEstimator.getBudgetBytes() / MemoryEstimator.BYTES_PER_MEGABYTE));
+        Semaphore memoryPermits = new Semaphore(budgetPermits);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>(sizedFiles.size());
+            for (SizedFile sizedFile : sizedFiles) {
+                futures.add(pool.submit(() -> processFile(sizedFile.path(), sizedFile.byteCount(), memoryPermits, budgetPermits)));
+            }
+            List<FileResult> results = new ArrayList<>(futures.size());
+            for (Future<FileResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException executionException) {
+                    // Errors like an OutOfMemoryError aren't caught by the pipeline of the file
+                    throw new IllegalStateException(executionException.getCause());
+                }
+            }
+            results.sort(Comparator.comparing(FileResult::getPath));
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads and analyzes one file on the calling thread.
+     */
+    private FileResult processFile(Path file, long byteCount, Semaphore memoryPermits, int budgetPermits)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        MemoryEstimator.LoadMode loadMode = MemoryEstimator.LoadMode.STANDARD;
+        int permits = 0;
+        try {
+            long triangleCount = MemoryEstimator.estimateTriangleCount(file);
+            loadMode = memoryEstimator.chooseLoadMode(triangleCount);
+            // A file that needs more than the budget waits until it is the only file in progress
+            long estimatedMegabytes = MemoryEstimator.estimateBytes(triangleCount, loadMode) / MemoryEstimator.BYTES_PER_MEGABYTE;
+            int requestedPermits = (int) java.lang.Math.max(1, java.lang.Math.min(estimatedMegabytes, budgetPermits));
+            memoryPermits.acquire(requestedPermits);
+            permits = requestedPermits;
+
+            PolyhedronController polyhedronController = new PolyhedronController();
+            polyhedronController.enableSequentialReductions();
+            if (loadMode == MemoryEstimator.LoadMode.LEAN) {
+                polyhedronController.enableVertexSharing();
+            }
+            if (meshCache != null) {
+                meshCache.load(file, new STLReader(), polyhedronController, false);
+            } else {
+                new STLReader().readSTLFile(file.toString(), polyhedronController, false);
+            }
+            Polyhedron polyhedron = polyhedronController.getPolyhedron();
+            return new FileResult(file, byteCount, polyhedron.getTriangleCount(), polyhedron.getVolume(),
+                    polyhedron.getSurfaceArea(), polyhedron.getBoundingBox(), loadMode, System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException exception) {
+            String message = exception.getMessage() != null ? exception.getMessage() : exception.getClass().getSimpleName();
+            return new FileResult(file, byteCount, 0, 0, 0, null, loadMode, System.nanoTime() - start, message);
+        } finally {
+            memoryPermits.release(permits);
+        }
+    }
+
+    /**
+     * Chooses the report format from the extension of the report file, JSON for {@value #JSON_EXTENSION},
+     * otherwise CSV.
+     */
+    public static ReportFormat formatOf(Path reportPath) {
+        return reportPath.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(JSON_EXTENSION)
+                ? ReportFormat.JSON : ReportFormat.CSV;
+    }
+
+    /**
+     * Writes the results as a CSV table with a header row or as a JSON array with an object per file.
+     * Missing values are empty in the CSV table and null in JSON.
+     *
+     * @param results   Results of the files
+     * @param writer    Writer of the report, not closed
+     * @param format    Report format
+     */
+    public static void writeReport(List<FileResult> results, Writer writer, ReportFormat format) throws IOException {
+        if (format == ReportFormat.CSV) {
+            writer.write(String.join(",", REPORT_COLUMNS));
+            writer.write('\n');
+            for (FileResult result : results) {
+                Object[] values = result.toValues();
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(values[i] instanceof String text ? toCsvField(text) : formatValue(values[i], ""));
+                }
+                writer.write('\n');
+            }
+        } else {
+            writer.write("[\n");
+            for (int row = 0; row < results.size(); row++) {
+                Object[] values = results.get(row).toValues();
+                writer.write("  {");
+                for (int i = 0; i < values.length; i++) {
+                    writer.write(i > 0 ? ", \"" : "\"");
+                    writer.write(REPORT_COLUMNS[i]);
+                    writer.write("\": ");
+                    writer.write(values[i] instanceof String text ? toJsonString(text) : formatValue(values[i], "null"));
+                }
+                writer.write(row < results.size() - 1 ? "},\n" : "}\n");
+            }
+            writer.write("]\n");
+        }
+    }
+
+    private static String formatValue(Object value, String missing) {
+        if (value == null) {
+            return missing;
+        }
+        if (value instanceof Double number) {
+            return String.format(Locale.ROOT, "%.6f", number);
+        }
+        return value.toString();
+    }
+
+    private static String toCsvField(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static String toJsonString(String text) {
+        StringBuilder builder = new StringBuilder(text.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            switch (character) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        builder.append(String.format(Locale.ROOT, "\\u%04x", (int) character));
+                    } else {
+                        builder.append(character);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Creates a single line summary of a batch.
+     *
+     * @param results       Results of the files
+     * @param elapsedNanos  Wall clock time of the batch
+     * @return              Summary
+     */
+    public static String toSummaryLine(List<FileResult> results, long elapsedNanos) {
+        long failed = results.stream().filter(result -> !result.isSuccessful()).count();
+        long triangles = results.stream().mapToLong(FileResult::getTriangleCount).sum();
+        long bytes = results.stream().mapToLong(FileResult::getByteCount).sum();
+        double seconds = elapsedNanos / 1e9;
+        return String.format(Locale.ROOT, "Batch: files=%d failed=%d triangles=%d size=%s time=%.2f s (%.1f files/s)",
+                results.size(), failed, triangles, MemoryEstimator.formatBytes(bytes), seconds,
+                seconds > 0 ? results.size() / seconds : 0);
+    }
+}
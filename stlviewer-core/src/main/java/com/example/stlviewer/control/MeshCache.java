@@ -0,0 +1,734 @@
+package com.example.stlviewer.control;
+
+import com.example.stlviewer.model.MassProperties;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.util.MassPropertiesReduction;
+import com.example.stlviewer.util.MemoryEstimator;
+import com.example.stlviewer.util.MetricsReduction;
+import com.example.stlviewer.util.TriangleArrays;
+
+import javax.vecmath.Vector3d;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache of parsed STL files. An entry stores the distinct vertices, the vertex indices of the triangles,
+ * the computed metrics and the mass properties of the polyhedron, so a cached file is neither parsed nor
+ * analyzed again. <br>
+ * An entry is keyed by the size, the modification time and a hash of {@value #SAMPLE_COUNT} sampled blocks
+ * of the file, so a lookup reads at most {@value #SAMPLE_COUNT} blocks instead of the whole file. The 64 bit
+ * hash of the complete content is computed from the bytes the reader parses, stored in the entry and only
+ * compared on a hit if {@value #VERIFY_PROPERTY} is set. <br>
+ * The stored metrics and coordinates depend on the code that parsed and analyzed the file, so every entry
+ * also carries a fingerprint of the class files of the reader, the controller and the reductions. An
+ * entry of another build doesn't match and ages out of the cache. <br>
+ * The entry file starts with a fixed header, which is read and validated before the vertices and the
+ * indices are mapped. A hit creates every distinct vertex once and the triangles share them. The coordinates
+ * are stored as floats if all of them are exact floats like in binary STL files, otherwise as doubles. <br>
+ * The cache is limited in size. The modification time of an entry is its last use, the least recently used
+ * entries are deleted when a new entry exceeds the limit. The directory and the limit are read from the
+ * system properties {@value #DIRECTORY_PROPERTY} and {@value #MAX_SIZE_PROPERTY} in megabytes, a limit of
+ * 0 disables the cache. An application that doesn't ask for the cache explicitly only uses it if the
+ * limit is set.
+ *
+ * @author  Lukas Erdmann
+ */
+public class MeshCache
+{
+    public static final String DIRECTORY_PROPERTY = "stlviewer.cache.directory";
+    public static final String MAX_SIZE_PROPERTY = "stlviewer.cache.maxMegabytes";
+    public static final String VERIFY_PROPERTY = "stlviewer.cache.verify";
+    public static final long DEFAULT_MAX_MEGABYTES = 1024;
+    public static final String ENTRY_EXTENSION = ".mesh";
+    public static final String TEMPORARY_EXTENSION = ".tmp";
+
+    // Entry layout, all values are little endian
+    public static final int MAGIC = 0x43_4C_54_53; // "STLC"
+    public static final int FORMAT_VERSION = 3;
+    public static final int FLAG_DOUBLE_PRECISION = 1;
+    /**
+     * Set if the triangles enclose a volume, only then the mass properties in the header are valid.
+     */
+    public static final int FLAG_MASS_PROPERTIES = 2;
+    public static final int HEADER_BYTE_SIZE = 352;
+    public static final int OFFSET_FLAGS = 8;
+    public static final int OFFSET_TRIANGLE_COUNT = 12;
+    public static final int OFFSET_SOURCE_SIZE = 16;
+    public static final int OFFSET_SOURCE_MODIFIED = 24;
+    public static final int OFFSET_CONTENT_HASH = 32;
+    public static final int OFFSET_VOLUME = 40;
+    public static final int OFFSET_SURFACE_AREA = 48;
+    public static final int OFFSET_BOUNDING_BOX = 56;
+    public static final int OFFSET_CENTER = 104;
+    public static final int OFFSET_SAMPLED_HASH = 128;
+    public static final int OFFSET_CODE_FINGERPRINT = 136;
+    public static final int OFFSET_VERTEX_COUNT = 144;
+    public static final int OFFSET_MASS_VOLUME = 152;
+    public static final int OFFSET_CENTER_OF_MASS = 160;
+    public static final int OFFSET_INERTIA_TENSOR = 184;
+    public static final int OFFSET_PRINCIPAL_MOMENTS = 256;
+    public static final int OFFSET_PRINCIPAL_AXES = 280;
+    public static final int COORDINATES_PER_VERTEX = 3;
+    public static final int INDICES_PER_TRIANGLE = 3;
+    public static final int WRITE_BUFFER_BYTE_SIZE = 1 << 20;
+    /**
+     * Size of the regions a file is mapped in while it is hashed, a single mapping is limited to 2 GB.
+     */
+    public static final long HASH_REGION_BYTE_SIZE = 1L << 30;
+    public static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    /**
+     * Number of blocks hashed for the key, spread evenly over the file including its first and last block.
+     */
+    public static final int SAMPLE_COUNT = 64;
+    public static final int SAMPLE_BYTE_SIZE = 4096;
+    /**
+     * Classes whose code decides the content of an entry, see {@link #codeFingerprint()}.
+     */
+    private static final List<Class<?>> FINGERPRINTED_CLASSES = List.of(STLReader.class, PolyhedronController.class,
+            MetricsReduction.class, MassPropertiesReduction.class, TriangleArrays.class,
+            PolyhedronController.getMeshKernels().getClass());
+    private static volatile long codeFingerprint;
+
+    /**
+     * Identifies the content of a source file.
+     */
+    public static class Key
+    {
+        private final long size;
+        private final long modifiedMillis;
+        private final long sampledHash;
+
+        private Key(long size, long modifiedMillis, long sampledHash) {
+            this.size = size;
+            this.modifiedMillis = modifiedMillis;
+            this.sampledHash = sampledHash;
+        }
+
+        /**
+         * @return  File name of the entry of this key for the current code
+         */
+        public String toEntryName() {
+            long mixed = mix(mix(mix(sampledHash ^ size) ^ modifiedMillis) ^ codeFingerprint());
+            return String.format(Locale.ROOT, "%016x%s", mixed, ENTRY_EXTENSION);
+        }
+
+        public long getSampledHash() {
+            return sampledHash;
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private boolean verifyContent = Boolean.getBoolean(VERIFY_PROPERTY);
+
+    /**
+     * @param directory Directory of the entries, created when the first entry is written
+     * @param maxBytes  Size limit of all entries, 0 disables the cache
+     */
+    public MeshCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates a cache with the directory and the size limit of the system properties, for a user who asked
+     * for the cache, e.g. with an option. Without a limit property the default limit is used.
+     */
+    public static MeshCache fromSystemProperties() {
+        return fromSystemProperties(true);
+    }
+
+    /**
+     * Creates a cache with the directory and the size limit of the system properties.
+     *
+     * @param enabledByDefault  False to disable the cache unless the limit property is set, so an application
+     *                          doesn't write to the home directory of the user without being asked to
+     */
+    public static MeshCache fromSystemProperties(boolean enabledByDefault) {
+        Path defaultDirectory = Paths.get(System.getProperty("user.home"), ".cache", "stlviewer");
+        String directory = System.getProperty(DIRECTORY_PROPERTY, defaultDirectory.toString());
+        long maxMegabytes = Long.getLong(MAX_SIZE_PROPERTY, enabledByDefault ? DEFAULT_MAX_MEGABYTES : 0);
+        return new MeshCache(Paths.get(directory), maxMegabytes * MemoryEstimator.BYTES_PER_MEGABYTE);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * @param verifyContent True to compare the hash of the complete file on every hit, which reads the file
+     */
+    public void setVerifyContent(boolean verifyContent) {
+        this.verifyContent = verifyContent;
+    }
+
+    /**
+     * Creates the key of a file from its size, its modification time and {@value #SAMPLE_COUNT} sampled blocks.
+     *
+     * @param source        STL file
+     * @return              Key of the current content of the file
+     * @throws IOException  If the file can't be read
+     */
+    public static Key keyOf(Path source) throws IOException {
+        long size = Files.size(source);
+        long modifiedMillis = Files.getLastModifiedTime(source).toMillis();
+        long hash = size;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer block = ByteBuffer.allocate(SAMPLE_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long blockCount = (size + SAMPLE_BYTE_SIZE - 1) / SAMPLE_BYTE_SIZE;
+            int sampleCount = (int) java.lang.Math.min(SAMPLE_COUNT, blockCount);
+            for (int sample = 0; sample < sampleCount; sample++) {
+                long blockIndex = sampleCount == 1 ? 0 : sample * (blockCount - 1) / (sampleCount - 1);
+                block.clear();
+                long position = blockIndex * SAMPLE_BYTE_SIZE;
+                while (block.hasRemaining() && channel.read(block, position + block.position()) > 0) {
+                    // Read the whole block, the last one may be shorter
+                }
+                hash = hashBytes(hash, block, block.position());
+            }
+        }
+        return new Key(size, modifiedMillis, mix(hash));
+    }
+
+    /**
+     * Hashes the complete content of a file through memory mappings of the file. Only used to verify a hit,
+     * the hash of a new entry is computed while the file is parsed, see {@link ContentHasher}.
+     *
+     * @param source        STL file
+     * @return              Hash of the content
+     * @throws IOException  If the file can't be read
+     */
+    public static long contentHashOf(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long hash = size;
+            for (long position = 0; position < size; position += HASH_REGION_BYTE_SIZE) {
+                long regionSize = java.lang.Math.min(HASH_REGION_BYTE_SIZE, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+                hash = hashBytes(hash, region.order(ByteOrder.LITTLE_ENDIAN), (int) regionSize);
+            }
+            return mix(hash);
+        }
+    }
+
+    private static long hashBytes(long hash, ByteBuffer bytes, int byteCount) {
+        int longEnd = byteCount & ~7;
+        for (int i = 0; i < longEnd; i += Long.BYTES) {
+            hash = (hash ^ bytes.getLong(i)) * HASH_MULTIPLIER;
+            hash ^= hash >>> 32;
+        }
+        for (int i = longEnd; i < byteCount; i++) {
+            hash = (hash ^ bytes.get(i)) * HASH_MULTIPLIER;
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the class files of the code that produces the coordinates and the metrics of an entry, together
+     * with the name of the kernels, whose sums differ in the last digits. Computed once per process.
+     *
+     * @return  Fingerprint of the current code
+     */
+    public static long codeFingerprint() {
+        long fingerprint = codeFingerprint;
+        if (fingerprint == 0) {
+            fingerprint = FORMAT_VERSION;
+            for (char character : PolyhedronController.getMeshKernels().getName().toCharArray()) {
+                fingerprint = (fingerprint ^ character) * HASH_MULTIPLIER;
+            }
+            for (Class<?> fingerprintedClass : FINGERPRINTED_CLASSES) {
+                try (InputStream classFile = fingerprintedClass.getResourceAsStream(fingerprintedClass.getSimpleName() + ".class")) {
+                    byte[] bytes = classFile == null ? new byte[0] : classFile.readAllBytes();
+                    fingerprint = hashBytes(fingerprint, ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), bytes.length);
+                } catch (IOException ioException) {
+                    // Without the class file only the format version and the kernels are part of the fingerprint
+                }
+            }
+            // 0 marks a fingerprint that isn't computed yet
+            fingerprint = mix(fingerprint) | 1;
+            codeFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Final mixing step of the hash, so that similar inputs spread over all bits.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Hashes the bytes a reader reads from a stream, equal to {@link #contentHashOf(Path)} once the stream
+     * is read to its end. Bytes are hashed in blocks of whole longs, so the hash doesn't depend on how the
+     * reader splits its reads.
+     */
+    private static class ContentHasher
+    {
+        private final ByteBuffer block = ByteBuffer.allocate(SAMPLE_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long byteCount;
+        private long hash;
+
+        /**
+         * @param size  Size of the file, the seed of the hash
+         */
+        private ContentHasher(long size) {
+            this.hash = size;
+        }
+
+        /**
+         * Wraps the stream a file is parsed from. The rest of the file, e.g. bytes after the last triangle,
+         * is hashed when the reader closes the stream.
+         */
+        private InputStream wrap(InputStream inputStream) {
+            return new FilterInputStream(inputStream) {
+                @Override
+                public int read() throws IOException {
+                    int value = in.read();
+                    if (value >= 0) {
+                        update(new byte[] {(byte) value}, 0, 1);
+                    }
+                    return value;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) throws IOException {
+                    int readCount = in.read(bytes, offset, length);
+                    if (readCount > 0) {
+                        update(bytes, offset, readCount);
+                    }
+                    return readCount;
+                }
+
+                @Override
+                public long skip(long count) throws IOException {
+                    // Skipped bytes are part of the content, so they are read
+                    byte[] skipped = new byte[(int) java.lang.Math.min(count, SAMPLE_BYTE_SIZE)];
+                    long skippedCount = 0;
+                    int readCount;
+                    while (skippedCount < count
+                            && (readCount = read(skipped, 0, (int) java.lang.Math.min(skipped.length, count - skippedCount))) > 0) {
+                        skippedCount += readCount;
+                    }
+                    return skippedCount;
+                }
+
+                @Override
+                public boolean markSupported() {
+                    return false;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        byte[] rest = new byte[SAMPLE_BYTE_SIZE];
+                        while (read(rest, 0, rest.length) > 0) {
+                            // Hash the bytes the reader didn't need
+                        }
+                    } finally {
+                        super.close();
+                    }
+                }
+            };
+        }
+
+        private void update(byte[] bytes, int offset, int length) {
+            byteCount += length;
+            while (length > 0) {
+                int count = java.lang.Math.min(length, block.remaining());
+                block.put(bytes, offset, count);
+                offset += count;
+                length -= count;
+                if (!block.hasRemaining()) {
+                    hash = hashBytes(hash, block, block.position());
+                    block.clear();
+                }
+            }
+        }
+
+        private long getByteCount() {
+            return byteCount;
+        }
+
+        private long getHash() {
+            return mix(hashBytes(hash, block, block.position()));
+        }
+    }
+
+    /**
+     * Loads a file from the cache, or reads it with the reader and caches it.
+     *
+     * @param source        STL file
+     * @param reader        Reader used if the file isn't cached
+     * @param controller    Empty controller
+     * @param concurrent    Passed to {@link STLReader#readSTLFile(String, PolyhedronController, boolean)}
+     * @return              True if the file was loaded from the cache
+     * @throws IOException  If the file can't be read
+     */
+    public boolean load(Path source, STLReader reader, PolyhedronController controller, boolean concurrent) throws IOException {
+        if (!isEnabled()) {
+            reader.readSTLFile(source.toString(), controller, concurrent);
+            return false;
+        }
+        Key key = keyOf(source);
+        if (read(key, controller, source)) {
+            return true;
+        }
+        // The content is hashed in the same pass as it is parsed instead of reading the file twice
+        ContentHasher contentHasher = new ContentHasher(key.size);
+        reader.readSTLFile(source.toString(), controller, concurrent, contentHasher::wrap);
+        // A file that changed while it was read would get the entry of other content under the old key
+        if (contentHasher.getByteCount() == key.size && Files.size(source) == key.size
+                && Files.getLastModifiedTime(source).toMillis() == key.modifiedMillis) {
+            write(key, contentHasher.getHash(), controller);
+        }
+        return false;
+    }
+
+    /**
+     * Fills the controller with the triangles, the metrics and the mass properties of a cached file. The
+     * triangles share their vertices like in the lean mode. A damaged or stale entry is deleted and treated
+     * as a miss.
+     *
+     * @param key           Key of the file
+     * @param controller    Empty controller
+     * @param source        STL file, hashed completely if the content is verified
+     * @return              True if the file was cached
+     */
+    public boolean read(Key key, PolyhedronController controller, Path source) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Path entry = directory.resolve(key.toEntryName());
+        if (!Files.isRegularFile(entry)) {
+            return false;
+        }
+        boolean valid;
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            // The header is validated before anything is mapped, so a damaged entry can be deleted right away
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read the complete header
+            }
+            valid = !header.hasRemaining() && isValidEntry(header, channel.size(), key)
+                    && (!verifyContent || header.getLong(OFFSET_CONTENT_HASH) == contentHashOf(source));
+            if (valid) {
+                boolean doublePrecision = (header.getInt(OFFSET_FLAGS) & FLAG_DOUBLE_PRECISION) != 0;
+                ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTE_SIZE, channel.size() - HEADER_BYTE_SIZE)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                List<Triangle> triangles = readTriangles(body, header.getInt(OFFSET_VERTEX_COUNT),
+                        header.getInt(OFFSET_TRIANGLE_COUNT), doublePrecision);
+                // An index out of range marks a damaged entry, nothing has been added to the controller yet
+                valid = triangles != null;
+                if (valid) {
+                    controller.addTriangles(triangles);
+                    setMetrics(header, controller);
+                }
+            }
+        } catch (IOException ioException) {
+            System.err.println("Could not read cache entry " + entry + ": " + ioException.getMessage());
+            return false;
+        }
+        if (!valid) {
+            System.err.println("Deleting damaged or stale cache entry " + entry);
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException ioException) {
+                // Overwritten by the next write of the same key
+            }
+            return false;
+        }
+        // The modification time of an entry is its last use
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ioException) {
+            // Only the eviction order suffers
+        }
+        return true;
+    }
+
+    /**
+     * Creates the distinct vertices once and the triangles from their indices.
+     *
+     * @return  Triangles, null if an index is out of range
+     */
+    private static List<Triangle> readTriangles(ByteBuffer body, int vertexCount, int triangleCount, boolean doublePrecision) {
+        Vertex[] vertices = new Vertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = doublePrecision
+                    ? new Vertex(body.getDouble(), body.getDouble(), body.getDouble())
+                    : new Vertex(body.getFloat(), body.getFloat(), body.getFloat());
+        }
+        List<Triangle> triangles = new ArrayList<>(triangleCount);
+        for (int i = 0; i < triangleCount; i++) {
+            int v0 = body.getInt(), v1 = body.getInt(), v2 = body.getInt();
+            if (Integer.compareUnsigned(v0, vertexCount) >= 0 || Integer.compareUnsigned(v1, vertexCount) >= 0
+                    || Integer.compareUnsigned(v2, vertexCount) >= 0) {
+                return null;
+            }
+            // The triangle calculates its normal from the vertices
+            triangles.add(new Triangle(vertices[v0], vertices[v1], vertices[v2], null));
+        }
+        return triangles;
+    }
+
+    private static void setMetrics(ByteBuffer header, PolyhedronController controller) {
+        Polyhedron polyhedron = controller.getPolyhedron();
+        polyhedron.setVolume(header.getDouble(OFFSET_VOLUME));
+        polyhedron.setSurfaceArea(header.getDouble(OFFSET_SURFACE_AREA));
+        double[] boundingBox = new double[6];
+        for (int i = 0; i < boundingBox.length; i++) {
+            boundingBox[i] = header.getDouble(OFFSET_BOUNDING_BOX + i * Double.BYTES);
+        }
+        polyhedron.setBoundingBox(boundingBox);
+        polyhedron.setCenter(readVertex(header, OFFSET_CENTER));
+        // Without the flag the triangles enclose no volume and the mass properties stay null
+        controller.setMassProperties((header.getInt(OFFSET_FLAGS) & FLAG_MASS_PROPERTIES) != 0 ? readMassProperties(header) : null);
+        controller.setReadingFinished(true);
+    }
+
+    private static MassProperties readMassProperties(ByteBuffer header) {
+        double[][] inertiaTensor = new double[3][3];
+        double[] principalMoments = new double[3];
+        Vector3d[] principalAxes = new Vector3d[3];
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                inertiaTensor[row][column] = header.getDouble(OFFSET_INERTIA_TENSOR + (row * 3 + column) * Double.BYTES);
+            }
+            principalMoments[row] = header.getDouble(OFFSET_PRINCIPAL_MOMENTS + row * Double.BYTES);
+            Vertex axis = readVertex(header, OFFSET_PRINCIPAL_AXES + row * COORDINATES_PER_VERTEX * Double.BYTES);
+            principalAxes[row] = new Vector3d(axis.getPosX(), axis.getPosY(), axis.getPosZ());
+        }
+        return new MassProperties(header.getDouble(OFFSET_MASS_VOLUME), readVertex(header, OFFSET_CENTER_OF_MASS),
+                inertiaTensor, principalMoments, principalAxes);
+    }
+
+    private static Vertex readVertex(ByteBuffer header, int offset) {
+        return new Vertex(header.getDouble(offset), header.getDouble(offset + Double.BYTES), header.getDouble(offset + 2 * Double.BYTES));
+    }
+
+    private static boolean isValidEntry(ByteBuffer header, long entrySize, Key key) {
+        if (header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            return false;
+        }
+        int coordinateBytes = (header.getInt(OFFSET_FLAGS) & FLAG_DOUBLE_PRECISION) != 0 ? Double.BYTES : Float.BYTES;
+        return header.getInt(OFFSET_VERTEX_COUNT) >= 0 && header.getInt(OFFSET_TRIANGLE_COUNT) >= 0
+                && entrySize == entrySize(header.getInt(OFFSET_VERTEX_COUNT), header.getInt(OFFSET_TRIANGLE_COUNT), coordinateBytes)
+                && header.getLong(OFFSET_SOURCE_SIZE) == key.size
+                && header.getLong(OFFSET_SOURCE_MODIFIED) == key.modifiedMillis
+                && header.getLong(OFFSET_SAMPLED_HASH) == key.sampledHash
+                && header.getLong(OFFSET_CODE_FINGERPRINT) == codeFingerprint();
+    }
+
+    private static long entrySize(int vertexCount, int triangleCount, int coordinateBytes) {
+        return HEADER_BYTE_SIZE + (long) vertexCount * COORDINATES_PER_VERTEX * coordinateBytes
+                + (long) triangleCount * INDICES_PER_TRIANGLE * Integer.BYTES;
+    }
+
+    /**
+     * Stores an analyzed polyhedron and evicts the least recently used entries if the cache exceeds its
+     * limit. The mass properties are calculated if they weren't asked for yet, once per entry, so no hit
+     * has to calculate them. The entry is written to a temporary file first and then renamed, so other
+     * processes never see a partial entry. Errors are reported but don't fail the load of the model.
+     *
+     * @param key           Key of the file the polyhedron was read from, created before it was read
+     * @param contentHash   Hash of the complete file, see {@link #contentHashOf(Path)}
+     * @param controller    Controller of the analyzed polyhedron
+     */
+    public void write(Key key, long contentHash, PolyhedronController controller) {
+        Polyhedron polyhedron = controller.getPolyhedron();
+        if (!isEnabled() || polyhedron.getBoundingBox() == null || polyhedron.getCenter() == null) {
+            return;
+        }
+        boolean doublePrecision = !hasFloatCoordinates(polyhedron);
+        // Equal vertices get one index, whether the polyhedron shares them or not
+        Map<Vertex, Integer> vertexIndices = new HashMap<>();
+        List<Vertex> vertices = new ArrayList<>();
+        int[] indices = new int[polyhedron.getTriangleCount() * INDICES_PER_TRIANGLE];
+        int indexPosition = 0;
+        for (Triangle triangle : polyhedron.getTriangles()) {
+            for (Vertex vertex : triangle.getVertices()) {
+                Integer index = vertexIndices.putIfAbsent(vertex, vertices.size());
+                if (index == null) {
+                    index = vertices.size();
+                    vertices.add(vertex);
+                }
+                indices[indexPosition++] = index;
+            }
+        }
+        long entrySize = entrySize(vertices.size(), polyhedron.getTriangleCount(), doublePrecision ? Double.BYTES : Float.BYTES);
+        // An entry is read with a single mapping, which is limited to 2 GB
+        if (entrySize > maxBytes || entrySize > Integer.MAX_VALUE) {
+            return;
+        }
+        MassProperties massProperties = controller.defineMassProperties();
+        Path temporaryEntry = null;
+        try {
+            Files.createDirectories(directory);
+            temporaryEntry = Files.createTempFile(directory, "entry-", TEMPORARY_EXTENSION);
+            try (FileChannel channel = FileChannel.open(temporaryEntry, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                writeHeader(buffer, key, contentHash, polyhedron, vertices.size(), massProperties, doublePrecision);
+                for (Vertex vertex : vertices) {
+                    if (buffer.remaining() < COORDINATES_PER_VERTEX * Double.BYTES) {
+                        flush(buffer, channel);
+                    }
+                    if (doublePrecision) {
+                        buffer.putDouble(vertex.getPosX()).putDouble(vertex.getPosY()).putDouble(vertex.getPosZ());
+                    } else {
+                        buffer.putFloat((float) vertex.getPosX()).putFloat((float) vertex.getPosY()).putFloat((float) vertex.getPosZ());
+                    }
+                }
+                for (int index : indices) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        flush(buffer, channel);
+                    }
+                    buffer.putInt(index);
+                }
+                flush(buffer, channel);
+            }
+            Files.move(temporaryEntry, directory.resolve(key.toEntryName()), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            evict();
+        } catch (IOException ioException) {
+            System.err.println("Could not write cache entry to " + directory + ": " + ioException.getMessage());
+            if (temporaryEntry != null) {
+                try {
+                    Files.deleteIfExists(temporaryEntry);
+                } catch (IOException deleteException) {
+                    // The temporary file is ignored by the cache
+                }
+            }
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, Key key, long contentHash, Polyhedron polyhedron, int vertexCount,
+                                    MassProperties massProperties, boolean doublePrecision) {
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt((doublePrecision ? FLAG_DOUBLE_PRECISION : 0) | (massProperties != null ? FLAG_MASS_PROPERTIES : 0))
+                .putInt(polyhedron.getTriangleCount())
+                .putLong(key.size)
+                .putLong(key.modifiedMillis)
+                .putLong(contentHash)
+                .putDouble(polyhedron.getVolume())
+                .putDouble(polyhedron.getSurfaceArea());
+        for (double bound : polyhedron.getBoundingBox()) {
+            buffer.putDouble(bound);
+        }
+        buffer.putDouble(polyhedron.getCenter().getPosX())
+                .putDouble(polyhedron.getCenter().getPosY())
+                .putDouble(polyhedron.getCenter().getPosZ())
+                .putLong(key.sampledHash)
+                .putLong(codeFingerprint())
+                .putInt(vertexCount)
+                // Reserved
+                .putInt(0);
+        if (massProperties != null) {
+            Vertex centerOfMass = massProperties.getCenterOfMass();
+            buffer.putDouble(massProperties.getVolume())
+                    .putDouble(centerOfMass.getPosX())
+                    .putDouble(centerOfMass.getPosY())
+                    .putDouble(centerOfMass.getPosZ());
+            for (double[] row : massProperties.getInertiaTensor()) {
+                for (double value : row) {
+                    buffer.putDouble(value);
+                }
+            }
+            for (double moment : massProperties.getPrincipalMoments()) {
+                buffer.putDouble(moment);
+            }
+            for (Vector3d axis : massProperties.getPrincipalAxes()) {
+                buffer.putDouble(axis.x).putDouble(axis.y).putDouble(axis.z);
+            }
+        }
+        // The mass properties of a polyhedron without volume are left as zeros
+        for (int position = buffer.position(); position < HEADER_BYTE_SIZE; position++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return  True if every coordinate is exactly a float, like in binary STL files
+     */
+    private static boolean hasFloatCoordinates(Polyhedron polyhedron) {
+        for (Triangle triangle : polyhedron.getTriangles()) {
+            for (Vertex vertex : triangle.getVertices()) {
+                if ((float) vertex.getPosX() != vertex.getPosX() || (float) vertex.getPosY() != vertex.getPosY()
+                        || (float) vertex.getPosZ() != vertex.getPosZ()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache is within its limit. An entry that can't be
+     * deleted, e.g. because another process has it mapped on Windows, is skipped.
+     */
+    public void evict() throws IOException {
+        record Entry(Path path, long size, long lastUsedMillis) {}
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().endsWith(ENTRY_EXTENSION)) {
+                    try {
+                        entries.add(new Entry(path, Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+                    } catch (IOException ioException) {
+                        // Deleted by another process in the meantime
+                    }
+                }
+            }
+        }
+        long totalSize = entries.stream().mapToLong(Entry::size).sum();
+        entries.sort(Comparator.comparingLong(Entry::lastUsedMillis));
+        for (Entry entry : entries) {
+            if (totalSize <= maxBytes) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.path());
+                totalSize -= entry.size();
+            } catch (IOException ioException) {
+                System.err.println("Could not evict cache entry " + entry.path() + ": " + ioException.getMessage());
+            }
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
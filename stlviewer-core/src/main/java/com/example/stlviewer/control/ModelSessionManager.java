@@ -0,0 +1,306 @@
+package com.example.stlviewer.control;
+
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.util.MemoryEstimator;
+import com.example.stlviewer.util.ProgressLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Keeps several opened models, so that switching between them doesn't read the files again. <br>
+ * Every model is a {@link Session} keyed by its absolute path. The triangles of the least recently used
+ * sessions are released when the estimated heap of all loaded sessions exceeds the budget, the metrics of a
+ * released session stay available. A released session is loaded again when it is opened the next time, from
+ * the mesh cache if possible. A session is also loaded again if its file changed on disk. Models read from a
+ * stream, e.g. uploads, are sessions of the file the stream is written to, so they count against the budget
+ * as well. <br>
+ * The budget is read from the system property {@value #BUDGET_PROPERTY} in megabytes and defaults to the
+ * budget of the {@link MemoryEstimator}. The current session is never released, even if it alone exceeds the
+ * budget.
+ *
+ * @author  Lukas Erdmann
+ */
+public class ModelSessionManager
+{
+    public static final String BUDGET_PROPERTY = "stlviewer.sessions.budgetMegabytes";
+
+    /**
+     * An opened model. The controller is null while the triangles are released.
+     */
+    public static class Session
+    {
+        private final Path path;
+        private PolyhedronController polyhedronController;
+        private MemoryEstimator.LoadMode loadMode;
+        private long sourceSize;
+        private long sourceModifiedMillis;
+        private long lastUsed;
+        private boolean loadedFromCache;
+        // Metrics of the last load, kept while the triangles are released
+        private int triangleCount;
+        private double volume;
+        private double surfaceArea;
+        private double[] boundingBox;
+        private Vertex center;
+
+        private Session(Path path) {
+            this.path = path;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public boolean isLoaded() {
+            return polyhedronController != null;
+        }
+
+        /**
+         * @return  Controller of the loaded model, null if the triangles are released
+         */
+        public PolyhedronController getPolyhedronController() {
+            return polyhedronController;
+        }
+
+        public MemoryEstimator.LoadMode getLoadMode() {
+            return loadMode;
+        }
+
+        /**
+         * @return  True if the last load was served by the mesh cache
+         */
+        public boolean isLoadedFromCache() {
+            return loadedFromCache;
+        }
+
+        public int getTriangleCount() {
+            return triangleCount;
+        }
+
+        public double getVolume() {
+            return volume;
+        }
+
+        public double getSurfaceArea() {
+            return surfaceArea;
+        }
+
+        public double[] getBoundingBox() {
+            return boundingBox;
+        }
+
+        public Vertex getCenter() {
+            return center;
+        }
+
+        /**
+         * @return  Estimated heap of the loaded model with its JavaFX mesh
+         */
+        public long getEstimatedBytes() {
+            return MemoryEstimator.estimateBytes(triangleCount, loadMode);
+        }
+
+        @Override
+        public String toString() {
+            return path.getFileName() + (isLoaded() ? "" : " (released)");
+        }
+    }
+
+    private final MemoryEstimator memoryEstimator;
+    private final MeshCache meshCache;
+    private final long budgetBytes;
+    // Sessions in the order they were opened
+    private final LinkedHashMap<Path, Session> sessions = new LinkedHashMap<>();
+    private Session currentSession;
+    private long useCounter = 0;
+
+    /**
+     * @param memoryEstimator   Estimator that chooses the load mode of a file
+     * @param meshCache         Cache the files are loaded from and stored in
+     * @param budgetBytes       Heap of all loaded sessions before the least recently used are released
+     */
+    public ModelSessionManager(MemoryEstimator memoryEstimator, MeshCache meshCache, long budgetBytes) {
+        this.memoryEstimator = memoryEstimator;
+        this.meshCache = meshCache;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Creates a manager with the budget of the system properties.
+     */
+    public static ModelSessionManager fromSystemProperties(MemoryEstimator memoryEstimator, MeshCache meshCache) {
+        long defaultBudgetMegabytes = memoryEstimator.getBudgetBytes() / MemoryEstimator.BYTES_PER_MEGABYTE;
+        long budgetMegabytes = Long.getLong(BUDGET_PROPERTY, defaultBudgetMegabytes);
+        return new ModelSessionManager(memoryEstimator, meshCache, budgetMegabytes * MemoryEstimator.BYTES_PER_MEGABYTE);
+    }
+
+    /**
+     * Makes the model of a file the current one. A loaded session is reused, a new, released or changed
+     * one is loaded. Afterwards the least recently used sessions are released down to the budget.
+     *
+     * @param filePath      Path of the STL file
+     * @return              Loaded session of the file
+     * @throws IOException  If the file can't be read, the previous current session stays current
+     */
+    public synchronized Session open(Path filePath) throws IOException {
+        Path path = filePath.toAbsolutePath().normalize();
+        Session session = sessions.get(path);
+        boolean isNew = session == null;
+        if (isNew) {
+            session = new Session(path);
+        }
+        if (!session.isLoaded() || isChanged(session)) {
+            load(session);
+        }
+        if (isNew) {
+            sessions.put(path, session);
+        }
+        session.lastUsed = ++useCounter;
+        currentSession = session;
+        releaseOverBudget();
+        return session;
+    }
+
+    /**
+     * Reads a model from a stream, e.g. while it is being uploaded, and adds it as a session of the file the
+     * stream is written to. The size of a stream isn't known before it ends, so the load mode is chosen by an
+     * estimated triangle count. The session only becomes the current one once it is {@link #open opened},
+     * a session that was released in the meantime is then loaded again from the file. <br>
+     * The stream is read without holding the lock of the manager, so other models can be opened meanwhile.
+     *
+     * @param inputStream               Stream with the content of the STL file
+     * @param filePath                  Path of the file the stream is written to, complete once the stream ends
+     * @param estimatedTriangleCount    Estimated number of triangles, see {@link MemoryEstimator#estimateTriangleCount(long)}
+     * @return                          Loaded session of the file
+     * @throws IOException              If the stream can't be read
+     */
+    public Session openStream(InputStream inputStream, Path filePath, long estimatedTriangleCount) throws IOException {
+        Session session = new Session(filePath.toAbsolutePath().normalize());
+        MemoryEstimator.LoadMode loadMode = memoryEstimator.chooseLoadMode(estimatedTriangleCount);
+        PolyhedronController polyhedronController = new PolyhedronController();
+        if (loadMode == MemoryEstimator.LoadMode.LEAN) {
+            polyhedronController.enableVertexSharing();
+        }
+        new STLReader().readSTLStream(inputStream, polyhedronController);
+        // The file is complete once the stream has ended
+        setLoaded(session, polyhedronController, loadMode, Files.size(session.path),
+                Files.getLastModifiedTime(session.path).toMillis());
+        synchronized (this) {
+            // A session of the same file, e.g. an earlier upload to a reused path, is replaced
+            sessions.put(session.path, session);
+            session.lastUsed = ++useCounter;
+        }
+        return session;
+    }
+
+    private static boolean isChanged(Session session) throws IOException {
+        return Files.size(session.path) != session.sourceSize
+                || Files.getLastModifiedTime(session.path).toMillis() != session.sourceModifiedMillis;
+    }
+
+    private void load(Session session) throws IOException {
+        // Read the size and time before the content, so a change while reading is detected on the next open
+        long sourceSize = Files.size(session.path);
+        long sourceModifiedMillis = Files.getLastModifiedTime(session.path).toMillis();
+        MemoryEstimator.LoadMode loadMode = memoryEstimator.chooseLoadMode(session.path);
+        // A polyhedron controller can only be filled once, so every load gets a fresh one
+        PolyhedronController polyhedronController = new PolyhedronController();
+        if (loadMode == MemoryEstimator.LoadMode.LEAN) {
+            polyhedronController.enableVertexSharing();
+        }
+        session.loadedFromCache = meshCache.load(session.path, new STLReader(), polyhedronController, true);
+        if (session.loadedFromCache) {
+            ProgressLog.println("Loaded " + session.path + " from the cache");
+        }
+        setLoaded(session, polyhedronController, loadMode, sourceSize, sourceModifiedMillis);
+    }
+
+    /**
+     * Stores a loaded model and its metrics in a session.
+     */
+    private static void setLoaded(Session session, PolyhedronController polyhedronController, MemoryEstimator.LoadMode loadMode,
+                                  long sourceSize, long sourceModifiedMillis) {
+        Polyhedron polyhedron = polyhedronController.getPolyhedron();
+        session.polyhedronController = polyhedronController;
+        session.loadMode = loadMode;
+        session.sourceSize = sourceSize;
+        session.sourceModifiedMillis = sourceModifiedMillis;
+        session.triangleCount = polyhedron.getTriangleCount();
+        session.volume = polyhedron.getVolume();
+        session.surfaceArea = polyhedron.getSurfaceArea();
+        session.boundingBox = polyhedron.getBoundingBox();
+        session.center = polyhedron.getCenter();
+    }
+
+    /**
+     * Releases the triangles of the least recently used sessions until the loaded sessions fit into the budget.
+     */
+    private void releaseOverBudget() {
+        long loadedBytes = getLoadedBytes();
+        while (loadedBytes > budgetBytes) {
+            Session leastRecentlyUsed = null;
+            for (Session session : sessions.values()) {
+                if (session.isLoaded() && session != currentSession
+                        && (leastRecentlyUsed == null || session.lastUsed < leastRecentlyUsed.lastUsed)) {
+                    leastRecentlyUsed = session;
+                }
+            }
+            if (leastRecentlyUsed == null) {
+                return;
+            }
+            loadedBytes -= leastRecentlyUsed.getEstimatedBytes();
+            leastRecentlyUsed.polyhedronController = null;
+            ProgressLog.println("Released the triangles of " + leastRecentlyUsed.path);
+        }
+    }
+
+    /**
+     * Removes a session. If it was the current one, there is no current session afterwards.
+     *
+     * @param filePath  Path of the STL file
+     */
+    public synchronized void close(Path filePath) {
+        Session session = sessions.remove(filePath.toAbsolutePath().normalize());
+        if (session != null && session == currentSession) {
+            currentSession = null;
+        }
+    }
+
+    /**
+     * @return  Current session, null if no model is open
+     */
+    public synchronized Session getCurrentSession() {
+        return currentSession;
+    }
+
+    /**
+     * @return  Sessions in the order they were opened
+     */
+    public synchronized List<Session> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    /**
+     * @return  Estimated heap of all loaded sessions
+     */
+    public synchronized long getLoadedBytes() {
+        long loadedBytes = 0;
+        for (Session session : sessions.values()) {
+            if (session.isLoaded()) {
+                loadedBytes += session.getEstimatedBytes();
+            }
+        }
+        return loadedBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.stlviewer.control;
+
+import com.example.stlviewer.events.ControllerBatchEvent;
+import com.example.stlviewer.events.EventGuard;
+import com.example.stlviewer.events.MetricComputationEvent;
+import com.example.stlviewer.model.MassProperties;
+import com.example.stlviewer.model.OrientedBox;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.util.MassPropertiesReduction;
+import com.example.stlviewer.util.MeshKernels;
+import com.example.stlviewer.util.MetricsReduction;
+import com.example.stlviewer.util.OrientedBoxFitter;
+import com.example.stlviewer.util.ProgressLog;
+import com.example.stlviewer.util.QuickHull;
+import com.example.stlviewer.util.SignedDistanceField;
+import com.example.stlviewer.util.TimerRegistry;
+import com.example.stlviewer.util.VoxelGrid;
+import com.example.stlviewer.util.Voxelizer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class PolyhedronController implements Runnable{
+
+    public static final int MAX_BATCH_SIZE = 4096;
+    private static final MeshKernels MESH_KERNELS = MeshKernels.fromSystemProperties();
+    private static final MetricsReduction METRICS_REDUCTION = MetricsReduction.withCommonPool(MESH_KERNELS);
+    private static final MetricsReduction SEQUENTIAL_METRICS_REDUCTION = MetricsReduction.sequential(MESH_KERNELS);
+    private static final MassPropertiesReduction MASS_PROPERTIES_REDUCTION = MassPropertiesReduction.withCommonPool();
+    private static final MassPropertiesReduction SEQUENTIAL_MASS_PROPERTIES_REDUCTION = MassPropertiesReduction.sequential();
+    private static final OrientedBoxFitter ORIENTED_BOX_FITTER = OrientedBoxFitter.withCommonPool();
+    private static final QuickHull QUICK_HULL = QuickHull.withCommonPool();
+    private static final Voxelizer VOXELIZER = Voxelizer.withCommonPool();
+
+    private Polyhedron polyhedron;
+    private int idCounter = 0;
+    private ArrayList<ArrayList<Integer>> adjacencyList = new ArrayList<>();
+
+    // BlockingQueue to hold objects for calculation
+    private BlockingQueue<Triangle> blockingQueue = new LinkedBlockingQueue<>();
+    private final ArrayList<Triangle> batch = new ArrayList<>();
+    private volatile boolean isReadingFinished = false;
+    // Null mass properties are a result as well, an open mesh encloses no volume
+    private boolean isMassPropertiesDefined = false;
+    private volatile TimerRegistry timerRegistry = TimerRegistry.getGlobal();
+    // Vertices shared between the triangles in the lean mode, only used by the reading thread
+    private HashMap<Vertex, Vertex> sharedVertices;
+    private MetricsReduction metricsReduction = METRICS_REDUCTION;
+    private MassPropertiesReduction massPropertiesReduction = MASS_PROPERTIES_REDUCTION;
+
+    public PolyhedronController (Polyhedron polyhedron)
+    {
+        this.polyhedron = polyhedron;
+    }
+
+    public PolyhedronController() {
+        this.polyhedron = new Polyhedron();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                if(isReadingFinished && blockingQueue.isEmpty()){
+                    // When the polyhedron is complete, calculate the volume, surface area, bounding box and center,
+                    // the mass properties are only calculated when first asked for
+                    ProgressLog.println("Calculating volume, surface area, bounding box and center");
+                    MetricComputationEvent metricEvent = EventGuard.isRecorderRunning() ? new MetricComputationEvent() : null;
+                    if (metricEvent != null) {
+                        metricEvent.begin();
+                    }
+                    try (TimerRegistry.Timer timer = timerRegistry.start(TimerRegistry.PHASE_ANALYZE)) {
+                        calculateMetrics();
+                        defineCenter();
+                    }
+                    if (metricEvent != null && metricEvent.shouldCommit()) {
+                        metricEvent.triangleCount = polyhedron.getTriangleCount();
+                        metricEvent.volume = polyhedron.getVolume();
+                        metricEvent.surfaceArea = polyhedron.getSurfaceArea();
+                        metricEvent.commit();
+                    }
+                    ProgressLog.println("Polyhedron data: " + polyhedron.toString());
+                    break;
+                } else if (!blockingQueue.isEmpty()) {
+                    addQueuedTriangles();
+                }else{
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Takes the queued triangles in one batch instead of one by one and adds them to the polyhedron.
+     */
+    private void addQueuedTriangles () {
+        ControllerBatchEvent batchEvent = EventGuard.isRecorderRunning() ? new ControllerBatchEvent() : null;
+        if (batchEvent != null) {
+            batchEvent.begin();
+        }
+        int batchSize = blockingQueue.drainTo(batch, MAX_BATCH_SIZE);
+        for (Triangle triangle : batch) {
+            addTriangle(triangle);
+        }
+        batch.clear();
+        if (batchEvent != null && batchEvent.shouldCommit()) {
+            batchEvent.triangleCount = batchSize;
+            batchEvent.polyhedronTriangleCount = polyhedron.getTriangleCount();
+            batchEvent.queuedTriangleCount = blockingQueue.size();
+            batchEvent.commit();
+        }
+    }
+
+    /**
+     * Lets the triangles share equal vertices instead of keeping three vertices each. Must be called
+     * before the reading starts.
+     */
+    public void enableVertexSharing () {
+        sharedVertices = new HashMap<>();
+    }
+
+    /**
+     * Calculates the metrics and the mass properties on the calling thread instead of the common fork-join pool,
+     * e.g. if every thread of a pool analyzes a file of its own. The results are the same to the last bit.
+     */
+    public void enableSequentialReductions () {
+        metricsReduction = SEQUENTIAL_METRICS_REDUCTION;
+        massPropertiesReduction = SEQUENTIAL_MASS_PROPERTIES_REDUCTION;
+    }
+
+    /**
+     * Returns the vertex equal to the given one that was read first if vertex sharing is enabled,
+     * otherwise the given vertex. Called by the reading thread.
+     *
+     * @param vertex    Vertex that was read
+     * @return          Vertex to use in the triangle
+     */
+    public Vertex shareVertex (Vertex vertex) {
+        if (sharedVertices == null) {
+            return vertex;
+        }
+        Vertex sharedVertex = sharedVertices.putIfAbsent(vertex, vertex);
+        return sharedVertex == null ? vertex : sharedVertex;
+    }
+
+    public void setReadingFinished(boolean readingFinished){
+        ProgressLog.println("Reading finished");
+        if (sharedVertices != null) {
+            ProgressLog.println("Shared vertices: " + sharedVertices.size());
+            // The lookup table is only needed while reading
+            sharedVertices = null;
+        }
+        this.isReadingFinished = readingFinished;
+    }
+
+    /**
+     * @return  True once all triangles were read, the metrics are calculated right after
+     */
+    public boolean isReadingFinished () {
+        return isReadingFinished;
+    }
+
+    /**
+     * Calculates the volume, the surface area and the bounding box of the polyhedron in one go with a
+     * {@link MetricsReduction} on the common fork-join pool. The per triangle values are computed with the
+     * {@link MeshKernels}, which use SIMD instructions if the Vector API is available. The results replace
+     * the metrics of the polyhedron and are equal to the last bit on every run.
+     */
+    public void calculateMetrics ()
+    {
+        MetricsReduction.Result result = metricsReduction.reduce(polyhedron.getTriangles());
+        polyhedron.setVolume(result.getVolume());
+        polyhedron.setSurfaceArea(result.getSurfaceArea());
+        polyhedron.setBoundingBox(result.getBoundingBox());
+    }
+
+    /**
+     * Calculates the center of mass, the inertia tensor about it and the principal axes of the polyhedron with
+     * a {@link MassPropertiesReduction} on the common fork-join pool. Unlike {@link #defineCenter()}, which is
+     * the center of the bounding box, the center of mass is weighted by the enclosed volume.
+     *
+     * @return  Mass properties, null if the triangles don't enclose a volume
+     */
+    public synchronized MassProperties calculateMassProperties ()
+    {
+        polyhedron.setMassProperties(massPropertiesReduction.reduce(polyhedron.getTriangles()));
+        isMassPropertiesDefined = true;
+        return polyhedron.getMassProperties();
+    }
+
+    /**
+     * Returns the mass properties of the polyhedron. They take about as long as all other metrics together
+     * and most loads never show them, so they are only calculated when first asked for, by one thread at a
+     * time, unless they were set before, e.g. by the mesh cache.
+     *
+     * @return  Mass properties, null if the triangles don't enclose a volume
+     */
+    public synchronized MassProperties defineMassProperties ()
+    {
+        if (!isMassPropertiesDefined && polyhedron.getMassProperties() == null) {
+            return calculateMassProperties();
+        }
+        return polyhedron.getMassProperties();
+    }
+
+    /**
+     * Sets mass properties that were calculated before, e.g. by the mesh cache, so they aren't calculated again.
+     *
+     * @param massProperties    Mass properties, null if the triangles don't enclose a volume
+     */
+    public synchronized void setMassProperties (MassProperties massProperties)
+    {
+        polyhedron.setMassProperties(massProperties);
+        isMassPropertiesDefined = true;
+    }
+
+    /**
+     * @return  Kernels used by {@link #calculateMetrics()}
+     */
+    public static MeshKernels getMeshKernels ()
+    {
+        return MESH_KERNELS;
+    }
+
+    /**
+     * Calculate the volume of the polyhedron. This is done by summing the volumes of all the
+     * tetrahedra formed with an arbitrary point within the polyhedron and each triangle in
+     * the polyhedron. The sum comes from {@link #calculateMetrics()}, which also replaces the surface area
+     * and the bounding box, so they don't need a reduction of their own afterwards.
+     * @return
+     */
+    public double calculateVolume ()
+    {
+        if (polyhedron.getTriangles().isEmpty()) {
+            return polyhedron.getVolume();
+        }
+        calculateMetrics();
+        return polyhedron.getVolume();
+    }
+
+    /**
+     * Calculate the surface area of the polyhedron. This is done by summing the areas of all the
+     * triangleMesh in the polyhedron. The sum comes from {@link #calculateMetrics()}, which also replaces the
+     * volume and the bounding box.
+     * @return
+     */
+    public double calculateSurfaceArea () {
+        calculateMetrics();
+        return polyhedron.getSurfaceArea();
+    }
+
+    public double[] defineBoundingBox () {
+        if (polyhedron.getBoundingBox() == null) {
+            // The same reduction also yields the volume and the surface area
+            calculateMetrics();
+        }
+        // If the bounding box has already been defined, return it
+        return polyhedron.getBoundingBox();
+    }
+
+    /**
+     * Computes the convex hull of the vertices of the polyhedron with a {@link QuickHull} on the common
+     * fork-join pool. It is only computed when first asked for, by one thread at a time.
+     *
+     * @return  Convex hull with its volume and surface area defined, without triangles if the vertices are collinear
+     */
+    public synchronized Polyhedron defineConvexHull () {
+        if (polyhedron.getConvexHull() == null) {
+            polyhedron.setConvexHull(QUICK_HULL.build(polyhedron.getTriangles()));
+        }
+        return polyhedron.getConvexHull();
+    }
+
+    /**
+     * Fits a tight oriented bounding box of the polyhedron with an {@link OrientedBoxFitter} on the common
+     * fork-join pool, over the edge directions of the convex hull. It takes much longer than the axis-aligned
+     * box, so it is only computed when first asked for.
+     *
+     * @return  Oriented box, null if there are no triangles
+     */
+    public synchronized OrientedBox defineOrientedBox () {
+        if (polyhedron.getOrientedBox() == null) {
+            polyhedron.setOrientedBox(ORIENTED_BOX_FITTER.fit(defineConvexHull(), polyhedron.getTriangles()));
+        }
+        return polyhedron.getOrientedBox();
+    }
+
+    /**
+     * Voxelizes the polyhedron with a {@link Voxelizer} on the common fork-join pool. The grid isn't kept,
+     * since every check asks for its own resolution.
+     *
+     * @param resolution    Voxels along the longest side of the bounding box
+     * @return              Occupancy grid, null if the polyhedron has no extent
+     */
+    public VoxelGrid voxelize (int resolution) {
+        return VOXELIZER.voxelize(polyhedron.getTriangles(), resolution);
+    }
+
+    /**
+     * Computes the signed distances to the surface of the polyhedron within a narrow band with a
+     * {@link Voxelizer} on the common fork-join pool.
+     *
+     * @param resolution    Voxels along the longest side of the bounding box
+     * @param bandWidth     Voxels on each side of the surface that hold distances
+     * @return              Signed distance field, null if the polyhedron has no extent
+     */
+    public SignedDistanceField calculateSignedDistanceField (int resolution, int bandWidth) {
+        return VOXELIZER.signedDistanceField(polyhedron.getTriangles(), resolution, bandWidth);
+    }
+
+    public Vertex defineCenter () {
+        if (polyhedron.getCenter() == null) {
+            // Calculate the center of the bounding box
+            double centerX = (polyhedron.getBoundingBox()[0] + polyhedron.getBoundingBox()[3]) / 2;
+            double centerY = (polyhedron.getBoundingBox()[1] + polyhedron.getBoundingBox()[4]) / 2;
+            double centerZ = (polyhedron.getBoundingBox()[2] + polyhedron.getBoundingBox()[5]) / 2;
+            polyhedron.setCenter(new Vertex(centerX, centerY, centerZ));
+            return polyhedron.getCenter();
+        } else {
+            // If the center has already been defined, return it
+            return polyhedron.getCenter();
+        }
+    }
+
+    public void addTriangle (Triangle triangle)
+    {
+        polyhedron.getTriangles().add(triangle);
+    }
+
+    /**
+     * Adds triangles directly to the polyhedron. Only for the reading thread if the controller doesn't run
+     * while the file is read.
+     */
+    public void addTriangles (Collection<Triangle> triangles)
+    {
+        polyhedron.getTriangles().addAll(triangles);
+    }
+
+    public void addTriangleToQueue (Triangle triangle) {
+        blockingQueue.add(triangle);
+    }
+
+    public void addTrianglesToQueue (Collection<Triangle> triangles) {
+        blockingQueue.addAll(triangles);
+    }
+
+    /**
+     * Sets the registry the analysis phase is recorded in. Defaults to the global registry.
+     *
+     * @param timerRegistry Registry to record in
+     */
+    public void setTimerRegistry (TimerRegistry timerRegistry) {
+        this.timerRegistry = timerRegistry;
+    }
+
+    public TimerRegistry getTimerRegistry () {
+        return timerRegistry;
+    }
+
+    public Polyhedron getPolyhedron ()
+    {
+        return polyhedron;
+    }
+}
@@ -0,0 +1,565 @@
+package com.example.stlviewer.control;
+
+import com.example.stlviewer.events.EventGuard;
+import com.example.stlviewer.events.FileOpenEvent;
+import com.example.stlviewer.events.FormatDetectionEvent;
+import com.example.stlviewer.events.ParseChunkEvent;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.res.Constants;
+import com.example.stlviewer.res.Strings;
+import com.example.stlviewer.util.ProgressLog;
+import com.example.stlviewer.util.TimerRegistry;
+
+import javax.vecmath.Vector3d;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.function.UnaryOperator;
+
+public class STLReader
+{
+
+    public static final String STL_ASCII_START_TAG = "solid";
+    public static final String STL_ASCII_FACET_START_TAG = "facet";
+    public static final String STL_ASCII_NORMAL_TAG = "normal";
+    public static final String STL_ASCII_TRIANGLE_START_TAG = "outer loop";
+    public static final String STL_ASCII_VERTEX_START_TAG = "vertex";
+    public static final int STL_ASCII_NORMAL_WORD_POS_X = 2;
+    public static final int STL_ASCII_NORMAL_WORD_POS_Y = 3;
+    public static final int STL_ASCII_NORMAL_WORD_POS_Z = 4;
+    public static final int STL_ASCII_FACET_WORDCOUNT = 5;
+    public static final int STL_ASCII_FACET_START_TAG_POS = 0;
+    public static final int STL_ASCII_NORMAL_TAG_POS = 1;
+    public static final int STL_ASCII_NORMAL_WORDCOUNT = 4;
+    public static final int STL_ASCII_VERTEX_START_TAG_POS = 0;
+    public static final int STL_ASCII_VERTEX_WORD_POS_X = 1;
+    public static final int STL_ASCII_VERTEX_WORD_POS_Y = 2;
+    public static final int STL_ASCII_VERTEX_WORD_POS_Z = 3;
+    public static final int STL_BINARY_HEADER_BYTE_SIZE = 80;
+    public static final int STL_BINARY_TRIANGLE_COUNT_BYTE_SIZE = 4;
+    public static final int STL_BINARY_NORMAL_BYTE_SIZE = 12;
+    public static final int STL_BINARY_TRIANGLES_BYTE_SIZE = 12;
+    public static final int STL_BINARY_ATTR_BYTE_SIZE = 2;
+    public static final int STL_BINARY_VERTEX_BYTE_SIZE = 4;
+    public static final int STL_BINARY_OFFSET_Y = 4;
+    public static final int STL_BINARY_OFFSET_Z = 8;
+    public static final int STL_BINARY_OFFSET_X = Constants.NUMBER_ZERO;
+    public static final int FLOAT_LENGTH_IN_BYTES = 8;
+    public static final int STREAM_BUFFER_BYTE_SIZE = 1 << 16;
+    public static final int STL_BINARY_TRIANGLE_BYTE_SIZE = STL_BINARY_NORMAL_BYTE_SIZE + 3 * STL_BINARY_TRIANGLES_BYTE_SIZE + STL_BINARY_ATTR_BYTE_SIZE;
+    public static final int TRIANGLE_CHUNK_SIZE = 4096;
+    public static final String FORMAT_ASCII = "ascii";
+    public static final String FORMAT_BINARY = "binary";
+    public static final String STREAM_SOURCE_NAME = "stream";
+    public static final long UNKNOWN_SIZE = -1;
+
+    public void readSTLFile (String filePath, PolyhedronController controller) throws IOException
+    {
+        readSTLFile(filePath, controller, true);
+    }
+
+    /**
+     * Reads an STL file and lets the controller build and analyze the polyhedron.
+     *
+     * @param filePath      Path of the STL file
+     * @param controller    Controller that receives the triangles
+     * @param concurrent    True to run the controller on its own thread while the file is read, false to run it
+     *                      on the calling thread after the file is read, e.g. if many files are read in parallel.
+     *                      Then the triangles are added to the polyhedron while reading instead of being queued
+     * @throws IOException  If the file can't be read
+     */
+    public void readSTLFile (String filePath, PolyhedronController controller, boolean concurrent) throws IOException
+    {
+        readSTLFile(filePath, controller, concurrent, UnaryOperator.identity());
+    }
+
+    /**
+     * Reads an STL file like {@link #readSTLFile(String, PolyhedronController, boolean)} and passes every byte
+     * of the content through a stream of the caller, e.g. to hash the file in the same pass as it is parsed.
+     *
+     * @param streamFilter  Wraps the stream the content is parsed from. The format detection reads the first
+     *                      bytes separately, they are read again through the wrapped stream
+     */
+    public void readSTLFile (String filePath, PolyhedronController controller, boolean concurrent,
+                             UnaryOperator<InputStream> streamFilter) throws IOException
+    {
+        // Collect the phases of this file separately, they are added to the global registry as well
+        TimerRegistry fileTimers = new TimerRegistry(TimerRegistry.getGlobal());
+        controller.setTimerRegistry(fileTimers);
+        FileOpenEvent openEvent = EventGuard.isRecorderRunning() ? new FileOpenEvent() : null;
+        if (openEvent != null) {
+            openEvent.begin();
+        }
+        Thread readerThread = null;
+        if (concurrent) {
+            readerThread = new Thread(controller);
+            readerThread.start();
+        }
+
+        boolean isASCII;
+        try {
+            FormatDetectionEvent detectionEvent = openEvent != null ? new FormatDetectionEvent() : null;
+            if (detectionEvent != null) {
+                detectionEvent.begin();
+            }
+            isASCII = isASCII(filePath);
+            if (detectionEvent != null && detectionEvent.shouldCommit()) {
+                detectionEvent.source = filePath;
+                detectionEvent.format = isASCII ? FORMAT_ASCII : FORMAT_BINARY;
+                detectionEvent.fileSize = new File(filePath).length();
+                detectionEvent.commit();
+            }
+
+            if (isASCII) {
+                ProgressLog.println("Reading ASCII file");
+                readSTLASCII(filePath, controller, concurrent, streamFilter);
+            } else {
+                ProgressLog.println("Reading binary file");
+                readSTLBinary(filePath, controller, concurrent, streamFilter);
+            }
+        } catch (IOException | RuntimeException exception) {
+            // Stop the controller thread, it would otherwise wait for the end of the file forever
+            if (readerThread != null) {
+                readerThread.interrupt();
+            }
+            throw exception;
+        }
+
+        if (readerThread != null) {
+            try {
+                readerThread.join();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Thread interrupted", interruptedException);
+            }
+        } else {
+            // All triangles have been added, so the controller only analyzes the polyhedron
+            controller.run();
+        }
+        if (openEvent != null && openEvent.shouldCommit()) {
+            openEvent.source = filePath;
+            openEvent.format = isASCII ? FORMAT_ASCII : FORMAT_BINARY;
+            openEvent.fileSize = new File(filePath).length();
+            openEvent.triangleCount = controller.getPolyhedron().getTriangleCount();
+            openEvent.commit();
+        }
+        ProgressLog.println("Load phases of " + filePath + ": " + fileTimers.toTotalsLine());
+    }
+
+    /**
+     * Reads an STL file from a stream, e.g. a file that is still being received. The format is detected
+     * from the first bytes of the stream in the same way as {@link #isASCII(String)}.
+     *
+     * @param inputStream   Stream with the content of the STL file
+     * @param controller    Controller that receives the triangles
+     */
+    public void readSTLStream (InputStream inputStream, PolyhedronController controller) throws IOException
+    {
+        TimerRegistry streamTimers = new TimerRegistry(TimerRegistry.getGlobal());
+        controller.setTimerRegistry(streamTimers);
+        FileOpenEvent openEvent = EventGuard.isRecorderRunning() ? new FileOpenEvent() : null;
+        if (openEvent != null) {
+            openEvent.begin();
+        }
+        Thread readerThread = new Thread(controller);
+        readerThread.start();
+
+        boolean isASCII;
+        try {
+            BufferedInputStream bufferedStream = new BufferedInputStream(inputStream, STREAM_BUFFER_BYTE_SIZE);
+            FormatDetectionEvent detectionEvent = openEvent != null ? new FormatDetectionEvent() : null;
+            if (detectionEvent != null) {
+                detectionEvent.begin();
+            }
+            isASCII = isASCII(bufferedStream);
+            if (detectionEvent != null && detectionEvent.shouldCommit()) {
+                detectionEvent.source = STREAM_SOURCE_NAME;
+                detectionEvent.format = isASCII ? FORMAT_ASCII : FORMAT_BINARY;
+                detectionEvent.fileSize = UNKNOWN_SIZE;
+                detectionEvent.commit();
+            }
+
+            if (isASCII) {
+                ProgressLog.println("Reading ASCII stream");
+                readSTLASCII(new BufferedReader(new InputStreamReader(bufferedStream)), controller);
+            } else {
+                ProgressLog.println("Reading binary stream");
+                readSTLBinary(bufferedStream, controller);
+            }
+        } catch (IOException | RuntimeException exception) {
+            readerThread.interrupt();
+            throw exception;
+        }
+
+        try {
+            readerThread.join();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted", interruptedException);
+        }
+        if (openEvent != null && openEvent.shouldCommit()) {
+            openEvent.source = STREAM_SOURCE_NAME;
+            openEvent.format = isASCII ? FORMAT_ASCII : FORMAT_BINARY;
+            openEvent.fileSize = UNKNOWN_SIZE;
+            openEvent.triangleCount = controller.getPolyhedron().getTriangleCount();
+            openEvent.commit();
+        }
+        ProgressLog.println("Load phases of stream: " + streamTimers.toTotalsLine());
+    }
+
+    /**
+     * Checks if the stream starts with the ASCII start tag. The stream is reset to its start afterwards.
+     *
+     * @param bufferedStream    Stream to check
+     * @return                  True if the stream contains an ASCII STL file
+     */
+    public boolean isASCII (BufferedInputStream bufferedStream) throws IOException
+    {
+        bufferedStream.mark(STL_BINARY_HEADER_BYTE_SIZE);
+        byte[] headerBytes = bufferedStream.readNBytes(STL_BINARY_HEADER_BYTE_SIZE);
+        bufferedStream.reset();
+        if (headerBytes.length == 0) {
+            throw new IOException(Strings.FILE_IS_EMPTY);
+        }
+        return new String(headerBytes).trim().startsWith(STL_ASCII_START_TAG);
+    }
+
+    public boolean isASCII (String filePath) throws IOException
+    {
+        File stlFile = new File(filePath);
+        // Check if the file exists
+        if (!stlFile.exists()) {
+            throw new FileNotFoundException(Strings.FILE_NOT_FOUND + filePath);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(stlFile))) {
+            // Read the first line of the file
+            String headerLine = reader.readLine();
+            // Check if the file is empty
+            if (headerLine == null) {
+                throw new IOException(Strings.FILE_IS_EMPTY + filePath);
+            }
+            // Return true if the first line starts with "solid"
+            return headerLine.trim().startsWith(STL_ASCII_START_TAG);
+        } catch (FileNotFoundException fileNotFoundException) {
+            throw new FileNotFoundException(Strings.FILE_NOT_FOUND + filePath);
+        } catch (IOException ioException) {
+            throw new IOException(Strings.ERROR_WHILE_READING_FILE + filePath);
+        }
+    }
+
+    public void readSTLASCII (String filePath, PolyhedronController controller) throws IOException
+    {
+        readSTLASCII(filePath, controller, true, UnaryOperator.identity());
+    }
+
+    private void readSTLASCII (String filePath, PolyhedronController controller, boolean concurrent,
+                               UnaryOperator<InputStream> streamFilter) throws IOException
+    {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(streamFilter.apply(new FileInputStream(filePath))))) {
+            readSTLASCII(reader, controller, concurrent);
+        } catch (IOException ioException) {
+            throw new IOException(Strings.ERROR_WHILE_READING_FILE + filePath);
+        }
+    }
+
+    /**
+     * Reads the facets of an ASCII STL file and hands them to the controller in chunks. Reading the lines
+     * and parsing them can't be separated in the ASCII format, so both are recorded as the parse phase.
+     */
+    public void readSTLASCII (BufferedReader reader, PolyhedronController controller) throws IOException
+    {
+        readSTLASCII(reader, controller, true);
+    }
+
+    /**
+     * @param concurrent    False if the controller runs after the reading, see {@link #handOffChunk}
+     */
+    private void readSTLASCII (BufferedReader reader, PolyhedronController controller, boolean concurrent) throws IOException
+    {
+        TimerRegistry timers = controller.getTimerRegistry();
+        ArrayList<Triangle> chunk = new ArrayList<>(TRIANGLE_CHUNK_SIZE);
+        int chunkIndex = 0;
+        ParseChunkEvent chunkEvent = beginChunkEvent();
+        long chunkStartNanos = System.nanoTime();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            // Check for the start of a new triangle struct, facets are usually indented
+            if (line.stripLeading().startsWith(STL_ASCII_FACET_START_TAG)) {
+                // Read the normal and the triangle
+                Vector3d normal = readNormalASCII(line);
+                chunk.add(readTriangleASCII(reader, normal, controller::shareVertex));
+                if (chunk.size() == TRIANGLE_CHUNK_SIZE) {
+                    timers.record(TimerRegistry.PHASE_PARSE, System.nanoTime() - chunkStartNanos);
+                    commitChunkEvent(chunkEvent, FORMAT_ASCII, chunkIndex++, chunk.size(), -1, UNKNOWN_SIZE);
+                    handOffChunk(chunk, controller, concurrent);
+                    chunkEvent = beginChunkEvent();
+                    chunkStartNanos = System.nanoTime();
+                }
+            }
+        }
+        timers.record(TimerRegistry.PHASE_PARSE, System.nanoTime() - chunkStartNanos);
+        commitChunkEvent(chunkEvent, FORMAT_ASCII, chunkIndex, chunk.size(), -1, UNKNOWN_SIZE);
+        handOffChunk(chunk, controller, concurrent);
+        // Set the reading finished flag to true
+        controller.setReadingFinished(true);
+    }
+
+    /**
+     * Begins the flight recorder event of a chunk.
+     *
+     * @return  Event, null if the flight recorder doesn't run
+     */
+    private ParseChunkEvent beginChunkEvent ()
+    {
+        if (!EventGuard.isRecorderRunning()) {
+            return null;
+        }
+        ParseChunkEvent chunkEvent = new ParseChunkEvent();
+        chunkEvent.begin();
+        return chunkEvent;
+    }
+
+    /**
+     * Commits the flight recorder event of a parsed chunk if a recording wants it.
+     */
+    private void commitChunkEvent (ParseChunkEvent chunkEvent, String format, int chunkIndex, int triangleCount,
+                                   int totalTriangleCount, long byteCount)
+    {
+        if (chunkEvent != null && chunkEvent.shouldCommit()) {
+            chunkEvent.format = format;
+            chunkEvent.chunkIndex = chunkIndex;
+            chunkEvent.triangleCount = triangleCount;
+            chunkEvent.totalTriangleCount = totalTriangleCount;
+            chunkEvent.byteCount = byteCount;
+            chunkEvent.commit();
+        }
+    }
+
+    /**
+     * Sends a chunk of triangles to the controller and clears the chunk for reuse.
+     *
+     * @param concurrent    True if the controller runs while the file is read and drains the queue, false if it
+     *                      runs after the reading
+     */
+    private void handOffChunk (ArrayList<Triangle> chunk, PolyhedronController controller, boolean concurrent)
+    {
+        try (TimerRegistry.Timer timer = controller.getTimerRegistry().start(TimerRegistry.PHASE_HAND_OFF)) {
+            if (concurrent) {
+                controller.addTrianglesToQueue(chunk);
+            } else {
+                // Nobody drains the queue before the end of the file, it would hold every triangle a second time
+                controller.addTriangles(chunk);
+            }
+        }
+        chunk.clear();
+    }
+
+    public Vector3d readNormalASCII (String line) {
+        // Split the line into words by whitespaces (\\s+ is a regex for one or more whitespaces)
+        // and remove leading and trailing whitespaces
+        String[] words = line.trim().split(Strings.ANY_NUMBER_OF_WHITESPACES);
+        // Check if the line has the correct number of words and starts with "facet normal"
+        if (words.length != STL_ASCII_FACET_WORDCOUNT || !words[STL_ASCII_FACET_START_TAG_POS].equals(STL_ASCII_FACET_START_TAG) || !words[STL_ASCII_NORMAL_TAG_POS].equals(STL_ASCII_NORMAL_TAG)) {
+            throw new IllegalArgumentException(Strings.INVALID_NORMAL_LINE + line);
+        }
+        // Read the normal from the words
+        try {
+            double x = Double.parseDouble(words[STL_ASCII_NORMAL_WORD_POS_X]);
+            double y = Double.parseDouble(words[STL_ASCII_NORMAL_WORD_POS_Y]);
+            double z = Double.parseDouble(words[STL_ASCII_NORMAL_WORD_POS_Z]);
+            return new Vector3d(x, y, z);
+        } catch (NumberFormatException numberFormatException) {
+            throw new IllegalArgumentException(Strings.ERROR_PARSING_NORMAL + line);
+        }
+    }
+
+    public Triangle readTriangleASCII (BufferedReader reader, Vector3d normal) throws IOException
+    {
+        return readTriangleASCII(reader, normal, UnaryOperator.identity());
+    }
+
+    /**
+     * Reads the vertices of a triangle of an ASCII STL file.
+     *
+     * @param reader        Reader positioned after the facet line
+     * @param normal        Normal of the facet
+     * @param vertexSharing Maps every vertex that was read to the vertex the triangle uses
+     * @return              The triangle
+     */
+    public Triangle readTriangleASCII (BufferedReader reader, Vector3d normal, UnaryOperator<Vertex> vertexSharing) throws IOException
+    {
+        Vertex[] vertices = new Vertex[Constants.TRIANGLE_VERTEX_COUNT];
+        String line;
+
+        // Skip the "outer loop" line
+        try {
+            line = reader.readLine();
+            if (line == null || !line.trim().equals(STL_ASCII_TRIANGLE_START_TAG)) {
+                throw new IllegalArgumentException(Strings.INVALID_TRIANGLE_LINE + line);
+            }
+        } catch (IOException ioException) {
+            throw new IllegalArgumentException(Strings.ERROR_WHILE_READING_TRIANGLE + ioException.getMessage());
+        }
+
+        // Read the three vertices of the triangle
+        for (int i = 0; i < 3; i++) {
+            line = reader.readLine();
+            vertices[i] = vertexSharing.apply(readVertexASCII(line));
+        }
+
+        return new Triangle(vertices[0], vertices[1], vertices[2], normal);
+    }
+
+    public Vertex readVertexASCII (String line) {
+        // Split the line into words by whitespaces (\\s+ is a regex for one or more whitespaces)
+        // and remove leading and trailing whitespaces
+        String[] words = line.trim().split(Strings.ANY_NUMBER_OF_WHITESPACES);
+        // Check if the line has the correct number of words and starts with "vertex"
+        if (words.length != STL_ASCII_NORMAL_WORDCOUNT || !words[STL_ASCII_VERTEX_START_TAG_POS].equals(STL_ASCII_VERTEX_START_TAG)) {
+            throw new IllegalArgumentException(Strings.INVALID_VERTEX_LINE + line);
+        }
+
+        // Read the vertex from the words
+        try {
+            double x = Double.parseDouble(words[STL_ASCII_VERTEX_WORD_POS_X]);
+            double y = Double.parseDouble(words[STL_ASCII_VERTEX_WORD_POS_Y]);
+            double z = Double.parseDouble(words[STL_ASCII_VERTEX_WORD_POS_Z]);
+            return new Vertex(x, y, z);
+        } catch (NumberFormatException numberFormatException) {
+            throw new IllegalArgumentException(Strings.ERROR_PARSING_VERTEX + line);
+        }
+    }
+
+    public void readSTLBinary (String filePath, PolyhedronController controller) {
+        readSTLBinary(filePath, controller, true, UnaryOperator.identity());
+    }
+
+    private void readSTLBinary (String filePath, PolyhedronController controller, boolean concurrent,
+                                UnaryOperator<InputStream> streamFilter) {
+        try (InputStream fileInputStream = streamFilter.apply(new FileInputStream(filePath))) {
+            readSTLBinary(fileInputStream, controller, concurrent);
+        } catch (IOException ioException) {
+            // Keep the cause, e.g. a truncated file, for the batch reports
+            throw new IllegalArgumentException(Strings.ERROR_WHILE_READING_FILE + filePath + " (" + ioException.getMessage() + ")", ioException);
+        }
+    }
+
+    /**
+     * Reads the triangles of a binary STL file in chunks. Every chunk is read with one call, parsed from
+     * the byte array and handed to the controller, and each of these phases is timed separately.
+     */
+    public void readSTLBinary (InputStream inputStream, PolyhedronController controller) throws IOException
+    {
+        readSTLBinary(inputStream, controller, true);
+    }
+
+    /**
+     * @param concurrent    False if the controller runs after the reading, see {@link #handOffChunk}
+     */
+    private void readSTLBinary (InputStream inputStream, PolyhedronController controller, boolean concurrent) throws IOException
+    {
+        TimerRegistry timers = controller.getTimerRegistry();
+        // Skip the header of the file and read the number of triangleMesh
+        inputStream.readNBytes(STL_BINARY_HEADER_BYTE_SIZE);
+        byte[] triangleCountBytes = new byte[STL_BINARY_TRIANGLE_COUNT_BYTE_SIZE];
+        inputStream.readNBytes(triangleCountBytes, Constants.NUMBER_ZERO, STL_BINARY_TRIANGLE_COUNT_BYTE_SIZE);
+        // Convert the byte array to an integer using little endian byte order
+        int triangleCount = ByteBuffer.wrap(triangleCountBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+
+        byte[] chunkBytes = new byte[TRIANGLE_CHUNK_SIZE * STL_BINARY_TRIANGLE_BYTE_SIZE];
+        ByteBuffer chunkBuffer = ByteBuffer.wrap(chunkBytes).order(ByteOrder.LITTLE_ENDIAN);
+        ArrayList<Triangle> chunk = new ArrayList<>(TRIANGLE_CHUNK_SIZE);
+        int remainingTriangles = triangleCount;
+        int chunkIndex = 0;
+        while (remainingTriangles > 0) {
+            int chunkTriangles = java.lang.Math.min(TRIANGLE_CHUNK_SIZE, remainingTriangles);
+            int chunkByteCount = chunkTriangles * STL_BINARY_TRIANGLE_BYTE_SIZE;
+
+            ParseChunkEvent chunkEvent = beginChunkEvent();
+            long readStartNanos = System.nanoTime();
+            if (inputStream.readNBytes(chunkBytes, Constants.NUMBER_ZERO, chunkByteCount) < chunkByteCount) {
+                throw new EOFException(Strings.ERROR_WHILE_READING_TRIANGLE + "unexpected end of file");
+            }
+            long parseStartNanos = System.nanoTime();
+            timers.record(TimerRegistry.PHASE_READ, parseStartNanos - readStartNanos);
+
+            for (int i = 0; i < chunkTriangles; i++) {
+                chunk.add(readTriangleBinary(chunkBuffer, i * STL_BINARY_TRIANGLE_BYTE_SIZE, controller));
+            }
+            timers.record(TimerRegistry.PHASE_PARSE, System.nanoTime() - parseStartNanos);
+            commitChunkEvent(chunkEvent, FORMAT_BINARY, chunkIndex++, chunkTriangles, triangleCount, chunkByteCount);
+
+            handOffChunk(chunk, controller, concurrent);
+            remainingTriangles -= chunkTriangles;
+        }
+        // Set the reading finished flag to true
+        controller.setReadingFinished(true);
+    }
+
+    /**
+     * Parses a triangle record of a binary STL file from a little endian buffer.
+     *
+     * @param buffer    Buffer with the records
+     * @param offset    Offset of the record in the buffer
+     * @param controller Controller that shares the vertices in the lean mode
+     * @return          The triangle
+     */
+    private Triangle readTriangleBinary (ByteBuffer buffer, int offset, PolyhedronController controller)
+    {
+        Vector3d normal = new Vector3d(buffer.getFloat(offset + STL_BINARY_OFFSET_X), buffer.getFloat(offset + STL_BINARY_OFFSET_Y),
+                buffer.getFloat(offset + STL_BINARY_OFFSET_Z));
+        Vertex[] vertices = new Vertex[Constants.TRIANGLE_VERTEX_COUNT];
+        for (int i = 0; i < Constants.TRIANGLE_VERTEX_COUNT; i++) {
+            int vertexOffset = offset + STL_BINARY_NORMAL_BYTE_SIZE + i * STL_BINARY_TRIANGLES_BYTE_SIZE;
+            vertices[i] = controller.shareVertex(new Vertex(buffer.getFloat(vertexOffset + STL_BINARY_OFFSET_X),
+                    buffer.getFloat(vertexOffset + STL_BINARY_OFFSET_Y), buffer.getFloat(vertexOffset + STL_BINARY_OFFSET_Z)));
+        }
+        return new Triangle(vertices[Constants.TRIANGLE_VERTEX1_INDEX], vertices[Constants.TRIANGLE_VERTEX2_INDEX], vertices[Constants.TRIANGLE_VERTEX3_INDEX], normal);
+    }
+
+    public Triangle readTriangleBinary (InputStream inputStream) {
+        try {
+            // Read the normal of the triangle, readNBytes blocks until all bytes of a streamed file have arrived
+            byte[] normalBytes = new byte[STL_BINARY_NORMAL_BYTE_SIZE];
+            inputStream.readNBytes(normalBytes, Constants.NUMBER_ZERO, STL_BINARY_NORMAL_BYTE_SIZE);
+            Vector3d normal = readNormalBinary(normalBytes);
+
+            // Read the three vertices of the triangle
+            Vertex[] vertices = new Vertex[Constants.TRIANGLE_VERTEX_COUNT];
+            for (int i = 0; i < 3; i++) {
+                byte[] vertexBytes = new byte[STL_BINARY_TRIANGLES_BYTE_SIZE];
+                inputStream.readNBytes(vertexBytes, Constants.NUMBER_ZERO, STL_BINARY_TRIANGLES_BYTE_SIZE);
+                vertices[i] = readVertexBinary(vertexBytes);
+            }
+
+            // Skip the attribute byte count
+            inputStream.readNBytes(STL_BINARY_ATTR_BYTE_SIZE);
+
+            return new Triangle(vertices[Constants.TRIANGLE_VERTEX1_INDEX], vertices[Constants.TRIANGLE_VERTEX2_INDEX], vertices[Constants.TRIANGLE_VERTEX3_INDEX], normal);
+        } catch (IOException ioException) {
+            throw new IllegalArgumentException(Strings.ERROR_WHILE_READING_TRIANGLE + ioException.getMessage());
+        }
+
+    }
+
+    private Vertex readVertexBinary (byte[] bytes)
+    {
+        // Read the vertex from the byte array using little endian byte order
+        float x = ByteBuffer.wrap(bytes, STL_BINARY_OFFSET_X, STL_BINARY_VERTEX_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+        float y = ByteBuffer.wrap(bytes, STL_BINARY_OFFSET_Y, STL_BINARY_VERTEX_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+        float z = ByteBuffer.wrap(bytes, STL_BINARY_OFFSET_Z, STL_BINARY_VERTEX_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+        return new Vertex(x, y, z);
+    }
+
+    private Vector3d readNormalBinary (byte[] bytes)
+    {
+        // Read the normal from the byte array using little endian byte order
+        float x = ByteBuffer.wrap(bytes, STL_BINARY_OFFSET_X, STL_BINARY_VERTEX_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+        float y = ByteBuffer.wrap(bytes, STL_BINARY_OFFSET_Y, STL_BINARY_VERTEX_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+        float z = ByteBuffer.wrap(bytes, STL_BINARY_OFFSET_Z, STL_BINARY_VERTEX_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+        return new Vector3d(x, y, z);
+    }
+}
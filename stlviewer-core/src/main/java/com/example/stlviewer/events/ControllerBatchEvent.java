@@ -0,0 +1,31 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a batch of triangles the polyhedron controller took from its queue and
+ * added to the polyhedron.
+ *
+ * @author  Lukas Erdmann
+ */
+@Name("com.example.stlviewer.ControllerBatch")
+@Label("Polyhedron Controller Batch")
+@Category({"STL Viewer", "Loading"})
+@Description("Triangles added to the polyhedron in one pass of the controller")
+public class ControllerBatchEvent extends jdk.jfr.Event
+{
+    @Label("Triangle Count")
+    @Description("Number of triangles in the batch")
+    public int triangleCount;
+
+    @Label("Polyhedron Triangle Count")
+    @Description("Number of triangles of the polyhedron after the batch")
+    public int polyhedronTriangleCount;
+
+    @Label("Queued Triangle Count")
+    @Description("Number of triangles left in the queue after the batch")
+    public int queuedTriangleCount;
+}
@@ -0,0 +1,25 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for building the JavaFX mesh of a polyhedron.
+ *
+ * @author  Lukas Erdmann
+ */
+@Name("com.example.stlviewer.CreateMesh")
+@Label("Create Mesh")
+@Category({"STL Viewer", "Rendering"})
+@Description("Conversion of a polyhedron into a triangle mesh")
+public class CreateMeshEvent extends jdk.jfr.Event
+{
+    @Label("Triangle Count")
+    public int triangleCount;
+
+    @Label("Point Count")
+    @Description("Number of points of the mesh")
+    public int pointCount;
+}
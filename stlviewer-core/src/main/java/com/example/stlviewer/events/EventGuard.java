@@ -0,0 +1,24 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Decides whether the flight recorder events of the application are created. They are only created while
+ * the flight recorder runs, because loading the first event class initializes its instrumentation, which
+ * dominates the start of the command line tool. Callers create their event only if
+ * {@link #isRecorderRunning()} is true and keep a null event otherwise.
+ *
+ * @author  Lukas Erdmann
+ */
+public final class EventGuard
+{
+    private EventGuard() {
+    }
+
+    /**
+     * @return  True if the flight recorder has been started, so creating an event is cheap
+     */
+    public static boolean isRecorderRunning() {
+        return FlightRecorder.isInitialized();
+    }
+}
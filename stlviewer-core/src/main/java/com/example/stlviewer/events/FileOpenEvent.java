@@ -0,0 +1,34 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event that spans the complete load of an STL file or stream, from opening the source
+ * until the controller has analyzed the polyhedron.
+ *
+ * @author  Lukas Erdmann
+ */
+@Name("com.example.stlviewer.FileOpen")
+@Label("STL File Open")
+@Category({"STL Viewer", "Loading"})
+@Description("Load of an STL file including parsing and analysis")
+public class FileOpenEvent extends jdk.jfr.Event
+{
+    @Label("Source")
+    public String source;
+
+    @Label("Format")
+    public String format;
+
+    @Label("File Size")
+    @Description("Size of the file, -1 if the source is a stream of unknown size")
+    @DataAmount
+    public long fileSize;
+
+    @Label("Triangle Count")
+    public int triangleCount;
+}
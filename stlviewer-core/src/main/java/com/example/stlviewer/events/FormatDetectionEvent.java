@@ -0,0 +1,30 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the check whether an STL source is in the ASCII or the binary format.
+ *
+ * @author  Lukas Erdmann
+ */
+@Name("com.example.stlviewer.FormatDetection")
+@Label("STL Format Detection")
+@Category({"STL Viewer", "Loading"})
+@Description("Detection of the format of an STL file")
+public class FormatDetectionEvent extends jdk.jfr.Event
+{
+    @Label("Source")
+    public String source;
+
+    @Label("Format")
+    public String format;
+
+    @Label("File Size")
+    @Description("Size of the file, -1 if the source is a stream of unknown size")
+    @DataAmount
+    public long fileSize;
+}
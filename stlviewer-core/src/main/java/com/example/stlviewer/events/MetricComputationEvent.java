@@ -0,0 +1,27 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the calculation of volume, surface area, bounding box and center of a polyhedron.
+ *
+ * @author  Lukas Erdmann
+ */
+@Name("com.example.stlviewer.MetricComputation")
+@Label("Metric Computation")
+@Category({"STL Viewer", "Analysis"})
+@Description("Calculation of the metrics of a polyhedron")
+public class MetricComputationEvent extends jdk.jfr.Event
+{
+    @Label("Triangle Count")
+    public int triangleCount;
+
+    @Label("Volume")
+    public double volume;
+
+    @Label("Surface Area")
+    public double surfaceArea;
+}
@@ -0,0 +1,39 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for reading and parsing one chunk of triangles. The hand-off of the chunk to the
+ * controller is not part of the event.
+ *
+ * @author  Lukas Erdmann
+ */
+@Name("com.example.stlviewer.ParseChunk")
+@Label("STL Parse Chunk")
+@Category({"STL Viewer", "Loading"})
+@Description("Read and parse of a chunk of triangles")
+public class ParseChunkEvent extends jdk.jfr.Event
+{
+    @Label("Format")
+    public String format;
+
+    @Label("Chunk Index")
+    public int chunkIndex;
+
+    @Label("Triangle Count")
+    @Description("Number of triangles in the chunk")
+    public int triangleCount;
+
+    @Label("Total Triangle Count")
+    @Description("Number of triangles in the file, -1 if the format doesn't declare it")
+    public int totalTriangleCount;
+
+    @Label("Chunk Size")
+    @Description("Number of bytes read for the chunk, -1 if the format doesn't allow to count them")
+    @DataAmount
+    public long byteCount;
+}
@@ -0,0 +1,33 @@
+package com.example.stlviewer.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the execution of a command received by the TCP server.
+ *
+ * @author  Lukas Erdmann
+ */
+@Name("com.example.stlviewer.TcpCommand")
+@Label("TCP Command")
+@Category({"STL Viewer", "Network"})
+@Description("Execution of a remote control command")
+public class TcpCommandEvent extends jdk.jfr.Event
+{
+    public static final String PROTOCOL_TEXT = "text";
+    public static final String PROTOCOL_BINARY = "binary";
+
+    @Label("Command")
+    public String command;
+
+    @Label("Protocol")
+    public String protocol;
+
+    @Label("Client")
+    public String client;
+
+    @Label("Successful")
+    public boolean successful;
+}
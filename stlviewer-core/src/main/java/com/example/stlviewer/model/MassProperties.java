@@ -0,0 +1,77 @@
+package com.example.stlviewer.model;
+
+import javax.vecmath.Vector3d;
+import java.util.Arrays;
+
+/**
+ * Mass properties of a closed polyhedron with a density of 1, so the mass equals the volume. <br>
+ * The inertia tensor is taken about the center of mass. The principal moments are its eigenvalues in
+ * ascending order, the principal axes the matching unit eigenvectors, which form a right-handed system.
+ *
+ * @author  Lukas Erdmann
+ */
+public class MassProperties
+{
+    private final double volume;
+    private final Vertex centerOfMass;
+    private final double[][] inertiaTensor;
+    private final double[] principalMoments;
+    private final Vector3d[] principalAxes;
+
+    /**
+     * @param volume            Enclosed volume, positive for either orientation of the triangles
+     * @param centerOfMass      Volume-weighted centroid
+     * @param inertiaTensor     Symmetric 3x3 inertia tensor about the center of mass
+     * @param principalMoments  Eigenvalues of the tensor in ascending order
+     * @param principalAxes     Unit eigenvectors in the order of the moments
+     */
+    public MassProperties(double volume, Vertex centerOfMass, double[][] inertiaTensor, double[] principalMoments,
+                          Vector3d[] principalAxes) {
+        this.volume = volume;
+        this.centerOfMass = centerOfMass;
+        this.inertiaTensor = inertiaTensor;
+        this.principalMoments = principalMoments;
+        this.principalAxes = principalAxes;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public Vertex getCenterOfMass() {
+        return centerOfMass;
+    }
+
+    /**
+     * @return  Copy of the tensor, row by row: Ixx, Ixy, Ixz / Iyx, Iyy, Iyz / Izx, Izy, Izz
+     */
+    public double[][] getInertiaTensor() {
+        double[][] copy = new double[3][];
+        for (int row = 0; row < 3; row++) {
+            copy[row] = inertiaTensor[row].clone();
+        }
+        return copy;
+    }
+
+    public double[] getPrincipalMoments() {
+        return principalMoments.clone();
+    }
+
+    public Vector3d[] getPrincipalAxes() {
+        Vector3d[] copy = new Vector3d[3];
+        for (int axis = 0; axis < 3; axis++) {
+            copy[axis] = new Vector3d(principalAxes[axis]);
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "MassProperties{" +
+                "volume=" + volume +
+                ", centerOfMass=" + centerOfMass +
+                ", principalMoments=" + Arrays.toString(principalMoments) +
+                ", principalAxes=" + Arrays.toString(principalAxes) +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.stlviewer.model;
+
+import javax.vecmath.Vector3d;
+import java.util.Arrays;
+
+/**
+ * Box with an arbitrary orientation. The axes are orthonormal and right-handed, the extents are the full
+ * side lengths along them.
+ *
+ * @author  Lukas Erdmann
+ */
+public class OrientedBox
+{
+    private final Vertex center;
+    private final Vector3d[] axes;
+    private final double[] extents;
+
+    /**
+     * @param center    Center of the box
+     * @param axes      Three orthonormal axes
+     * @param extents   Side lengths along the axes
+     */
+    public OrientedBox(Vertex center, Vector3d[] axes, double[] extents) {
+        this.center = center;
+        this.axes = axes;
+        this.extents = extents;
+    }
+
+    public Vertex getCenter() {
+        return center;
+    }
+
+    public Vector3d[] getAxes() {
+        Vector3d[] copy = new Vector3d[3];
+        for (int axis = 0; axis < 3; axis++) {
+            copy[axis] = new Vector3d(axes[axis]);
+        }
+        return copy;
+    }
+
+    public double[] getExtents() {
+        return extents.clone();
+    }
+
+    public double getVolume() {
+        return extents[0] * extents[1] * extents[2];
+    }
+
+    /**
+     * @return  The eight corners, corner i lies on the positive side of axis k if bit k of i is set
+     */
+    public Vertex[] getCorners() {
+        Vertex[] corners = new Vertex[8];
+        for (int corner = 0; corner < corners.length; corner++) {
+            double x = center.getPosX();
+            double y = center.getPosY();
+            double z = center.getPosZ();
+            for (int axis = 0; axis < 3; axis++) {
+                double offset = ((corner >> axis) & 1) == 0 ? -extents[axis] / 2 : extents[axis] / 2;
+                x += axes[axis].x * offset;
+                y += axes[axis].y * offset;
+                z += axes[axis].z * offset;
+            }
+            corners[corner] = new Vertex(x, y, z);
+        }
+        return corners;
+    }
+
+    @Override
+    public String toString() {
+        return "OrientedBox{" +
+                "center=" + center +
+                ", axes=" + Arrays.toString(axes) +
+                ", extents=" + Arrays.toString(extents) +
+                ", volume=" + getVolume() +
+                '}';
+    }
+}
@@ -10,6 +10,9 @@ public class Polyhedron
     private double surfaceArea = 0;
     private double[] boundingBox;
     private Vertex center;
+    private MassProperties massProperties;
+    private OrientedBox orientedBox;
+    private Polyhedron convexHull;
 
     public Polyhedron (ArrayList<Triangle> triangleArrayList) {
         this.triangles = triangleArrayList;
@@ -55,6 +58,40 @@ public class Polyhedron
         return center;
     }
 
+    public void setMassProperties (MassProperties massProperties) {
+        this.massProperties = massProperties;
+    }
+
+    /**
+     * @return  Center of mass, inertia tensor and principal axes, null if not computed or if the triangles
+     *          don't enclose a volume
+     */
+    public MassProperties getMassProperties () {
+        return massProperties;
+    }
+
+    public void setOrientedBox (OrientedBox orientedBox) {
+        this.orientedBox = orientedBox;
+    }
+
+    /**
+     * @return  Tight oriented bounding box, null if not computed
+     */
+    public OrientedBox getOrientedBox () {
+        return orientedBox;
+    }
+
+    public void setConvexHull (Polyhedron convexHull) {
+        this.convexHull = convexHull;
+    }
+
+    /**
+     * @return  Convex hull with its metrics defined, null if not computed
+     */
+    public Polyhedron getConvexHull () {
+        return convexHull;
+    }
+
     public int getTriangleCount() {
         return triangles.size();
     }
@@ -66,7 +103,8 @@ public class Polyhedron
                 ", surfaceArea=" + surfaceArea +
                 ", boundingBox=" + Arrays.toString(boundingBox) +
                 ", center=" + center +
-                ", triangles=" + triangles +
+                ", centerOfMass=" + (massProperties == null ? null : massProperties.getCenterOfMass()) +
+                ", triangleCount=" + triangles.size() +
                 '}';
     }
 }
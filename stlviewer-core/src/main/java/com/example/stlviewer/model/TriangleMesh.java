@@ -26,7 +26,7 @@ public class TriangleMesh extends ArrayList<Triangle>
      */
     public void addTriangle (Triangle triangle)
     {
-        boolean isAlreadyAdded = false;
+        ArrayList<Integer> neighbors = new ArrayList<>();
         for (Triangle t : this) {
             // Check if the triangle is already in the list by comparing the vertices
             // If 0 or 1 vertices are the same, then the triangles aren't the neighbors
@@ -43,19 +43,20 @@ public class TriangleMesh extends ArrayList<Triangle>
             }
             // If the triangle is already in the list, don't add it
             if (sameVertices == 3) {
-                isAlreadyAdded = true;
-                break;
+                return;
             }
-            // In all other cases, add the triangle to the list and increment the id counter
-            this.add(triangle);
-            idCounter++;
-            triangle.setId(idCounter);
-            // If the triangles are neighbors, add them to the adjacency list
             if (sameVertices == 2) {
-                adjacencyList.get(t.getId()).add(triangle.getId());
-                adjacencyList.get(triangle.getId()).add(t.getId());
+                neighbors.add(t.getId());
             }
         }
+        // The id of a triangle is the index of its entry in the adjacency list
+        triangle.setId(idCounter++);
+        this.add(triangle);
+        adjacencyList.add(neighbors);
+        // Link the neighbors back to the new triangle
+        for (int neighbor : neighbors) {
+            adjacencyList.get(neighbor).add(triangle.getId());
+        }
     }
 
     /**
@@ -69,4 +69,13 @@ public class Vertex implements Comparable<Vertex>
         }
         return false;
     }
+
+    @Override
+    public int hashCode ()
+    {
+        // Consistent with equals, which compares the positions with Double.compare
+        int hash = Double.hashCode(posX);
+        hash = 31 * hash + Double.hashCode(posY);
+        return 31 * hash + Double.hashCode(posZ);
+    }
 }
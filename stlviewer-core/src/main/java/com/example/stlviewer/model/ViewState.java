@@ -0,0 +1,92 @@
+package com.example.stlviewer.model;
+
+/**
+ * Immutable snapshot of the transform and the loaded model of the viewer. Snapshots are published
+ * to remote subscribers whenever the view changes.
+ *
+ * @author  Lukas Erdmann
+ */
+public class ViewState
+{
+    private final double translateX;
+    private final double translateY;
+    private final double translateZ;
+    private final double rotateX;
+    private final double rotateY;
+    private final String modelPath;
+    private final int triangleCount;
+
+    public ViewState(double translateX, double translateY, double translateZ, double rotateX, double rotateY,
+                     String modelPath, int triangleCount) {
+        this.translateX = translateX;
+        this.translateY = translateY;
+        this.translateZ = translateZ;
+        this.rotateX = rotateX;
+        this.rotateY = rotateY;
+        this.modelPath = modelPath;
+        this.triangleCount = triangleCount;
+    }
+
+    public double getTranslateX() {
+        return translateX;
+    }
+
+    public double getTranslateY() {
+        return translateY;
+    }
+
+    public double getTranslateZ() {
+        return translateZ;
+    }
+
+    public double getRotateX() {
+        return rotateX;
+    }
+
+    public double getRotateY() {
+        return rotateY;
+    }
+
+    public String getModelPath() {
+        return modelPath;
+    }
+
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Checks whether the loaded model differs from the one of another snapshot.
+     *
+     * @param other Snapshot to compare with, may be null
+     * @return      True if the model path or triangle count differ
+     */
+    public boolean isModelChanged(ViewState other) {
+        return other == null || triangleCount != other.triangleCount
+                || (modelPath == null ? other.modelPath != null : !modelPath.equals(other.modelPath));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof ViewState state) {
+            return Double.compare(translateX, state.translateX) == 0 &&
+                    Double.compare(translateY, state.translateY) == 0 &&
+                    Double.compare(translateZ, state.translateZ) == 0 &&
+                    Double.compare(rotateX, state.rotateX) == 0 &&
+                    Double.compare(rotateY, state.rotateY) == 0 &&
+                    !isModelChanged(state);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return java.util.Objects.hash(translateX, translateY, translateZ, rotateX, rotateY, modelPath, triangleCount);
+    }
+
+    @Override
+    public String toString() {
+        return "ViewState{translate=(" + translateX + ", " + translateY + ", " + translateZ + "), rotate=(" +
+                rotateX + ", " + rotateY + "), model=" + modelPath + ", triangles=" + triangleCount + "}";
+    }
+}
@@ -125,4 +125,5 @@ public interface Strings
     String AXIS_Y = "y";
     String AXIS_Z = "z";
     String INVALID_AXIS = "Invalid axis!";
+    String UNSUPPORTED_ROTATION_AXIS = "Rotation is only supported around x and y, not around: ";
 }
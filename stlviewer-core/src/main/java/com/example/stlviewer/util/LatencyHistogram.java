@@ -0,0 +1,140 @@
+package com.example.stlviewer.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of durations in nanoseconds. Values are sorted into log-linear buckets: every
+ * power of two is split into {@link #SUB_BUCKET_COUNT} equally sized buckets, so percentiles are accurate
+ * to about 3 percent over the whole range of a long. Recording is lock-free and does not allocate.
+ *
+ * @author  Lukas Erdmann
+ */
+public class LatencyHistogram
+{
+    public static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    public static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    public static final double NANOS_PER_MICRO = 1_000.0;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single value. Negative values are recorded as zero.
+     *
+     * @param valueNanos    Duration in nanoseconds
+     */
+    public void record(long valueNanos) {
+        long value = java.lang.Math.max(0, valueNanos);
+        bucketCounts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, java.lang.Math::max);
+    }
+
+    /**
+     * Adds all values of another histogram to this one.
+     *
+     * @param other Histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = other.bucketCounts.get(i);
+            if (bucketCount != 0) {
+                bucketCounts.addAndGet(i, bucketCount);
+            }
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), java.lang.Math::max);
+    }
+
+    /**
+     * Returns the value below which the given fraction of the recorded values lies. The upper bound of the
+     * bucket is returned, so the result never underestimates.
+     *
+     * @param percentile    Percentile between 0 and 100
+     * @return              Value at the percentile in nanoseconds, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long totalCount = count.get();
+        if (totalCount == 0) {
+            return 0;
+        }
+        long targetCount = java.lang.Math.max(1, (long) java.lang.Math.ceil(totalCount * percentile / 100.0));
+        long seenCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seenCount += bucketCounts.get(i);
+            if (seenCount >= targetCount) {
+                return java.lang.Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return  Sum of all recorded values in nanoseconds
+     */
+    public long getTotal() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long totalCount = count.get();
+        return totalCount == 0 ? 0 : (double) sum.get() / totalCount;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Formats count, mean and the common percentiles in microseconds.
+     *
+     * @return  Summary line
+     */
+    public String toSummary() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                getCount(), getMean() / NANOS_PER_MICRO,
+                getValueAtPercentile(50) / NANOS_PER_MICRO, getValueAtPercentile(90) / NANOS_PER_MICRO,
+                getValueAtPercentile(99) / NANOS_PER_MICRO, getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                getMax() / NANOS_PER_MICRO);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // The exponent selects the power of two, the next bits below the highest one select the sub bucket
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.stlviewer.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Arrays a split of a reduction copies its triangles into, shared by the {@link MetricsReduction} and the
+ * {@link MassPropertiesReduction}. <br>
+ * Every reduction creates its own {@link Pool}: a split takes arrays from it and puts them back when it is
+ * done, so a reduction allocates about one set per thread that works on it and nothing stays allocated after
+ * it returns.
+ *
+ * @author  Lukas Erdmann
+ */
+final class LeafBuffers
+{
+    private TriangleArrays triangles;
+    private double[] values;
+
+    private LeafBuffers() {
+    }
+
+    /**
+     * @return  Arrays for the triangles of a split, only created when the triangles need a copy
+     */
+    TriangleArrays triangles() {
+        if (triangles == null) {
+            triangles = new TriangleArrays(MetricsReduction.LEAF_SIZE);
+        }
+        return triangles;
+    }
+
+    /**
+     * @return  Array for a value per triangle of a split
+     */
+    double[] values() {
+        if (values == null) {
+            values = new double[MetricsReduction.LEAF_SIZE];
+        }
+        return values;
+    }
+
+    /**
+     * Free arrays of a single reduction.
+     */
+    static final class Pool
+    {
+        private final ConcurrentLinkedQueue<LeafBuffers> free = new ConcurrentLinkedQueue<>();
+
+        /**
+         * @return  Free arrays, new ones if all are in use
+         */
+        LeafBuffers acquire() {
+            LeafBuffers buffers = free.poll();
+            return buffers != null ? buffers : new LeafBuffers();
+        }
+
+        void release(LeafBuffers buffers) {
+            free.offer(buffers);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.MassProperties;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import javax.vecmath.Vector3d;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel computation of the mass properties of a closed polyhedron in a single pass over its triangles. <br>
+ * By the divergence theorem the volume integrals of 1, x, y, z, xx, yy, zz, xy, yz and zx are sums of
+ * closed-form terms per triangle (Eberly, "Polyhedral Mass Properties"). The ten sums are reduced on a
+ * fork-join pool with the same split tree and leaf arrays as the {@link MetricsReduction}, so the results are equal to the
+ * last bit for every pool. The coordinates are taken relative to the first vertex to keep the squares small
+ * for models far from the origin. <br>
+ * The inertia tensor is then moved to the center of mass and decomposed into its principal moments and axes
+ * with the cyclic Jacobi method.
+ *
+ * @author  Lukas Erdmann
+ */
+public class MassPropertiesReduction
+{
+    public static final int INTEGRAL_COUNT = 10;
+    /**
+     * Sweeps of the Jacobi method, a symmetric 3x3 matrix converges in less than ten.
+     */
+    public static final int MAX_JACOBI_SWEEPS = 50;
+
+    // Indices of the volume integrals
+    private static final int ONE = 0;
+    private static final int X = 1, Y = 2, Z = 3;
+    private static final int XX = 4, YY = 5, ZZ = 6;
+    private static final int XY = 7, YZ = 8, ZX = 9;
+    private static final double[] INTEGRAL_FACTORS = {
+            1.0 / 6, 1.0 / 24, 1.0 / 24, 1.0 / 24, 1.0 / 60, 1.0 / 60, 1.0 / 60, 1.0 / 120, 1.0 / 120, 1.0 / 120};
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool  Pool the splits are computed on, null to compute them one after the other on the calling thread
+     */
+    public MassPropertiesReduction(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a reduction on the common pool.
+     */
+    public static MassPropertiesReduction withCommonPool() {
+        return new MassPropertiesReduction(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a reduction on the calling thread with the same splits and results, see
+     * {@link MetricsReduction#sequential(MeshKernels)}.
+     */
+    public static MassPropertiesReduction sequential() {
+        return new MassPropertiesReduction(null);
+    }
+
+    /**
+     * Computes the mass properties of a list of triangles.
+     *
+     * @return  Mass properties, null if the triangles don't enclose a volume
+     */
+    public MassProperties reduce(List<Triangle> triangles) {
+        if (triangles.isEmpty()) {
+            return null;
+        }
+        Vertex referenceVertex = triangles.get(0).getVertices().get(0);
+        double[] reference = {referenceVertex.getPosX(), referenceVertex.getPosY(), referenceVertex.getPosZ()};
+        return toMassProperties(reduce(new Split(null, triangles, new LeafBuffers.Pool(), reference, 0, triangles.size())), reference);
+    }
+
+    /**
+     * Computes the mass properties of triangles that are already stored in primitive arrays.
+     *
+     * @return  Mass properties, null if the triangles don't enclose a volume
+     */
+    public MassProperties reduce(TriangleArrays triangles) {
+        if (triangles.getTriangleCount() == 0) {
+            return null;
+        }
+        double[] reference = {triangles.getAx()[0], triangles.getAy()[0], triangles.getAz()[0]};
+        return toMassProperties(reduce(new Split(triangles, null, new LeafBuffers.Pool(), reference, 0, triangles.getTriangleCount())), reference);
+    }
+
+    private double[] reduce(Split split) {
+        if (pool == null || split.to - split.from <= MetricsReduction.LEAF_SIZE) {
+            return split.compute();
+        }
+        return pool.invoke(split);
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Turns the unscaled sums into the volume, the center of mass and the inertia tensor about it.
+     */
+    private static MassProperties toMassProperties(double[] sums, double[] reference) {
+        double[] integrals = new double[INTEGRAL_COUNT];
+        for (int i = 0; i < INTEGRAL_COUNT; i++) {
+            integrals[i] = sums[i] * INTEGRAL_FACTORS[i];
+        }
+        // Triangles oriented inwards give the negated integrals
+        if (integrals[ONE] < 0) {
+            for (int i = 0; i < INTEGRAL_COUNT; i++) {
+                integrals[i] = -integrals[i];
+            }
+        }
+        double volume = integrals[ONE];
+        if (!(volume > 0) || Double.isInfinite(volume)) {
+            return null;
+        }
+        // Center of mass relative to the reference vertex
+        double cx = integrals[X] / volume;
+        double cy = integrals[Y] / volume;
+        double cz = integrals[Z] / volume;
+        // Parallel axis theorem from the reference vertex to the center of mass
+        double ixx = integrals[YY] + integrals[ZZ] - volume * (cy * cy + cz * cz);
+        double iyy = integrals[XX] + integrals[ZZ] - volume * (cx * cx + cz * cz);
+        double izz = integrals[XX] + integrals[YY] - volume * (cx * cx + cy * cy);
+        double ixy = -(integrals[XY] - volume * cx * cy);
+        double iyz = -(integrals[YZ] - volume * cy * cz);
+        double izx = -(integrals[ZX] - volume * cz * cx);
+        double[][] inertiaTensor = {
+                {ixx, ixy, izx},
+                {ixy, iyy, iyz},
+                {izx, iyz, izz}};
+
+        double[] principalMoments = new double[3];
+        Vector3d[] principalAxes = new Vector3d[3];
+        decompose(inertiaTensor, principalMoments, principalAxes);
+        Vertex centerOfMass = new Vertex(reference[0] + cx, reference[1] + cy, reference[2] + cz);
+        return new MassProperties(volume, centerOfMass, inertiaTensor, principalMoments, principalAxes);
+    }
+
+    /**
+     * Eigen-decomposition of a symmetric 3x3 matrix with the cyclic Jacobi method. The eigenvalues are sorted in
+     * ascending order and the third eigenvector is the cross product of the first two, so the axes are right-handed.
+     *
+     * @param matrix        Symmetric matrix, not modified
+     * @param eigenvalues   Filled with the eigenvalues
+     * @param eigenvectors  Filled with the unit eigenvectors
+     */
+    public static void decompose(double[][] matrix, double[] eigenvalues, Vector3d[] eigenvectors) {
+        double[][] a = new double[3][];
+        for (int row = 0; row < 3; row++) {
+            a[row] = matrix[row].clone();
+        }
+        double[][] v = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
+        for (int sweep = 0; sweep < MAX_JACOBI_SWEEPS; sweep++) {
+            double offDiagonal = java.lang.Math.abs(a[0][1]) + java.lang.Math.abs(a[0][2]) + java.lang.Math.abs(a[1][2]);
+            double diagonal = java.lang.Math.abs(a[0][0]) + java.lang.Math.abs(a[1][1]) + java.lang.Math.abs(a[2][2]);
+            if (offDiagonal <= diagonal * 1e-15 || offDiagonal == 0) {
+                break;
+            }
+            for (int p = 0; p < 2; p++) {
+                for (int q = p + 1; q < 3; q++) {
+                    rotate(a, v, p, q);
+                }
+            }
+        }
+        // Sort by eigenvalue, the eigenvectors are the columns of v
+        Integer[] order = {0, 1, 2};
+        java.util.Arrays.sort(order, (i, j) -> Double.compare(a[i][i], a[j][j]));
+        for (int axis = 0; axis < 3; axis++) {
+            int column = order[axis];
+            eigenvalues[axis] = a[column][column];
+            eigenvectors[axis] = new Vector3d(v[0][column], v[1][column], v[2][column]);
+            eigenvectors[axis].normalize();
+        }
+        eigenvectors[2].cross(eigenvectors[0], eigenvectors[1]);
+    }
+
+    /**
+     * Jacobi rotation that zeroes the element (p, q) of a and accumulates the rotation in v.
+     */
+    private static void rotate(double[][] a, double[][] v, int p, int q) {
+        if (a[p][q] == 0) {
+            return;
+        }
+        double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+        double t = java.lang.Math.signum(theta) / (java.lang.Math.abs(theta) + java.lang.Math.sqrt(theta * theta + 1));
+        if (theta == 0) {
+            t = 1;
+        }
+        double c = 1 / java.lang.Math.sqrt(t * t + 1);
+        double s = t * c;
+        for (int k = 0; k < 3; k++) {
+            double akp = a[k][p];
+            double akq = a[k][q];
+            a[k][p] = c * akp - s * akq;
+            a[k][q] = s * akp + c * akq;
+        }
+        for (int k = 0; k < 3; k++) {
+            double apk = a[p][k];
+            double aqk = a[q][k];
+            a[p][k] = c * apk - s * aqk;
+            a[q][k] = s * apk + c * aqk;
+        }
+        for (int k = 0; k < 3; k++) {
+            double vkp = v[k][p];
+            double vkq = v[k][q];
+            v[k][p] = c * vkp - s * vkq;
+            v[k][q] = s * vkp + c * vkq;
+        }
+    }
+
+    /**
+     * A range of triangles either of the arrays or of the list, the other one is null. The result are the
+     * unscaled sums of the ten integrals.
+     */
+    private class Split extends RecursiveTask<double[]>
+    {
+        private final TriangleArrays arrays;
+        private final List<Triangle> list;
+        private final LeafBuffers.Pool buffers;
+        private final double[] reference;
+        private final int from;
+        private final int to;
+
+        private Split(TriangleArrays arrays, List<Triangle> list, LeafBuffers.Pool buffers, double[] reference, int from, int to) {
+            this.arrays = arrays;
+            this.list = list;
+            this.buffers = buffers;
+            this.reference = reference;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= MetricsReduction.LEAF_SIZE) {
+                return computeLeaf();
+            }
+            int middle = (from + to) >>> 1;
+            Split left = new Split(arrays, list, buffers, reference, from, middle);
+            Split right = new Split(arrays, list, buffers, reference, middle, to);
+            if (pool != null) {
+                right.fork();
+            }
+            double[] sums = left.compute();
+            // Always left before right, whichever thread finished first
+            double[] rightSums = pool != null ? right.join() : right.compute();
+            for (int i = 0; i < INTEGRAL_COUNT; i++) {
+                sums[i] += rightSums[i];
+            }
+            return sums;
+        }
+
+        private double[] computeLeaf() {
+            TriangleArrays triangles = arrays;
+            LeafBuffers leafBuffers = null;
+            int leafFrom = from;
+            int leafTo = to;
+            if (triangles == null) {
+                leafBuffers = buffers.acquire();
+                triangles = leafBuffers.triangles();
+                triangles.setTriangles(list, from, to);
+                leafFrom = 0;
+                leafTo = to - from;
+            }
+            double[] ax = triangles.getAx(), ay = triangles.getAy(), az = triangles.getAz();
+            double[] bx = triangles.getBx(), by = triangles.getBy(), bz = triangles.getBz();
+            double[] cx = triangles.getCx(), cy = triangles.getCy(), cz = triangles.getCz();
+            double rx = reference[0], ry = reference[1], rz = reference[2];
+            double[] sums = new double[INTEGRAL_COUNT];
+            for (int i = leafFrom; i < leafTo; i++) {
+                double x0 = ax[i] - rx, y0 = ay[i] - ry, z0 = az[i] - rz;
+                double x1 = bx[i] - rx, y1 = by[i] - ry, z1 = bz[i] - rz;
+                double x2 = cx[i] - rx, y2 = cy[i] - ry, z2 = cz[i] - rz;
+                // Normal scaled by twice the area
+                double ux = x1 - x0, uy = y1 - y0, uz = z1 - z0;
+                double vx = x2 - x0, vy = y2 - y0, vz = z2 - z0;
+                double dx = uy * vz - uz * vy;
+                double dy = uz * vx - ux * vz;
+                double dz = ux * vy - uy * vx;
+
+                double tx0 = x0 + x1, f1x = tx0 + x2, tx1 = x0 * x0, tx2 = tx1 + x1 * tx0, f2x = tx2 + x2 * f1x;
+                double f3x = x0 * tx1 + x1 * tx2 + x2 * f2x;
+                double g0x = f2x + x0 * (f1x + x0), g1x = f2x + x1 * (f1x + x1), g2x = f2x + x2 * (f1x + x2);
+                double ty0 = y0 + y1, f1y = ty0 + y2, ty1 = y0 * y0, ty2 = ty1 + y1 * ty0, f2y = ty2 + y2 * f1y;
+                double f3y = y0 * ty1 + y1 * ty2 + y2 * f2y;
+                double g0y = f2y + y0 * (f1y + y0), g1y = f2y + y1 * (f1y + y1), g2y = f2y + y2 * (f1y + y2);
+                double tz0 = z0 + z1, f1z = tz0 + z2, tz1 = z0 * z0, tz2 = tz1 + z1 * tz0, f2z = tz2 + z2 * f1z;
+                double f3z = z0 * tz1 + z1 * tz2 + z2 * f2z;
+                double g0z = f2z + z0 * (f1z + z0), g1z = f2z + z1 * (f1z + z1), g2z = f2z + z2 * (f1z + z2);
+
+                sums[ONE] += dx * f1x;
+                sums[X] += dx * f2x;
+                sums[Y] += dy * f2y;
+                sums[Z] += dz * f2z;
+                sums[XX] += dx * f3x;
+                sums[YY] += dy * f3y;
+                sums[ZZ] += dz * f3z;
+                sums[XY] += dx * (y0 * g0x + y1 * g1x + y2 * g2x);
+                sums[YZ] += dy * (z0 * g0y + z1 * g1y + z2 * g2y);
+                sums[ZX] += dz * (x0 * g0z + x1 * g1z + x2 * g2z);
+            }
+            if (leafBuffers != null) {
+                buffers.release(leafBuffers);
+            }
+            return sums;
+        }
+    }
+}
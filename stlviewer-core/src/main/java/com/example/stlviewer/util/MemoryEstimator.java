@@ -0,0 +1,230 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.control.STLReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Estimates the heap a model needs before and after it is loaded. <br>
+ * The estimates are derived from the object layout of a 64 bit JVM with compressed references: 12 byte
+ * object headers, 4 byte references, 16 byte array headers and 8 byte alignment. They cover the
+ * {@code Polyhedron} with its {@code Triangle}, {@code Vertex}, {@code Edge} and normal objects and the arrays
+ * of the JavaFX {@code TriangleMesh}, which both stay reachable while a model is displayed. <br>
+ * The budget is read from the system property {@value #BUDGET_PROPERTY} in megabytes and defaults to three
+ * quarters of the maximum heap. The property {@value #LEAN_MODE_PROPERTY} selects the lean mode:
+ * {@code auto} (default) uses it if the standard representation would not fit, {@code on} and {@code off}
+ * force it. In the lean mode the triangles share their vertices and the mesh is indexed.
+ *
+ * @author  Lukas Erdmann
+ */
+public class MemoryEstimator
+{
+    public enum LoadMode
+    {
+        STANDARD,
+        LEAN
+    }
+
+    public static final String BUDGET_PROPERTY = "stlviewer.memory.budgetMegabytes";
+    public static final String LEAN_MODE_PROPERTY = "stlviewer.memory.leanMode";
+    public static final String LEAN_MODE_AUTO = "auto";
+    public static final String LEAN_MODE_ON = "on";
+    public static final String LEAN_MODE_OFF = "off";
+    public static final double DEFAULT_BUDGET_HEAP_FRACTION = 0.75;
+    public static final long BYTES_PER_MEGABYTE = 1 << 20;
+
+    // Object layout
+    public static final int OBJECT_HEADER_BYTES = 12;
+    public static final int ARRAY_HEADER_BYTES = 16;
+    public static final int REFERENCE_BYTES = 4;
+    public static final int OBJECT_ALIGNMENT_BYTES = 8;
+    public static final int DOUBLE_BYTES = 8;
+    public static final int FLOAT_BYTES = 4;
+    public static final int INT_BYTES = 4;
+    /**
+     * Average unused capacity of array lists and observable arrays that grow by half of their size.
+     */
+    public static final double GROWTH_SLACK = 1.25;
+    /**
+     * Unique vertices per triangle of a closed mesh. By Euler's formula a closed triangle mesh has about
+     * half as many vertices as triangles.
+     */
+    public static final double SHARED_VERTICES_PER_TRIANGLE = 0.5;
+    /**
+     * Lower bound of the bytes of an ASCII facet, so the triangle count of an ASCII file is rather
+     * overestimated than underestimated.
+     */
+    public static final int ASCII_BYTES_PER_TRIANGLE = 160;
+
+    // Sizes of the model objects
+    public static final long VERTEX_BYTES = align(OBJECT_HEADER_BYTES + 3 * DOUBLE_BYTES);
+    public static final long VECTOR_BYTES = align(OBJECT_HEADER_BYTES + 3 * DOUBLE_BYTES);
+    public static final long EDGE_BYTES = align(OBJECT_HEADER_BYTES + 3 * DOUBLE_BYTES + 2 * REFERENCE_BYTES);
+    public static final long ARRAY_LIST_BYTES = align(OBJECT_HEADER_BYTES + 2 * INT_BYTES + REFERENCE_BYTES);
+    public static final long TRIANGLE_BYTES = align(OBJECT_HEADER_BYTES + 4 * REFERENCE_BYTES + 1 + DOUBLE_BYTES + INT_BYTES);
+
+    private final long budgetBytes;
+    private final String leanModeSetting;
+
+    public MemoryEstimator(long budgetBytes, String leanModeSetting) {
+        this.budgetBytes = budgetBytes;
+        this.leanModeSetting = leanModeSetting;
+    }
+
+    /**
+     * Creates an estimator with the budget and lean mode setting of the system properties.
+     */
+    public static MemoryEstimator fromSystemProperties() {
+        long defaultBudgetMegabytes = (long) (Runtime.getRuntime().maxMemory() * DEFAULT_BUDGET_HEAP_FRACTION / BYTES_PER_MEGABYTE);
+        long budgetMegabytes = Long.getLong(BUDGET_PROPERTY, defaultBudgetMegabytes);
+        String leanMode = System.getProperty(LEAN_MODE_PROPERTY, LEAN_MODE_AUTO).toLowerCase(Locale.ROOT);
+        return new MemoryEstimator(budgetMegabytes * BYTES_PER_MEGABYTE, leanMode);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + OBJECT_ALIGNMENT_BYTES - 1) / OBJECT_ALIGNMENT_BYTES * OBJECT_ALIGNMENT_BYTES;
+    }
+
+    /**
+     * Bytes of the polyhedron per triangle: the triangle with its vertex and edge lists, the normal, the
+     * three edges, the cached centroid, the vertices and the slot in the triangle list.
+     *
+     * @param mode  Load mode, in the lean mode the vertices are shared
+     * @return      Estimated bytes per triangle
+     */
+    public static long polyhedronBytesPerTriangle(LoadMode mode) {
+        long listArrayBytes = align(ARRAY_HEADER_BYTES + 3 * REFERENCE_BYTES);
+        double vertexCount = mode == LoadMode.LEAN ? SHARED_VERTICES_PER_TRIANGLE : 3;
+        double bytes = TRIANGLE_BYTES
+                + 2 * (ARRAY_LIST_BYTES + listArrayBytes)
+                + VECTOR_BYTES
+                + 3 * EDGE_BYTES
+                + VERTEX_BYTES // centroid
+                + vertexCount * VERTEX_BYTES
+                + REFERENCE_BYTES * GROWTH_SLACK;
+        return java.lang.Math.round(bytes);
+    }
+
+    /**
+     * Bytes of the JavaFX mesh per triangle. The standard mesh stores three points per triangle, the lean mesh
+     * stores every vertex once and a smoothing group per face to keep the faces flat.
+     *
+     * @param mode  Load mode
+     * @return      Estimated bytes per triangle
+     */
+    public static long meshBytesPerTriangle(LoadMode mode) {
+        double pointBytes = mode == LoadMode.LEAN ? SHARED_VERTICES_PER_TRIANGLE * 3 * FLOAT_BYTES : 9 * FLOAT_BYTES;
+        double faceBytes = 6 * INT_BYTES;
+        double smoothingGroupBytes = mode == LoadMode.LEAN ? INT_BYTES : 0;
+        return java.lang.Math.round((pointBytes + faceBytes + smoothingGroupBytes) * GROWTH_SLACK);
+    }
+
+    public static long estimateBytes(long triangleCount, LoadMode mode) {
+        return triangleCount * (polyhedronBytesPerTriangle(mode) + meshBytesPerTriangle(mode));
+    }
+
+    /**
+     * Estimates the number of triangles of an STL file without reading it. The count of a binary file is
+     * taken from its header and limited by the file size, the count of an ASCII file is derived from the
+     * file size.
+     *
+     * @param filePath  Path of the STL file
+     * @return          Estimated number of triangles
+     */
+    public static long estimateTriangleCount(Path filePath) throws IOException {
+        long fileSize = Files.size(filePath);
+        byte[] header = new byte[STLReader.STL_BINARY_HEADER_BYTE_SIZE + STLReader.STL_BINARY_TRIANGLE_COUNT_BYTE_SIZE];
+        int headerLength;
+        try (InputStream inputStream = Files.newInputStream(filePath)) {
+            headerLength = inputStream.readNBytes(header, 0, header.length);
+        }
+        String start = new String(header, 0, java.lang.Math.min(headerLength, STLReader.STL_BINARY_HEADER_BYTE_SIZE),
+                StandardCharsets.US_ASCII);
+        if (start.trim().startsWith(STLReader.STL_ASCII_START_TAG) || headerLength < header.length) {
+            return fileSize / ASCII_BYTES_PER_TRIANGLE;
+        }
+        long declaredCount = Integer.toUnsignedLong(ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN)
+                .getInt(STLReader.STL_BINARY_HEADER_BYTE_SIZE));
+        long storedCount = (fileSize - header.length) / STLReader.STL_BINARY_TRIANGLE_BYTE_SIZE;
+        return java.lang.Math.min(declaredCount, storedCount);
+    }
+
+    /**
+     * Estimates the number of triangles of an STL file of which only the size is known, e.g. an upload that
+     * is still being received. The size is taken as the one of a binary file, the densest format, so the
+     * count is rather overestimated than underestimated.
+     *
+     * @param byteCount Size of the STL file
+     * @return          Estimated number of triangles
+     */
+    public static long estimateTriangleCount(long byteCount) {
+        long headerByteSize = STLReader.STL_BINARY_HEADER_BYTE_SIZE + STLReader.STL_BINARY_TRIANGLE_COUNT_BYTE_SIZE;
+        return java.lang.Math.max(0, (byteCount - headerByteSize) / STLReader.STL_BINARY_TRIANGLE_BYTE_SIZE);
+    }
+
+    /**
+     * Chooses the load mode of a file and warns if it is not expected to fit into the budget.
+     *
+     * @param filePath  Path of the STL file
+     * @return          Load mode to use
+     */
+    public LoadMode chooseLoadMode(Path filePath) throws IOException {
+        return chooseLoadMode(estimateTriangleCount(filePath));
+    }
+
+    public LoadMode chooseLoadMode(long triangleCount) {
+        if (leanModeSetting.equals(LEAN_MODE_ON)) {
+            return LoadMode.LEAN;
+        }
+        long standardBytes = estimateBytes(triangleCount, LoadMode.STANDARD);
+        if (standardBytes <= budgetBytes) {
+            return LoadMode.STANDARD;
+        }
+        long leanBytes = estimateBytes(triangleCount, LoadMode.LEAN);
+        if (leanModeSetting.equals(LEAN_MODE_OFF)) {
+            System.err.printf("Warning: the model needs about %s, the memory budget is %s.%n",
+                    formatBytes(standardBytes), formatBytes(budgetBytes));
+            return LoadMode.STANDARD;
+        }
+        if (leanBytes <= budgetBytes) {
+            System.err.printf("The model needs about %s in the standard mode, loading it in the lean mode with about %s.%n",
+                    formatBytes(standardBytes), formatBytes(leanBytes));
+        } else {
+            System.err.printf("Warning: the model needs about %s even in the lean mode, the memory budget is %s.%n",
+                    formatBytes(leanBytes), formatBytes(budgetBytes));
+        }
+        return LoadMode.LEAN;
+    }
+
+    /**
+     * Creates a report of the estimated footprint of a loaded model.
+     *
+     * @param triangleCount Number of triangles of the model
+     * @param mode          Mode the model was loaded in
+     * @return              Single line report
+     */
+    public static String toFootprintReport(long triangleCount, LoadMode mode) {
+        long polyhedronBytes = triangleCount * polyhedronBytesPerTriangle(mode);
+        long meshBytes = triangleCount * meshBytesPerTriangle(mode);
+        return String.format(Locale.ROOT, "Memory footprint (%s): triangles=%d polyhedron=%s (%d B/triangle) mesh=%s (%d B/triangle) total=%s",
+                mode.name().toLowerCase(Locale.ROOT), triangleCount,
+                formatBytes(polyhedronBytes), polyhedronBytesPerTriangle(mode),
+                formatBytes(meshBytes), meshBytesPerTriangle(mode),
+                formatBytes(polyhedronBytes + meshBytes));
+    }
+
+    public static String formatBytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (double) BYTES_PER_MEGABYTE);
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The arrays of a JavaFX {@code TriangleMesh} of a polyhedron, prepared without any JavaFX class so the
+ * preparation can run and be measured without a toolkit. The points are centered around the center of
+ * the polyhedron. <br>
+ * A face is stored as three pairs of a point index and a texture coordinate index, like in the
+ * {@code TriangleMesh}.
+ *
+ * @author  Lukas Erdmann
+ */
+public class MeshData
+{
+    public static final int POINT_ELEMENT_SIZE = 3;
+    public static final int FACE_ELEMENT_SIZE = 6;
+    public static final int TEX_COORD_FIRST = 0;
+    public static final int TEX_COORD_SECOND = 1;
+    public static final int TEX_COORD_THIRD = 2;
+
+    private final float[] points;
+    private final float[] texCoords;
+    private final int[] faces;
+    private final int[] faceSmoothingGroups;
+
+    private MeshData(float[] points, float[] texCoords, int[] faces, int[] faceSmoothingGroups) {
+        this.points = points;
+        this.texCoords = texCoords;
+        this.faces = faces;
+        this.faceSmoothingGroups = faceSmoothingGroups;
+    }
+
+    /**
+     * Prepares a mesh with three own points per triangle.
+     *
+     * @param polyhedron    Polyhedron with a defined center
+     * @return              Mesh data
+     */
+    public static MeshData fromPolyhedron(Polyhedron polyhedron) {
+        int triangleCount = polyhedron.getTriangleCount();
+        Vertex center = polyhedron.getCenter();
+        float[] points = new float[triangleCount * 3 * POINT_ELEMENT_SIZE];
+        int[] faces = new int[triangleCount * FACE_ELEMENT_SIZE];
+
+        int pointPosition = 0;
+        int facePosition = 0;
+        int pointIndex = 0;
+        for (Triangle triangle : polyhedron.getTriangles()) {
+            for (Vertex vertex : triangle.getVertices()) {
+                points[pointPosition++] = (float) (vertex.getPosX() - center.getPosX());
+                points[pointPosition++] = (float) (vertex.getPosY() - center.getPosY());
+                points[pointPosition++] = (float) (vertex.getPosZ() - center.getPosZ());
+            }
+            faces[facePosition++] = pointIndex++;
+            faces[facePosition++] = TEX_COORD_FIRST;
+            faces[facePosition++] = pointIndex++;
+            faces[facePosition++] = TEX_COORD_SECOND;
+            faces[facePosition++] = pointIndex++;
+            faces[facePosition++] = TEX_COORD_THIRD;
+        }
+        // The faces only reference the first three texture coordinates
+        return new MeshData(points, new float[6], faces, new int[0]);
+    }
+
+    /**
+     * Prepares a mesh with three own points per triangle from an off-heap mesh. The coordinates are read
+     * from the segment of the mesh straight into the points array, without a triangle on the heap.
+     *
+     * @param mesh      Off-heap mesh with at most a ninth of the maximum array length of coordinates
+     * @param center    Center the points are placed around
+     * @return          Mesh data
+     */
+    public static MeshData fromOffHeapMesh(OffHeapMesh mesh, Vertex center) {
+        int triangleCount = java.lang.Math.toIntExact(mesh.getTriangleCount());
+        float[] points = new float[java.lang.Math.multiplyExact(triangleCount, 3 * POINT_ELEMENT_SIZE)];
+        int[] faces = new int[java.lang.Math.multiplyExact(triangleCount, FACE_ELEMENT_SIZE)];
+        double[] offsets = {center.getPosX(), center.getPosY(), center.getPosZ()};
+
+        int pointPosition = 0;
+        int facePosition = 0;
+        int pointIndex = 0;
+        for (int triangle = 0; triangle < triangleCount; triangle++) {
+            for (int vertex = 0; vertex < 3; vertex++) {
+                for (int axis = 0; axis < POINT_ELEMENT_SIZE; axis++) {
+                    points[pointPosition++] = (float) (mesh.getCoordinate(triangle, vertex, axis) - offsets[axis]);
+                }
+            }
+            faces[facePosition++] = pointIndex++;
+            faces[facePosition++] = TEX_COORD_FIRST;
+            faces[facePosition++] = pointIndex++;
+            faces[facePosition++] = TEX_COORD_SECOND;
+            faces[facePosition++] = pointIndex++;
+            faces[facePosition++] = TEX_COORD_THIRD;
+        }
+        return new MeshData(points, new float[6], faces, new int[0]);
+    }
+
+    /**
+     * Prepares a mesh that stores every vertex only once. Every face is put into smoothing group 0, which
+     * means no smoothing, so the faces are still shaded flat.
+     *
+     * @param polyhedron    Polyhedron with a defined center
+     * @return              Mesh data
+     */
+    public static MeshData indexedFromPolyhedron(Polyhedron polyhedron) {
+        int triangleCount = polyhedron.getTriangleCount();
+        Vertex center = polyhedron.getCenter();
+        HashMap<Vertex, Integer> pointIndices = new HashMap<>();
+        // A closed mesh has about half as many vertices as triangles, the array grows if there are more
+        float[] points = new float[java.lang.Math.max(triangleCount / 2 + 3, 3) * POINT_ELEMENT_SIZE];
+        int[] faces = new int[triangleCount * FACE_ELEMENT_SIZE];
+
+        int facePosition = 0;
+        for (Triangle triangle : polyhedron.getTriangles()) {
+            for (Vertex vertex : triangle.getVertices()) {
+                Integer pointIndex = pointIndices.get(vertex);
+                if (pointIndex == null) {
+                    pointIndex = pointIndices.size();
+                    pointIndices.put(vertex, pointIndex);
+                    int pointPosition = pointIndex * POINT_ELEMENT_SIZE;
+                    if (pointPosition + POINT_ELEMENT_SIZE > points.length) {
+                        points = Arrays.copyOf(points, points.length + points.length / 2 + POINT_ELEMENT_SIZE);
+                    }
+                    points[pointPosition] = (float) (vertex.getPosX() - center.getPosX());
+                    points[pointPosition + 1] = (float) (vertex.getPosY() - center.getPosY());
+                    points[pointPosition + 2] = (float) (vertex.getPosZ() - center.getPosZ());
+                }
+                faces[facePosition++] = pointIndex;
+                faces[facePosition++] = TEX_COORD_FIRST;
+            }
+        }
+        points = Arrays.copyOf(points, pointIndices.size() * POINT_ELEMENT_SIZE);
+        return new MeshData(points, new float[2], faces, new int[triangleCount]);
+    }
+
+    public float[] getPoints() {
+        return points;
+    }
+
+    public float[] getTexCoords() {
+        return texCoords;
+    }
+
+    public int[] getFaces() {
+        return faces;
+    }
+
+    /**
+     * @return  Smoothing group of every face, empty if the mesh doesn't use smoothing groups
+     */
+    public int[] getFaceSmoothingGroups() {
+        return faceSmoothingGroups;
+    }
+
+    public int getPointCount() {
+        return points.length / POINT_ELEMENT_SIZE;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.stlviewer.util;
+
+import java.util.Locale;
+
+/**
+ * Whole-model computations over the primitive arrays of a {@link TriangleArrays}. There is a SIMD
+ * implementation on the incubating Vector API and a scalar one that is used if the module
+ * {@value #VECTOR_MODULE} isn't available. The Vector API has to be added to the JVM with
+ * {@code --add-modules jdk.incubator.vector}. <br>
+ * The system property {@value #KERNELS_PROPERTY} selects the implementation: {@code auto} (default) uses
+ * the SIMD kernels if possible, {@code scalar} and {@code vector} force one. The sums of the SIMD kernels
+ * are added up in a different order than the scalar ones, so the results can differ in the last digits.
+ *
+ * @author  Lukas Erdmann
+ */
+public interface MeshKernels
+{
+    String KERNELS_PROPERTY = "stlviewer.kernels";
+    String KERNELS_AUTO = "auto";
+    String KERNELS_SCALAR = "scalar";
+    String KERNELS_VECTOR = "vector";
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Chooses the implementation with the setting of the system property.
+     */
+    static MeshKernels fromSystemProperties() {
+        String setting = System.getProperty(KERNELS_PROPERTY, KERNELS_AUTO).toLowerCase(Locale.ROOT);
+        if (setting.equals(KERNELS_SCALAR)) {
+            return new ScalarMeshKernels();
+        }
+        if (isVectorApiAvailable()) {
+            return new VectorMeshKernels();
+        }
+        if (setting.equals(KERNELS_VECTOR)) {
+            System.err.println("Warning: the Vector API isn't available, add --add-modules " + VECTOR_MODULE
+                    + ". Using the scalar kernels.");
+        }
+        return new ScalarMeshKernels();
+    }
+
+    /**
+     * @return  True if the Vector API module was added to the JVM
+     */
+    static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    /**
+     * @return  Name of the implementation for reports
+     */
+    String getName();
+
+    /**
+     * Calculates the area of every triangle.
+     *
+     * @param triangles Triangles
+     * @param areas     Array of at least the triangle count that receives the areas
+     */
+    default void areas(TriangleArrays triangles, double[] areas) {
+        areas(triangles, 0, triangles.getTriangleCount(), areas);
+    }
+
+    /**
+     * Calculates the areas of a range of triangles. Both implementations use the same operations in the same
+     * order per triangle, so the areas are equal to the last bit.
+     *
+     * @param triangles Triangles
+     * @param from      Index of the first triangle, inclusive
+     * @param to        Index of the last triangle, exclusive
+     * @param areas     Array of at least to - from elements that receives the areas from index 0
+     */
+    void areas(TriangleArrays triangles, int from, int to, double[] areas);
+
+    /**
+     * @return  Sum of the areas of the triangles
+     */
+    double surfaceArea(TriangleArrays triangles);
+
+    /**
+     * Calculates the signed volume of the tetrahedron formed by every triangle and a reference vertex. It is
+     * positive if the triangle points away from the reference vertex, so the sum over a closed mesh is its
+     * volume for any reference vertex.
+     *
+     * @param triangles Triangles
+     * @param reference X, y and z of the reference vertex
+     * @param volumes   Array of at least the triangle count that receives the volumes
+     */
+    default void signedVolumes(TriangleArrays triangles, double[] reference, double[] volumes) {
+        signedVolumes(triangles, reference, 0, triangles.getTriangleCount(), volumes);
+    }
+
+    /**
+     * Calculates the signed volumes of a range of triangles, equal to the last bit in both implementations.
+     *
+     * @param triangles Triangles
+     * @param reference X, y and z of the reference vertex
+     * @param from      Index of the first triangle, inclusive
+     * @param to        Index of the last triangle, exclusive
+     * @param volumes   Array of at least to - from elements that receives the volumes from index 0
+     */
+    void signedVolumes(TriangleArrays triangles, double[] reference, int from, int to, double[] volumes);
+
+    /**
+     * @return  Sum of the signed volumes of the tetrahedra of the triangles and the reference vertex
+     */
+    double volume(TriangleArrays triangles, double[] reference);
+
+    /**
+     * @return  Minimum corner followed by the maximum corner of all vertices, like {@code Polyhedron.getBoundingBox()}
+     */
+    default double[] boundingBox(TriangleArrays triangles) {
+        return boundingBox(triangles, 0, triangles.getTriangleCount());
+    }
+
+    /**
+     * @return  Minimum corner followed by the maximum corner of the vertices of a range of triangles
+     */
+    double[] boundingBox(TriangleArrays triangles, int from, int to);
+
+    /**
+     * Applies an affine transform to all vertices in place.
+     *
+     * @param triangles Triangles to transform
+     * @param matrix    Row-major 3 x 4 matrix, the last column is the translation
+     */
+    void transform(TriangleArrays triangles, double[] matrix);
+}
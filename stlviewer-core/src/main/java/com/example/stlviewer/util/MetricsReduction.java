@@ -0,0 +1,258 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel reduction of the volume, the surface area and the bounding box of triangles on a fork-join pool. <br>
+ * The triangle range is halved until a split holds at most {@value #LEAF_SIZE} triangles. Every split sums
+ * its areas and signed volumes with Neumaier's compensated summation and keeps its own minimum and maximum,
+ * then the splits are combined left before right. The shape of the split tree only depends on the triangle
+ * count, not on the number of threads or on which thread runs which split, so the results are equal to the
+ * last bit for every pool. <br>
+ * Triangle lists and other {@link TriangleSource}s, e.g. an {@link OffHeapMesh}, are copied split by split into
+ * {@link TriangleArrays} that the splits of a reduction pass on to each other. Arrays that already hold all triangles, e.g. after
+ * {@link MeshKernels#transform}, are reduced without a copy, which takes a few milliseconds for a million triangles.
+ *
+ * @author  Lukas Erdmann
+ */
+public class MetricsReduction
+{
+    /**
+     * Maximum number of triangles of a split, small enough for its arrays to stay in the cache.
+     */
+    public static final int LEAF_SIZE = 4096;
+
+    /**
+     * Volume, surface area and bounding box of triangles. While splits are combined, the sums carry the
+     * compensation of their rounding errors separately.
+     */
+    public static class Result
+    {
+        private double volume;
+        private double volumeCompensation;
+        private double surfaceArea;
+        private double surfaceAreaCompensation;
+        private final double[] boundingBox = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+
+        public double getVolume() {
+            return volume + volumeCompensation;
+        }
+
+        public double getSurfaceArea() {
+            return surfaceArea + surfaceAreaCompensation;
+        }
+
+        /**
+         * @return  Minimum corner followed by the maximum corner, inverted if there are no triangles
+         */
+        public double[] getBoundingBox() {
+            return boundingBox.clone();
+        }
+
+        private void addVolume(double value) {
+            double sum = volume + value;
+            volumeCompensation += compensation(volume, value, sum);
+            volume = sum;
+        }
+
+        private void addSurfaceArea(double value) {
+            double sum = surfaceArea + value;
+            surfaceAreaCompensation += compensation(surfaceArea, value, sum);
+            surfaceArea = sum;
+        }
+
+        /**
+         * Adds the sums and the bounding box of the split to the right of this one.
+         */
+        private void combine(Result right) {
+            addVolume(right.volume);
+            volumeCompensation += right.volumeCompensation;
+            addSurfaceArea(right.surfaceArea);
+            surfaceAreaCompensation += right.surfaceAreaCompensation;
+            for (int axis = 0; axis < 3; axis++) {
+                boundingBox[axis] = java.lang.Math.min(boundingBox[axis], right.boundingBox[axis]);
+                boundingBox[axis + 3] = java.lang.Math.max(boundingBox[axis + 3], right.boundingBox[axis + 3]);
+            }
+        }
+
+        /**
+         * Rounding error of sum = a + b, Neumaier's variant of the Kahan summation that also holds if the
+         * addend is larger than the running sum.
+         */
+        private static double compensation(double a, double b, double sum) {
+            return java.lang.Math.abs(a) >= java.lang.Math.abs(b) ? (a - sum) + b : (b - sum) + a;
+        }
+    }
+
+    /**
+     * Triangles that are copied into arrays split by split.
+     */
+    public interface TriangleSource
+    {
+        /**
+         * Copies a range of triangles into the arrays and sets their triangle count.
+         *
+         * @param from      Index of the first triangle
+         * @param count     Number of triangles, at most the capacity of the arrays
+         * @param target    Arrays the triangles are copied into
+         */
+        void copyTriangles(long from, int count, TriangleArrays target);
+    }
+
+    private final ForkJoinPool pool;
+    private final MeshKernels meshKernels;
+
+    /**
+     * @param pool          Pool the splits are computed on, null to compute them one after the other on the
+     *                      calling thread
+     * @param meshKernels   Kernels that compute the per triangle values of a split
+     */
+    public MetricsReduction(ForkJoinPool pool, MeshKernels meshKernels) {
+        this.pool = pool;
+        this.meshKernels = meshKernels;
+    }
+
+    /**
+     * Creates a reduction on the common pool.
+     */
+    public static MetricsReduction withCommonPool(MeshKernels meshKernels) {
+        return new MetricsReduction(ForkJoinPool.commonPool(), meshKernels);
+    }
+
+    /**
+     * Creates a reduction on the calling thread, e.g. for one of many threads that analyze a file each. The
+     * splits are the same, so are the results.
+     */
+    public static MetricsReduction sequential(MeshKernels meshKernels) {
+        return new MetricsReduction(null, meshKernels);
+    }
+
+    /**
+     * Reduces a list of triangles. The signed volumes are taken against the first vertex of the first
+     * triangle, like in the polyhedron controller.
+     */
+    public Result reduce(List<Triangle> triangles) {
+        if (triangles.isEmpty()) {
+            return new Result();
+        }
+        Vertex referenceVertex = triangles.get(0).getVertices().get(0);
+        double[] reference = {referenceVertex.getPosX(), referenceVertex.getPosY(), referenceVertex.getPosZ()};
+        TriangleSource source = (from, count, target) -> target.setTriangles(triangles, (int) from, (int) from + count);
+        return reduce(new Split(null, source, new LeafBuffers.Pool(), reference, 0, triangles.size()));
+    }
+
+    /**
+     * Reduces triangles that are copied from a source. The signed volumes are taken against the first corner
+     * of the first triangle.
+     *
+     * @param triangleCount Number of triangles of the source
+     * @param source        Source of the triangles
+     */
+    public Result reduce(long triangleCount, TriangleSource source) {
+        if (triangleCount == 0) {
+            return new Result();
+        }
+        TriangleArrays first = new TriangleArrays(1);
+        source.copyTriangles(0, 1, first);
+        double[] reference = {first.getAx()[0], first.getAy()[0], first.getAz()[0]};
+        return reduce(new Split(null, source, new LeafBuffers.Pool(), reference, 0, triangleCount));
+    }
+
+    /**
+     * Reduces triangles that are already stored in primitive arrays. The signed volumes are taken against
+     * the first corner of the first triangle.
+     */
+    public Result reduce(TriangleArrays triangles) {
+        if (triangles.getTriangleCount() == 0) {
+            return new Result();
+        }
+        double[] reference = {triangles.getAx()[0], triangles.getAy()[0], triangles.getAz()[0]};
+        return reduce(new Split(triangles, null, new LeafBuffers.Pool(), reference, 0, triangles.getTriangleCount()));
+    }
+
+    private Result reduce(Split split) {
+        // A single split isn't worth the hand-over to the pool, the result is the same either way
+        if (pool == null || split.to - split.from <= LEAF_SIZE) {
+            return split.compute();
+        }
+        return pool.invoke(split);
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * A range of triangles either of the arrays or of the source, the other one is null.
+     */
+    private class Split extends RecursiveTask<Result>
+    {
+        private final TriangleArrays arrays;
+        private final TriangleSource source;
+        private final LeafBuffers.Pool buffers;
+        private final double[] reference;
+        private final long from;
+        private final long to;
+
+        private Split(TriangleArrays arrays, TriangleSource source, LeafBuffers.Pool buffers, double[] reference, long from, long to) {
+            this.arrays = arrays;
+            this.source = source;
+            this.buffers = buffers;
+            this.reference = reference;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= LEAF_SIZE) {
+                return computeLeaf();
+            }
+            long middle = (from + to) >>> 1;
+            Split left = new Split(arrays, source, buffers, reference, from, middle);
+            Split right = new Split(arrays, source, buffers, reference, middle, to);
+            if (pool == null) {
+                Result result = left.compute();
+                result.combine(right.compute());
+                return result;
+            }
+            right.fork();
+            Result result = left.compute();
+            // Always left before right, whichever thread finished first
+            result.combine(right.join());
+            return result;
+        }
+
+        private Result computeLeaf() {
+            LeafBuffers leafBuffers = buffers.acquire();
+            TriangleArrays triangles = arrays;
+            int leafFrom = (int) from;
+            int leafTo = (int) to;
+            if (triangles == null) {
+                triangles = leafBuffers.triangles();
+                source.copyTriangles(from, (int) (to - from), triangles);
+                leafFrom = 0;
+                leafTo = (int) (to - from);
+            }
+            Result result = new Result();
+            double[] values = leafBuffers.values();
+            meshKernels.signedVolumes(triangles, reference, leafFrom, leafTo, values);
+            for (int i = 0; i < leafTo - leafFrom; i++) {
+                result.addVolume(values[i]);
+            }
+            meshKernels.areas(triangles, leafFrom, leafTo, values);
+            for (int i = 0; i < leafTo - leafFrom; i++) {
+                result.addSurfaceArea(values[i]);
+            }
+            double[] boundingBox = meshKernels.boundingBox(triangles, leafFrom, leafTo);
+            System.arraycopy(boundingBox, 0, result.boundingBox, 0, boundingBox.length);
+            buffers.release(leafBuffers);
+            return result;
+        }
+    }
+}
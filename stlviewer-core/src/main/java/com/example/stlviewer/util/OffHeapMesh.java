@@ -0,0 +1,253 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.res.Constants;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Triangles of a mesh stored outside the heap in a {@link MemorySegment}, so that a model with hundreds of
+ * millions of triangles neither needs a huge heap nor makes the garbage collector scan it. <br>
+ * A binary STL file is mapped as it is: the coordinates are read as floats from the triangle records of the
+ * file without copying them, the stride skips the normals and attributes. Any other source is copied into a
+ * segment of nine doubles per triangle, so the coordinates are the same as in a {@code Polyhedron}. All
+ * values are little endian like in the STL format. <br>
+ * The segment belongs to a shared arena, so it can be read from any thread until the mesh is closed. The
+ * metrics are reduced by a {@link MetricsReduction} like the ones of the {@code PolyhedronController}, the
+ * mesh of the viewer is prepared by {@link MeshData#fromOffHeapMesh} straight from the segment.
+ *
+ * @author  Lukas Erdmann
+ */
+public class OffHeapMesh implements MetricsReduction.TriangleSource, AutoCloseable
+{
+    public static final ValueLayout.OfFloat FLOAT_LAYOUT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    public static final ValueLayout.OfDouble DOUBLE_LAYOUT = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    public static final int COORDINATES_PER_TRIANGLE = 9;
+    public static final long PACKED_TRIANGLE_BYTE_SIZE = COORDINATES_PER_TRIANGLE * DOUBLE_LAYOUT.byteSize();
+    public static final long BINARY_DATA_OFFSET = STLReader.STL_BINARY_HEADER_BYTE_SIZE + STLReader.STL_BINARY_TRIANGLE_COUNT_BYTE_SIZE;
+    public static final int INITIAL_ASCII_CAPACITY = 1 << 16;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long triangleCount;
+    private final long firstCoordinateOffset;
+    private final long triangleStride;
+    private final boolean doublePrecision;
+
+    private OffHeapMesh(Arena arena, MemorySegment segment, long triangleCount, long firstCoordinateOffset, long triangleStride,
+                        boolean doublePrecision) {
+        this.arena = arena;
+        this.segment = segment;
+        this.triangleCount = triangleCount;
+        this.firstCoordinateOffset = firstCoordinateOffset;
+        this.triangleStride = triangleStride;
+        this.doublePrecision = doublePrecision;
+    }
+
+    /**
+     * Reads an STL file. A binary file is mapped, an ASCII file is parsed into a segment.
+     *
+     * @param filePath      Path of the STL file
+     * @return              Mesh of the file, must be closed
+     * @throws IOException  If the file can't be read or is truncated
+     */
+    public static OffHeapMesh read(Path filePath) throws IOException {
+        if (new STLReader().isASCII(filePath.toString())) {
+            return readASCII(filePath);
+        }
+        return mapBinary(filePath);
+    }
+
+    /**
+     * Maps the triangle records of a binary STL file.
+     *
+     * @param filePath      Path of the binary STL file
+     * @return              Mesh backed by the file, must be closed
+     * @throws IOException  If the file can't be mapped or has fewer triangles than its header declares
+     */
+    public static OffHeapMesh mapBinary(Path filePath) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < BINARY_DATA_OFFSET) {
+                throw new EOFException("Not a binary STL file, it is too short for the header: " + filePath);
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize, arena);
+            long declaredCount = Integer.toUnsignedLong(segment.get(ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN),
+                    STLReader.STL_BINARY_HEADER_BYTE_SIZE));
+            long storedCount = (fileSize - BINARY_DATA_OFFSET) / STLReader.STL_BINARY_TRIANGLE_BYTE_SIZE;
+            if (storedCount < declaredCount) {
+                throw new EOFException("File is truncated, " + declaredCount + " triangles declared but " + storedCount
+                        + " stored: " + filePath);
+            }
+            return new OffHeapMesh(arena, segment, declaredCount, BINARY_DATA_OFFSET + STLReader.STL_BINARY_NORMAL_BYTE_SIZE,
+                    STLReader.STL_BINARY_TRIANGLE_BYTE_SIZE, false);
+        } catch (IOException | RuntimeException exception) {
+            arena.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Parses the vertices of an ASCII STL file into a segment. The segment grows by doubling, the vertices
+     * are parsed like in the {@link STLReader}.
+     *
+     * @param filePath      Path of the ASCII STL file
+     * @return              Mesh of the file, must be closed
+     * @throws IOException  If the file can't be read
+     */
+    public static OffHeapMesh readASCII(Path filePath) throws IOException {
+        STLReader reader = new STLReader();
+        Arena arena = Arena.ofShared();
+        MemorySegment segment = arena.allocate(INITIAL_ASCII_CAPACITY * PACKED_TRIANGLE_BYTE_SIZE, Double.BYTES);
+        long coordinateCount = 0;
+        try (BufferedReader lineReader = Files.newBufferedReader(filePath)) {
+            String line;
+            while ((line = lineReader.readLine()) != null) {
+                if (!line.trim().startsWith(STLReader.STL_ASCII_VERTEX_START_TAG)) {
+                    continue;
+                }
+                if ((coordinateCount + Constants.TRIANGLE_VERTEX_COUNT) * DOUBLE_LAYOUT.byteSize() > segment.byteSize()) {
+                    // Move the coordinates into a segment of twice the size, the old arena releases its memory
+                    Arena grownArena = Arena.ofShared();
+                    MemorySegment grownSegment = grownArena.allocate(segment.byteSize() * 2, Double.BYTES);
+                    MemorySegment.copy(segment, 0, grownSegment, 0, segment.byteSize());
+                    arena.close();
+                    arena = grownArena;
+                    segment = grownSegment;
+                }
+                Vertex vertex = reader.readVertexASCII(line);
+                segment.setAtIndex(DOUBLE_LAYOUT, coordinateCount++, vertex.getPosX());
+                segment.setAtIndex(DOUBLE_LAYOUT, coordinateCount++, vertex.getPosY());
+                segment.setAtIndex(DOUBLE_LAYOUT, coordinateCount++, vertex.getPosZ());
+            }
+        } catch (IOException | RuntimeException exception) {
+            arena.close();
+            throw exception;
+        }
+        long triangleCount = coordinateCount / COORDINATES_PER_TRIANGLE;
+        return new OffHeapMesh(arena, segment.asSlice(0, triangleCount * PACKED_TRIANGLE_BYTE_SIZE), triangleCount, 0,
+                PACKED_TRIANGLE_BYTE_SIZE, true);
+    }
+
+    /**
+     * Copies the triangles of a polyhedron into a segment.
+     *
+     * @param polyhedron    Polyhedron to copy
+     * @return              Mesh with the coordinates of the polyhedron, must be closed
+     */
+    public static OffHeapMesh fromPolyhedron(Polyhedron polyhedron) {
+        long triangleCount = polyhedron.getTriangleCount();
+        Arena arena = Arena.ofShared();
+        MemorySegment segment = arena.allocate(java.lang.Math.max(triangleCount * PACKED_TRIANGLE_BYTE_SIZE, 1), Double.BYTES);
+        long coordinateIndex = 0;
+        for (Triangle triangle : polyhedron.getTriangles()) {
+            for (Vertex vertex : triangle.getVertices()) {
+                segment.setAtIndex(DOUBLE_LAYOUT, coordinateIndex++, vertex.getPosX());
+                segment.setAtIndex(DOUBLE_LAYOUT, coordinateIndex++, vertex.getPosY());
+                segment.setAtIndex(DOUBLE_LAYOUT, coordinateIndex++, vertex.getPosZ());
+            }
+        }
+        return new OffHeapMesh(arena, segment, triangleCount, 0, PACKED_TRIANGLE_BYTE_SIZE, true);
+    }
+
+    /**
+     * Reads a coordinate of a vertex.
+     *
+     * @param triangleIndex Index of the triangle
+     * @param vertexIndex   Index of the vertex in the triangle, 0 to 2
+     * @param axis          0 for x, 1 for y, 2 for z
+     * @return              The coordinate
+     */
+    public double getCoordinate(long triangleIndex, int vertexIndex, int axis) {
+        long coordinateIndex = vertexIndex * 3L + axis;
+        long offset = firstCoordinateOffset + triangleIndex * triangleStride;
+        return doublePrecision ? segment.get(DOUBLE_LAYOUT, offset + coordinateIndex * Double.BYTES)
+                : segment.get(FLOAT_LAYOUT, offset + coordinateIndex * Float.BYTES);
+    }
+
+    /**
+     * Copies a range of triangles into arrays, so the kernels can process them like the triangles of a
+     * {@code Polyhedron}. The SIMD kernels need the corners in separate arrays, so a split of at most
+     * {@value MetricsReduction#LEAF_SIZE} triangles is staged in the reused arrays of its thread.
+     */
+    @Override
+    public void copyTriangles(long from, int count, TriangleArrays target) {
+        double[][] corners = {target.getAx(), target.getAy(), target.getAz(), target.getBx(), target.getBy(), target.getBz(),
+                target.getCx(), target.getCy(), target.getCz()};
+        long offset = firstCoordinateOffset + from * triangleStride;
+        if (doublePrecision) {
+            for (int i = 0; i < count; i++, offset += triangleStride) {
+                for (int coordinate = 0; coordinate < COORDINATES_PER_TRIANGLE; coordinate++) {
+                    corners[coordinate][i] = segment.get(DOUBLE_LAYOUT, offset + (long) coordinate * Double.BYTES);
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++, offset += triangleStride) {
+                for (int coordinate = 0; coordinate < COORDINATES_PER_TRIANGLE; coordinate++) {
+                    corners[coordinate][i] = segment.get(FLOAT_LAYOUT, offset + (long) coordinate * Float.BYTES);
+                }
+            }
+        }
+        target.setTriangleCount(count);
+    }
+
+    /**
+     * Calculates the volume, the surface area and the bounding box with the same reduction as the
+     * {@code PolyhedronController}. The segment is copied into small arrays split by split, so the heap only
+     * holds a few of them at a time.
+     *
+     * @param reduction Reduction the triangles are reduced with
+     * @return          Metrics of the mesh, the bounding box is inverted if there are no triangles
+     */
+    public MetricsReduction.Result calculateMetrics(MetricsReduction reduction) {
+        return reduction.reduce(triangleCount, this);
+    }
+
+    /**
+     * @return  Center of the bounding box
+     */
+    public static Vertex centerOf(double[] boundingBox) {
+        return new Vertex((boundingBox[0] + boundingBox[3]) / 2, (boundingBox[1] + boundingBox[4]) / 2,
+                (boundingBox[2] + boundingBox[5]) / 2);
+    }
+
+    public long getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * @return  True if the coordinates are read from a mapped file
+     */
+    public boolean isMapped() {
+        return segment.isMapped();
+    }
+
+    /**
+     * @return  Bytes of the segment, including the header and the normals of a mapped binary file
+     */
+    public long getByteSize() {
+        return segment.byteSize();
+    }
+
+    /**
+     * Releases the segment. The mesh can't be read afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
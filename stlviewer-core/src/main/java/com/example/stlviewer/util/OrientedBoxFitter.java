@@ -0,0 +1,465 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.OrientedBox;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import javax.vecmath.Vector3d;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fits a tight oriented bounding box around the vertices of a polyhedron. <br>
+ * The initial guess is the box along the principal components of the vertices. It is refined over candidate
+ * directions: for each one the vertices are projected onto the plane orthogonal to it, and the minimum area
+ * rectangle around the projection is found with rotating calipers over its convex hull. The box of a
+ * candidate is that rectangle extruded along the direction. The box of the optimum has a face parallel to
+ * a face of the convex hull and an edge parallel to an edge of it, so the candidates are the edge directions
+ * of the {@link QuickHull} of the vertices, and only the hull vertices are projected. <br>
+ * A hull can have far more edge directions than are worth evaluating, so only the {@value #DEFAULT_MAX_CANDIDATES}
+ * directions with the largest total edge length are kept by default. This cap is a heuristic: the direction
+ * of the optimal box may be among the dropped ones, so the box is never larger than the principal component
+ * box but isn't guaranteed to be the tightest one. <br>
+ * The candidates are evaluated in parallel on a fork-join pool. The box with the smallest volume wins, ties
+ * go to the earlier candidate, so the result doesn't depend on the pool.
+ *
+ * @author  Lukas Erdmann
+ */
+public class OrientedBoxFitter
+{
+    public static final int DEFAULT_MAX_CANDIDATES = 64;
+    /**
+     * Directions that differ by less than this in every component are evaluated once.
+     */
+    public static final double DIRECTION_RESOLUTION = 1e-6;
+
+    private final ForkJoinPool pool;
+    private final int maxCandidates;
+
+    /**
+     * @param pool          Pool the candidates are evaluated on
+     * @param maxCandidates Maximum number of candidate directions, the ones with the largest total edge length are kept
+     */
+    public OrientedBoxFitter(ForkJoinPool pool, int maxCandidates) {
+        this.pool = pool;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Creates a fitter on the common pool with {@value #DEFAULT_MAX_CANDIDATES} candidates.
+     */
+    public static OrientedBoxFitter withCommonPool() {
+        return new OrientedBoxFitter(ForkJoinPool.commonPool(), DEFAULT_MAX_CANDIDATES);
+    }
+
+    /**
+     * Fits a box around the vertices of triangles. The candidates are the edge directions of their convex hull,
+     * or of the triangles themselves if the hull has no faces.
+     *
+     * @return  Box, null if there are no triangles
+     */
+    public OrientedBox fit(List<Triangle> triangles) {
+        if (triangles.isEmpty()) {
+            return null;
+        }
+        return fit(new QuickHull(pool).build(triangles), triangles);
+    }
+
+    /**
+     * Fits a box around the vertices of triangles whose convex hull is already known.
+     *
+     * @param hull      Convex hull of the triangles
+     * @param triangles Triangles, only used if the hull has no faces
+     * @return          Box, null if there are no triangles
+     */
+    public OrientedBox fit(Polyhedron hull, List<Triangle> triangles) {
+        List<Triangle> hullTriangles = hull.getTriangles().isEmpty() ? triangles : hull.getTriangles();
+        if (hullTriangles.isEmpty()) {
+            return null;
+        }
+        return fit(QuickHull.uniquePoints(hullTriangles), edgeDirections(hullTriangles, maxCandidates));
+    }
+
+    /**
+     * Fits a box around points.
+     *
+     * @param points        Three coordinates per point
+     * @param directions    Three coordinates per candidate direction, need not be normalized
+     * @return              Box, null if there are no points
+     */
+    public OrientedBox fit(double[] points, double[] directions) {
+        if (points.length < 3) {
+            return null;
+        }
+        OrientedBox best = boxAlong(points, principalAxes(points));
+        int candidateCount = directions.length / 3;
+        if (candidateCount > 0) {
+            CandidateSplit split = new CandidateSplit(points, directions, 0, candidateCount);
+            Candidate candidate = candidateCount == 1 ? split.compute() : pool.invoke(split);
+            if (candidate != null && candidate.volume < best.getVolume()) {
+                Vector3d[] axes = {candidate.axis, new Vector3d(), candidate.direction};
+                axes[1].cross(candidate.direction, candidate.axis);
+                OrientedBox refined = boxAlong(points, axes);
+                if (refined.getVolume() < best.getVolume()) {
+                    best = refined;
+                }
+            }
+        }
+        return best;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Collects the distinct edge directions of triangles, an edge and its reverse have the same direction.
+     *
+     * @param maxCount  Maximum number of directions, the ones with the largest total edge length are kept
+     * @return          Three coordinates per unit direction
+     */
+    public static double[] edgeDirections(List<Triangle> triangles, int maxCount) {
+        // A rounded direction is the key, the value the first exact direction and the summed length
+        Map<Vertex, double[]> directions = new LinkedHashMap<>();
+        for (Triangle triangle : triangles) {
+            List<Vertex> vertices = triangle.getVertices();
+            for (int i = 0; i < 3; i++) {
+                Vertex start = vertices.get(i);
+                Vertex end = vertices.get((i + 1) % 3);
+                addDirection(directions, end.getPosX() - start.getPosX(), end.getPosY() - start.getPosY(),
+                        end.getPosZ() - start.getPosZ());
+            }
+        }
+        return toLongestDirections(directions, maxCount);
+    }
+
+    /**
+     * Adds a direction with its length to the distinct directions, after turning it into the half space of
+     * the first non-zero coordinate.
+     */
+    static void addDirection(Map<Vertex, double[]> directions, double x, double y, double z) {
+        double length = java.lang.Math.sqrt(x * x + y * y + z * z);
+        if (!(length > 0)) {
+            return;
+        }
+        x /= length;
+        y /= length;
+        z /= length;
+        if (x < 0 || (x == 0 && (y < 0 || (y == 0 && z < 0)))) {
+            x = -x;
+            y = -y;
+            z = -z;
+        }
+        Vertex key = new Vertex(round(x), round(y), round(z));
+        double[] entry = directions.get(key);
+        if (entry == null) {
+            directions.put(key, new double[]{x, y, z, length});
+        } else {
+            entry[3] += length;
+        }
+    }
+
+    static double[] toLongestDirections(Map<Vertex, double[]> directions, int maxCount) {
+        List<double[]> entries = new ArrayList<>(directions.values());
+        // Stable, equally long directions keep the order they were found in
+        entries.sort((a, b) -> Double.compare(b[3], a[3]));
+        int count = java.lang.Math.min(maxCount, entries.size());
+        double[] result = new double[count * 3];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(entries.get(i), 0, result, i * 3, 3);
+        }
+        return result;
+    }
+
+    private static double round(double value) {
+        // Adding 0.0 turns -0.0 into 0.0, which Vertex.equals tells apart
+        return java.lang.Math.rint(value / DIRECTION_RESOLUTION) * DIRECTION_RESOLUTION + 0.0;
+    }
+
+    /**
+     * @return  Eigenvectors of the covariance matrix of the points, right-handed
+     */
+    static Vector3d[] principalAxes(double[] points) {
+        int count = points.length / 3;
+        double mx = 0, my = 0, mz = 0;
+        for (int i = 0; i < points.length; i += 3) {
+            mx += points[i];
+            my += points[i + 1];
+            mz += points[i + 2];
+        }
+        mx /= count;
+        my /= count;
+        mz /= count;
+        double[][] covariance = new double[3][3];
+        for (int i = 0; i < points.length; i += 3) {
+            double dx = points[i] - mx, dy = points[i + 1] - my, dz = points[i + 2] - mz;
+            covariance[0][0] += dx * dx;
+            covariance[0][1] += dx * dy;
+            covariance[0][2] += dx * dz;
+            covariance[1][1] += dy * dy;
+            covariance[1][2] += dy * dz;
+            covariance[2][2] += dz * dz;
+        }
+        covariance[1][0] = covariance[0][1];
+        covariance[2][0] = covariance[0][2];
+        covariance[2][1] = covariance[1][2];
+        Vector3d[] axes = new Vector3d[3];
+        MassPropertiesReduction.decompose(covariance, new double[3], axes);
+        return axes;
+    }
+
+    /**
+     * @return  Smallest box along the given orthonormal axes that contains the points
+     */
+    static OrientedBox boxAlong(double[] points, Vector3d[] axes) {
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < points.length; i += 3) {
+            for (int axis = 0; axis < 3; axis++) {
+                double projection = points[i] * axes[axis].x + points[i + 1] * axes[axis].y + points[i + 2] * axes[axis].z;
+                min[axis] = java.lang.Math.min(min[axis], projection);
+                max[axis] = java.lang.Math.max(max[axis], projection);
+            }
+        }
+        double[] extents = new double[3];
+        double x = 0, y = 0, z = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            extents[axis] = max[axis] - min[axis];
+            double middle = (min[axis] + max[axis]) / 2;
+            x += axes[axis].x * middle;
+            y += axes[axis].y * middle;
+            z += axes[axis].z * middle;
+        }
+        Vector3d[] copies = {new Vector3d(axes[0]), new Vector3d(axes[1]), new Vector3d(axes[2])};
+        return new OrientedBox(new Vertex(x, y, z), copies, extents);
+    }
+
+    /**
+     * Best box of a candidate direction: the direction, the first axis of the rectangle and the volume.
+     */
+    private static class Candidate
+    {
+        private final Vector3d direction;
+        private final Vector3d axis;
+        private final double volume;
+
+        private Candidate(Vector3d direction, Vector3d axis, double volume) {
+            this.direction = direction;
+            this.axis = axis;
+            this.volume = volume;
+        }
+    }
+
+    /**
+     * Finds the box of a candidate direction: the extent along it times the minimum area rectangle of the
+     * projection onto the orthogonal plane.
+     */
+    private static Candidate evaluate(double[] points, double[] directions, int index) {
+        Vector3d direction = new Vector3d(directions[index * 3], directions[index * 3 + 1], directions[index * 3 + 2]);
+        if (!(direction.length() > 0)) {
+            return null;
+        }
+        direction.normalize();
+        // Any orthonormal basis of the plane, starting from the coordinate axis least aligned with the direction
+        Vector3d helper = java.lang.Math.abs(direction.x) < 0.5 ? new Vector3d(1, 0, 0)
+                : java.lang.Math.abs(direction.y) < 0.5 ? new Vector3d(0, 1, 0) : new Vector3d(0, 0, 1);
+        Vector3d u = new Vector3d();
+        u.cross(direction, helper);
+        u.normalize();
+        Vector3d v = new Vector3d();
+        v.cross(direction, u);
+
+        int count = points.length / 3;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double minHeight = Double.MAX_VALUE, maxHeight = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            double px = points[i * 3], py = points[i * 3 + 1], pz = points[i * 3 + 2];
+            xs[i] = px * u.x + py * u.y + pz * u.z;
+            ys[i] = px * v.x + py * v.y + pz * v.z;
+            double height = px * direction.x + py * direction.y + pz * direction.z;
+            minHeight = java.lang.Math.min(minHeight, height);
+            maxHeight = java.lang.Math.max(maxHeight, height);
+        }
+        double[] rectangle = minimumAreaRectangle(convexHull2d(xs, ys));
+        Vector3d axis = new Vector3d(u);
+        axis.scale(rectangle[0]);
+        Vector3d vPart = new Vector3d(v);
+        vPart.scale(rectangle[1]);
+        axis.add(vPart);
+        axis.normalize();
+        return new Candidate(direction, axis, rectangle[2] * (maxHeight - minHeight));
+    }
+
+    /**
+     * Convex hull of points in the plane with Andrew's monotone chain. Points inside the octagon of the
+     * extreme points in x, y, x + y and x - y are dropped first, which leaves few points to sort.
+     *
+     * @return  Coordinates of the hull vertices in counter-clockwise order without collinear points, x and y alternating
+     */
+    static double[] convexHull2d(double[] xs, double[] ys) {
+        int count = xs.length;
+        // Extreme points in counter-clockwise order: bottom, bottom right, right, top right, top, top left, left, bottom left
+        int[] extremes = new int[8];
+        for (int i = 1; i < count; i++) {
+            if (ys[i] < ys[extremes[0]]) extremes[0] = i;
+            if (xs[i] - ys[i] > xs[extremes[1]] - ys[extremes[1]]) extremes[1] = i;
+            if (xs[i] > xs[extremes[2]]) extremes[2] = i;
+            if (xs[i] + ys[i] > xs[extremes[3]] + ys[extremes[3]]) extremes[3] = i;
+            if (ys[i] > ys[extremes[4]]) extremes[4] = i;
+            if (ys[i] - xs[i] > ys[extremes[5]] - xs[extremes[5]]) extremes[5] = i;
+            if (xs[i] < xs[extremes[6]]) extremes[6] = i;
+            if (xs[i] + ys[i] < xs[extremes[7]] + ys[extremes[7]]) extremes[7] = i;
+        }
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (!isInsideOctagon(xs, ys, extremes, xs[i], ys[i])) {
+                candidates.add(i);
+            }
+        }
+        candidates.sort((a, b) -> xs[a] != xs[b] ? Double.compare(xs[a], xs[b]) : Double.compare(ys[a], ys[b]));
+
+        int[] hull = new int[2 * candidates.size() + 1];
+        int size = 0;
+        // Lower hull from left to right, then upper hull from right to left
+        for (int pass = 0; pass < 2; pass++) {
+            int lowerSize = size;
+            for (int k = 0; k < candidates.size(); k++) {
+                int i = candidates.get(pass == 0 ? k : candidates.size() - 1 - k);
+                while (size >= lowerSize + 2 && cross(xs, ys, hull[size - 2], hull[size - 1], i) <= 0) {
+                    size--;
+                }
+                hull[size++] = i;
+            }
+            // The last point is the first of the next chain
+            size--;
+        }
+        size = java.lang.Math.max(size, java.lang.Math.min(candidates.size(), 1));
+        double[] coordinates = new double[size * 2];
+        for (int k = 0; k < size; k++) {
+            coordinates[k * 2] = xs[hull[k]];
+            coordinates[k * 2 + 1] = ys[hull[k]];
+        }
+        return coordinates;
+    }
+
+    private static boolean isInsideOctagon(double[] xs, double[] ys, int[] extremes, double x, double y) {
+        int corners = 0;
+        for (int k = 0; k < extremes.length; k++) {
+            int start = extremes[k];
+            int end = extremes[(k + 1) % extremes.length];
+            if (start == end) {
+                continue;
+            }
+            corners++;
+            double edgeCross = (xs[end] - xs[start]) * (y - ys[start]) - (ys[end] - ys[start]) * (x - xs[start]);
+            if (edgeCross <= 0) {
+                return false;
+            }
+        }
+        // An octagon with less than three corners has no inside
+        return corners >= 3;
+    }
+
+    private static double cross(double[] xs, double[] ys, int o, int a, int b) {
+        return (xs[a] - xs[o]) * (ys[b] - ys[o]) - (ys[a] - ys[o]) * (xs[b] - xs[o]);
+    }
+
+    /**
+     * Minimum area rectangle around a convex polygon with rotating calipers. One side of the rectangle lies
+     * on an edge of the polygon, and the extreme points in the directions along and across an edge only move
+     * forward from one edge to the next.
+     *
+     * @param hull  Counter-clockwise polygon, x and y alternating
+     * @return      Unit direction of the first side as x and y, followed by the area
+     */
+    static double[] minimumAreaRectangle(double[] hull) {
+        int count = hull.length / 2;
+        if (count < 3) {
+            // A segment or a point, the rectangle has no area
+            double dx = count == 2 ? hull[2] - hull[0] : 1;
+            double dy = count == 2 ? hull[3] - hull[1] : 0;
+            double length = java.lang.Math.hypot(dx, dy);
+            return new double[]{dx / length, dy / length, 0};
+        }
+        double[] best = null;
+        int maxAlong = 0, minAlong = 0, maxAcross = 0;
+        for (int i = 0; i < count; i++) {
+            int next = (i + 1) % count;
+            double dx = hull[next * 2] - hull[i * 2];
+            double dy = hull[next * 2 + 1] - hull[i * 2 + 1];
+            double length = java.lang.Math.hypot(dx, dy);
+            dx /= length;
+            dy /= length;
+            if (i == 0) {
+                // Start with a full scan, afterwards the calipers only advance
+                for (int k = 1; k < count; k++) {
+                    if (project(hull, k, dx, dy) > project(hull, maxAlong, dx, dy)) maxAlong = k;
+                    if (project(hull, k, dx, dy) < project(hull, minAlong, dx, dy)) minAlong = k;
+                    if (project(hull, k, -dy, dx) > project(hull, maxAcross, -dy, dx)) maxAcross = k;
+                }
+            }
+            for (int steps = 0; steps < count && project(hull, (maxAlong + 1) % count, dx, dy) > project(hull, maxAlong, dx, dy); steps++) {
+                maxAlong = (maxAlong + 1) % count;
+            }
+            for (int steps = 0; steps < count && project(hull, (minAlong + 1) % count, dx, dy) < project(hull, minAlong, dx, dy); steps++) {
+                minAlong = (minAlong + 1) % count;
+            }
+            for (int steps = 0; steps < count && project(hull, (maxAcross + 1) % count, -dy, dx) > project(hull, maxAcross, -dy, dx); steps++) {
+                maxAcross = (maxAcross + 1) % count;
+            }
+            // The left normal points into the counter-clockwise polygon, the edge itself is the minimum across
+            double area = (project(hull, maxAlong, dx, dy) - project(hull, minAlong, dx, dy))
+                    * (project(hull, maxAcross, -dy, dx) - project(hull, i, -dy, dx));
+            if (best == null || area < best[2]) {
+                best = new double[]{dx, dy, area};
+            }
+        }
+        return best;
+    }
+
+    private static double project(double[] hull, int index, double dx, double dy) {
+        return hull[index * 2] * dx + hull[index * 2 + 1] * dy;
+    }
+
+    /**
+     * A range of candidate directions, halved until a single one is left.
+     */
+    private static class CandidateSplit extends RecursiveTask<Candidate>
+    {
+        private final double[] points;
+        private final double[] directions;
+        private final int from;
+        private final int to;
+
+        private CandidateSplit(double[] points, double[] directions, int from, int to) {
+            this.points = points;
+            this.directions = directions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Candidate compute() {
+            if (to - from == 1) {
+                return evaluate(points, directions, from);
+            }
+            int middle = (from + to) >>> 1;
+            CandidateSplit left = new CandidateSplit(points, directions, from, middle);
+            CandidateSplit right = new CandidateSplit(points, directions, middle, to);
+            right.fork();
+            Candidate leftBest = left.compute();
+            Candidate rightBest = right.join();
+            // Ties go to the left, the earlier candidate
+            if (leftBest == null || (rightBest != null && rightBest.volume < leftBest.volume)) {
+                return rightBest;
+            }
+            return leftBest;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.stlviewer.util;
+
+import java.io.PrintStream;
+
+/**
+ * Progress messages of the reader and the controllers, like the detected format and the load phases. They are
+ * written to the standard output unless another output is set, so a tool that writes its results to the
+ * standard output can redirect or drop them without replacing {@link System#out}.
+ *
+ * @author  Lukas Erdmann
+ */
+public final class ProgressLog
+{
+    private static volatile PrintStream output = System.out;
+
+    private ProgressLog() {
+    }
+
+    /**
+     * @param progressOutput    Stream for the progress messages, null to drop them
+     */
+    public static void setOutput(PrintStream progressOutput) {
+        output = progressOutput;
+    }
+
+    public static void println(String message) {
+        PrintStream currentOutput = output;
+        if (currentOutput != null) {
+            currentOutput.println(message);
+        }
+    }
+}
@@ -0,0 +1,663 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Convex hull of the vertices of a polyhedron with the 3D QuickHull algorithm. <br>
+ * The hull grows from an initial tetrahedron of extreme points. Every face keeps the points above it, the
+ * furthest of them is added next: the faces it sees are removed and the horizon around them is connected to
+ * it. Points are only counted as above a face if they are further than a tolerance scaled to the
+ * coordinates, so nearly coplanar points don't create folded faces. <br>
+ * Large point sets are divided on a fork-join pool: the hulls of the halves are computed in parallel, and
+ * the hull of the union of their vertices is the hull of both. Points inside a partial hull are dropped
+ * early, which makes most of the work parallel. The final hull of the remaining points is always built
+ * sequentially. If most points lie on the hull, like the vertices of a sphere, the halves are no longer
+ * merged and only the leaves run in parallel; they drop few points, so nearly all of the work is this final
+ * sequential build and the pool barely speeds it up. <br>
+ * If rounding breaks the faces a point sees into more than one region, the point is dropped instead of
+ * folding the hull. It may then lie up to a rounding error outside of the hull. Such points are counted by
+ * {@link #getDroppedPointCount()} and reported on the error stream. <br>
+ * Degenerate input gives a hull without volume: coplanar points give both sides of their convex polygon,
+ * collinear points and single points a polyhedron without triangles.
+ *
+ * @author  Lukas Erdmann
+ */
+public class QuickHull
+{
+    /**
+     * Points of a split that is computed without dividing it further.
+     */
+    public static final int LEAF_POINT_COUNT = 1 << 15;
+    /**
+     * Share of the points of a split left on the hulls of its halves above which they aren't merged.
+     */
+    public static final double MAX_MERGE_FRACTION = 0.5;
+    /**
+     * Tolerance relative to the sum of the largest absolute coordinates, like qhull.
+     */
+    public static final double TOLERANCE_FACTOR = 3 * java.lang.Math.ulp(1.0);
+
+    private final ForkJoinPool pool;
+    private final AtomicLong droppedPointCount = new AtomicLong();
+
+    /**
+     * @param pool  Pool the splits are computed on
+     */
+    public QuickHull(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a hull builder on the common pool.
+     */
+    public static QuickHull withCommonPool() {
+        return new QuickHull(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the convex hull of the vertices of triangles.
+     *
+     * @return  Hull with its volume, surface area, bounding box and center defined
+     */
+    public Polyhedron build(List<Triangle> triangles) {
+        return build(uniquePoints(triangles));
+    }
+
+    /**
+     * Computes the convex hull of points.
+     *
+     * @param points    Three coordinates per point
+     * @return          Hull with its volume, surface area, bounding box and center defined
+     */
+    public Polyhedron build(double[] points) {
+        int count = points.length / 3;
+        double tolerance = tolerance(points);
+        AtomicLong droppedPoints = new AtomicLong();
+        int[] candidates;
+        if (count <= LEAF_POINT_COUNT) {
+            candidates = new int[count];
+            Arrays.setAll(candidates, i -> i);
+        } else {
+            candidates = pool.invoke(new HullSplit(points, tolerance, droppedPoints, 0, count, true));
+        }
+        Hull hull = Hull.build(points, candidates, tolerance, droppedPoints);
+        if (droppedPoints.get() > 0) {
+            droppedPointCount.addAndGet(droppedPoints.get());
+            System.err.println("Warning: " + droppedPoints.get() + " points were dropped from the convex hull, rounding broke their horizon");
+        }
+        ArrayList<Triangle> triangles = new ArrayList<>();
+        if (hull.faces != null) {
+            Vertex[] vertices = new Vertex[count];
+            for (Face face : hull.faces) {
+                triangles.add(new Triangle(vertex(points, vertices, face.a), vertex(points, vertices, face.b),
+                        vertex(points, vertices, face.c), null));
+            }
+        } else if (hull.dimension == 2) {
+            addPolygon(points, candidates, hull, triangles);
+        }
+        Polyhedron polyhedron = new Polyhedron(triangles);
+        PolyhedronController controller = new PolyhedronController(polyhedron);
+        if (triangles.isEmpty()) {
+            double[] boundingBox = boundingBox(points, candidates);
+            polyhedron.setBoundingBox(boundingBox);
+        } else {
+            controller.calculateMetrics();
+            if (hull.faces == null) {
+                // Both sides of a polygon enclose nothing, the signed volumes only cancel up to rounding
+                polyhedron.setVolume(0);
+            }
+        }
+        if (count > 0) {
+            controller.defineCenter();
+        }
+        return polyhedron;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return  Points dropped by all hulls built so far because rounding broke the faces they see apart
+     */
+    public long getDroppedPointCount() {
+        return droppedPointCount.get();
+    }
+
+    /**
+     * Collects the distinct vertices of triangles.
+     *
+     * @return  Three coordinates per vertex in the order they first appear
+     */
+    public static double[] uniquePoints(List<Triangle> triangles) {
+        LinkedHashSet<Vertex> vertices = new LinkedHashSet<>();
+        for (Triangle triangle : triangles) {
+            vertices.addAll(triangle.getVertices());
+        }
+        double[] points = new double[vertices.size() * 3];
+        int offset = 0;
+        for (Vertex vertex : vertices) {
+            points[offset++] = vertex.getPosX();
+            points[offset++] = vertex.getPosY();
+            points[offset++] = vertex.getPosZ();
+        }
+        return points;
+    }
+
+    static double tolerance(double[] points) {
+        double[] maxAbsolute = new double[3];
+        for (int i = 0; i < points.length; i++) {
+            maxAbsolute[i % 3] = java.lang.Math.max(maxAbsolute[i % 3], java.lang.Math.abs(points[i]));
+        }
+        return TOLERANCE_FACTOR * (maxAbsolute[0] + maxAbsolute[1] + maxAbsolute[2]);
+    }
+
+    private static Vertex vertex(double[] points, Vertex[] vertices, int index) {
+        if (vertices[index] == null) {
+            vertices[index] = new Vertex(points[index * 3], points[index * 3 + 1], points[index * 3 + 2]);
+        }
+        return vertices[index];
+    }
+
+    private static double[] boundingBox(double[] points, int[] indices) {
+        double[] boundingBox = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int index : indices) {
+            for (int axis = 0; axis < 3; axis++) {
+                boundingBox[axis] = java.lang.Math.min(boundingBox[axis], points[index * 3 + axis]);
+                boundingBox[axis + 3] = java.lang.Math.max(boundingBox[axis + 3], points[index * 3 + axis]);
+            }
+        }
+        return boundingBox;
+    }
+
+    /**
+     * Adds both sides of the convex polygon of coplanar points as a triangle fan.
+     */
+    private static void addPolygon(double[] points, int[] indices, Hull hull, List<Triangle> triangles) {
+        int origin = hull.simplex[0];
+        double ox = points[origin * 3], oy = points[origin * 3 + 1], oz = points[origin * 3 + 2];
+        // Orthonormal basis u, v of the plane through the first three simplex points
+        double[] u = subtract(points, hull.simplex[1], origin);
+        normalize(u);
+        double[] w = subtract(points, hull.simplex[2], origin);
+        double[] normal = cross(u, w);
+        normalize(normal);
+        double[] v = cross(normal, u);
+        double[] xs = new double[indices.length];
+        double[] ys = new double[indices.length];
+        for (int k = 0; k < indices.length; k++) {
+            int i = indices[k];
+            double dx = points[i * 3] - ox, dy = points[i * 3 + 1] - oy, dz = points[i * 3 + 2] - oz;
+            xs[k] = dx * u[0] + dy * u[1] + dz * u[2];
+            ys[k] = dx * v[0] + dy * v[1] + dz * v[2];
+        }
+        double[] polygon = OrientedBoxFitter.convexHull2d(xs, ys);
+        Vertex[] corners = new Vertex[polygon.length / 2];
+        for (int k = 0; k < corners.length; k++) {
+            double x = polygon[k * 2], y = polygon[k * 2 + 1];
+            corners[k] = new Vertex(ox + x * u[0] + y * v[0], oy + x * u[1] + y * v[1], oz + x * u[2] + y * v[2]);
+        }
+        for (int k = 1; k + 1 < corners.length; k++) {
+            triangles.add(new Triangle(corners[0], corners[k], corners[k + 1], null));
+            triangles.add(new Triangle(corners[0], corners[k + 1], corners[k], null));
+        }
+    }
+
+    private static double[] subtract(double[] points, int a, int b) {
+        return new double[]{points[a * 3] - points[b * 3], points[a * 3 + 1] - points[b * 3 + 1], points[a * 3 + 2] - points[b * 3 + 2]};
+    }
+
+    private static double[] cross(double[] a, double[] b) {
+        return new double[]{a[1] * b[2] - a[2] * b[1], a[2] * b[0] - a[0] * b[2], a[0] * b[1] - a[1] * b[0]};
+    }
+
+    private static void normalize(double[] vector) {
+        double length = java.lang.Math.sqrt(vector[0] * vector[0] + vector[1] * vector[1] + vector[2] * vector[2]);
+        vector[0] /= length;
+        vector[1] /= length;
+        vector[2] /= length;
+    }
+
+    /**
+     * Triangle of the hull, counter-clockwise seen from outside. Edge i runs from vertex i to vertex i + 1,
+     * neighbor i is the face on the other side of it.
+     */
+    private static class Face
+    {
+        private final int a, b, c;
+        private final double nx, ny, nz, offset;
+        private final Face[] neighbors = new Face[3];
+        private int[] outside = new int[0];
+        private int outsideCount;
+        private int furthest = -1;
+        private double furthestDistance;
+        private boolean visible;
+        private boolean collected;
+
+        private Face(double[] points, int a, int b, int c) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            double ux = points[b * 3] - points[a * 3], uy = points[b * 3 + 1] - points[a * 3 + 1], uz = points[b * 3 + 2] - points[a * 3 + 2];
+            double vx = points[c * 3] - points[a * 3], vy = points[c * 3 + 1] - points[a * 3 + 1], vz = points[c * 3 + 2] - points[a * 3 + 2];
+            double x = uy * vz - uz * vy, y = uz * vx - ux * vz, z = ux * vy - uy * vx;
+            double length = java.lang.Math.sqrt(x * x + y * y + z * z);
+            // A face without area has no direction, no point is above it
+            if (length > 0) {
+                x /= length;
+                y /= length;
+                z /= length;
+            }
+            this.nx = x;
+            this.ny = y;
+            this.nz = z;
+            this.offset = x * points[a * 3] + y * points[a * 3 + 1] + z * points[a * 3 + 2];
+        }
+
+        private int vertex(int index) {
+            return index == 0 ? a : index == 1 ? b : c;
+        }
+
+        private double distance(double[] points, int point) {
+            return nx * points[point * 3] + ny * points[point * 3 + 1] + nz * points[point * 3 + 2] - offset;
+        }
+
+        private void addOutside(int point, double distance) {
+            if (outsideCount == outside.length) {
+                outside = Arrays.copyOf(outside, java.lang.Math.max(4, outside.length * 2));
+            }
+            outside[outsideCount++] = point;
+            if (furthest < 0 || distance > furthestDistance) {
+                furthest = point;
+                furthestDistance = distance;
+            }
+        }
+
+        /**
+         * @return  Index of the edge from start to end
+         */
+        private int edgeIndex(int start, int end) {
+            for (int i = 0; i < 3; i++) {
+                if (vertex(i) == start && vertex((i + 1) % 3) == end) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void link(int edge, Face neighbor) {
+            neighbors[edge] = neighbor;
+            neighbor.neighbors[neighbor.edgeIndex(vertex((edge + 1) % 3), vertex(edge))] = this;
+        }
+    }
+
+    /**
+     * Sequential QuickHull of a subset of the points.
+     */
+    private static class Hull
+    {
+        private final double[] points;
+        private final double tolerance;
+        private final AtomicLong droppedPoints;
+        /**
+         * Dimension of the points: 3 if the faces are defined, less for degenerate input.
+         */
+        private int dimension;
+        private final int[] simplex = new int[4];
+        private List<Face> faces;
+        // Reused by the horizon search
+        private final ArrayDeque<Face> faceStack = new ArrayDeque<>();
+        private int[] nextEdges = new int[64];
+        private int[] edgesLeft = new int[64];
+
+        private Hull(double[] points, double tolerance, AtomicLong droppedPoints) {
+            this.points = points;
+            this.tolerance = tolerance;
+            this.droppedPoints = droppedPoints;
+        }
+
+        private static Hull build(double[] points, int[] indices, double tolerance, AtomicLong droppedPoints) {
+            Hull hull = new Hull(points, tolerance, droppedPoints);
+            if (indices.length > 0 && hull.findSimplex(indices)) {
+                hull.grow(indices);
+            }
+            return hull;
+        }
+
+        /**
+         * Finds four points that span a tetrahedron: the most distant pair of the extreme points per axis, the
+         * point furthest from their line and the point furthest from the plane of the three.
+         *
+         * @return  True if the points aren't degenerate
+         */
+        private boolean findSimplex(int[] indices) {
+            int[] extremes = new int[6];
+            Arrays.fill(extremes, indices[0]);
+            for (int index : indices) {
+                for (int axis = 0; axis < 3; axis++) {
+                    if (points[index * 3 + axis] < points[extremes[axis] * 3 + axis]) extremes[axis] = index;
+                    if (points[index * 3 + axis] > points[extremes[axis + 3] * 3 + axis]) extremes[axis + 3] = index;
+                }
+            }
+            double maxDistance = -1;
+            for (int i = 0; i < extremes.length; i++) {
+                for (int j = i + 1; j < extremes.length; j++) {
+                    double distance = java.lang.Math.sqrt(squaredDistance(extremes[i], extremes[j]));
+                    if (distance > maxDistance) {
+                        maxDistance = distance;
+                        simplex[0] = extremes[i];
+                        simplex[1] = extremes[j];
+                    }
+                }
+            }
+            dimension = 0;
+            if (maxDistance <= tolerance) {
+                return false;
+            }
+            dimension = 1;
+            double[] direction = subtract(points, simplex[1], simplex[0]);
+            normalize(direction);
+            maxDistance = -1;
+            for (int index : indices) {
+                double[] offset = subtract(points, index, simplex[0]);
+                double[] perpendicular = cross(direction, offset);
+                double distance = java.lang.Math.sqrt(perpendicular[0] * perpendicular[0] + perpendicular[1] * perpendicular[1] + perpendicular[2] * perpendicular[2]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    simplex[2] = index;
+                }
+            }
+            if (maxDistance <= tolerance) {
+                return false;
+            }
+            dimension = 2;
+            Face base = new Face(points, simplex[0], simplex[1], simplex[2]);
+            maxDistance = -1;
+            for (int index : indices) {
+                double distance = java.lang.Math.abs(base.distance(points, index));
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    simplex[3] = index;
+                }
+            }
+            if (maxDistance <= tolerance) {
+                return false;
+            }
+            dimension = 3;
+            return true;
+        }
+
+        private double squaredDistance(int a, int b) {
+            double dx = points[a * 3] - points[b * 3], dy = points[a * 3 + 1] - points[b * 3 + 1], dz = points[a * 3 + 2] - points[b * 3 + 2];
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        private void grow(int[] indices) {
+            int p0 = simplex[0], p1 = simplex[1], p2 = simplex[2], p3 = simplex[3];
+            Face[] tetrahedron;
+            // The faces of the tetrahedron point away from the opposite vertex
+            if (new Face(points, p0, p1, p2).distance(points, p3) > 0) {
+                tetrahedron = new Face[]{new Face(points, p0, p2, p1), new Face(points, p0, p1, p3),
+                        new Face(points, p1, p2, p3), new Face(points, p2, p0, p3)};
+            } else {
+                tetrahedron = new Face[]{new Face(points, p0, p1, p2), new Face(points, p1, p0, p3),
+                        new Face(points, p2, p1, p3), new Face(points, p0, p2, p3)};
+            }
+            for (int i = 0; i < tetrahedron.length; i++) {
+                for (int j = i + 1; j < tetrahedron.length; j++) {
+                    linkShared(tetrahedron[i], tetrahedron[j]);
+                }
+            }
+            for (int index : indices) {
+                if (index != p0 && index != p1 && index != p2 && index != p3) {
+                    assign(index, Arrays.asList(tetrahedron));
+                }
+            }
+            ArrayDeque<Face> pending = new ArrayDeque<>(Arrays.asList(tetrahedron));
+            // Removed faces aren't referenced by the hull any more, so they are collected while it grows
+            Face liveFace = tetrahedron[0];
+            List<Face> visibleFaces = new ArrayList<>();
+            List<Face> horizonFaces = new ArrayList<>();
+            List<Integer> horizonEdges = new ArrayList<>();
+            while (!pending.isEmpty()) {
+                Face face = pending.pop();
+                if (face.visible || face.outsideCount == 0) {
+                    continue;
+                }
+                int eye = face.furthest;
+                findHorizon(face, eye, visibleFaces, horizonFaces, horizonEdges);
+                if (!isClosedLoop(horizonFaces, horizonEdges)) {
+                    // Rounding broke the visible region apart, the point is dropped instead of folding the hull
+                    for (Face visibleFace : visibleFaces) {
+                        visibleFace.visible = false;
+                    }
+                    removeOutside(face, eye);
+                    droppedPoints.incrementAndGet();
+                    pending.push(face);
+                    continue;
+                }
+                List<Face> newFaces = new ArrayList<>(horizonFaces.size());
+                for (int k = 0; k < horizonFaces.size(); k++) {
+                    Face hidden = horizonFaces.get(k);
+                    int edge = horizonEdges.get(k);
+                    // The horizon edge runs the other way in the hidden face than in the visible one
+                    Face newFace = new Face(points, hidden.vertex((edge + 1) % 3), hidden.vertex(edge), eye);
+                    newFace.neighbors[0] = hidden;
+                    hidden.neighbors[edge] = newFace;
+                    newFaces.add(newFace);
+                }
+                for (int k = 0; k < newFaces.size(); k++) {
+                    Face newFace = newFaces.get(k);
+                    Face next = newFaces.get((k + 1) % newFaces.size());
+                    newFace.neighbors[1] = next;
+                    next.neighbors[2] = newFace;
+                }
+                for (Face visibleFace : visibleFaces) {
+                    for (int i = 0; i < visibleFace.outsideCount; i++) {
+                        int point = visibleFace.outside[i];
+                        if (point != eye) {
+                            assign(point, newFaces);
+                        }
+                    }
+                    visibleFace.outside = null;
+                }
+                liveFace = newFaces.get(0);
+                for (Face newFace : newFaces) {
+                    if (newFace.outsideCount > 0) {
+                        pending.push(newFace);
+                    }
+                }
+            }
+            // Every face is reachable over the neighbors of any other one
+            faces = new ArrayList<>();
+            liveFace.collected = true;
+            faces.add(liveFace);
+            for (int k = 0; k < faces.size(); k++) {
+                for (Face neighbor : faces.get(k).neighbors) {
+                    if (!neighbor.collected) {
+                        neighbor.collected = true;
+                        faces.add(neighbor);
+                    }
+                }
+            }
+        }
+
+        private static void linkShared(Face first, Face second) {
+            for (int i = 0; i < 3; i++) {
+                if (second.edgeIndex(first.vertex((i + 1) % 3), first.vertex(i)) >= 0) {
+                    first.link(i, second);
+                }
+            }
+        }
+
+        /**
+         * Adds a point to the first face it is above, points below all faces are inside the hull.
+         */
+        private void assign(int point, List<Face> candidates) {
+            for (Face face : candidates) {
+                double distance = face.distance(points, point);
+                if (distance > tolerance) {
+                    face.addOutside(point, distance);
+                    return;
+                }
+            }
+        }
+
+        private void removeOutside(Face face, int point) {
+            int[] remaining = Arrays.copyOf(face.outside, face.outsideCount);
+            face.outsideCount = 0;
+            face.furthest = -1;
+            for (int remainingPoint : remaining) {
+                if (remainingPoint != point) {
+                    face.addOutside(remainingPoint, face.distance(points, remainingPoint));
+                }
+            }
+        }
+
+        /**
+         * Marks the faces the eye sees, starting from one of them, and collects the edges between them and the
+         * hidden faces in counter-clockwise order. The search around a face continues after the edge it was
+         * entered through, so consecutive horizon edges share a vertex.
+         */
+        private void findHorizon(Face start, int eye, List<Face> visibleFaces, List<Face> horizonFaces, List<Integer> horizonEdges) {
+            visibleFaces.clear();
+            horizonFaces.clear();
+            horizonEdges.clear();
+            ArrayDeque<Face> stack = faceStack;
+            start.visible = true;
+            visibleFaces.add(start);
+            stack.push(start);
+            // Per face on the stack: the next edge to look at and the number of edges left
+            int depth = 0;
+            nextEdges[depth] = 0;
+            edgesLeft[depth] = 3;
+            while (!stack.isEmpty()) {
+                Face face = stack.peek();
+                if (edgesLeft[depth] == 0) {
+                    stack.pop();
+                    depth--;
+                    continue;
+                }
+                int edge = nextEdges[depth];
+                nextEdges[depth] = (edge + 1) % 3;
+                edgesLeft[depth]--;
+                Face neighbor = face.neighbors[edge];
+                if (neighbor.visible) {
+                    continue;
+                }
+                if (neighbor.distance(points, eye) > tolerance) {
+                    neighbor.visible = true;
+                    visibleFaces.add(neighbor);
+                    int entry = neighbor.edgeIndex(face.vertex((edge + 1) % 3), face.vertex(edge));
+                    stack.push(neighbor);
+                    depth++;
+                    if (depth == nextEdges.length) {
+                        nextEdges = Arrays.copyOf(nextEdges, depth * 2);
+                        edgesLeft = Arrays.copyOf(edgesLeft, depth * 2);
+                    }
+                    nextEdges[depth] = (entry + 1) % 3;
+                    edgesLeft[depth] = 2;
+                } else {
+                    horizonFaces.add(neighbor);
+                    horizonEdges.add(neighbor.edgeIndex(face.vertex((edge + 1) % 3), face.vertex(edge)));
+                }
+            }
+        }
+
+        /**
+         * @return  True if every horizon edge ends where the next one starts
+         */
+        private static boolean isClosedLoop(List<Face> horizonFaces, List<Integer> horizonEdges) {
+            int count = horizonFaces.size();
+            if (count < 3) {
+                return false;
+            }
+            for (int k = 0; k < count; k++) {
+                // Seen from the new faces, a horizon edge runs from vertex edge + 1 to vertex edge of the hidden face
+                int end = horizonFaces.get(k).vertex(horizonEdges.get(k));
+                Face next = horizonFaces.get((k + 1) % count);
+                int nextStart = next.vertex((horizonEdges.get((k + 1) % count) + 1) % 3);
+                if (end != nextStart) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return  Distinct indices of the hull vertices in ascending order, all indices for degenerate input
+         */
+        private int[] vertexIndices(int[] indices) {
+            if (faces == null) {
+                return indices;
+            }
+            int[] vertices = new int[faces.size() * 3];
+            int count = 0;
+            for (Face face : faces) {
+                vertices[count++] = face.a;
+                vertices[count++] = face.b;
+                vertices[count++] = face.c;
+            }
+            return Arrays.stream(vertices).sorted().distinct().toArray();
+        }
+    }
+
+    /**
+     * A range of points, divided until a split holds at most {@value #LEAF_POINT_COUNT} points. A split returns
+     * the vertices of its hull, the root and splits whose halves dropped few points only the vertices of the
+     * hulls of the halves.
+     */
+    private static class HullSplit extends RecursiveTask<int[]>
+    {
+        private final double[] points;
+        private final double tolerance;
+        private final AtomicLong droppedPoints;
+        private final int from;
+        private final int to;
+        private final boolean root;
+
+        private HullSplit(double[] points, double tolerance, AtomicLong droppedPoints, int from, int to, boolean root) {
+            this.points = points;
+            this.tolerance = tolerance;
+            this.droppedPoints = droppedPoints;
+            this.from = from;
+            this.to = to;
+            this.root = root;
+        }
+
+        @Override
+        protected int[] compute() {
+            int[] candidates;
+            if (to - from <= LEAF_POINT_COUNT) {
+                candidates = new int[to - from];
+                Arrays.setAll(candidates, i -> from + i);
+            } else {
+                int middle = (from + to) >>> 1;
+                HullSplit left = new HullSplit(points, tolerance, droppedPoints, from, middle, false);
+                HullSplit right = new HullSplit(points, tolerance, droppedPoints, middle, to, false);
+                right.fork();
+                int[] leftVertices = left.compute();
+                int[] rightVertices = right.join();
+                candidates = Arrays.copyOf(leftVertices, leftVertices.length + rightVertices.length);
+                System.arraycopy(rightVertices, 0, candidates, leftVertices.length, rightVertices.length);
+            }
+            // If the halves kept most of their points, merging them would mostly repeat their work
+            if (root || (to - from > LEAF_POINT_COUNT && candidates.length > (to - from) * MAX_MERGE_FRACTION)) {
+                return candidates;
+            }
+            return Hull.build(points, candidates, tolerance, droppedPoints).vertexIndices(candidates);
+        }
+    }
+}
@@ -13,13 +13,25 @@ import java.util.concurrent.Callable;
 public class RuntimeHandler
 {
     /**
-     * Stores the start time of a function.
+     * Stores the start and end time of a function in nanoseconds, separately for every thread.
      */
-    private static long startTime;
+    private static final ThreadLocal<long[]> timerNanos = ThreadLocal.withInitial(() -> new long[2]);
     /**
-     * Stores the end time of a function.
+     * Index of the start time in the timer array.
      */
-    private static long endTime;
+    private static final int START_INDEX = 0;
+    /**
+     * Index of the end time in the timer array.
+     */
+    private static final int END_INDEX = 1;
+    /**
+     * Number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    /**
+     * Name under which the execution times are recorded in the global timer registry.
+     */
+    public static final String TIMER_EXECUTION = "execution";
 
     /**
      * Accepts a non-void function as parameter and tries to execute it. If the function throws an exception,
@@ -87,9 +99,9 @@ public class RuntimeHandler
     }
 
     /**
-     * Measures the current time in milliseconds and stores it in the startTime variable. This method
+     * Measures the current time in nanoseconds and stores it as the start time of the calling thread. This method
      * is used in conjunction with the stopTimer() method to measure the execution time of a function. <br>
-     * Pre-condition: System.currentTimeMillis() must be available. <br>
+     * Pre-condition: none <br>
      * Post-condition: none
      *
      * @author  Lukas Erdmann
@@ -97,13 +109,13 @@ public class RuntimeHandler
      */
     public static void startTimer()
     {
-        startTime = System.currentTimeMillis();
+        timerNanos.get()[START_INDEX] = System.nanoTime();
     }
 
     /**
-     * Measures the current time in milliseconds and stores it in the endTime variable. This method
+     * Measures the current time in nanoseconds and stores it as the end time of the calling thread. This method
      * is used in conjunction with the startTimer() method to measure the execution time of a function. <br>
-     * Pre-condition: System.currentTimeMillis() must be available. <br>
+     * Pre-condition: none <br>
      * Post-condition: none
      *
      * @author  Lukas Erdmann
@@ -111,23 +123,36 @@ public class RuntimeHandler
      */
     public static void stopTimer()
     {
-        endTime = System.currentTimeMillis();
+        timerNanos.get()[END_INDEX] = System.nanoTime();
     }
 
     /**
-     * Returns the difference between the endTime and startTime variables. This method is used in conjunction with the
-     * startTimer() and stopTimer() methods to measure the execution time of a function. <br>
-     * Pre-condition: The startTimer() and stopTimer() methods must be called before this method. <br>
+     * Returns the time between the last startTimer() and stopTimer() calls of the calling thread in milliseconds. <br>
+     * Pre-condition: The startTimer() and stopTimer() methods must be called before this method on the same thread. <br>
      * Post-condition: none
      *
      * @author  Lukas Erdmann
-     * @return  The difference between the endTime and startTime variables.
+     * @return  The elapsed time in milliseconds.
      * @see #stopTimer()
      * @see #startTimer()
      */
     public static long getElapsedTime()
     {
-        return endTime - startTime;
+        return getElapsedNanos() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time between the last startTimer() and stopTimer() calls of the calling thread in nanoseconds. <br>
+     * Pre-condition: The startTimer() and stopTimer() methods must be called before this method on the same thread. <br>
+     * Post-condition: none
+     *
+     * @author  Lukas Erdmann
+     * @return  The elapsed time in nanoseconds.
+     */
+    public static long getElapsedNanos()
+    {
+        long[] nanos = timerNanos.get();
+        return nanos[END_INDEX] - nanos[START_INDEX];
     }
 
     /**
@@ -147,6 +172,7 @@ public class RuntimeHandler
         startTimer();
         exceptionHandler(function, maxTries);
         stopTimer();
+        TimerRegistry.getGlobal().record(TIMER_EXECUTION, getElapsedNanos());
         System.out.printf(Strings.EXECUTION_TIME, getElapsedTime());
     }
 
@@ -170,6 +196,7 @@ public class RuntimeHandler
         startTimer();
         T result = exceptionHandler(function, maxTries);
         stopTimer();
+        TimerRegistry.getGlobal().record(TIMER_EXECUTION, getElapsedNanos());
         System.out.printf(Strings.EXECUTION_TIME, getElapsedTime());
         return result;
     }
@@ -0,0 +1,574 @@
+package com.example.stlviewer.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of synthetic STL files for benchmarks and stress tests. The triangles are streamed
+ * to the file as they are created, so files of many gigabytes can be written with constant memory. <br>
+ * Every result reports the volume and the surface area of the triangles that were written. They are summed
+ * from the coordinates as a reader parses them from the file (rounded to float, and in ASCII files the shortest
+ * decimal of that float), so a reader and the analysis can be checked against them. The volume is the signed volume of the divergence theorem, which is the enclosed
+ * volume for closed and outward oriented meshes. <br>
+ * Usage: {@code STLGenerator --shape sphere|torus|soup|shells|broken --output <file> [--format binary|ascii]
+ * [--resolution 64] [--triangles 1000000] [--shells 8] [--defect-rate 0.01] [--seed 1]}
+ *
+ * @author  Lukas Erdmann
+ */
+public class STLGenerator
+{
+    public enum Format
+    {
+        ASCII,
+        BINARY
+    }
+
+    public static final int BINARY_HEADER_BYTE_SIZE = 80;
+    public static final int BINARY_TRIANGLE_BYTE_SIZE = 50;
+    public static final long MAX_BINARY_TRIANGLE_COUNT = 0xFFFFFFFFL;
+    public static final int OUTPUT_BUFFER_BYTE_SIZE = 1 << 20;
+    public static final double DEFAULT_RADIUS = 10.0;
+    public static final double DEFAULT_MINOR_RADIUS = 3.0;
+    public static final int DEFAULT_RESOLUTION = 64;
+    public static final long DEFAULT_SOUP_TRIANGLES = 1_000_000;
+    public static final int DEFAULT_SHELLS = 8;
+    public static final double DEFAULT_DEFECT_RATE = 0.01;
+    public static final String SOLID_NAME = "generated";
+
+    private final Format format;
+    private final long seed;
+
+    public STLGenerator(Format format, long seed) {
+        this.format = format;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String shape = null;
+        Path output = null;
+        Format format = Format.BINARY;
+        int resolution = DEFAULT_RESOLUTION;
+        long triangles = DEFAULT_SOUP_TRIANGLES;
+        int shells = DEFAULT_SHELLS;
+        double defectRate = DEFAULT_DEFECT_RATE;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--shape" -> shape = args[++i];
+                case "--output" -> output = Paths.get(args[++i]);
+                case "--format" -> format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--resolution" -> resolution = Integer.parseInt(args[++i]);
+                case "--triangles" -> triangles = Long.parseLong(args[++i]);
+                case "--shells" -> shells = Integer.parseInt(args[++i]);
+                case "--defect-rate" -> defectRate = Double.parseDouble(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (shape == null || output == null) {
+            throw new IllegalArgumentException("--shape and --output are required.");
+        }
+
+        STLGenerator generator = new STLGenerator(format, seed);
+        Result result = switch (shape) {
+            case "sphere" -> generator.writeSphere(output, DEFAULT_RADIUS, resolution, resolution / 2);
+            case "torus" -> generator.writeTorus(output, DEFAULT_RADIUS, DEFAULT_MINOR_RADIUS, resolution, resolution / 2);
+            case "soup" -> generator.writeSoup(output, triangles, DEFAULT_RADIUS);
+            case "shells" -> generator.writeShells(output, shells, DEFAULT_RADIUS, resolution, resolution / 2);
+            case "broken" -> generator.writeBrokenSphere(output, DEFAULT_RADIUS, resolution, resolution / 2, defectRate);
+            default -> throw new IllegalArgumentException("Unknown shape: " + shape);
+        };
+        System.out.println(result);
+    }
+
+    /**
+     * Writes a UV sphere around the origin. The poles are single vertices, so the mesh is closed.
+     *
+     * @param filePath  File to write
+     * @param radius    Radius of the sphere
+     * @param slices    Segments around the z axis, at least 3
+     * @param stacks    Segments from pole to pole, at least 2
+     * @return          Counts and expected values of the file
+     */
+    public Result writeSphere(Path filePath, double radius, int slices, int stacks) throws IOException {
+        checkTriangleCount(sphereTriangleCount(slices, stacks));
+        try (TriangleWriter writer = new TriangleWriter(filePath)) {
+            writeSphere(writer, radius, slices, stacks, 0, 0, 0, null, 0);
+            return writer.finish(4.0 / 3.0 * java.lang.Math.PI * radius * radius * radius, 4 * java.lang.Math.PI * radius * radius);
+        }
+    }
+
+    /**
+     * Writes a torus around the z axis.
+     *
+     * @param filePath      File to write
+     * @param majorRadius   Distance of the tube center from the axis
+     * @param minorRadius   Radius of the tube
+     * @param majorSegments Segments around the z axis, at least 3
+     * @param minorSegments Segments around the tube, at least 3
+     * @return              Counts and expected values of the file
+     */
+    public Result writeTorus(Path filePath, double majorRadius, double minorRadius, int majorSegments, int minorSegments) throws IOException {
+        if (majorSegments < 3 || minorSegments < 3 || minorRadius >= majorRadius) {
+            throw new IllegalArgumentException("A torus needs at least 3 segments per direction and a minor radius below the major radius.");
+        }
+        checkTriangleCount(2L * majorSegments * minorSegments);
+        try (TriangleWriter writer = new TriangleWriter(filePath)) {
+            for (int i = 0; i < majorSegments; i++) {
+                for (int j = 0; j < minorSegments; j++) {
+                    double[] p00 = torusPoint(majorRadius, minorRadius, i, j, majorSegments, minorSegments);
+                    double[] p10 = torusPoint(majorRadius, minorRadius, i + 1, j, majorSegments, minorSegments);
+                    double[] p01 = torusPoint(majorRadius, minorRadius, i, j + 1, majorSegments, minorSegments);
+                    double[] p11 = torusPoint(majorRadius, minorRadius, i + 1, j + 1, majorSegments, minorSegments);
+                    writer.write(p00, p10, p01);
+                    writer.write(p10, p11, p01);
+                }
+            }
+            double idealVolume = 2 * java.lang.Math.PI * java.lang.Math.PI * majorRadius * minorRadius * minorRadius;
+            double idealArea = 4 * java.lang.Math.PI * java.lang.Math.PI * majorRadius * minorRadius;
+            return writer.finish(idealVolume, idealArea);
+        }
+    }
+
+    /**
+     * Writes random triangles inside a cube around the origin. The triangles don't form a closed surface,
+     * so only the area is meaningful.
+     *
+     * @param filePath      File to write
+     * @param triangleCount Number of triangles
+     * @param extent        Half of the edge length of the cube
+     * @return              Counts and expected values of the file
+     */
+    public Result writeSoup(Path filePath, long triangleCount, double extent) throws IOException {
+        checkTriangleCount(triangleCount);
+        SplittableRandom random = new SplittableRandom(seed);
+        try (TriangleWriter writer = new TriangleWriter(filePath)) {
+            double[][] points = new double[3][3];
+            for (long triangle = 0; triangle < triangleCount; triangle++) {
+                for (double[] point : points) {
+                    for (int axis = 0; axis < 3; axis++) {
+                        point[axis] = random.nextDouble(-extent, extent);
+                    }
+                }
+                writer.write(points[0], points[1], points[2]);
+            }
+            return writer.finish(Double.NaN, Double.NaN);
+        }
+    }
+
+    /**
+     * Writes an assembly of separate spheres, like a part made of several bodies. The spheres have random
+     * radii between half and the full given radius and are placed on a line without touching each other.
+     *
+     * @param filePath      File to write
+     * @param shellCount    Number of spheres
+     * @param radius        Largest radius
+     * @param slices        Segments of every sphere around the z axis
+     * @param stacks        Segments of every sphere from pole to pole
+     * @return              Counts and expected values of the file
+     */
+    public Result writeShells(Path filePath, int shellCount, double radius, int slices, int stacks) throws IOException {
+        checkTriangleCount(shellCount * sphereTriangleCount(slices, stacks));
+        SplittableRandom random = new SplittableRandom(seed);
+        try (TriangleWriter writer = new TriangleWriter(filePath)) {
+            double idealVolume = 0;
+            double idealArea = 0;
+            for (int shell = 0; shell < shellCount; shell++) {
+                double shellRadius = random.nextDouble(radius / 2, radius);
+                writeSphere(writer, shellRadius, slices, stacks, shell * 2.5 * radius, 0, 0, null, 0);
+                idealVolume += 4.0 / 3.0 * java.lang.Math.PI * shellRadius * shellRadius * shellRadius;
+                idealArea += 4 * java.lang.Math.PI * shellRadius * shellRadius;
+            }
+            return writer.finish(idealVolume, idealArea);
+        }
+    }
+
+    /**
+     * Writes a sphere with random defects. Every triangle is affected with the given probability by one of:
+     * a hole (the triangle is left out), a flipped winding, a duplicate or an additional degenerate
+     * triangle. The counts of the defects are part of the result.
+     *
+     * @param filePath      File to write
+     * @param radius        Radius of the sphere
+     * @param slices        Segments around the z axis
+     * @param stacks        Segments from pole to pole
+     * @param defectRate    Probability of a defect per triangle
+     * @return              Counts and expected values of the file
+     */
+    public Result writeBrokenSphere(Path filePath, double radius, int slices, int stacks, double defectRate) throws IOException {
+        // The defects may add a few triangles, those are checked while writing
+        checkTriangleCount(sphereTriangleCount(slices, stacks));
+        try (TriangleWriter writer = new TriangleWriter(filePath)) {
+            writeSphere(writer, radius, slices, stacks, 0, 0, 0, new SplittableRandom(seed), defectRate);
+            return writer.finish(Double.NaN, Double.NaN);
+        }
+    }
+
+    private void writeSphere(TriangleWriter writer, double radius, int slices, int stacks, double centerX, double centerY,
+                             double centerZ, SplittableRandom defectRandom, double defectRate) throws IOException {
+        forEachSphereTriangle(radius, new double[] {centerX, centerY, centerZ}, slices, stacks,
+                (p0, p1, p2) -> writeWithDefects(writer, defectRandom, defectRate, p0, p1, p2));
+    }
+
+    /**
+     * Creates the triangles of a UV sphere around the origin in memory, e.g. for benchmarks that don't
+     * read a file. The coordinates are rounded to float, so they describe the same mesh as a written file.
+     *
+     * @param radius    Radius of the sphere
+     * @param slices    Segments around the z axis, at least 3
+     * @param stacks    Segments from pole to pole, at least 2
+     * @return          Coordinates of the triangles, nine per triangle in counter-clockwise order
+     */
+    public static double[] sphereCoordinates(double radius, int slices, int stacks) {
+        long triangleCount = sphereTriangleCount(slices, stacks);
+        if (triangleCount * 9 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A sphere of " + triangleCount + " triangles doesn't fit into an array.");
+        }
+        double[] coordinates = new double[(int) triangleCount * 9];
+        int[] position = new int[1];
+        try {
+            forEachSphereTriangle(radius, new double[3], slices, stacks, (p0, p1, p2) -> {
+                for (double[] point : new double[][] {p0, p1, p2}) {
+                    for (double coordinate : point) {
+                        coordinates[position[0]++] = (float) coordinate;
+                    }
+                }
+            });
+        } catch (IOException ioException) {
+            // The array sink doesn't throw
+            throw new IllegalStateException(ioException);
+        }
+        return coordinates;
+    }
+
+    /**
+     * @return  Number of triangles of a UV sphere, the first and the last stack have one triangle per slice
+     */
+    public static long sphereTriangleCount(int slices, int stacks) {
+        if (slices < 3 || stacks < 2) {
+            throw new IllegalArgumentException("A sphere needs at least 3 slices and 2 stacks.");
+        }
+        return 2L * slices * (stacks - 1);
+    }
+
+    private static void forEachSphereTriangle(double radius, double[] center, int slices, int stacks, TriangleSink sink) throws IOException {
+        for (int stack = 0; stack < stacks; stack++) {
+            for (int slice = 0; slice < slices; slice++) {
+                double[] p00 = spherePoint(radius, center, stack, slice, stacks, slices);
+                double[] p01 = spherePoint(radius, center, stack, slice + 1, stacks, slices);
+                double[] p10 = spherePoint(radius, center, stack + 1, slice, stacks, slices);
+                double[] p11 = spherePoint(radius, center, stack + 1, slice + 1, stacks, slices);
+                // The first and the last stack touch the poles and only have one triangle per slice
+                if (stack != 0) {
+                    sink.accept(p00, p10, p01);
+                }
+                if (stack != stacks - 1) {
+                    sink.accept(p01, p10, p11);
+                }
+            }
+        }
+    }
+
+    /**
+     * A binary file stores the triangle count in 32 bits, so a too large file is rejected before it is written.
+     */
+    private void checkTriangleCount(long triangleCount) {
+        if (format == Format.BINARY && triangleCount > MAX_BINARY_TRIANGLE_COUNT) {
+            throw new IllegalArgumentException("A binary STL file can't hold " + triangleCount + " triangles.");
+        }
+    }
+
+    private void writeWithDefects(TriangleWriter writer, SplittableRandom defectRandom, double defectRate,
+                                  double[] p0, double[] p1, double[] p2) throws IOException {
+        if (defectRandom == null || defectRandom.nextDouble() >= defectRate) {
+            writer.write(p0, p1, p2);
+            return;
+        }
+        switch (defectRandom.nextInt(4)) {
+            case 0 -> writer.holeCount++;
+            case 1 -> {
+                writer.write(p0, p2, p1);
+                writer.flippedCount++;
+            }
+            case 2 -> {
+                writer.write(p0, p1, p2);
+                writer.write(p0, p1, p2);
+                writer.duplicateCount++;
+            }
+            default -> {
+                writer.write(p0, p1, p2);
+                writer.write(p0, p0, p1);
+                writer.degenerateCount++;
+            }
+        }
+    }
+
+    private static double[] spherePoint(double radius, double[] center, int stack, int slice, int stacks, int slices) {
+        // Use the exact pole for every slice so the pole vertex is shared
+        if (stack == 0 || stack == stacks) {
+            return new double[] {center[0], center[1], center[2] + (stack == 0 ? radius : -radius)};
+        }
+        double polar = java.lang.Math.PI * stack / stacks;
+        double azimuth = 2 * java.lang.Math.PI * (slice % slices) / slices;
+        return new double[] {
+                center[0] + radius * java.lang.Math.sin(polar) * java.lang.Math.cos(azimuth),
+                center[1] + radius * java.lang.Math.sin(polar) * java.lang.Math.sin(azimuth),
+                center[2] + radius * java.lang.Math.cos(polar)
+        };
+    }
+
+    private static double[] torusPoint(double majorRadius, double minorRadius, int majorIndex, int minorIndex,
+                                       int majorSegments, int minorSegments) {
+        double u = 2 * java.lang.Math.PI * (majorIndex % majorSegments) / majorSegments;
+        double v = 2 * java.lang.Math.PI * (minorIndex % minorSegments) / minorSegments;
+        double distance = majorRadius + minorRadius * java.lang.Math.cos(v);
+        return new double[] {distance * java.lang.Math.cos(u), distance * java.lang.Math.sin(u), minorRadius * java.lang.Math.sin(v)};
+    }
+
+    @FunctionalInterface
+    private interface TriangleSink
+    {
+        void accept(double[] p0, double[] p1, double[] p2) throws IOException;
+    }
+
+    /**
+     * Writes triangles in the format of the generator and sums the volume and the area of the written
+     * triangles with compensated summation. The triangle count of a binary file is written into its header
+     * when the writer is finished.
+     */
+    private class TriangleWriter implements AutoCloseable
+    {
+        private final FileChannel channel;
+        private final OutputStream output;
+        private final ByteBuffer record = ByteBuffer.allocate(BINARY_TRIANGLE_BYTE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final StringBuilder text = new StringBuilder();
+        private final float[] coordinates = new float[9];
+        // The coordinates as a reader parses them from the file
+        private final double[] values = new double[9];
+        private final double[] normal = new double[3];
+        private final CompensatedSum volume = new CompensatedSum();
+        private final CompensatedSum area = new CompensatedSum();
+        private long triangleCount;
+        private long holeCount;
+        private long flippedCount;
+        private long duplicateCount;
+        private long degenerateCount;
+
+        private TriangleWriter(Path filePath) throws IOException {
+            channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            output = new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER_BYTE_SIZE);
+            if (format == Format.BINARY) {
+                byte[] header = new byte[BINARY_HEADER_BYTE_SIZE + Integer.BYTES];
+                byte[] name = ("binary " + SOLID_NAME + " seed " + seed).getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(name, 0, header, 0, name.length);
+                output.write(header);
+            } else {
+                output.write(("solid " + SOLID_NAME + "\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        private void write(double[] p0, double[] p1, double[] p2) throws IOException {
+            if (format == Format.BINARY && triangleCount == MAX_BINARY_TRIANGLE_COUNT) {
+                throw new IOException("A binary STL file can't hold more than " + MAX_BINARY_TRIANGLE_COUNT + " triangles.");
+            }
+            for (int axis = 0; axis < 3; axis++) {
+                coordinates[axis] = (float) p0[axis];
+                coordinates[3 + axis] = (float) p1[axis];
+                coordinates[6 + axis] = (float) p2[axis];
+            }
+            for (int i = 0; i < coordinates.length; i++) {
+                // The shortest decimal of a float in an ASCII file is parsed as a double, which isn't the float itself
+                values[i] = format == Format.BINARY ? coordinates[i] : Double.parseDouble(Float.toString(coordinates[i]));
+            }
+            accumulate();
+            if (format == Format.BINARY) {
+                record.clear();
+                for (double component : normal) {
+                    record.putFloat((float) component);
+                }
+                for (float coordinate : coordinates) {
+                    record.putFloat(coordinate);
+                }
+                record.putShort((short) 0);
+                output.write(record.array());
+            } else {
+                text.setLength(0);
+                text.append("  facet normal ").append((float) normal[0]).append(' ').append((float) normal[1]).append(' ')
+                        .append((float) normal[2]).append("\n    outer loop\n");
+                for (int vertex = 0; vertex < 3; vertex++) {
+                    text.append("      vertex ").append(coordinates[vertex * 3]).append(' ').append(coordinates[vertex * 3 + 1])
+                            .append(' ').append(coordinates[vertex * 3 + 2]).append('\n');
+                }
+                text.append("    endloop\n  endfacet\n");
+                output.write(text.toString().getBytes(StandardCharsets.US_ASCII));
+            }
+            triangleCount++;
+        }
+
+        /**
+         * Adds the signed tetrahedron volume and the area of the current triangle and sets its normal.
+         */
+        private void accumulate() {
+            double ax = values[3] - values[0], ay = values[4] - values[1], az = values[5] - values[2];
+            double bx = values[6] - values[0], by = values[7] - values[1], bz = values[8] - values[2];
+            double cx = ay * bz - az * by, cy = az * bx - ax * bz, cz = ax * by - ay * bx;
+            double length = java.lang.Math.sqrt(cx * cx + cy * cy + cz * cz);
+            area.add(length / 2);
+            normal[0] = length == 0 ? 0 : cx / length;
+            normal[1] = length == 0 ? 0 : cy / length;
+            normal[2] = length == 0 ? 0 : cz / length;
+            // Volume of the tetrahedron with the origin: p0 . (p1 x p2) / 6
+            double x0 = values[0], y0 = values[1], z0 = values[2];
+            double x1 = values[3], y1 = values[4], z1 = values[5];
+            double x2 = values[6], y2 = values[7], z2 = values[8];
+            volume.add((x0 * (y1 * z2 - z1 * y2) - y0 * (x1 * z2 - z1 * x2) + z0 * (x1 * y2 - y1 * x2)) / 6);
+        }
+
+        private Result finish(double idealVolume, double idealArea) throws IOException {
+            if (format == Format.ASCII) {
+                output.write(("endsolid " + SOLID_NAME + "\n").getBytes(StandardCharsets.US_ASCII));
+            }
+            output.flush();
+            if (format == Format.BINARY) {
+                ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt((int) triangleCount);
+                channel.write(count.flip(), BINARY_HEADER_BYTE_SIZE);
+            }
+            return new Result(triangleCount, channel.size(), volume.get(), area.get(), idealVolume, idealArea,
+                    holeCount, flippedCount, duplicateCount, degenerateCount);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                output.close();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Neumaier's compensated summation, so the expected values stay exact for billions of triangles.
+     */
+    private static class CompensatedSum
+    {
+        private double sum;
+        private double compensation;
+
+        private void add(double value) {
+            double total = sum + value;
+            if (java.lang.Math.abs(sum) >= java.lang.Math.abs(value)) {
+                compensation += (sum - total) + value;
+            } else {
+                compensation += (value - total) + sum;
+            }
+            sum = total;
+        }
+
+        private double get() {
+            return sum + compensation;
+        }
+    }
+
+    /**
+     * Counts and expected values of a generated file.
+     */
+    public static class Result
+    {
+        private final long triangleCount;
+        private final long byteCount;
+        private final double volume;
+        private final double surfaceArea;
+        private final double idealVolume;
+        private final double idealSurfaceArea;
+        private final long holeCount;
+        private final long flippedCount;
+        private final long duplicateCount;
+        private final long degenerateCount;
+
+        public Result(long triangleCount, long byteCount, double volume, double surfaceArea, double idealVolume,
+                      double idealSurfaceArea, long holeCount, long flippedCount, long duplicateCount, long degenerateCount) {
+            this.triangleCount = triangleCount;
+            this.byteCount = byteCount;
+            this.volume = volume;
+            this.surfaceArea = surfaceArea;
+            this.idealVolume = idealVolume;
+            this.idealSurfaceArea = idealSurfaceArea;
+            this.holeCount = holeCount;
+            this.flippedCount = flippedCount;
+            this.duplicateCount = duplicateCount;
+            this.degenerateCount = degenerateCount;
+        }
+
+        public long getTriangleCount() {
+            return triangleCount;
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        /**
+         * @return  Signed volume of the written triangles
+         */
+        public double getVolume() {
+            return volume;
+        }
+
+        /**
+         * @return  Area of the written triangles
+         */
+        public double getSurfaceArea() {
+            return surfaceArea;
+        }
+
+        /**
+         * @return  Volume of the ideal shape the mesh approximates, NaN if there is none
+         */
+        public double getIdealVolume() {
+            return idealVolume;
+        }
+
+        /**
+         * @return  Surface area of the ideal shape the mesh approximates, NaN if there is none
+         */
+        public double getIdealSurfaceArea() {
+            return idealSurfaceArea;
+        }
+
+        public long getHoleCount() {
+            return holeCount;
+        }
+
+        public long getFlippedCount() {
+            return flippedCount;
+        }
+
+        public long getDuplicateCount() {
+            return duplicateCount;
+        }
+
+        public long getDegenerateCount() {
+            return degenerateCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "triangles=%d bytes=%d volume=%.9g area=%.9g idealVolume=%.9g idealArea=%.9g "
+                            + "holes=%d flipped=%d duplicates=%d degenerate=%d",
+                    triangleCount, byteCount, volume, surfaceArea, idealVolume, idealSurfaceArea,
+                    holeCount, flippedCount, duplicateCount, degenerateCount);
+        }
+    }
+}
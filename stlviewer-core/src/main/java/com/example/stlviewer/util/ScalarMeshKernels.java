@@ -0,0 +1,120 @@
+package com.example.stlviewer.util;
+
+/**
+ * Mesh kernels as plain loops over the arrays, used if the Vector API isn't available. The loops don't
+ * allocate and read every array once from start to end, so the JIT compiler may still vectorize parts of them.
+ *
+ * @author  Lukas Erdmann
+ */
+public class ScalarMeshKernels implements MeshKernels
+{
+    @Override
+    public String getName() {
+        return KERNELS_SCALAR;
+    }
+
+    @Override
+    public void areas(TriangleArrays triangles, int from, int to, double[] areas) {
+        double[] ax = triangles.getAx(), ay = triangles.getAy(), az = triangles.getAz();
+        double[] bx = triangles.getBx(), by = triangles.getBy(), bz = triangles.getBz();
+        double[] cx = triangles.getCx(), cy = triangles.getCy(), cz = triangles.getCz();
+        for (int i = from; i < to; i++) {
+            areas[i - from] = area(ax[i], ay[i], az[i], bx[i], by[i], bz[i], cx[i], cy[i], cz[i]);
+        }
+    }
+
+    @Override
+    public double surfaceArea(TriangleArrays triangles) {
+        double[] ax = triangles.getAx(), ay = triangles.getAy(), az = triangles.getAz();
+        double[] bx = triangles.getBx(), by = triangles.getBy(), bz = triangles.getBz();
+        double[] cx = triangles.getCx(), cy = triangles.getCy(), cz = triangles.getCz();
+        double surfaceArea = 0;
+        for (int i = 0; i < triangles.getTriangleCount(); i++) {
+            surfaceArea += area(ax[i], ay[i], az[i], bx[i], by[i], bz[i], cx[i], cy[i], cz[i]);
+        }
+        return surfaceArea;
+    }
+
+    /**
+     * Half the length of the cross product of the edges from a to b and from a to c.
+     */
+    static double area(double ax, double ay, double az, double bx, double by, double bz, double cx, double cy, double cz) {
+        double abx = bx - ax, aby = by - ay, abz = bz - az;
+        double acx = cx - ax, acy = cy - ay, acz = cz - az;
+        double crossX = aby * acz - abz * acy;
+        double crossY = abz * acx - abx * acz;
+        double crossZ = abx * acy - aby * acx;
+        return java.lang.Math.sqrt(crossX * crossX + crossY * crossY + crossZ * crossZ) * 0.5;
+    }
+
+    @Override
+    public void signedVolumes(TriangleArrays triangles, double[] reference, int from, int to, double[] volumes) {
+        double[] ax = triangles.getAx(), ay = triangles.getAy(), az = triangles.getAz();
+        double[] bx = triangles.getBx(), by = triangles.getBy(), bz = triangles.getBz();
+        double[] cx = triangles.getCx(), cy = triangles.getCy(), cz = triangles.getCz();
+        for (int i = from; i < to; i++) {
+            volumes[i - from] = signedVolume(ax[i], ay[i], az[i], bx[i], by[i], bz[i], cx[i], cy[i], cz[i], reference);
+        }
+    }
+
+    @Override
+    public double volume(TriangleArrays triangles, double[] reference) {
+        double[] ax = triangles.getAx(), ay = triangles.getAy(), az = triangles.getAz();
+        double[] bx = triangles.getBx(), by = triangles.getBy(), bz = triangles.getBz();
+        double[] cx = triangles.getCx(), cy = triangles.getCy(), cz = triangles.getCz();
+        double volume = 0;
+        for (int i = 0; i < triangles.getTriangleCount(); i++) {
+            volume += signedVolume(ax[i], ay[i], az[i], bx[i], by[i], bz[i], cx[i], cy[i], cz[i], reference);
+        }
+        return volume;
+    }
+
+    /**
+     * A sixth of the scalar triple product (a - r) . ((b - r) x (c - r)) with the reference vertex r.
+     */
+    static double signedVolume(double ax, double ay, double az, double bx, double by, double bz,
+                               double cx, double cy, double cz, double[] reference) {
+        double rax = ax - reference[0], ray = ay - reference[1], raz = az - reference[2];
+        double rbx = bx - reference[0], rby = by - reference[1], rbz = bz - reference[2];
+        double rcx = cx - reference[0], rcy = cy - reference[1], rcz = cz - reference[2];
+        return (rax * (rby * rcz - rbz * rcy) + ray * (rbz * rcx - rbx * rcz) + raz * (rbx * rcy - rby * rcx)) / 6;
+    }
+
+    @Override
+    public double[] boundingBox(TriangleArrays triangles, int from, int to) {
+        double[] boundingBox = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        double[][] coordinates = {
+                triangles.getAx(), triangles.getAy(), triangles.getAz(),
+                triangles.getBx(), triangles.getBy(), triangles.getBz(),
+                triangles.getCx(), triangles.getCy(), triangles.getCz()
+        };
+        for (int array = 0; array < coordinates.length; array++) {
+            int axis = array % 3;
+            double min = boundingBox[axis];
+            double max = boundingBox[axis + 3];
+            for (int i = from; i < to; i++) {
+                min = java.lang.Math.min(min, coordinates[array][i]);
+                max = java.lang.Math.max(max, coordinates[array][i]);
+            }
+            boundingBox[axis] = min;
+            boundingBox[axis + 3] = max;
+        }
+        return boundingBox;
+    }
+
+    @Override
+    public void transform(TriangleArrays triangles, double[] matrix) {
+        transform(triangles.getAx(), triangles.getAy(), triangles.getAz(), triangles.getTriangleCount(), matrix);
+        transform(triangles.getBx(), triangles.getBy(), triangles.getBz(), triangles.getTriangleCount(), matrix);
+        transform(triangles.getCx(), triangles.getCy(), triangles.getCz(), triangles.getTriangleCount(), matrix);
+    }
+
+    private static void transform(double[] x, double[] y, double[] z, int count, double[] matrix) {
+        for (int i = 0; i < count; i++) {
+            double px = x[i], py = y[i], pz = z[i];
+            x[i] = matrix[0] * px + matrix[1] * py + matrix[2] * pz + matrix[3];
+            y[i] = matrix[4] * px + matrix[5] * py + matrix[6] * pz + matrix[7];
+            z[i] = matrix[8] * px + matrix[9] * py + matrix[10] * pz + matrix[11];
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.stlviewer.util;
+
+/**
+ * Signed distance to the surface of a polyhedron on the voxels of a {@link VoxelGrid}, negative inside. <br>
+ * Only a narrow band around the surface is stored: the grid is divided into cubic blocks with
+ * {@value #BLOCK_SIZE} voxels per side, and only blocks with a voxel closer to the surface than the band
+ * distance hold distances. The other voxels are clamped to plus or minus the band distance by their occupancy.
+ *
+ * @author  Lukas Erdmann
+ */
+public class SignedDistanceField
+{
+    public static final int BLOCK_SIZE = 8;
+    private static final int BLOCK_SHIFT = 3;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private final VoxelGrid grid;
+    private final float bandDistance;
+    private final int blocksX, blocksY, blocksZ;
+    private final float[][] blocks;
+
+    /**
+     * @param grid          Occupancy that gives the sign
+     * @param bandDistance  Largest stored distance
+     */
+    SignedDistanceField(VoxelGrid grid, float bandDistance) {
+        this.grid = grid;
+        this.bandDistance = bandDistance;
+        this.blocksX = (grid.getSizeX() + BLOCK_MASK) >> BLOCK_SHIFT;
+        this.blocksY = (grid.getSizeY() + BLOCK_MASK) >> BLOCK_SHIFT;
+        this.blocksZ = (grid.getSizeZ() + BLOCK_MASK) >> BLOCK_SHIFT;
+        this.blocks = new float[java.lang.Math.toIntExact((long) blocksX * blocksY * blocksZ)][];
+    }
+
+    /**
+     * @return  Signed distance in model units, between minus and plus the band distance
+     */
+    public float getDistance(int x, int y, int z) {
+        float[] block = blocks[blockIndex(x >> BLOCK_SHIFT, y >> BLOCK_SHIFT, z >> BLOCK_SHIFT)];
+        if (block == null) {
+            return grid.isOccupied(x, y, z) ? -bandDistance : bandDistance;
+        }
+        return block[voxelIndex(x, y, z)];
+    }
+
+    /**
+     * @return  True if the voxel is closer to the surface than the band distance
+     */
+    public boolean isInBand(int x, int y, int z) {
+        return java.lang.Math.abs(getDistance(x, y, z)) < bandDistance;
+    }
+
+    /**
+     * Lowers the unsigned distance of a voxel, creating its block. Blocks of different block layers along z
+     * may be updated by different threads.
+     */
+    void updateDistance(int x, int y, int z, float distance) {
+        int blockIndex = blockIndex(x >> BLOCK_SHIFT, y >> BLOCK_SHIFT, z >> BLOCK_SHIFT);
+        float[] block = blocks[blockIndex];
+        if (block == null) {
+            block = new float[BLOCK_SIZE * BLOCK_SIZE * BLOCK_SIZE];
+            java.util.Arrays.fill(block, bandDistance);
+            blocks[blockIndex] = block;
+        }
+        int voxelIndex = voxelIndex(x, y, z);
+        if (distance < block[voxelIndex]) {
+            block[voxelIndex] = distance;
+        }
+    }
+
+    /**
+     * Turns the unsigned distances of the blocks of a block layer into signed ones.
+     */
+    void applySigns(int blockZ) {
+        for (int blockY = 0; blockY < blocksY; blockY++) {
+            for (int blockX = 0; blockX < blocksX; blockX++) {
+                float[] block = blocks[blockIndex(blockX, blockY, blockZ)];
+                if (block == null) {
+                    continue;
+                }
+                int toZ = java.lang.Math.min((blockZ + 1) << BLOCK_SHIFT, grid.getSizeZ());
+                int toY = java.lang.Math.min((blockY + 1) << BLOCK_SHIFT, grid.getSizeY());
+                int toX = java.lang.Math.min((blockX + 1) << BLOCK_SHIFT, grid.getSizeX());
+                for (int z = blockZ << BLOCK_SHIFT; z < toZ; z++) {
+                    for (int y = blockY << BLOCK_SHIFT; y < toY; y++) {
+                        for (int x = blockX << BLOCK_SHIFT; x < toX; x++) {
+                            if (grid.isOccupied(x, y, z)) {
+                                block[voxelIndex(x, y, z)] = -block[voxelIndex(x, y, z)];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private int blockIndex(int blockX, int blockY, int blockZ) {
+        return (blockZ * blocksY + blockY) * blocksX + blockX;
+    }
+
+    private static int voxelIndex(int x, int y, int z) {
+        return (((z & BLOCK_MASK) << BLOCK_SHIFT | (y & BLOCK_MASK)) << BLOCK_SHIFT) | (x & BLOCK_MASK);
+    }
+
+    public VoxelGrid getGrid() {
+        return grid;
+    }
+
+    public float getBandDistance() {
+        return bandDistance;
+    }
+
+    public int getBlockCountZ() {
+        return blocksZ;
+    }
+
+    /**
+     * @return  Number of blocks that hold distances
+     */
+    public int getAllocatedBlockCount() {
+        int count = 0;
+        for (float[] block : blocks) {
+            if (block != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return  Bytes of the stored distances and the block table, without the occupancy grid
+     */
+    public long getByteSize() {
+        return (long) getAllocatedBlockCount() * BLOCK_SIZE * BLOCK_SIZE * BLOCK_SIZE * Float.BYTES
+                + (long) blocks.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.stlviewer.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe registry of named timers. Every timer is a {@link LatencyHistogram} of durations measured with
+ * {@link System#nanoTime()}, so percentiles are available for each name. <br>
+ * A registry can have a parent, every duration is recorded in the parent as well. This is used to collect
+ * the phases of a single file load while still aggregating them in the global registry.
+ *
+ * @author  Lukas Erdmann
+ */
+public class TimerRegistry
+{
+    public static final String PHASE_READ = "read";
+    public static final String PHASE_PARSE = "parse";
+    public static final String PHASE_HAND_OFF = "hand-off";
+    public static final String PHASE_ANALYZE = "analyze";
+    public static final String PHASE_MESH_BUILD = "mesh-build";
+    public static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final TimerRegistry GLOBAL = new TimerRegistry(null);
+
+    private final TimerRegistry parent;
+    private final ConcurrentHashMap<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param parent    Registry that receives all durations as well, or null
+     */
+    public TimerRegistry(TimerRegistry parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @return  Registry shared by the whole application
+     */
+    public static TimerRegistry getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * Starts a timer that records its duration under the given name when it is closed.
+     * Intended for try-with-resources blocks.
+     *
+     * @param name  Name of the timer
+     * @return      Running timer
+     */
+    public Timer start(String name) {
+        return new Timer(name, System.nanoTime());
+    }
+
+    /**
+     * Records a duration under the given name.
+     *
+     * @param name          Name of the timer
+     * @param elapsedNanos  Duration in nanoseconds
+     */
+    public void record(String name, long elapsedNanos) {
+        timers.computeIfAbsent(name, timerName -> new LatencyHistogram()).record(elapsedNanos);
+        if (parent != null) {
+            parent.record(name, elapsedNanos);
+        }
+    }
+
+    /**
+     * @param name  Name of the timer
+     * @return      Histogram of the timer, or null if nothing was recorded under the name
+     */
+    public LatencyHistogram getHistogram(String name) {
+        return timers.get(name);
+    }
+
+    /**
+     * @param name  Name of the timer
+     * @return      Sum of all durations recorded under the name in milliseconds
+     */
+    public double getTotalMillis(String name) {
+        LatencyHistogram histogram = timers.get(name);
+        return histogram == null ? 0 : histogram.getTotal() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Formats the total time of every timer on one line, e.g. {@code read=12.3ms parse=45.6ms}.
+     *
+     * @return  Totals line
+     */
+    public String toTotalsLine() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(timers).entrySet()) {
+            builder.append(builder.length() == 0 ? "" : " ");
+            builder.append(String.format("%s=%.1fms", entry.getKey(), entry.getValue().getTotal() / NANOS_PER_MILLI));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Formats the percentile summary of every timer, one timer per line.
+     *
+     * @return  Summary text
+     */
+    public String toSummary() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(timers).entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue().toSummary()).append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    public void reset() {
+        timers.clear();
+    }
+
+    /**
+     * A running timer, records its duration when closed.
+     */
+    public class Timer implements AutoCloseable
+    {
+        private final String name;
+        private final long startNanos;
+
+        private Timer(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * @return  Nanoseconds since the timer was started
+         */
+        public long elapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+
+        @Override
+        public void close() {
+            record(name, elapsedNanos());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import java.util.List;
+
+/**
+ * Coordinates of triangles as a structure of arrays: one array per coordinate of every corner, so a kernel
+ * reads consecutive triangles from consecutive elements and can process several of them per instruction. <br>
+ * Corner a is the first vertex of a triangle, b the second and c the third.
+ *
+ * @author  Lukas Erdmann
+ */
+public class TriangleArrays
+{
+    private int triangleCount;
+    private final double[] ax, ay, az;
+    private final double[] bx, by, bz;
+    private final double[] cx, cy, cz;
+
+    /**
+     * @param capacity  Number of triangles the arrays can hold, also the initial triangle count
+     */
+    public TriangleArrays(int capacity) {
+        this.triangleCount = capacity;
+        this.ax = new double[capacity];
+        this.ay = new double[capacity];
+        this.az = new double[capacity];
+        this.bx = new double[capacity];
+        this.by = new double[capacity];
+        this.bz = new double[capacity];
+        this.cx = new double[capacity];
+        this.cy = new double[capacity];
+        this.cz = new double[capacity];
+    }
+
+    /**
+     * Copies the vertices of the triangles of a polyhedron.
+     */
+    public static TriangleArrays fromPolyhedron(Polyhedron polyhedron) {
+        TriangleArrays arrays = new TriangleArrays(polyhedron.getTriangleCount());
+        int index = 0;
+        for (Triangle triangle : polyhedron.getTriangles()) {
+            arrays.setTriangle(index++, triangle.getVertices().get(0), triangle.getVertices().get(1), triangle.getVertices().get(2));
+        }
+        return arrays;
+    }
+
+    /**
+     * Copies the coordinates of triangles stored as nine consecutive values per triangle.
+     */
+    public static TriangleArrays fromCoordinates(double[] coordinates) {
+        TriangleArrays arrays = new TriangleArrays(coordinates.length / 9);
+        for (int i = 0; i < arrays.triangleCount; i++) {
+            int offset = i * 9;
+            arrays.ax[i] = coordinates[offset];
+            arrays.ay[i] = coordinates[offset + 1];
+            arrays.az[i] = coordinates[offset + 2];
+            arrays.bx[i] = coordinates[offset + 3];
+            arrays.by[i] = coordinates[offset + 4];
+            arrays.bz[i] = coordinates[offset + 5];
+            arrays.cx[i] = coordinates[offset + 6];
+            arrays.cy[i] = coordinates[offset + 7];
+            arrays.cz[i] = coordinates[offset + 8];
+        }
+        return arrays;
+    }
+
+    /**
+     * Replaces the content with a range of triangles, so the same arrays can be reused for consecutive
+     * blocks of a large model.
+     *
+     * @param triangles List of triangles
+     * @param from      Index of the first triangle, inclusive
+     * @param to        Index of the last triangle, exclusive, at most the capacity after from
+     */
+    public void setTriangles(List<Triangle> triangles, int from, int to) {
+        triangleCount = to - from;
+        for (int i = 0; i < triangleCount; i++) {
+            List<Vertex> vertices = triangles.get(from + i).getVertices();
+            setTriangle(i, vertices.get(0), vertices.get(1), vertices.get(2));
+        }
+    }
+
+    public void setTriangle(int index, Vertex a, Vertex b, Vertex c) {
+        ax[index] = a.getPosX();
+        ay[index] = a.getPosY();
+        az[index] = a.getPosZ();
+        bx[index] = b.getPosX();
+        by[index] = b.getPosY();
+        bz[index] = b.getPosZ();
+        cx[index] = c.getPosX();
+        cy[index] = c.getPosY();
+        cz[index] = c.getPosZ();
+    }
+
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Sets the number of triangles after the coordinates were written straight into the arrays.
+     *
+     * @param triangleCount Number of triangles, at most the capacity
+     */
+    public void setTriangleCount(int triangleCount) {
+        if (triangleCount < 0 || triangleCount > getCapacity()) {
+            throw new IllegalArgumentException("Triangle count " + triangleCount + " exceeds the capacity " + getCapacity());
+        }
+        this.triangleCount = triangleCount;
+    }
+
+    public int getCapacity() {
+        return ax.length;
+    }
+
+    public double[] getAx() {
+        return ax;
+    }
+
+    public double[] getAy() {
+        return ay;
+    }
+
+    public double[] getAz() {
+        return az;
+    }
+
+    public double[] getBx() {
+        return bx;
+    }
+
+    public double[] getBy() {
+        return by;
+    }
+
+    public double[] getBz() {
+        return bz;
+    }
+
+    public double[] getCx() {
+        return cx;
+    }
+
+    public double[] getCy() {
+        return cy;
+    }
+
+    public double[] getCz() {
+        return cz;
+    }
+}
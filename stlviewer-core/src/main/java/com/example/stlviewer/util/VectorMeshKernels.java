@@ -0,0 +1,179 @@
+package com.example.stlviewer.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Mesh kernels on the Vector API. Every loop processes as many triangles per iteration as the preferred
+ * vector of the CPU has double lanes and finishes the remaining triangles with the scalar formulas. The sums
+ * are kept per lane and only added up after the loop. <br>
+ * The class may only be loaded if {@link MeshKernels#isVectorApiAvailable()} is true.
+ *
+ * @author  Lukas Erdmann
+ */
+public class VectorMeshKernels implements MeshKernels
+{
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return KERNELS_VECTOR + " (" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    public void areas(TriangleArrays triangles, int from, int to, double[] areas) {
+        int vectorEnd = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < vectorEnd; i += SPECIES.length()) {
+            area(triangles, i).intoArray(areas, i - from);
+        }
+        for (; i < to; i++) {
+            areas[i - from] = scalarArea(triangles, i);
+        }
+    }
+
+    @Override
+    public double surfaceArea(TriangleArrays triangles) {
+        int count = triangles.getTriangleCount();
+        int vectorEnd = SPECIES.loopBound(count);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < vectorEnd; i += SPECIES.length()) {
+            sum = sum.add(area(triangles, i));
+        }
+        double surfaceArea = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < count; i++) {
+            surfaceArea += scalarArea(triangles, i);
+        }
+        return surfaceArea;
+    }
+
+    private static DoubleVector area(TriangleArrays triangles, int i) {
+        DoubleVector ax = DoubleVector.fromArray(SPECIES, triangles.getAx(), i);
+        DoubleVector ay = DoubleVector.fromArray(SPECIES, triangles.getAy(), i);
+        DoubleVector az = DoubleVector.fromArray(SPECIES, triangles.getAz(), i);
+        DoubleVector abx = DoubleVector.fromArray(SPECIES, triangles.getBx(), i).sub(ax);
+        DoubleVector aby = DoubleVector.fromArray(SPECIES, triangles.getBy(), i).sub(ay);
+        DoubleVector abz = DoubleVector.fromArray(SPECIES, triangles.getBz(), i).sub(az);
+        DoubleVector acx = DoubleVector.fromArray(SPECIES, triangles.getCx(), i).sub(ax);
+        DoubleVector acy = DoubleVector.fromArray(SPECIES, triangles.getCy(), i).sub(ay);
+        DoubleVector acz = DoubleVector.fromArray(SPECIES, triangles.getCz(), i).sub(az);
+        DoubleVector crossX = aby.mul(acz).sub(abz.mul(acy));
+        DoubleVector crossY = abz.mul(acx).sub(abx.mul(acz));
+        DoubleVector crossZ = abx.mul(acy).sub(aby.mul(acx));
+        return crossX.mul(crossX).add(crossY.mul(crossY)).add(crossZ.mul(crossZ)).sqrt().mul(0.5);
+    }
+
+    private static double scalarArea(TriangleArrays triangles, int i) {
+        return ScalarMeshKernels.area(triangles.getAx()[i], triangles.getAy()[i], triangles.getAz()[i],
+                triangles.getBx()[i], triangles.getBy()[i], triangles.getBz()[i],
+                triangles.getCx()[i], triangles.getCy()[i], triangles.getCz()[i]);
+    }
+
+    @Override
+    public void signedVolumes(TriangleArrays triangles, double[] reference, int from, int to, double[] volumes) {
+        int vectorEnd = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < vectorEnd; i += SPECIES.length()) {
+            sixfoldSignedVolume(triangles, reference, i).div(6).intoArray(volumes, i - from);
+        }
+        for (; i < to; i++) {
+            volumes[i - from] = scalarSignedVolume(triangles, reference, i);
+        }
+    }
+
+    @Override
+    public double volume(TriangleArrays triangles, double[] reference) {
+        int count = triangles.getTriangleCount();
+        int vectorEnd = SPECIES.loopBound(count);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < vectorEnd; i += SPECIES.length()) {
+            sum = sum.add(sixfoldSignedVolume(triangles, reference, i));
+        }
+        double volume = sum.reduceLanes(VectorOperators.ADD) / 6;
+        for (; i < count; i++) {
+            volume += scalarSignedVolume(triangles, reference, i);
+        }
+        return volume;
+    }
+
+    private static DoubleVector sixfoldSignedVolume(TriangleArrays triangles, double[] reference, int i) {
+        DoubleVector rax = DoubleVector.fromArray(SPECIES, triangles.getAx(), i).sub(reference[0]);
+        DoubleVector ray = DoubleVector.fromArray(SPECIES, triangles.getAy(), i).sub(reference[1]);
+        DoubleVector raz = DoubleVector.fromArray(SPECIES, triangles.getAz(), i).sub(reference[2]);
+        DoubleVector rbx = DoubleVector.fromArray(SPECIES, triangles.getBx(), i).sub(reference[0]);
+        DoubleVector rby = DoubleVector.fromArray(SPECIES, triangles.getBy(), i).sub(reference[1]);
+        DoubleVector rbz = DoubleVector.fromArray(SPECIES, triangles.getBz(), i).sub(reference[2]);
+        DoubleVector rcx = DoubleVector.fromArray(SPECIES, triangles.getCx(), i).sub(reference[0]);
+        DoubleVector rcy = DoubleVector.fromArray(SPECIES, triangles.getCy(), i).sub(reference[1]);
+        DoubleVector rcz = DoubleVector.fromArray(SPECIES, triangles.getCz(), i).sub(reference[2]);
+        return rax.mul(rby.mul(rcz).sub(rbz.mul(rcy)))
+                .add(ray.mul(rbz.mul(rcx).sub(rbx.mul(rcz))))
+                .add(raz.mul(rbx.mul(rcy).sub(rby.mul(rcx))));
+    }
+
+    private static double scalarSignedVolume(TriangleArrays triangles, double[] reference, int i) {
+        return ScalarMeshKernels.signedVolume(triangles.getAx()[i], triangles.getAy()[i], triangles.getAz()[i],
+                triangles.getBx()[i], triangles.getBy()[i], triangles.getBz()[i],
+                triangles.getCx()[i], triangles.getCy()[i], triangles.getCz()[i], reference);
+    }
+
+    @Override
+    public double[] boundingBox(TriangleArrays triangles, int from, int to) {
+        double[] boundingBox = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        double[][] coordinates = {
+                triangles.getAx(), triangles.getAy(), triangles.getAz(),
+                triangles.getBx(), triangles.getBy(), triangles.getBz(),
+                triangles.getCx(), triangles.getCy(), triangles.getCz()
+        };
+        int vectorEnd = from + SPECIES.loopBound(to - from);
+        for (int array = 0; array < coordinates.length; array++) {
+            int axis = array % 3;
+            DoubleVector minimum = DoubleVector.broadcast(SPECIES, boundingBox[axis]);
+            DoubleVector maximum = DoubleVector.broadcast(SPECIES, boundingBox[axis + 3]);
+            int i = from;
+            for (; i < vectorEnd; i += SPECIES.length()) {
+                DoubleVector values = DoubleVector.fromArray(SPECIES, coordinates[array], i);
+                minimum = minimum.min(values);
+                maximum = maximum.max(values);
+            }
+            double min = minimum.reduceLanes(VectorOperators.MIN);
+            double max = maximum.reduceLanes(VectorOperators.MAX);
+            for (; i < to; i++) {
+                min = java.lang.Math.min(min, coordinates[array][i]);
+                max = java.lang.Math.max(max, coordinates[array][i]);
+            }
+            boundingBox[axis] = min;
+            boundingBox[axis + 3] = max;
+        }
+        return boundingBox;
+    }
+
+    @Override
+    public void transform(TriangleArrays triangles, double[] matrix) {
+        transform(triangles.getAx(), triangles.getAy(), triangles.getAz(), triangles.getTriangleCount(), matrix);
+        transform(triangles.getBx(), triangles.getBy(), triangles.getBz(), triangles.getTriangleCount(), matrix);
+        transform(triangles.getCx(), triangles.getCy(), triangles.getCz(), triangles.getTriangleCount(), matrix);
+    }
+
+    private static void transform(double[] x, double[] y, double[] z, int count, double[] matrix) {
+        int vectorEnd = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < vectorEnd; i += SPECIES.length()) {
+            DoubleVector px = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector py = DoubleVector.fromArray(SPECIES, y, i);
+            DoubleVector pz = DoubleVector.fromArray(SPECIES, z, i);
+            px.mul(matrix[0]).add(py.mul(matrix[1])).add(pz.mul(matrix[2])).add(matrix[3]).intoArray(x, i);
+            px.mul(matrix[4]).add(py.mul(matrix[5])).add(pz.mul(matrix[6])).add(matrix[7]).intoArray(y, i);
+            px.mul(matrix[8]).add(py.mul(matrix[9])).add(pz.mul(matrix[10])).add(matrix[11]).intoArray(z, i);
+        }
+        for (; i < count; i++) {
+            double px = x[i], py = y[i], pz = z[i];
+            x[i] = matrix[0] * px + matrix[1] * py + matrix[2] * pz + matrix[3];
+            y[i] = matrix[4] * px + matrix[5] * py + matrix[6] * pz + matrix[7];
+            z[i] = matrix[8] * px + matrix[9] * py + matrix[10] * pz + matrix[11];
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.Vertex;
+
+/**
+ * Occupancy of a regular grid of cubic voxels with one bit per voxel. <br>
+ * The bits of a row along x are packed into consecutive longs, a row starts at a new long. Voxel (x, y, z)
+ * covers the cube from origin + (x, y, z) * voxelSize to origin + (x + 1, y + 1, z + 1) * voxelSize.
+ *
+ * @author  Lukas Erdmann
+ */
+public class VoxelGrid
+{
+    private final int sizeX, sizeY, sizeZ;
+    private final double originX, originY, originZ;
+    private final double voxelSize;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    /**
+     * @param sizeX     Number of voxels along x
+     * @param sizeY     Number of voxels along y
+     * @param sizeZ     Number of voxels along z
+     * @param origin    Minimum corner of the grid
+     * @param voxelSize Edge length of a voxel
+     * @throws ArithmeticException  If the bits don't fit into an array
+     */
+    public VoxelGrid(int sizeX, int sizeY, int sizeZ, Vertex origin, double voxelSize) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.originX = origin.getPosX();
+        this.originY = origin.getPosY();
+        this.originZ = origin.getPosZ();
+        this.voxelSize = voxelSize;
+        this.wordsPerRow = (sizeX + Long.SIZE - 1) / Long.SIZE;
+        this.words = new long[java.lang.Math.toIntExact((long) wordsPerRow * sizeY * sizeZ)];
+    }
+
+    public boolean isOccupied(int x, int y, int z) {
+        return (words[rowOffset(y, z) + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Marks a range of voxels of a row as occupied. Rows don't share longs, so different rows may be filled
+     * by different threads.
+     *
+     * @param fromX First voxel, inclusive
+     * @param toX   Last voxel, exclusive
+     */
+    public void fillRow(int y, int z, int fromX, int toX) {
+        if (fromX >= toX) {
+            return;
+        }
+        int offset = rowOffset(y, z);
+        int firstWord = fromX >>> 6;
+        int lastWord = (toX - 1) >>> 6;
+        // Shifts only use the lowest six bits, so these are the masks within the first and the last long
+        long firstMask = -1L << fromX;
+        long lastMask = -1L >>> (Long.SIZE - 1 - ((toX - 1) & 63));
+        if (firstWord == lastWord) {
+            words[offset + firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[offset + firstWord] |= firstMask;
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            words[offset + word] = -1L;
+        }
+        words[offset + lastWord] |= lastMask;
+    }
+
+    private int rowOffset(int y, int z) {
+        return (z * sizeY + y) * wordsPerRow;
+    }
+
+    public long getOccupiedCount() {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return  Volume of the occupied voxels, an estimate of the enclosed volume
+     */
+    public double getOccupiedVolume() {
+        return getOccupiedCount() * voxelSize * voxelSize * voxelSize;
+    }
+
+    public double getCenterX(int x) {
+        return originX + (x + 0.5) * voxelSize;
+    }
+
+    public double getCenterY(int y) {
+        return originY + (y + 0.5) * voxelSize;
+    }
+
+    public double getCenterZ(int z) {
+        return originZ + (z + 0.5) * voxelSize;
+    }
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getSizeZ() {
+        return sizeZ;
+    }
+
+    public Vertex getOrigin() {
+        return new Vertex(originX, originY, originZ);
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginY() {
+        return originY;
+    }
+
+    public double getOriginZ() {
+        return originZ;
+    }
+
+    public double getVoxelSize() {
+        return voxelSize;
+    }
+
+    /**
+     * @return  Bytes of the bits
+     */
+    public long getByteSize() {
+        return (long) words.length * Long.BYTES;
+    }
+}
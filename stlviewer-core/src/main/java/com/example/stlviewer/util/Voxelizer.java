@@ -0,0 +1,532 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel voxelization of a closed polyhedron into a {@link VoxelGrid} and a narrow-band
+ * {@link SignedDistanceField} on a fork-join pool. <br>
+ * The occupancy is found by ray parity: a ray along x through the centers of every row of voxels crosses the
+ * surface at sorted hits, and the voxels between the first and the second, the third and the fourth hit and
+ * so on are inside. The triangles are sorted into buckets by the slices along z they cover, and the slices
+ * are split between the tasks, so no two tasks write to the same row. A ray that passes through an edge or a
+ * vertex is counted once by a top-left rule on the edge functions of the triangles projected onto the yz
+ * plane, the edge functions of a shared edge are computed in a fixed vertex order so they are exact
+ * negations of each other. An unpaired last hit of a mesh with holes is ignored. <br>
+ * The distances are computed exactly to the triangles near each voxel: each triangle only visits the voxels
+ * of the rows within the band around its bounding box, cut to where its plane is closer than the band. The
+ * slices of a block layer of the field belong to one task, which signs them by the occupancy when done.
+ *
+ * @author  Lukas Erdmann
+ */
+public class Voxelizer
+{
+    public static final int DEFAULT_BAND_WIDTH = 3;
+    /**
+     * Slices along z below which a task isn't split.
+     */
+    public static final int SLICES_PER_TASK = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool  Pool the slices are voxelized on
+     */
+    public Voxelizer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a voxelizer on the common pool.
+     */
+    public static Voxelizer withCommonPool() {
+        return new Voxelizer(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Voxelizes a list of triangles.
+     *
+     * @param resolution    Voxels along the longest side of the bounding box
+     * @return              Occupancy grid, null if the triangles have no extent
+     * @throws IllegalArgumentException If the resolution isn't positive
+     */
+    public VoxelGrid voxelize(List<Triangle> triangles, int resolution) {
+        return voxelize(toArrays(triangles), resolution, 0);
+    }
+
+    /**
+     * Voxelizes triangles that are already stored in primitive arrays.
+     *
+     * @param resolution    Voxels along the longest side of the bounding box, one more if the rounding of the
+     *                      voxel size leaves the side a little longer
+     * @param padding       Empty voxels added on every side of the bounding box
+     * @return              Occupancy grid, null if the triangles have no extent
+     * @throws IllegalArgumentException If the resolution isn't positive or the padding is negative
+     */
+    public VoxelGrid voxelize(TriangleArrays triangles, int resolution, int padding) {
+        if (resolution < 1 || padding < 0) {
+            throw new IllegalArgumentException("Invalid resolution " + resolution + " or padding " + padding);
+        }
+        double[] boundingBox = boundingBox(triangles);
+        if (boundingBox == null) {
+            return null;
+        }
+        double longestSide = java.lang.Math.max(boundingBox[3] - boundingBox[0],
+                java.lang.Math.max(boundingBox[4] - boundingBox[1], boundingBox[5] - boundingBox[2]));
+        if (!(longestSide > 0) || Double.isInfinite(longestSide)) {
+            return null;
+        }
+        double voxelSize = longestSide / resolution;
+        int[] sizes = new int[3];
+        for (int axis = 0; axis < 3; axis++) {
+            // The rounded voxel size may leave a sliver of the longest side beyond the last of resolution voxels
+            int voxels = (int) java.lang.Math.ceil((boundingBox[axis + 3] - boundingBox[axis]) / voxelSize);
+            sizes[axis] = java.lang.Math.max(1, java.lang.Math.min(voxels, resolution + 1)) + 2 * padding;
+        }
+        Vertex origin = new Vertex(boundingBox[0] - padding * voxelSize, boundingBox[1] - padding * voxelSize,
+                boundingBox[2] - padding * voxelSize);
+        VoxelGrid grid = new VoxelGrid(sizes[0], sizes[1], sizes[2], origin, voxelSize);
+
+        Buckets buckets = new Buckets(triangles, grid.getOriginZ(), voxelSize, 0, 1, grid.getSizeZ());
+        pool.invoke(new ScanlineSlab(triangles, grid, buckets, 0, grid.getSizeZ()));
+        return grid;
+    }
+
+    /**
+     * Voxelizes a list of triangles with enough padding for the band and computes the signed distances.
+     *
+     * @param resolution    Voxels along the longest side of the bounding box
+     * @param bandWidth     Voxels on each side of the surface that hold distances
+     * @return              Signed distance field, null if the triangles have no extent
+     * @throws IllegalArgumentException If the resolution or the band width isn't positive
+     */
+    public SignedDistanceField signedDistanceField(List<Triangle> triangles, int resolution, int bandWidth) {
+        if (bandWidth < 1) {
+            throw new IllegalArgumentException("Invalid band width " + bandWidth);
+        }
+        TriangleArrays arrays = toArrays(triangles);
+        VoxelGrid grid = voxelize(arrays, resolution, bandWidth);
+        return grid == null ? null : signedDistanceField(arrays, grid, bandWidth);
+    }
+
+    /**
+     * Computes the signed distances of the voxels within the band on the lattice of an occupancy grid of the
+     * same triangles.
+     *
+     * @param grid      Occupancy grid of the triangles, gives the sign
+     * @param bandWidth Voxels on each side of the surface that hold distances
+     * @throws IllegalArgumentException If the band width isn't positive
+     */
+    public SignedDistanceField signedDistanceField(TriangleArrays triangles, VoxelGrid grid, int bandWidth) {
+        if (bandWidth < 1) {
+            throw new IllegalArgumentException("Invalid band width " + bandWidth);
+        }
+        double bandDistance = bandWidth * grid.getVoxelSize();
+        SignedDistanceField field = new SignedDistanceField(grid, (float) bandDistance);
+        Buckets buckets = new Buckets(triangles, grid.getOriginZ(), grid.getVoxelSize(), bandDistance,
+                SignedDistanceField.BLOCK_SIZE, field.getBlockCountZ());
+        pool.invoke(new DistanceSlab(triangles, field, buckets, bandDistance, 0, field.getBlockCountZ()));
+        return field;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    private static TriangleArrays toArrays(List<Triangle> triangles) {
+        TriangleArrays arrays = new TriangleArrays(triangles.size());
+        arrays.setTriangles(triangles, 0, triangles.size());
+        return arrays;
+    }
+
+    /**
+     * @return  Minimum and maximum corner, null if there are no triangles
+     */
+    private static double[] boundingBox(TriangleArrays triangles) {
+        if (triangles.getTriangleCount() == 0) {
+            return null;
+        }
+        double[] boundingBox = {
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        double[][] coordinates = {
+                triangles.getAx(), triangles.getAy(), triangles.getAz(),
+                triangles.getBx(), triangles.getBy(), triangles.getBz(),
+                triangles.getCx(), triangles.getCy(), triangles.getCz()};
+        for (int i = 0; i < coordinates.length; i++) {
+            int axis = i % 3;
+            double[] values = coordinates[i];
+            for (int triangle = 0; triangle < triangles.getTriangleCount(); triangle++) {
+                boundingBox[axis] = java.lang.Math.min(boundingBox[axis], values[triangle]);
+                boundingBox[axis + 3] = java.lang.Math.max(boundingBox[axis + 3], values[triangle]);
+            }
+        }
+        return boundingBox;
+    }
+
+    /**
+     * @return  First voxel whose center is at or above the coordinate, may be out of the grid
+     */
+    private static int firstCenterAtOrAbove(double coordinate, double origin, double voxelSize) {
+        return (int) java.lang.Math.max(Integer.MIN_VALUE / 2,
+                java.lang.Math.min(Integer.MAX_VALUE / 2, java.lang.Math.ceil((coordinate - origin) / voxelSize - 0.5)));
+    }
+
+    /**
+     * @return  Last voxel whose center is at or below the coordinate, may be out of the grid
+     */
+    private static int lastCenterAtOrBelow(double coordinate, double origin, double voxelSize) {
+        return (int) java.lang.Math.max(Integer.MIN_VALUE / 2,
+                java.lang.Math.min(Integer.MAX_VALUE / 2, java.lang.Math.floor((coordinate - origin) / voxelSize - 0.5)));
+    }
+
+    /**
+     * Edge function of the edge from a to b at p in the yz plane, positive left of the edge. The vertices are
+     * taken in a fixed order, so swapping a and b negates the value exactly.
+     */
+    private static double edge(double ay, double az, double by, double bz, double py, double pz) {
+        if (ay < by || (ay == by && az < bz)) {
+            return (by - ay) * (pz - az) - (bz - az) * (py - ay);
+        }
+        return -((ay - by) * (pz - bz) - (az - bz) * (py - by));
+    }
+
+    /**
+     * Top-left rule for a point on an edge of a counterclockwise triangle: it belongs to the triangle if the
+     * edge points down or to the right. The opposite direction of a shared edge gives the opposite answer.
+     */
+    private static boolean ownsEdge(double dy, double dz) {
+        return dz < 0 || (dz == 0 && dy > 0);
+    }
+
+    /**
+     * Triangle indices sorted into layers of slices along z. A triangle is in every layer that has the center
+     * of a slice within the margin of its z range.
+     */
+    private static final class Buckets
+    {
+        private final int[] offsets;
+        private final int[] triangles;
+
+        private Buckets(TriangleArrays arrays, double origin, double voxelSize, double margin, int layerSize,
+                        int layerCount) {
+            int count = arrays.getTriangleCount();
+            int[] firstLayers = new int[count];
+            int[] lastLayers = new int[count];
+            offsets = new int[layerCount + 1];
+            double[] az = arrays.getAz();
+            double[] bz = arrays.getBz();
+            double[] cz = arrays.getCz();
+            int lastSlice = layerCount * layerSize - 1;
+            for (int triangle = 0; triangle < count; triangle++) {
+                double minZ = java.lang.Math.min(az[triangle], java.lang.Math.min(bz[triangle], cz[triangle]));
+                double maxZ = java.lang.Math.max(az[triangle], java.lang.Math.max(bz[triangle], cz[triangle]));
+                int firstSlice = java.lang.Math.max(0, firstCenterAtOrAbove(minZ - margin, origin, voxelSize));
+                int lastSliceOfTriangle = java.lang.Math.min(lastSlice, lastCenterAtOrBelow(maxZ + margin, origin, voxelSize));
+                if (firstSlice > lastSliceOfTriangle) {
+                    firstLayers[triangle] = 0;
+                    lastLayers[triangle] = -1;
+                    continue;
+                }
+                firstLayers[triangle] = firstSlice / layerSize;
+                lastLayers[triangle] = lastSliceOfTriangle / layerSize;
+                for (int layer = firstLayers[triangle]; layer <= lastLayers[triangle]; layer++) {
+                    offsets[layer + 1]++;
+                }
+            }
+            for (int layer = 0; layer < layerCount; layer++) {
+                offsets[layer + 1] += offsets[layer];
+            }
+            triangles = new int[offsets[layerCount]];
+            int[] next = Arrays.copyOf(offsets, layerCount);
+            for (int triangle = 0; triangle < count; triangle++) {
+                for (int layer = firstLayers[triangle]; layer <= lastLayers[triangle]; layer++) {
+                    triangles[next[layer]++] = triangle;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the rows of a range of slices along z by ray parity.
+     */
+    private static final class ScanlineSlab extends RecursiveAction
+    {
+        private final TriangleArrays triangles;
+        private final VoxelGrid grid;
+        private final Buckets buckets;
+        private final int from;
+        private final int to;
+
+        private ScanlineSlab(TriangleArrays triangles, VoxelGrid grid, Buckets buckets, int from, int to) {
+            this.triangles = triangles;
+            this.grid = grid;
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SLICES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScanlineSlab(triangles, grid, buckets, from, middle),
+                        new ScanlineSlab(triangles, grid, buckets, middle, to));
+                return;
+            }
+            // Hits along x of every row of the slice, reused for all slices of the task
+            double[][] hits = new double[grid.getSizeY()][];
+            int[] hitCounts = new int[grid.getSizeY()];
+            for (int z = from; z < to; z++) {
+                collectHits(z, hits, hitCounts);
+                for (int y = 0; y < hits.length; y++) {
+                    if (hitCounts[y] > 0) {
+                        fillRow(y, z, hits[y], hitCounts[y]);
+                        hitCounts[y] = 0;
+                    }
+                }
+            }
+        }
+
+        private void collectHits(int z, double[][] hits, int[] hitCounts) {
+            double[] ax = triangles.getAx(), ay = triangles.getAy(), az = triangles.getAz();
+            double[] bx = triangles.getBx(), by = triangles.getBy(), bz = triangles.getBz();
+            double[] cx = triangles.getCx(), cy = triangles.getCy(), cz = triangles.getCz();
+            double pz = grid.getCenterZ(z);
+            for (int i = buckets.offsets[z]; i < buckets.offsets[z + 1]; i++) {
+                int t = buckets.triangles[i];
+                // Twice the signed area of the projection, zero for triangles parallel to the rays
+                double area = edge(ay[t], az[t], by[t], bz[t], cy[t], cz[t]);
+                if (area == 0) {
+                    continue;
+                }
+                double minY = java.lang.Math.min(ay[t], java.lang.Math.min(by[t], cy[t]));
+                double maxY = java.lang.Math.max(ay[t], java.lang.Math.max(by[t], cy[t]));
+                int fromY = java.lang.Math.max(0, firstCenterAtOrAbove(minY, grid.getOriginY(), grid.getVoxelSize()));
+                int toY = java.lang.Math.min(grid.getSizeY() - 1,
+                        lastCenterAtOrBelow(maxY, grid.getOriginY(), grid.getVoxelSize()));
+                double orientation = area > 0 ? 1 : -1;
+                for (int y = fromY; y <= toY; y++) {
+                    double py = grid.getCenterY(y);
+                    // Weights of a, b and c, positive inside the counterclockwise triangle
+                    double wa = orientation * edge(by[t], bz[t], cy[t], cz[t], py, pz);
+                    double wb = orientation * edge(cy[t], cz[t], ay[t], az[t], py, pz);
+                    double wc = orientation * edge(ay[t], az[t], by[t], bz[t], py, pz);
+                    if (wa < 0 || wb < 0 || wc < 0) {
+                        continue;
+                    }
+                    if ((wa == 0 && !ownsEdge(orientation * (cy[t] - by[t]), orientation * (cz[t] - bz[t])))
+                            || (wb == 0 && !ownsEdge(orientation * (ay[t] - cy[t]), orientation * (az[t] - cz[t])))
+                            || (wc == 0 && !ownsEdge(orientation * (by[t] - ay[t]), orientation * (bz[t] - az[t])))) {
+                        continue;
+                    }
+                    double sum = wa + wb + wc;
+                    if (!(sum > 0)) {
+                        continue;
+                    }
+                    double x = (wa * ax[t] + wb * bx[t] + wc * cx[t]) / sum;
+                    double[] rowHits = hits[y];
+                    if (rowHits == null) {
+                        rowHits = hits[y] = new double[8];
+                    } else if (hitCounts[y] == rowHits.length) {
+                        rowHits = hits[y] = Arrays.copyOf(rowHits, rowHits.length * 2);
+                    }
+                    rowHits[hitCounts[y]++] = x;
+                }
+            }
+        }
+
+        private void fillRow(int y, int z, double[] rowHits, int hitCount) {
+            Arrays.sort(rowHits, 0, hitCount);
+            double originX = grid.getOriginX();
+            double voxelSize = grid.getVoxelSize();
+            for (int hit = 0; hit + 1 < hitCount; hit += 2) {
+                // Voxels whose centers lie between an entering and a leaving hit
+                int fromX = java.lang.Math.max(0, firstCenterAtOrAbove(rowHits[hit], originX, voxelSize));
+                int toX = java.lang.Math.min(grid.getSizeX(), firstCenterAtOrAbove(rowHits[hit + 1], originX, voxelSize));
+                grid.fillRow(y, z, fromX, toX);
+            }
+        }
+    }
+
+    /**
+     * Computes the distances of a range of block layers along z.
+     */
+    private static final class DistanceSlab extends RecursiveAction
+    {
+        private final TriangleArrays triangles;
+        private final SignedDistanceField field;
+        private final Buckets buckets;
+        private final double bandDistance;
+        private final int from;
+        private final int to;
+
+        private DistanceSlab(TriangleArrays triangles, SignedDistanceField field, Buckets buckets,
+                             double bandDistance, int from, int to) {
+            this.triangles = triangles;
+            this.field = field;
+            this.buckets = buckets;
+            this.bandDistance = bandDistance;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new DistanceSlab(triangles, field, buckets, bandDistance, from, middle),
+                        new DistanceSlab(triangles, field, buckets, bandDistance, middle, to));
+                return;
+            }
+            VoxelGrid grid = field.getGrid();
+            int fromZ = from * SignedDistanceField.BLOCK_SIZE;
+            int toZ = java.lang.Math.min(fromZ + SignedDistanceField.BLOCK_SIZE, grid.getSizeZ()) - 1;
+            for (int i = buckets.offsets[from]; i < buckets.offsets[from + 1]; i++) {
+                updateDistances(buckets.triangles[i], grid, fromZ, toZ);
+            }
+            field.applySigns(from);
+        }
+
+        private void updateDistances(int t, VoxelGrid grid, int layerFromZ, int layerToZ) {
+            double ax = triangles.getAx()[t], ay = triangles.getAy()[t], az = triangles.getAz()[t];
+            double bx = triangles.getBx()[t], by = triangles.getBy()[t], bz = triangles.getBz()[t];
+            double cx = triangles.getCx()[t], cy = triangles.getCy()[t], cz = triangles.getCz()[t];
+            double minX = java.lang.Math.min(ax, java.lang.Math.min(bx, cx));
+            double maxX = java.lang.Math.max(ax, java.lang.Math.max(bx, cx));
+            double minY = java.lang.Math.min(ay, java.lang.Math.min(by, cy));
+            double maxY = java.lang.Math.max(ay, java.lang.Math.max(by, cy));
+            double minZ = java.lang.Math.min(az, java.lang.Math.min(bz, cz));
+            double maxZ = java.lang.Math.max(az, java.lang.Math.max(bz, cz));
+            double voxelSize = grid.getVoxelSize();
+            int fromY = java.lang.Math.max(0, firstCenterAtOrAbove(minY - bandDistance, grid.getOriginY(), voxelSize));
+            int toY = java.lang.Math.min(grid.getSizeY() - 1,
+                    lastCenterAtOrBelow(maxY + bandDistance, grid.getOriginY(), voxelSize));
+            int fromZ = java.lang.Math.max(layerFromZ,
+                    firstCenterAtOrAbove(minZ - bandDistance, grid.getOriginZ(), voxelSize));
+            int toZ = java.lang.Math.min(layerToZ, lastCenterAtOrBelow(maxZ + bandDistance, grid.getOriginZ(), voxelSize));
+
+            // Unit normal and offset of the plane, to skip the voxels of the box that are far from it
+            double nx = (by - ay) * (cz - az) - (bz - az) * (cy - ay);
+            double ny = (bz - az) * (cx - ax) - (bx - ax) * (cz - az);
+            double nz = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+            double length = java.lang.Math.sqrt(nx * nx + ny * ny + nz * nz);
+            boolean planar = length > 0;
+            if (planar) {
+                nx /= length;
+                ny /= length;
+                nz /= length;
+            }
+            double offset = nx * ax + ny * ay + nz * az;
+            double bandSquared = bandDistance * bandDistance;
+
+            for (int z = fromZ; z <= toZ; z++) {
+                double pz = grid.getCenterZ(z);
+                double gapZ = gap(pz, minZ, maxZ);
+                for (int y = fromY; y <= toY; y++) {
+                    double py = grid.getCenterY(y);
+                    double gapY = gap(py, minY, maxY);
+                    // Only the voxels of the row within the band around the bounding box of the triangle
+                    double reachSquared = bandSquared - gapY * gapY - gapZ * gapZ;
+                    if (reachSquared <= 0) {
+                        continue;
+                    }
+                    double reach = java.lang.Math.sqrt(reachSquared);
+                    int rowFromX = java.lang.Math.max(0, firstCenterAtOrAbove(minX - reach, grid.getOriginX(), voxelSize));
+                    int rowToX = java.lang.Math.min(grid.getSizeX() - 1,
+                            lastCenterAtOrBelow(maxX + reach, grid.getOriginX(), voxelSize));
+                    if (planar) {
+                        double rest = ny * py + nz * pz - offset;
+                        if (java.lang.Math.abs(nx) > 1e-9) {
+                            double x1 = (-bandDistance - rest) / nx;
+                            double x2 = (bandDistance - rest) / nx;
+                            rowFromX = java.lang.Math.max(rowFromX, firstCenterAtOrAbove(
+                                    java.lang.Math.min(x1, x2), grid.getOriginX(), voxelSize));
+                            rowToX = java.lang.Math.min(rowToX, lastCenterAtOrBelow(
+                                    java.lang.Math.max(x1, x2), grid.getOriginX(), voxelSize));
+                        } else if (java.lang.Math.abs(rest) > bandDistance) {
+                            continue;
+                        }
+                    }
+                    for (int x = rowFromX; x <= rowToX; x++) {
+                        double distanceSquared = distanceSquared(grid.getCenterX(x), py, pz,
+                                ax, ay, az, bx, by, bz, cx, cy, cz);
+                        if (distanceSquared < bandSquared) {
+                            field.updateDistance(x, y, z, (float) java.lang.Math.sqrt(distanceSquared));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Squared distance from p to the closest point of the triangle abc, by the Voronoi region of p
+     * (Ericson, "Real-Time Collision Detection", 5.1.5).
+     */
+    static double distanceSquared(double px, double py, double pz,
+                                  double ax, double ay, double az,
+                                  double bx, double by, double bz,
+                                  double cx, double cy, double cz) {
+        double abx = bx - ax, aby = by - ay, abz = bz - az;
+        double acx = cx - ax, acy = cy - ay, acz = cz - az;
+        double apx = px - ax, apy = py - ay, apz = pz - az;
+        double d1 = abx * apx + aby * apy + abz * apz;
+        double d2 = acx * apx + acy * apy + acz * apz;
+        if (d1 <= 0 && d2 <= 0) {
+            return squared(apx, apy, apz);
+        }
+        double bpx = px - bx, bpy = py - by, bpz = pz - bz;
+        double d3 = abx * bpx + aby * bpy + abz * bpz;
+        double d4 = acx * bpx + acy * bpy + acz * bpz;
+        if (d3 >= 0 && d4 <= d3) {
+            return squared(bpx, bpy, bpz);
+        }
+        double vc = d1 * d4 - d3 * d2;
+        if (vc <= 0 && d1 >= 0 && d3 <= 0) {
+            double v = d1 / (d1 - d3);
+            return squared(apx - v * abx, apy - v * aby, apz - v * abz);
+        }
+        double cpx = px - cx, cpy = py - cy, cpz = pz - cz;
+        double d5 = abx * cpx + aby * cpy + abz * cpz;
+        double d6 = acx * cpx + acy * cpy + acz * cpz;
+        if (d6 >= 0 && d5 <= d6) {
+            return squared(cpx, cpy, cpz);
+        }
+        double vb = d5 * d2 - d1 * d6;
+        if (vb <= 0 && d2 >= 0 && d6 <= 0) {
+            double w = d2 / (d2 - d6);
+            return squared(apx - w * acx, apy - w * acy, apz - w * acz);
+        }
+        double va = d3 * d6 - d5 * d4;
+        if (va <= 0 && (d4 - d3) >= 0 && (d5 - d6) >= 0) {
+            double w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+            return squared(bpx - w * (cx - bx), bpy - w * (cy - by), bpz - w * (cz - bz));
+        }
+        double denominator = va + vb + vc;
+        if (!(denominator != 0)) {
+            // Degenerate triangle whose edges all failed the tests above, fall back to its vertices
+            return java.lang.Math.min(squared(apx, apy, apz), java.lang.Math.min(squared(bpx, bpy, bpz),
+                    squared(cpx, cpy, cpz)));
+        }
+        double v = vb / denominator;
+        double w = vc / denominator;
+        return squared(apx - v * abx - w * acx, apy - v * aby - w * acy, apz - v * abz - w * acz);
+    }
+
+    /**
+     * @return  Distance from a coordinate to a range, zero within it
+     */
+    private static double gap(double coordinate, double min, double max) {
+        return coordinate < min ? min - coordinate : coordinate > max ? coordinate - max : 0;
+    }
+
+    private static double squared(double x, double y, double z) {
+        return x * x + y * y + z * z;
+    }
+}
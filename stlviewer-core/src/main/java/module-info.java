@@ -0,0 +1,13 @@
+module com.example.stlviewer.core {
+    requires transitive vecmath;
+    requires transitive jdk.jfr;
+    // Optional, the mesh kernels fall back to scalar loops without it
+    requires static jdk.incubator.vector;
+
+    exports com.example.stlviewer.cli;
+    exports com.example.stlviewer.control;
+    exports com.example.stlviewer.events;
+    exports com.example.stlviewer.model;
+    exports com.example.stlviewer.res;
+    exports com.example.stlviewer.util;
+}
@@ -0,0 +1,81 @@
+package com.example.stlviewer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the percentiles of the histogram against the exact percentiles of known values.
+ *
+ * @author  Lukas Erdmann
+ */
+class LatencyHistogramTest
+{
+    private static final int VALUE_COUNT = 100_000;
+    private static final double[] PERCENTILES = {1, 10, 50, 90, 99, 99.9, 100};
+    // A bucket spans 1 / SUB_BUCKET_COUNT of its power of two
+    private static final double RELATIVE_ERROR = 1.0 / LatencyHistogram.SUB_BUCKET_COUNT;
+
+    @Test
+    void percentilesNeverUnderestimateAndStayWithinTheBucketWidth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // Recorded in descending order, the histogram doesn't depend on the order
+        for (long value = VALUE_COUNT; value >= 1; value--) {
+            histogram.record(value);
+        }
+        assertEquals(VALUE_COUNT, histogram.getCount());
+        assertEquals(VALUE_COUNT, histogram.getMax());
+        assertEquals((VALUE_COUNT + 1) / 2.0, histogram.getMean(), 1e-9);
+        for (double percentile : PERCENTILES) {
+            // The values are 1 to VALUE_COUNT, so the exact percentile is the rank of the value
+            long exact = (long) java.lang.Math.ceil(VALUE_COUNT * percentile / 100);
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(value >= exact, "p" + percentile + " is " + value + ", below " + exact);
+            assertTrue(value <= exact * (1 + RELATIVE_ERROR), "p" + percentile + " is " + value + ", more than a bucket above " + exact);
+        }
+        assertEquals(VALUE_COUNT, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < LatencyHistogram.SUB_BUCKET_COUNT; value++) {
+            histogram.record(value);
+        }
+        assertEquals(15, histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.SUB_BUCKET_COUNT - 1, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        for (int exponent = 0; exponent < Long.SIZE - 1; exponent++) {
+            for (long value : new long[] {(1L << exponent) - 1, 1L << exponent, (1L << exponent) + 1, Long.MAX_VALUE >>> exponent}) {
+                int index = LatencyHistogram.bucketIndex(value);
+                assertTrue(index >= 0 && index < LatencyHistogram.BUCKET_COUNT, "bucket of " + value);
+                assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "upper bound of the bucket of " + value);
+                assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value, "upper bound of the bucket below " + value);
+            }
+        }
+    }
+
+    @Test
+    void emptyAndMergedHistograms() {
+        LatencyHistogram first = new LatencyHistogram();
+        assertEquals(0, first.getValueAtPercentile(50));
+        assertEquals(0, first.getMean(), 0);
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(-5);
+        first.record(100);
+        second.record(1_000_000);
+        first.add(second);
+        assertEquals(3, first.getCount());
+        assertEquals(1_000_100, first.getTotal());
+        assertEquals(1_000_000, first.getMax());
+        // Negative values are recorded as zero
+        assertEquals(0, first.getValueAtPercentile(10));
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.MassProperties;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import org.junit.jupiter.api.Test;
+
+import javax.vecmath.Vector3d;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the mass properties against the closed-form values of a box.
+ *
+ * @author  Lukas Erdmann
+ */
+class MassPropertiesReductionTest
+{
+    private static final double TOLERANCE = 1e-9;
+    // A 2 x 4 x 6 box far from the origin, its mass is 48 with a density of 1
+    private static final double[] BOX_MIN = {100, -50, 7};
+    private static final double[] BOX_MAX = {102, -46, 13};
+    private static final double BOX_MASS = 48;
+
+    @Test
+    void boxHasClosedFormInertia() {
+        MassProperties massProperties = MassPropertiesReduction.withCommonPool().reduce(TestMeshes.box(BOX_MIN, BOX_MAX));
+        assertNotNull(massProperties);
+        assertEquals(BOX_MASS, massProperties.getVolume(), TOLERANCE);
+        Vertex center = massProperties.getCenterOfMass();
+        assertArrayEquals(new double[] {101, -48, 10}, new double[] {center.getPosX(), center.getPosY(), center.getPosZ()}, TOLERANCE);
+        // I = m (b^2 + c^2) / 12 per axis: 48 * 20 / 12, 48 * 40 / 12 and 48 * 52 / 12
+        assertArrayEquals(new double[] {80, 160, 208}, massProperties.getPrincipalMoments(), TOLERANCE);
+        double[][] inertiaTensor = massProperties.getInertiaTensor();
+        assertArrayEquals(new double[] {208, 0, 0}, inertiaTensor[0], TOLERANCE);
+        assertArrayEquals(new double[] {0, 160, 0}, inertiaTensor[1], TOLERANCE);
+        assertArrayEquals(new double[] {0, 0, 80}, inertiaTensor[2], TOLERANCE);
+        // The smallest moment is about the longest edge
+        Vector3d[] principalAxes = massProperties.getPrincipalAxes();
+        assertEquals(1, java.lang.Math.abs(principalAxes[0].z), TOLERANCE);
+        assertEquals(1, java.lang.Math.abs(principalAxes[2].x), TOLERANCE);
+    }
+
+    @Test
+    void inwardOrientationGivesTheSameProperties() {
+        MassProperties outward = MassPropertiesReduction.withCommonPool().reduce(TestMeshes.box(BOX_MIN, BOX_MAX));
+        MassProperties inward = MassPropertiesReduction.withCommonPool().reduce(TestMeshes.reversed(TestMeshes.box(BOX_MIN, BOX_MAX)));
+        assertNotNull(inward);
+        assertEquals(outward.getVolume(), inward.getVolume(), TOLERANCE);
+        assertArrayEquals(outward.getPrincipalMoments(), inward.getPrincipalMoments(), TOLERANCE);
+        Vertex center = inward.getCenterOfMass();
+        assertArrayEquals(new double[] {101, -48, 10}, new double[] {center.getPosX(), center.getPosY(), center.getPosZ()}, TOLERANCE);
+    }
+
+    @Test
+    void meshWithoutVolumeGivesNull() {
+        // Only the bottom face of the box, an open sheet that encloses nothing
+        List<Triangle> sheet = new ArrayList<>(TestMeshes.box(BOX_MIN, BOX_MAX).subList(0, 2));
+        assertNull(MassPropertiesReduction.withCommonPool().reduce(sheet));
+        assertNull(MassPropertiesReduction.withCommonPool().reduce(new ArrayList<>()));
+    }
+}
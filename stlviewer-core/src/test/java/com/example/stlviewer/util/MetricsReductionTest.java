@@ -0,0 +1,113 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.model.MassProperties;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the reductions give the same bits on pools of any size and on the calling thread.
+ *
+ * @author  Lukas Erdmann
+ */
+class MetricsReductionTest
+{
+    // Enough triangles for a split tree several levels deep
+    private static final double[] SPHERE = STLGenerator.sphereCoordinates(10, 300, 150);
+    private static final int[] POOL_SIZES = {1, 2, java.lang.Math.max(3, Runtime.getRuntime().availableProcessors())};
+
+    @Test
+    void metricsAreEqualForEveryPoolSize() {
+        List<Triangle> triangles = TestMeshes.toTriangles(SPHERE);
+        TriangleArrays arrays = TriangleArrays.fromCoordinates(SPHERE);
+        long[] expected = null;
+        for (int poolSize : POOL_SIZES) {
+            ForkJoinPool pool = new ForkJoinPool(poolSize);
+            try {
+                MetricsReduction reduction = new MetricsReduction(pool, MeshKernels.fromSystemProperties());
+                long[] fromList = bitsOf(reduction.reduce(triangles));
+                long[] fromArrays = bitsOf(reduction.reduce(arrays));
+                assertArrayEquals(fromList, fromArrays, "list and arrays on " + poolSize + " threads");
+                if (expected == null) {
+                    expected = fromList;
+                }
+                assertArrayEquals(expected, fromList, "reduction on " + poolSize + " threads");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void massPropertiesAreEqualForEveryPoolSize() {
+        List<Triangle> triangles = TestMeshes.toTriangles(SPHERE);
+        long[] expected = null;
+        for (int poolSize : POOL_SIZES) {
+            ForkJoinPool pool = new ForkJoinPool(poolSize);
+            try {
+                long[] bits = bitsOf(new MassPropertiesReduction(pool).reduce(triangles));
+                if (expected == null) {
+                    expected = bits;
+                }
+                assertArrayEquals(expected, bits, "mass properties on " + poolSize + " threads");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void sequentialReductionsEqualThePooledReductions() {
+        List<Triangle> triangles = TestMeshes.toTriangles(SPHERE);
+        MeshKernels meshKernels = MeshKernels.fromSystemProperties();
+        assertArrayEquals(bitsOf(MetricsReduction.withCommonPool(meshKernels).reduce(triangles)),
+                bitsOf(MetricsReduction.sequential(meshKernels).reduce(triangles)));
+        assertArrayEquals(bitsOf(MassPropertiesReduction.withCommonPool().reduce(triangles)),
+                bitsOf(MassPropertiesReduction.sequential().reduce(triangles)));
+    }
+
+    @Test
+    void singleMetricsMatchTheSharedReduction() {
+        Polyhedron polyhedron = new Polyhedron(TestMeshes.toTriangles(SPHERE));
+        PolyhedronController controller = new PolyhedronController(polyhedron);
+        double volume = controller.calculateVolume();
+        double surfaceArea = controller.calculateSurfaceArea();
+        polyhedron.setBoundingBox(null);
+        double[] boundingBox = controller.defineBoundingBox();
+
+        MetricsReduction.Result result = MetricsReduction.withCommonPool(PolyhedronController.getMeshKernels()).reduce(polyhedron.getTriangles());
+        assertEquals(result.getVolume(), volume);
+        assertEquals(result.getSurfaceArea(), surfaceArea);
+        assertArrayEquals(result.getBoundingBox(), boundingBox);
+    }
+
+    private static long[] bitsOf(MetricsReduction.Result result) {
+        double[] boundingBox = result.getBoundingBox();
+        long[] bits = new long[2 + boundingBox.length];
+        bits[0] = Double.doubleToRawLongBits(result.getVolume());
+        bits[1] = Double.doubleToRawLongBits(result.getSurfaceArea());
+        for (int i = 0; i < boundingBox.length; i++) {
+            bits[2 + i] = Double.doubleToRawLongBits(boundingBox[i]);
+        }
+        return bits;
+    }
+
+    private static long[] bitsOf(MassProperties massProperties) {
+        Vertex center = massProperties.getCenterOfMass();
+        double[] moments = massProperties.getPrincipalMoments();
+        double[] values = {massProperties.getVolume(), center.getPosX(), center.getPosY(), center.getPosZ(), moments[0], moments[1], moments[2]};
+        long[] bits = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bits[i] = Double.doubleToRawLongBits(values[i]);
+        }
+        return bits;
+    }
+}
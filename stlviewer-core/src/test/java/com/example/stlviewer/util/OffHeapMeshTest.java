@@ -0,0 +1,75 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.model.Polyhedron;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that an off-heap mesh gives the metrics and the mesh data of the polyhedron it holds.
+ *
+ * @author  Lukas Erdmann
+ */
+class OffHeapMeshTest
+{
+    // Enough triangles for a split tree several levels deep
+    private static final double[] SPHERE = STLGenerator.sphereCoordinates(10, 300, 150);
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    @Test
+    void copiedMeshHasThePolyhedronMetrics() {
+        Polyhedron polyhedron = new Polyhedron(TestMeshes.toTriangles(SPHERE));
+        new PolyhedronController(polyhedron).calculateMetrics();
+        try (OffHeapMesh mesh = OffHeapMesh.fromPolyhedron(polyhedron)) {
+            // The same kernels, reference vertex and split tree, so the results are equal to the last bit
+            MetricsReduction.Result metrics = mesh.calculateMetrics(MetricsReduction.withCommonPool(PolyhedronController.getMeshKernels()));
+            assertEquals(polyhedron.getTriangleCount(), mesh.getTriangleCount());
+            assertEquals(polyhedron.getVolume(), metrics.getVolume());
+            assertEquals(polyhedron.getSurfaceArea(), metrics.getSurfaceArea());
+            assertArrayEquals(polyhedron.getBoundingBox(), metrics.getBoundingBox());
+        }
+    }
+
+    @Test
+    void mappedFileHasTheMetricsOfTheReadPolyhedron() throws IOException {
+        Path stlFile = Files.createTempFile("stlviewer-offheap-", ".stl");
+        try {
+            new STLGenerator(STLGenerator.Format.BINARY, 1).writeSphere(stlFile, 10, 200, 100);
+            PolyhedronController controller = new PolyhedronController();
+            new STLReader().readSTLFile(stlFile.toString(), controller);
+            Polyhedron polyhedron = controller.getPolyhedron();
+            try (OffHeapMesh mesh = OffHeapMesh.mapBinary(stlFile)) {
+                assertTrue(mesh.isMapped());
+                MetricsReduction.Result metrics = mesh.calculateMetrics(MetricsReduction.withCommonPool(PolyhedronController.getMeshKernels()));
+                assertEquals(polyhedron.getTriangleCount(), mesh.getTriangleCount());
+                assertEquals(polyhedron.getVolume(), metrics.getVolume(), java.lang.Math.abs(polyhedron.getVolume()) * RELATIVE_TOLERANCE);
+                assertEquals(polyhedron.getSurfaceArea(), metrics.getSurfaceArea(), polyhedron.getSurfaceArea() * RELATIVE_TOLERANCE);
+                assertArrayEquals(polyhedron.getBoundingBox(), metrics.getBoundingBox());
+            }
+        } finally {
+            Files.deleteIfExists(stlFile);
+        }
+    }
+
+    @Test
+    void meshDataFromTheSegmentEqualsThePolyhedronMeshData() {
+        Polyhedron polyhedron = new Polyhedron(TestMeshes.toTriangles(SPHERE));
+        PolyhedronController controller = new PolyhedronController(polyhedron);
+        controller.defineBoundingBox();
+        controller.defineCenter();
+        MeshData expected = MeshData.fromPolyhedron(polyhedron);
+        try (OffHeapMesh mesh = OffHeapMesh.fromPolyhedron(polyhedron)) {
+            MeshData meshData = MeshData.fromOffHeapMesh(mesh, polyhedron.getCenter());
+            assertArrayEquals(expected.getPoints(), meshData.getPoints());
+            assertArrayEquals(expected.getFaces(), meshData.getFaces());
+        }
+    }
+}
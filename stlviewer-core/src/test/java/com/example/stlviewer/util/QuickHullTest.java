@@ -0,0 +1,129 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the invariants of convex hulls of point sets large enough to be divided between threads.
+ *
+ * @author  Lukas Erdmann
+ */
+class QuickHullTest
+{
+    // More than two leaves, so the halves are merged
+    private static final int RANDOM_POINT_COUNT = 3 * QuickHull.LEAF_POINT_COUNT;
+    // Distances above a face are compared with a few times the tolerance, the normals are computed again
+    private static final double TOLERANCE_MARGIN = 16;
+    // Point and face pairs checked per hull, large hulls are checked against every few points
+    private static final long MAX_CHECKED_PAIRS = 20_000_000;
+
+    @Test
+    void randomPointsHaveAClosedHull() {
+        double[] points = randomPoints(RANDOM_POINT_COUNT, 42);
+        QuickHull quickHull = new QuickHull(ForkJoinPool.commonPool());
+        Polyhedron hull = quickHull.build(points);
+        assertHullInvariants(points, hull);
+        assertEquals(0, quickHull.getDroppedPointCount());
+    }
+
+    @Test
+    void pointsOnTheHullHaveAClosedHull() {
+        // Every vertex of a sphere is on its hull, so the halves aren't merged
+        double[] points = QuickHull.uniquePoints(TestMeshes.toTriangles(STLGenerator.sphereCoordinates(10, 400, 200)));
+        assertTrue(points.length / 3 > 2 * QuickHull.LEAF_POINT_COUNT);
+        Polyhedron hull = QuickHull.withCommonPool().build(points);
+        assertHullInvariants(points, hull);
+    }
+
+    @Test
+    void hullIsEqualForOneAndThreeThreads() {
+        double[] points = randomPoints(RANDOM_POINT_COUNT, 7);
+        ForkJoinPool singlePool = new ForkJoinPool(1);
+        ForkJoinPool triplePool = new ForkJoinPool(3);
+        try {
+            List<Triangle> single = new QuickHull(singlePool).build(points).getTriangles();
+            List<Triangle> triple = new QuickHull(triplePool).build(points).getTriangles();
+            assertEquals(single.size(), triple.size());
+            for (int i = 0; i < single.size(); i++) {
+                for (int vertex = 0; vertex < 3; vertex++) {
+                    assertEquals(single.get(i).getVertices().get(vertex), triple.get(i).getVertices().get(vertex), "triangle " + i);
+                }
+            }
+        } finally {
+            singlePool.shutdown();
+            triplePool.shutdown();
+        }
+    }
+
+    /**
+     * Asserts that no point lies above a face of the hull and that every edge is shared by exactly two faces,
+     * which run along it in opposite directions.
+     */
+    private static void assertHullInvariants(double[] points, Polyhedron hull) {
+        List<Triangle> triangles = hull.getTriangles();
+        assertFalse(triangles.isEmpty());
+        double tolerance = QuickHull.tolerance(points) * TOLERANCE_MARGIN;
+        int pointCount = points.length / 3;
+        int stride = (int) java.lang.Math.max(1, (long) pointCount * triangles.size() / MAX_CHECKED_PAIRS);
+        for (Triangle triangle : triangles) {
+            double[] plane = plane(triangle);
+            for (int point = 0; point < pointCount; point += stride) {
+                double distance = plane[0] * points[point * 3] + plane[1] * points[point * 3 + 1] + plane[2] * points[point * 3 + 2] - plane[3];
+                int checkedPoint = point;
+                assertTrue(distance <= tolerance, () -> "point " + checkedPoint + " is " + distance + " above a face");
+            }
+        }
+        Map<List<Vertex>, Integer> edgeCounts = new HashMap<>();
+        for (Triangle triangle : triangles) {
+            List<Vertex> vertices = triangle.getVertices();
+            for (int edge = 0; edge < 3; edge++) {
+                edgeCounts.merge(List.of(vertices.get(edge), vertices.get((edge + 1) % 3)), 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<List<Vertex>, Integer> edge : edgeCounts.entrySet()) {
+            List<Vertex> vertices = edge.getKey();
+            assertEquals(1, (int) edge.getValue(), () -> "edge " + vertices + " is used more than once in one direction");
+            assertEquals(1, (int) edgeCounts.getOrDefault(List.of(vertices.get(1), vertices.get(0)), 0),
+                    () -> "edge " + vertices + " has no face on its other side");
+        }
+        // Euler's formula of a closed triangle mesh of genus 0: 3 F = 2 E and V - E + F = 2
+        long vertexCount = edgeCounts.keySet().stream().map(vertices -> vertices.get(0)).distinct().count();
+        assertEquals(2, vertexCount - edgeCounts.size() / 2 + triangles.size());
+    }
+
+    /**
+     * @return  Unit normal and offset of the plane of a triangle
+     */
+    private static double[] plane(Triangle triangle) {
+        Vertex a = triangle.getVertices().get(0), b = triangle.getVertices().get(1), c = triangle.getVertices().get(2);
+        double ux = b.getPosX() - a.getPosX(), uy = b.getPosY() - a.getPosY(), uz = b.getPosZ() - a.getPosZ();
+        double vx = c.getPosX() - a.getPosX(), vy = c.getPosY() - a.getPosY(), vz = c.getPosZ() - a.getPosZ();
+        double nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+        double length = java.lang.Math.sqrt(nx * nx + ny * ny + nz * nz);
+        nx /= length;
+        ny /= length;
+        nz /= length;
+        return new double[] {nx, ny, nz, nx * a.getPosX() + ny * a.getPosY() + nz * a.getPosZ()};
+    }
+
+    private static double[] randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        double[] points = new double[count * 3];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextDouble() * 100 - 50;
+        }
+        return points;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.model.Polyhedron;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Writes generated shapes in both formats and checks that the reader gives the triangle count, the volume
+ * and the surface area the generator reported.
+ *
+ * @author  Lukas Erdmann
+ */
+class STLGeneratorTest
+{
+    // The generator and the analysis add up the same values in a different order
+    private static final double RELATIVE_TOLERANCE = 1e-9;
+
+    @Test
+    void sphereIsReadWithTheGeneratedMetrics() throws IOException {
+        for (STLGenerator.Format format : STLGenerator.Format.values()) {
+            Path stlFile = Files.createTempFile("stlviewer-sphere-", ".stl");
+            try {
+                STLGenerator.Result result = new STLGenerator(format, 1).writeSphere(stlFile, 10, 48, 24);
+                assertEquals(STLGenerator.sphereTriangleCount(48, 24), result.getTriangleCount(), format + " sphere");
+                assertReadMetrics(stlFile, result, format + " sphere");
+            } finally {
+                Files.deleteIfExists(stlFile);
+            }
+        }
+    }
+
+    @Test
+    void torusIsReadWithTheGeneratedMetrics() throws IOException {
+        for (STLGenerator.Format format : STLGenerator.Format.values()) {
+            Path stlFile = Files.createTempFile("stlviewer-torus-", ".stl");
+            try {
+                STLGenerator.Result result = new STLGenerator(format, 1).writeTorus(stlFile, 10, 3, 48, 24);
+                // Two triangles per quad of the grid
+                assertEquals(2L * 48 * 24, result.getTriangleCount(), format + " torus");
+                assertReadMetrics(stlFile, result, format + " torus");
+            } finally {
+                Files.deleteIfExists(stlFile);
+            }
+        }
+    }
+
+    private static void assertReadMetrics(Path stlFile, STLGenerator.Result result, String shape) throws IOException {
+        assertEquals(result.getByteCount(), Files.size(stlFile), shape + " file size");
+        PolyhedronController controller = new PolyhedronController();
+        new STLReader().readSTLFile(stlFile.toString(), controller);
+        Polyhedron polyhedron = controller.getPolyhedron();
+        assertEquals(result.getTriangleCount(), polyhedron.getTriangleCount(), shape + " triangle count");
+        assertEquals(result.getVolume(), polyhedron.getVolume(), result.getVolume() * RELATIVE_TOLERANCE, shape + " volume");
+        assertEquals(result.getSurfaceArea(), polyhedron.getSurfaceArea(), result.getSurfaceArea() * RELATIVE_TOLERANCE,
+                shape + " surface area");
+    }
+}
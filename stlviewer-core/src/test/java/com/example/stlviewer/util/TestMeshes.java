@@ -0,0 +1,94 @@
+package com.example.stlviewer.util;
+
+import com.example.stlviewer.model.Triangle;
+import com.example.stlviewer.model.Vertex;
+
+import java.util.ArrayList;
+
+/**
+ * Small meshes with known volumes for the tests.
+ *
+ * @author  Lukas Erdmann
+ */
+final class TestMeshes
+{
+    private TestMeshes() {
+    }
+
+    /**
+     * Creates the twelve triangles of an axis-aligned box, counter-clockwise seen from outside. The bottom
+     * face comes first.
+     *
+     * @param min   Minimum corner
+     * @param max   Maximum corner
+     */
+    static ArrayList<Triangle> box(double[] min, double[] max) {
+        return box(min, max, 1);
+    }
+
+    /**
+     * Creates an axis-aligned box whose faces are divided into a grid of quads, two triangles each,
+     * counter-clockwise seen from outside. The triangles of the bottom face come first.
+     *
+     * @param min       Minimum corner
+     * @param max       Maximum corner
+     * @param divisions Quads along every edge of a face
+     */
+    static ArrayList<Triangle> box(double[] min, double[] max, int divisions) {
+        double[] extent = {max[0] - min[0], max[1] - min[1], max[2] - min[2]};
+        // Corner, first and second direction of every face, the cross product of the directions points outwards
+        double[][][] faces = {
+                {{min[0], min[1], min[2]}, {0, extent[1], 0}, {extent[0], 0, 0}},
+                {{min[0], min[1], max[2]}, {extent[0], 0, 0}, {0, extent[1], 0}},
+                {{min[0], min[1], min[2]}, {extent[0], 0, 0}, {0, 0, extent[2]}},
+                {{min[0], max[1], min[2]}, {0, 0, extent[2]}, {extent[0], 0, 0}},
+                {{min[0], min[1], min[2]}, {0, 0, extent[2]}, {0, extent[1], 0}},
+                {{max[0], min[1], min[2]}, {0, extent[1], 0}, {0, 0, extent[2]}}};
+        ArrayList<Triangle> triangles = new ArrayList<>();
+        for (double[][] face : faces) {
+            for (int i = 0; i < divisions; i++) {
+                for (int j = 0; j < divisions; j++) {
+                    Vertex v00 = facePoint(face, i, j, divisions);
+                    Vertex v10 = facePoint(face, i + 1, j, divisions);
+                    Vertex v11 = facePoint(face, i + 1, j + 1, divisions);
+                    Vertex v01 = facePoint(face, i, j + 1, divisions);
+                    triangles.add(new Triangle(v00, v10, v11, null));
+                    triangles.add(new Triangle(v00, v11, v01, null));
+                }
+            }
+        }
+        return triangles;
+    }
+
+    private static Vertex facePoint(double[][] face, int i, int j, int divisions) {
+        double[] point = new double[3];
+        for (int axis = 0; axis < 3; axis++) {
+            point[axis] = face[0][axis] + face[1][axis] * i / divisions + face[2][axis] * j / divisions;
+        }
+        return new Vertex(point[0], point[1], point[2]);
+    }
+
+    /**
+     * Reverses the winding of every triangle, so the normals point inwards.
+     */
+    static ArrayList<Triangle> reversed(ArrayList<Triangle> triangles) {
+        ArrayList<Triangle> reversed = new ArrayList<>(triangles.size());
+        for (Triangle triangle : triangles) {
+            reversed.add(new Triangle(triangle.getVertices().get(0), triangle.getVertices().get(2), triangle.getVertices().get(1), null));
+        }
+        return reversed;
+    }
+
+    /**
+     * Copies triangles stored as nine coordinates per triangle into model objects.
+     */
+    static ArrayList<Triangle> toTriangles(double[] coordinates) {
+        ArrayList<Triangle> triangles = new ArrayList<>(coordinates.length / 9);
+        for (int offset = 0; offset < coordinates.length; offset += 9) {
+            triangles.add(new Triangle(new Vertex(coordinates[offset], coordinates[offset + 1], coordinates[offset + 2]),
+                    new Vertex(coordinates[offset + 3], coordinates[offset + 4], coordinates[offset + 5]),
+                    new Vertex(coordinates[offset + 6], coordinates[offset + 7], coordinates[offset + 8]), null));
+        }
+        return triangles;
+    }
+}
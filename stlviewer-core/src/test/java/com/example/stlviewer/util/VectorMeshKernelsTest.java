@@ -0,0 +1,106 @@
+package com.example.stlviewer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the SIMD kernels give the results of the scalar kernels, for vector loops with and without a
+ * scalar tail. Only runs if the Vector API was added to the JVM.
+ *
+ * @author  Lukas Erdmann
+ */
+class VectorMeshKernelsTest
+{
+    // Around the multiples of every vector length up to 8 doubles, with and without a tail
+    private static final int[] TRIANGLE_COUNTS = {1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 1000, 1027};
+    // The sums of the SIMD kernels are added up in a different order
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+    private static final double[] REFERENCE = {1.5, -2, 0.25};
+    // A rotation about z, a scaling of z and a translation
+    private static final double[] MATRIX = {0, -1, 0, 3, 1, 0, 0, -7, 0, 0, 2, 0.5};
+
+    @Test
+    void perTriangleValuesAreEqualToTheLastBit() {
+        assumeTrue(MeshKernels.isVectorApiAvailable(), "the Vector API isn't available");
+        MeshKernels scalar = new ScalarMeshKernels();
+        MeshKernels vector = new VectorMeshKernels();
+        for (int count : TRIANGLE_COUNTS) {
+            TriangleArrays triangles = randomTriangles(count, count);
+            // The whole arrays and a range that doesn't start at a multiple of the vector length
+            for (int from : new int[] {0, count / 3}) {
+                String range = "triangles " + from + " to " + count;
+                double[] expected = new double[count - from];
+                double[] actual = new double[count - from];
+                scalar.areas(triangles, from, count, expected);
+                vector.areas(triangles, from, count, actual);
+                assertArrayEquals(expected, actual, "areas of " + range);
+                scalar.signedVolumes(triangles, REFERENCE, from, count, expected);
+                vector.signedVolumes(triangles, REFERENCE, from, count, actual);
+                assertArrayEquals(expected, actual, "signed volumes of " + range);
+                assertArrayEquals(scalar.boundingBox(triangles, from, count), vector.boundingBox(triangles, from, count),
+                        "bounding box of " + range);
+            }
+        }
+    }
+
+    @Test
+    void sumsAreEqualUpToTheOrderOfTheAdditions() {
+        assumeTrue(MeshKernels.isVectorApiAvailable(), "the Vector API isn't available");
+        MeshKernels scalar = new ScalarMeshKernels();
+        MeshKernels vector = new VectorMeshKernels();
+        for (int count : TRIANGLE_COUNTS) {
+            TriangleArrays triangles = randomTriangles(count, count);
+            double surfaceArea = scalar.surfaceArea(triangles);
+            double volume = scalar.volume(triangles, REFERENCE);
+            assertEquals(surfaceArea, vector.surfaceArea(triangles), surfaceArea * RELATIVE_TOLERANCE, "surface area of " + count + " triangles");
+            // The signed volumes of random triangles cancel out, so the tolerance is taken from their magnitude
+            assertEquals(volume, vector.volume(triangles, REFERENCE), absoluteVolume(scalar, triangles) * RELATIVE_TOLERANCE,
+                    "volume of " + count + " triangles");
+        }
+    }
+
+    @Test
+    void transformsAreEqualToTheLastBit() {
+        assumeTrue(MeshKernels.isVectorApiAvailable(), "the Vector API isn't available");
+        for (int count : TRIANGLE_COUNTS) {
+            TriangleArrays expected = randomTriangles(count, count);
+            TriangleArrays actual = randomTriangles(count, count);
+            new ScalarMeshKernels().transform(expected, MATRIX);
+            new VectorMeshKernels().transform(actual, MATRIX);
+            String triangles = count + " triangles";
+            assertArrayEquals(expected.getAx(), actual.getAx(), "ax of " + triangles);
+            assertArrayEquals(expected.getAy(), actual.getAy(), "ay of " + triangles);
+            assertArrayEquals(expected.getAz(), actual.getAz(), "az of " + triangles);
+            assertArrayEquals(expected.getBx(), actual.getBx(), "bx of " + triangles);
+            assertArrayEquals(expected.getBy(), actual.getBy(), "by of " + triangles);
+            assertArrayEquals(expected.getBz(), actual.getBz(), "bz of " + triangles);
+            assertArrayEquals(expected.getCx(), actual.getCx(), "cx of " + triangles);
+            assertArrayEquals(expected.getCy(), actual.getCy(), "cy of " + triangles);
+            assertArrayEquals(expected.getCz(), actual.getCz(), "cz of " + triangles);
+        }
+    }
+
+    private static double absoluteVolume(MeshKernels kernels, TriangleArrays triangles) {
+        double[] volumes = new double[triangles.getTriangleCount()];
+        kernels.signedVolumes(triangles, REFERENCE, volumes);
+        double absoluteVolume = 0;
+        for (double volume : volumes) {
+            absoluteVolume += java.lang.Math.abs(volume);
+        }
+        return absoluteVolume;
+    }
+
+    private static TriangleArrays randomTriangles(int count, long seed) {
+        Random random = new Random(seed);
+        double[] coordinates = new double[count * 9];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = random.nextDouble() * 20 - 10;
+        }
+        return TriangleArrays.fromCoordinates(coordinates);
+    }
+}
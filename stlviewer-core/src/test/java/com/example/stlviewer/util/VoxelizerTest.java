@@ -0,0 +1,93 @@
+package com.example.stlviewer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the occupancy and the signed distances of boxes, whose voxels are known exactly.
+ *
+ * @author  Lukas Erdmann
+ */
+class VoxelizerTest
+{
+    private static final double[] CUBE_MIN = {0, 0, 0};
+    private static final double[] CUBE_MAX = {4, 4, 4};
+    private static final float DISTANCE_TOLERANCE = 1e-5f;
+
+    @Test
+    void raysThroughSharedEdgesAreCountedOnce() {
+        // The rays with equal y and z pass through the diagonals of the faces along x
+        VoxelGrid grid = Voxelizer.withCommonPool().voxelize(TestMeshes.box(CUBE_MIN, CUBE_MAX), 4);
+        assertNotNull(grid);
+        assertEquals(64, grid.getOccupiedCount());
+        assertEquals(64, grid.getOccupiedVolume(), 1e-12);
+    }
+
+    @Test
+    void raysThroughSharedVerticesAreCountedOnce() {
+        // Quads of half a voxel put a vertex of six triangles on every ray through the faces along x
+        VoxelGrid grid = Voxelizer.withCommonPool().voxelize(TestMeshes.box(CUBE_MIN, CUBE_MAX, 8), 4);
+        assertNotNull(grid);
+        assertEquals(64, grid.getOccupiedCount());
+        for (int z = 0; z < 4; z++) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 4; x++) {
+                    assertTrue(grid.isOccupied(x, y, z), "voxel " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void gridCoversTheWholeBoundingBox() {
+        // 3.1 / (3.1 / 11) is a little more than 11, the last slab is only a rounding error wide
+        double[] max = {3.1, 3.1, 3.1};
+        VoxelGrid grid = Voxelizer.withCommonPool().voxelize(TestMeshes.box(CUBE_MIN, max), 11);
+        assertNotNull(grid);
+        assertTrue(grid.getOriginX() + grid.getSizeX() * grid.getVoxelSize() >= max[0]);
+        assertTrue(grid.getOriginY() + grid.getSizeY() * grid.getVoxelSize() >= max[1]);
+        assertTrue(grid.getOriginZ() + grid.getSizeZ() * grid.getVoxelSize() >= max[2]);
+    }
+
+    @Test
+    void distancesAreSignedAndClampedToTheBand() {
+        double[] max = {16, 16, 16};
+        int bandWidth = 2;
+        SignedDistanceField field = Voxelizer.withCommonPool().signedDistanceField(TestMeshes.box(CUBE_MIN, max), 16, bandWidth);
+        assertNotNull(field);
+        VoxelGrid grid = field.getGrid();
+        assertEquals(16 + 2 * bandWidth, grid.getSizeX());
+        assertEquals(bandWidth, field.getBandDistance(), DISTANCE_TOLERANCE);
+        for (int z = 0; z < grid.getSizeZ(); z++) {
+            for (int y = 0; y < grid.getSizeY(); y++) {
+                for (int x = 0; x < grid.getSizeX(); x++) {
+                    double expected = boxDistance(grid.getCenterX(x), grid.getCenterY(y), grid.getCenterZ(z), CUBE_MIN, max);
+                    float distance = field.getDistance(x, y, z);
+                    String voxel = "voxel " + x + ", " + y + ", " + z;
+                    assertEquals(expected < 0, grid.isOccupied(x, y, z), voxel);
+                    assertEquals(java.lang.Math.max(-bandWidth, java.lang.Math.min(bandWidth, expected)), distance, DISTANCE_TOLERANCE, voxel);
+                    assertEquals(java.lang.Math.abs(expected) < bandWidth, field.isInBand(x, y, z), voxel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Exact signed distance from a point to an axis-aligned box, negative inside.
+     */
+    private static double boxDistance(double x, double y, double z, double[] min, double[] max) {
+        double[] point = {x, y, z};
+        double outside = 0;
+        double inside = Double.NEGATIVE_INFINITY;
+        for (int axis = 0; axis < 3; axis++) {
+            double center = (min[axis] + max[axis]) / 2;
+            double offset = java.lang.Math.abs(point[axis] - center) - (max[axis] - min[axis]) / 2;
+            outside += java.lang.Math.max(offset, 0) * java.lang.Math.max(offset, 0);
+            inside = java.lang.Math.max(inside, offset);
+        }
+        return inside > 0 ? java.lang.Math.sqrt(outside) : inside;
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.stlviewer;
 
-import com.example.stlviewer.control.ApplicationController;
+import com.example.stlviewer.fx.ApplicationController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -0,0 +1,118 @@
+package com.example.stlviewer.fx;
+
+import com.example.stlviewer.cli.ConsoleApplication;
+import com.example.stlviewer.control.MeshCache;
+import com.example.stlviewer.control.ModelSessionManager;
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.util.MemoryEstimator;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+
+public class ApplicationController
+{
+    private STLViewerController stlViewerController;
+    // Only swapped on the application thread, together with the load mode, but read by network threads too
+    private volatile PolyhedronController polyhedronController;
+    private ConsoleApplication consoleApplication;
+    private TCPController tcpController;
+    private final MemoryEstimator memoryEstimator = MemoryEstimator.fromSystemProperties();
+    private final ModelSessionManager modelSessionManager =
+            // The cache writes to the home directory, so the viewer only uses it if its size is configured
+            ModelSessionManager.fromSystemProperties(memoryEstimator, MeshCache.fromSystemProperties(false));
+    private volatile MemoryEstimator.LoadMode loadMode = MemoryEstimator.LoadMode.STANDARD;
+
+    public ApplicationController() {
+        this.stlViewerController = new STLViewerController(this);
+        this.polyhedronController = new PolyhedronController();
+        this.consoleApplication = new ConsoleApplication();
+        this.tcpController = new TCPController();
+    }
+
+    public void startViewer(Stage stage) {
+        stlViewerController.startSTLViewer(stage);
+    }
+
+    public void openFile(String filepath)
+    {
+        try {
+            // A model that is still open is switched to without reading the file again
+            ModelSessionManager.Session session = modelSessionManager.open(Paths.get(filepath));
+            this.polyhedronController = session.getPolyhedronController();
+            this.loadMode = session.getLoadMode();
+            System.out.println(MemoryEstimator.toFootprintReport(session.getTriangleCount(), session.getLoadMode()));
+        } catch (Exception exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads an STL file from a stream, e.g. while it is being uploaded, into a session of the model session
+     * manager, so it counts against the memory budget like an opened file. Every stream gets a reader of its
+     * own, so concurrent uploads can be read at the same time. The model doesn't become the current one,
+     * the caller hands the session to {@link #setCurrentModel} on the application thread.
+     *
+     * @param inputStream   Stream with the content of the STL file
+     * @param filePath      Path of the file the stream is written to
+     * @param byteCount     Size of the file, the load mode is chosen by the triangle count estimated from it
+     * @return              Session of the model that was read
+     * @throws IOException  If the stream can't be read
+     */
+    public ModelSessionManager.Session openStream(InputStream inputStream, String filePath, long byteCount) throws IOException
+    {
+        ModelSessionManager.Session session = modelSessionManager.openStream(inputStream, Paths.get(filePath),
+                MemoryEstimator.estimateTriangleCount(byteCount));
+        System.out.println(MemoryEstimator.toFootprintReport(session.getTriangleCount(), session.getLoadMode()));
+        return session;
+    }
+
+    /**
+     * Makes the model of a session that was read from a stream the current one. Must be called on the JavaFX
+     * application thread, so the controller and the load mode are never swapped halfway. The session is
+     * opened again, which loads it from its file if it was released in the meantime.
+     *
+     * @param session       Session returned by {@link #openStream}
+     * @return              Controller of the model, now the current one
+     * @throws IOException  If a released session can't be loaded again
+     */
+    public PolyhedronController setCurrentModel(ModelSessionManager.Session session) throws IOException
+    {
+        ModelSessionManager.Session currentSession = modelSessionManager.open(session.getPath());
+        this.polyhedronController = currentSession.getPolyhedronController();
+        this.loadMode = currentSession.getLoadMode();
+        return currentSession.getPolyhedronController();
+    }
+
+    public void startServer(int port) {
+        tcpController.startServer(port, stlViewerController);
+    }
+
+    public void startClient(String host, int port) {
+        tcpController.startClient(host, port);
+    }
+
+    /**
+     * @return  Mode the current model was loaded in, the mesh of a lean model is indexed
+     */
+    public MemoryEstimator.LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    /**
+     * @return  Models opened from files and streams, the current one is the displayed model
+     */
+    public ModelSessionManager getModelSessionManager() {
+        return modelSessionManager;
+    }
+
+    public PolyhedronController getPolyhedronController() {
+        return polyhedronController;
+    }
+
+    public void sortTriangles() {
+        polyhedronController.getPolyhedron().getTriangles().sort(null);
+    }
+}
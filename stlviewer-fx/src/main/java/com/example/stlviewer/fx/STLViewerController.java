@@ -0,0 +1,517 @@
+package com.example.stlviewer.fx;
+
+import com.example.stlviewer.control.ModelSessionManager;
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.events.CreateMeshEvent;
+import com.example.stlviewer.model.MassProperties;
+import com.example.stlviewer.model.OrientedBox;
+import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Vertex;
+import com.example.stlviewer.model.ViewState;
+import com.example.stlviewer.net.RemoteCommand;
+import com.example.stlviewer.net.RemoteCommandQueue;
+import com.example.stlviewer.net.RemoteControllable;
+import com.example.stlviewer.res.Strings;
+import com.example.stlviewer.util.MemoryEstimator;
+import com.example.stlviewer.util.MeshData;
+import com.example.stlviewer.util.TimerRegistry;
+import com.example.stlviewer.view.STLViewer;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.Point3D;
+import javafx.scene.Group;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.PhongMaterial;
+import javafx.scene.shape.Cylinder;
+import javafx.scene.shape.TriangleMesh;
+import javafx.scene.transform.Rotate;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Translate;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static com.example.stlviewer.util.Math.findMaxDouble;
+
+public class STLViewerController implements RemoteControllable
+{
+    public static final int FACE_FIRST = 0;
+    public static final int FACE_SECOND = 1;
+    public static final int FACE_THIRD = 2;
+    public static final int WINDOW_WIDTH = 1600;
+    public static final int WINDOW_HEIGHT = 900;
+    public static final int INFOBAR_WIDTH = 200;
+    public static final double ZOOM_MULTIPLIER = 0.05;
+    public static final double BOX_EDGE_RADIUS_FACTOR = 0.002;
+    private final STLViewer stlViewer;
+    private final ApplicationController applicationController;
+    private final Rotate rotationX = new Rotate(0, Rotate.X_AXIS);
+    private final Rotate rotationY = new Rotate(0, Rotate.Y_AXIS);
+    private final Translate translation = new Translate();
+    private final Group objectsToTransform = new Group();
+    private final Group orientedBoxOverlay = new Group();
+    private final RemoteCommandQueue remoteCommandQueue = new RemoteCommandQueue();
+    private final double[] pendingTranslation = new double[RemoteCommand.AXIS_COUNT];
+    private final double[] pendingRotation = new double[RemoteCommand.AXIS_COUNT];
+    private final AnimationTimer remoteCommandTimer = new AnimationTimer()
+    {
+        @Override
+        public void handle(long now) {
+            applyRemoteCommands();
+            publishViewState();
+        }
+    };
+    private final CopyOnWriteArrayList<Consumer<ViewState>> viewStateListeners = new CopyOnWriteArrayList<>();
+    private ViewState lastPublishedState;
+    private double anchorX, anchorY;
+    private double anchorAngleX, anchorAngleY;
+    private double anchorTranslateX, anchorTranslateY;
+    private double longestSide;
+    private volatile String filePath;
+    private String uploadedFilePath;
+    private boolean orientedBoxVisible;
+    // A single thread analyzes the models one after the other, so the mass properties, the hull and the box
+    // of a model are computed once
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "model-analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public STLViewerController(ApplicationController applicationController)
+    {
+        this.applicationController = applicationController;
+        this.stlViewer = new STLViewer(this);
+    }
+
+    public void startSTLViewer(Stage stage)
+    {
+        stlViewer.start(stage);
+        // Apply the remote commands once per pulse on the JavaFX application thread
+        remoteCommandTimer.start();
+    }
+
+    public void openFile(Stage stage) {
+        File stlFile = stlViewer.openFile(stage);
+
+        if (stlFile != null) {
+            openModel(stlFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Displays the model of a file. A model that is still open is displayed without reading the file again.
+     *
+     * @param modelFilePath Absolute path of the STL file
+     */
+    public void openModel(String modelFilePath) {
+        filePath = modelFilePath;
+        applicationController.openFile(filePath);
+        // Switching back to the upload in the list of open models keeps its file
+        replaceUploadedFile(modelFilePath.equals(uploadedFilePath) ? modelFilePath : null);
+        stlViewer.displayModel(applicationController.getPolyhedronController().getPolyhedron());
+    }
+
+    /**
+     * @return  Models opened from files and uploads, in the order they were opened
+     */
+    public List<ModelSessionManager.Session> getOpenModels() {
+        return applicationController.getModelSessionManager().getSessions();
+    }
+
+    /**
+     * Loads a model that is received from a remote client and displays it once it is complete.
+     * Called from a network thread, the model is read there. Making it the current model, swapping the
+     * path and displaying it are handed over to the JavaFX application thread in one step, so concurrent
+     * uploads are displayed one after the other and the path always belongs to the displayed model.
+     *
+     * @param inputStream   Stream with the content of the STL file
+     * @param remoteFilePath Path of the file the stream is written to
+     * @param byteCount     Size of the file, it chooses the load mode
+     */
+    @Override
+    public void openRemoteFile(InputStream inputStream, String remoteFilePath, long byteCount) throws IOException {
+        ModelSessionManager.Session session = applicationController.openStream(inputStream, remoteFilePath, byteCount);
+        Platform.runLater(() -> {
+            try {
+                PolyhedronController polyhedronController = applicationController.setCurrentModel(session);
+                replaceUploadedFile(remoteFilePath);
+                filePath = remoteFilePath;
+                stlViewer.displayModel(polyhedronController.getPolyhedron());
+            } catch (IOException ioException) {
+                System.err.println("Error opening uploaded file: " + ioException.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Deletes the file of the previous upload and closes its session once another model is displayed, it was
+     * only kept for downloads.
+     *
+     * @param newUploadedFilePath   File of the new model if it was uploaded, otherwise null
+     */
+    private synchronized void replaceUploadedFile(String newUploadedFilePath) {
+        String previousUploadedFilePath = uploadedFilePath;
+        uploadedFilePath = newUploadedFilePath;
+        if (previousUploadedFilePath == null || previousUploadedFilePath.equals(newUploadedFilePath)) {
+            return;
+        }
+        applicationController.getModelSessionManager().close(Paths.get(previousUploadedFilePath));
+        try {
+            Files.deleteIfExists(Paths.get(previousUploadedFilePath));
+        } catch (IOException ioException) {
+            System.err.println("Error deleting uploaded file: " + ioException.getMessage());
+        }
+    }
+
+    public void renderModel (Polyhedron polyhedron) {
+        // Clear the scene
+        clearScene();
+
+        // Create the mesh
+        TriangleMesh polyhedronMesh = createMesh(polyhedron);
+
+        // Place the mesh in the scene and set the material
+        stlViewer.getMeshView().setMesh(polyhedronMesh);
+        stlViewer.getMeshView().setMaterial(new PhongMaterial(Color.RED));
+
+        // Apply initial transformations to place the mesh in the scene
+        applyInitialTransformations();
+        showMassProperties();
+        // The overlay stays switched on for the next model
+        if (orientedBoxVisible) {
+            showOrientedBox(true);
+        }
+
+        // Poll user input
+        pollMouseInput();
+    }
+
+    public void clearScene() {
+        // Reset the mesh view
+        stlViewer.getMeshView().getTransforms().clear();
+        stlViewer.getMainGroup().getChildren().clear();
+        objectsToTransform.getChildren().clear();
+        orientedBoxOverlay.getChildren().clear();
+    }
+
+    /**
+     * Calculates the mass properties of the current model on the background thread the first time they are
+     * shown, the labels are filled in once they are done.
+     */
+    private void showMassProperties() {
+        PolyhedronController polyhedronController = applicationController.getPolyhedronController();
+        analysisExecutor.execute(() -> {
+            MassProperties massProperties = polyhedronController.defineMassProperties();
+            Platform.runLater(() -> {
+                // Skip the properties if the model was switched in the meantime
+                if (polyhedronController == applicationController.getPolyhedronController()) {
+                    stlViewer.displayMassProperties(massProperties);
+                }
+            });
+        });
+    }
+
+    /**
+     * Shows or hides the tight oriented bounding box of the model as a wireframe. The box is fitted on the
+     * analysis thread the first time, the overlay is added once it is done. A model that is
+     * still loading gets its box when it is rendered.
+     *
+     * @param visible   True to show the box
+     */
+    public void showOrientedBox(boolean visible) {
+        orientedBoxVisible = visible;
+        if (!visible) {
+            objectsToTransform.getChildren().remove(orientedBoxOverlay);
+            return;
+        }
+        PolyhedronController polyhedronController = applicationController.getPolyhedronController();
+        if (!polyhedronController.isReadingFinished()) {
+            return;
+        }
+        analysisExecutor.execute(() -> {
+            OrientedBox orientedBox = polyhedronController.defineOrientedBox();
+            Platform.runLater(() -> {
+                // Skip the box if the model was switched or the overlay was hidden in the meantime
+                if (orientedBox != null && orientedBoxVisible
+                        && polyhedronController == applicationController.getPolyhedronController()) {
+                    drawOrientedBox(orientedBox, polyhedronController.getPolyhedron().getCenter());
+                }
+            });
+        });
+    }
+
+    /**
+     * Draws the twelve edges of a box as thin cylinders, placed around the center like the mesh points.
+     */
+    private void drawOrientedBox(OrientedBox orientedBox, Vertex center) {
+        orientedBoxOverlay.getChildren().clear();
+        Vertex[] corners = orientedBox.getCorners();
+        double radius = findMaxDouble(orientedBox.getExtents()) * BOX_EDGE_RADIUS_FACTOR;
+        PhongMaterial material = new PhongMaterial(Color.BLUE);
+        for (int corner = 0; corner < corners.length; corner++) {
+            for (int axisBit = 1; axisBit < corners.length; axisBit <<= 1) {
+                // Every edge once, from the corner on the negative side of the axis
+                if ((corner & axisBit) == 0) {
+                    Cylinder edge = createEdge(corners[corner], corners[corner | axisBit], center, radius);
+                    edge.setMaterial(material);
+                    orientedBoxOverlay.getChildren().add(edge);
+                }
+            }
+        }
+        if (!objectsToTransform.getChildren().contains(orientedBoxOverlay)) {
+            objectsToTransform.getChildren().add(orientedBoxOverlay);
+        }
+    }
+
+    /**
+     * Creates a cylinder between two points. A cylinder lies along the y axis, so it is rotated onto the edge.
+     */
+    private Cylinder createEdge(Vertex start, Vertex end, Vertex center, double radius) {
+        double dx = end.getPosX() - start.getPosX();
+        double dy = end.getPosY() - start.getPosY();
+        double dz = end.getPosZ() - start.getPosZ();
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        Cylinder edge = new Cylinder(radius, length);
+        // The rotation axis is the cross product of the y axis and the edge
+        Point3D rotationAxis = new Point3D(dz, 0, -dx);
+        if (rotationAxis.magnitude() == 0) {
+            rotationAxis = Rotate.X_AXIS;
+        }
+        double angle = length == 0 ? 0 : Math.toDegrees(Math.acos(dy / length));
+        edge.getTransforms().addAll(
+                new Translate((start.getPosX() + end.getPosX()) / 2 - center.getPosX(),
+                        (start.getPosY() + end.getPosY()) / 2 - center.getPosY(),
+                        (start.getPosZ() + end.getPosZ()) / 2 - center.getPosZ()),
+                new Rotate(angle, rotationAxis));
+        return edge;
+    }
+
+    public TriangleMesh createMesh(Polyhedron polyhedron) {
+        CreateMeshEvent meshEvent = new CreateMeshEvent();
+        meshEvent.begin();
+        TriangleMesh mesh;
+        try (TimerRegistry.Timer timer = TimerRegistry.getGlobal().start(TimerRegistry.PHASE_MESH_BUILD)) {
+            MeshData meshData = applicationController.getLoadMode() == MemoryEstimator.LoadMode.LEAN
+                    ? MeshData.indexedFromPolyhedron(polyhedron) : MeshData.fromPolyhedron(polyhedron);
+            mesh = toTriangleMesh(meshData);
+        }
+        if (meshEvent.shouldCommit()) {
+            meshEvent.triangleCount = polyhedron.getTriangleCount();
+            meshEvent.pointCount = mesh.getPoints().size() / mesh.getPointElementSize();
+            meshEvent.commit();
+        }
+        return mesh;
+    }
+
+    /**
+     * Copies prepared mesh data into a JavaFX mesh.
+     */
+    private TriangleMesh toTriangleMesh(MeshData meshData) {
+        TriangleMesh mesh = new TriangleMesh();
+        mesh.getPoints().setAll(meshData.getPoints());
+        mesh.getTexCoords().setAll(meshData.getTexCoords());
+        mesh.getFaces().setAll(meshData.getFaces());
+        mesh.getFaceSmoothingGroups().setAll(meshData.getFaceSmoothingGroups());
+        return mesh;
+    }
+
+    public void applyInitialTransformations() {
+        // Get the scene center from subscene dimensions
+        double centerX = (WINDOW_WIDTH - INFOBAR_WIDTH) / 2;
+        double centerY = WINDOW_HEIGHT / 2;
+
+        // Translate the mesh to the center of the scene
+        objectsToTransform.getTransforms().addAll(
+                new Translate(centerX, centerY, 0),
+                // Rotate the mesh to display it correctly
+                rotationX,
+                rotationY,
+                translation
+        );
+        objectsToTransform.getChildren().add(stlViewer.getMeshView());
+        stlViewer.getMainGroup().getChildren().add(objectsToTransform);
+
+        // Set the camera to look at the mesh
+        placeCamera();
+    }
+
+    public void placeCamera() {
+        // Reset the camera position
+        stlViewer.getUserCamera().getTransforms().clear();
+
+        // Calculate distance to the mesh based on the mesh size
+        longestSide = findMaxDouble(applicationController.getPolyhedronController().getPolyhedron().getBoundingBox());
+        System.out.println("Longest side: " + longestSide);
+
+        // Set the camera position
+        stlViewer.getUserCamera().getTransforms().addAll(
+                new Translate(0, 0, -longestSide * 2)
+        );
+
+        // Set camera properties
+        stlViewer.getUserCamera().setNearClip(0.1);
+        stlViewer.getUserCamera().setFarClip(10000);
+    }
+
+    public void pollMouseInput() {
+        stlViewer.getThreeDView().setOnMousePressed(this::onMousePressed);
+        stlViewer.getThreeDView().setOnMouseDragged(event -> onMouseDragged(event));
+        stlViewer.getThreeDView().setOnScroll(event -> zoom(event));
+    }
+
+    public void onMousePressed(MouseEvent event) {
+        // Store the initial mouse position
+        anchorX = event.getSceneX();
+        anchorY = event.getSceneY();
+        // If the left mouse button is pressed, rotate the mesh
+        if (event.isPrimaryButtonDown()) {
+            anchorAngleX = rotationX.getAngle();
+            anchorAngleY = rotationY.getAngle();
+        } else if (event.isSecondaryButtonDown()) {
+            // If the right mouse button is pressed, translate the mesh
+            anchorTranslateX = translation.getX();
+            anchorTranslateY = translation.getY();
+        }
+    }
+
+    public void onMouseDragged(MouseEvent event) {
+        // Calculate the mouse movement
+        double deltaX = event.getSceneX() - anchorX;
+        double deltaY = event.getSceneY() - anchorY;
+        // If the left mouse button is pressed, rotate the mesh
+        if (event.isPrimaryButtonDown()) {
+            rotationX.setAngle(anchorAngleX - deltaY);
+            rotationY.setAngle(anchorAngleY + deltaX);
+        } else if (event.isSecondaryButtonDown()) {
+            // If the right mouse button is pressed, translate the mesh
+            translation.setX(anchorTranslateX + deltaX);
+            translation.setY(anchorTranslateY + deltaY);
+        }
+    }
+
+    public void zoom(ScrollEvent event) {
+        // Zoom the mesh based on the scroll direction
+        double delta = event.getDeltaY();
+        // Scale the zoom speed based on the mesh size and the distance to the mesh
+        double zoomSpeed = longestSide * ZOOM_MULTIPLIER * stlViewer.getUserCamera().getTranslateZ();
+
+        if (delta < 0) {
+            stlViewer.getUserCamera().setTranslateZ(stlViewer.getUserCamera().getTranslateZ() + zoomSpeed);
+        } else {
+            stlViewer.getUserCamera().setTranslateZ(stlViewer.getUserCamera().getTranslateZ() - zoomSpeed);
+        }
+    }
+
+    public void translateModel(String axis, double offset) {
+        switch (axis.toLowerCase()) {
+            case Strings.AXIS_X:
+                translation.setX(translation.getX() + offset);
+                break;
+            case Strings.AXIS_Y:
+                translation.setY(translation.getY() + offset);
+                break;
+            case Strings.AXIS_Z:
+                translation.setZ(translation.getZ() + offset);
+                break;
+            default:
+                System.out.println(Strings.INVALID_AXIS + axis);
+                break;
+        }
+    }
+
+    public void rotateModel(String axis, double degrees) {
+        switch (axis.toLowerCase()) {
+            case Strings.AXIS_X:
+                rotationX.setAngle(rotationX.getAngle() + degrees);
+                break;
+            case Strings.AXIS_Y:
+                rotationY.setAngle(rotationY.getAngle() + degrees);
+                break;
+            default:
+                System.out.println(Strings.INVALID_AXIS + axis);
+                break;
+        }
+    }
+
+    /**
+     * Queues a command received from a remote client. Safe to call from any thread, the command is
+     * applied with the next pulse of the JavaFX application thread.
+     *
+     * @param command   Command to apply
+     */
+    @Override
+    public void submitRemoteCommand(RemoteCommand command) {
+        remoteCommandQueue.submit(command);
+    }
+
+    /**
+     * Drains the remote command queue and applies the summed transforms as one update per axis.
+     * Must be called on the JavaFX application thread.
+     */
+    private void applyRemoteCommands() {
+        if (remoteCommandQueue.isEmpty()) {
+            return;
+        }
+        remoteCommandQueue.drain(pendingTranslation, pendingRotation);
+        for (int axisIndex = 0; axisIndex < RemoteCommand.AXIS_COUNT; axisIndex++) {
+            if (pendingTranslation[axisIndex] != 0) {
+                translateModel(RemoteCommand.axisName(axisIndex), pendingTranslation[axisIndex]);
+                pendingTranslation[axisIndex] = 0;
+            }
+            if (pendingRotation[axisIndex] != 0) {
+                rotateModel(RemoteCommand.axisName(axisIndex), pendingRotation[axisIndex]);
+                pendingRotation[axisIndex] = 0;
+            }
+        }
+    }
+
+    /**
+     * Registers a listener that is notified on the JavaFX application thread whenever the transform or
+     * the loaded model changes. Changes are detected once per pulse, so a listener is called at most once per frame.
+     *
+     * @param listener  Listener to notify
+     */
+    @Override
+    public void addViewStateListener(Consumer<ViewState> listener) {
+        viewStateListeners.add(listener);
+    }
+
+    public void removeViewStateListener(Consumer<ViewState> listener) {
+        viewStateListeners.remove(listener);
+    }
+
+    /**
+     * Takes a snapshot of the view and notifies the listeners if it differs from the last one.
+     */
+    private void publishViewState() {
+        if (viewStateListeners.isEmpty()) {
+            return;
+        }
+        Polyhedron polyhedron = applicationController.getPolyhedronController().getPolyhedron();
+        ViewState state = new ViewState(translation.getX(), translation.getY(), translation.getZ(),
+                rotationX.getAngle(), rotationY.getAngle(), filePath, polyhedron.getTriangleCount());
+        if (!state.equals(lastPublishedState)) {
+            lastPublishedState = state;
+            for (Consumer<ViewState> listener : viewStateListeners) {
+                listener.accept(state);
+            }
+        }
+    }
+
+    @Override
+    public String getFilePath() {
+        return filePath;
+    }
+}
@@ -1,7 +1,7 @@
-package com.example.stlviewer.control;
+package com.example.stlviewer.fx;
 
-import com.example.stlviewer.util.TCPClient;
-import com.example.stlviewer.util.TCPServer;
+import com.example.stlviewer.net.TCPClient;
+import com.example.stlviewer.net.TCPServer;
 
 public class TCPController
 {
@@ -1,7 +1,10 @@
 package com.example.stlviewer.view;
 
-import com.example.stlviewer.control.STLViewerController;
+import com.example.stlviewer.control.ModelSessionManager;
+import com.example.stlviewer.fx.STLViewerController;
+import com.example.stlviewer.model.MassProperties;
 import com.example.stlviewer.model.Polyhedron;
+import com.example.stlviewer.model.Vertex;
 import javafx.application.Application;
 import javafx.scene.*;
 import javafx.scene.control.*;
@@ -16,6 +19,7 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.util.List;
 
 public class STLViewer extends Application
 {
@@ -28,6 +32,8 @@ public class STLViewer extends Application
     private final Label numberOfTrianglesLabel;
     private final Label surfaceAreaLabel;
     private final Label volumeLabel;
+    private final Label centerOfMassLabel;
+    private final Label principalMomentsLabel;
     private final Group mainGroup;
     private final PerspectiveCamera userCamera;
     private SubScene ThreeDView;
@@ -40,6 +46,8 @@ public class STLViewer extends Application
         this.numberOfTrianglesLabel = new Label();
         this.surfaceAreaLabel = new Label();
         this.volumeLabel = new Label();
+        this.centerOfMassLabel = new Label();
+        this.principalMomentsLabel = new Label();
         this.mainGroup = new Group();
         this.userCamera = new PerspectiveCamera(false);
     }
@@ -74,7 +82,7 @@ public class STLViewer extends Application
     {
         MenuBar topMenuBar = new MenuBar();
         // Add menu items
-        topMenuBar.getMenus().addAll(configureMenuFile(stage), configureMenuEdit(), configureMenuView());
+        topMenuBar.getMenus().addAll(configureMenuFile(stage), configureMenuEdit(), configureMenuView(), configureMenuModels());
         return topMenuBar;
     }
 
@@ -90,6 +98,32 @@ public class STLViewer extends Application
         return menuFile;
     }
 
+    private Menu configureMenuModels()
+    {
+        Menu menuModels = new Menu("Models");
+        // An empty menu doesn't show, so it starts with a placeholder
+        MenuItem menuItemNoModels = new MenuItem("No models opened");
+        menuItemNoModels.setDisable(true);
+        menuModels.getItems().add(menuItemNoModels);
+        // List the opened models every time the menu is shown, a released model is loaded again when selected
+        menuModels.setOnShowing(e -> {
+            List<ModelSessionManager.Session> sessions = stlViewerController.getOpenModels();
+            if (sessions.isEmpty()) {
+                return;
+            }
+            ToggleGroup toggleGroup = new ToggleGroup();
+            menuModels.getItems().clear();
+            for (ModelSessionManager.Session session : sessions) {
+                RadioMenuItem menuItemModel = new RadioMenuItem(session.toString());
+                menuItemModel.setToggleGroup(toggleGroup);
+                menuItemModel.setSelected(session.getPath().toString().equals(stlViewerController.getFilePath()));
+                menuItemModel.setOnAction(event -> stlViewerController.openModel(session.getPath().toString()));
+                menuModels.getItems().add(menuItemModel);
+            }
+        });
+        return menuModels;
+    }
+
     public File openFile (Stage stage)
     {
         FileChooser fileChooser = new FileChooser();
@@ -171,7 +205,9 @@ public class STLViewer extends Application
         menuItemSetZoom.setOnAction(e -> openZoomDialog());
         MenuItem menuItemResetZoom = new MenuItem("Reset View");
         menuItemResetZoom.setOnAction(e -> userCamera.getTransforms().clear());
-        menuView.getItems().addAll(menuItemTranslate, menuItemRotate, menuItemSetZoom, menuItemResetZoom);
+        CheckMenuItem menuItemOrientedBox = new CheckMenuItem("Show Oriented Box");
+        menuItemOrientedBox.setOnAction(e -> stlViewerController.showOrientedBox(menuItemOrientedBox.isSelected()));
+        menuView.getItems().addAll(menuItemTranslate, menuItemRotate, menuItemSetZoom, menuItemResetZoom, menuItemOrientedBox);
         return menuView;
     }
 
@@ -290,7 +326,9 @@ public class STLViewer extends Application
                 makeLabelArial("Model Information", FontWeight.BOLD, 16),
                 makeLabelArial("Number of Triangles: ", FontWeight.NORMAL, 14), numberOfTrianglesLabel,
                 makeLabelArial("Surface Area: ", FontWeight.NORMAL, 14), surfaceAreaLabel,
-                makeLabelArial("Volume: ", FontWeight.NORMAL, 14), volumeLabel
+                makeLabelArial("Volume: ", FontWeight.NORMAL, 14), volumeLabel,
+                makeLabelArial("Center of Mass: ", FontWeight.NORMAL, 14), centerOfMassLabel,
+                makeLabelArial("Principal Moments: ", FontWeight.NORMAL, 14), principalMomentsLabel
         );
         return infoLabels;
     }
@@ -318,11 +356,35 @@ public class STLViewer extends Application
         numberOfTrianglesLabel.setText(String.valueOf(polyhedron.getTriangleCount()));
         surfaceAreaLabel.setText(String.format("%.2f", polyhedron.getSurfaceArea()));
         volumeLabel.setText(String.format("%.2f", polyhedron.getVolume()));
+        // The mass properties are calculated in the background and shown once they are done
+        centerOfMassLabel.setText("...");
+        principalMomentsLabel.setText("...");
 
         // Render the 3D model
         stlViewerController.renderModel(polyhedron);
     }
 
+    /**
+     * Shows the mass properties of the displayed model.
+     *
+     * @param massProperties    Mass properties, null if the model encloses no volume
+     */
+    public void displayMassProperties(MassProperties massProperties)
+    {
+        // Open meshes enclose no volume and have no mass properties
+        if (massProperties != null) {
+            Vertex centerOfMass = massProperties.getCenterOfMass();
+            double[] principalMoments = massProperties.getPrincipalMoments();
+            centerOfMassLabel.setText(String.format("%.2f, %.2f, %.2f",
+                    centerOfMass.getPosX(), centerOfMass.getPosY(), centerOfMass.getPosZ()));
+            principalMomentsLabel.setText(String.format("%.2f, %.2f, %.2f",
+                    principalMoments[0], principalMoments[1], principalMoments[2]));
+        } else {
+            centerOfMassLabel.setText("-");
+            principalMomentsLabel.setText("-");
+        }
+    }
+
     public MeshView getMeshView() {
         return meshView;
     }
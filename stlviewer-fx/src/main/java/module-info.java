@@ -1,4 +1,4 @@
-module com.example.stlviewer {
+module com.example.stlviewer.fx {
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.web;
@@ -8,8 +8,10 @@ module com.example.stlviewer {
     requires org.kordamp.ikonli.javafx;
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
-    requires vecmath;
+    requires com.example.stlviewer.net;
 
     opens com.example.stlviewer to javafx.fxml;
     exports com.example.stlviewer;
-}
\ No newline at end of file
+    exports com.example.stlviewer.fx;
+    exports com.example.stlviewer.view;
+}
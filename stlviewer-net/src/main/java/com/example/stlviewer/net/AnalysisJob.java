@@ -0,0 +1,245 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.model.Polyhedron;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * A mesh analysis job of the {@link AnalysisServer}. The job reads an STL file with a fresh
+ * {@link PolyhedronController} and reports the requested metrics as a single JSON line. <br>
+ * Jobs are ordered by priority (higher first) and then by submission order, so they can be queued in a
+ * priority queue of a thread pool directly.
+ *
+ * @author  Lukas Erdmann
+ */
+public class AnalysisJob implements Runnable, Comparable<AnalysisJob>
+{
+    public enum Metric
+    {
+        VOLUME,
+        AREA,
+        BBOX,
+        TRIANGLES
+    }
+
+    public static final String STATUS_ACCEPTED = "accepted";
+    public static final String STATUS_REJECTED = "rejected";
+    public static final String STATUS_DONE = "done";
+    public static final String STATUS_FAILED = "failed";
+    public static final String STATUS_CANCELLED = "cancelled";
+    public static final String METRICS_ALL = "all";
+
+    private final long jobId;
+    private final int priority;
+    private final Path filePath;
+    private final boolean deleteAfterRun;
+    private final EnumSet<Metric> metrics;
+    private final Consumer<String> resultConsumer;
+    private final Runnable completionCallback;
+    private volatile boolean cancelled = false;
+    private volatile Thread workerThread;
+
+    /**
+     * @param jobId             Id of the job
+     * @param priority          Priority, higher priorities run first
+     * @param filePath          STL file to analyze
+     * @param deleteAfterRun    True if the file is a temporary upload that is deleted after the job
+     * @param metrics           Metrics to report
+     * @param resultConsumer    Receives the JSON result line
+     * @param completionCallback Called once the job has finished, failed or was cancelled
+     */
+    public AnalysisJob(long jobId, int priority, Path filePath, boolean deleteAfterRun, EnumSet<Metric> metrics,
+                       Consumer<String> resultConsumer, Runnable completionCallback) {
+        this.jobId = jobId;
+        this.priority = priority;
+        this.filePath = filePath;
+        this.deleteAfterRun = deleteAfterRun;
+        this.metrics = metrics;
+        this.resultConsumer = resultConsumer;
+        this.completionCallback = completionCallback;
+    }
+
+    /**
+     * Parses a comma separated list of metric names, e.g. {@code volume,area} or {@code all}.
+     *
+     * @param metricList    Comma separated metric names
+     * @return              Set of metrics
+     */
+    public static EnumSet<Metric> parseMetrics(String metricList) {
+        if (metricList.equalsIgnoreCase(METRICS_ALL)) {
+            return EnumSet.allOf(Metric.class);
+        }
+        EnumSet<Metric> metrics = EnumSet.noneOf(Metric.class);
+        for (String metricName : metricList.split(",")) {
+            metrics.add(Metric.valueOf(metricName.trim().toUpperCase(Locale.ROOT)));
+        }
+        return metrics;
+    }
+
+    @Override
+    public void run() {
+        workerThread = Thread.currentThread();
+        try {
+            if (cancelled) {
+                resultConsumer.accept(statusJson(STATUS_CANCELLED));
+                return;
+            }
+            PolyhedronController polyhedronController = new PolyhedronController();
+            try (InputStream inputStream = new CancellableInputStream(Files.newInputStream(filePath))) {
+                new STLReader().readSTLStream(inputStream, polyhedronController);
+            }
+            resultConsumer.accept(cancelled ? statusJson(STATUS_CANCELLED) : resultJson(polyhedronController.getPolyhedron()));
+        } catch (Exception exception) {
+            resultConsumer.accept(cancelled ? statusJson(STATUS_CANCELLED) : errorJson(exception));
+        } finally {
+            workerThread = null;
+            // Clear an interrupt of a cancel that raced with the end of the job, the worker is reused
+            Thread.interrupted();
+            complete();
+        }
+    }
+
+    /**
+     * Deletes the uploaded file of the job and calls the completion callback. Called at the end of
+     * {@link #run()}, and by the server for a job it removed from the queue before it ran.
+     */
+    public void complete() {
+        if (deleteAfterRun) {
+            try {
+                Files.deleteIfExists(filePath);
+            } catch (IOException ioException) {
+                System.err.println("Error deleting uploaded file: " + ioException.getMessage());
+            }
+        }
+        completionCallback.run();
+    }
+
+    /**
+     * Cancels the job. A queued job is skipped when it is dequeued, a running job stops at its next read.
+     */
+    public void cancel() {
+        cancelled = true;
+        Thread runningThread = workerThread;
+        if (runningThread != null) {
+            runningThread.interrupt();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getJobId() {
+        return jobId;
+    }
+
+    public String statusJson(String status) {
+        return "{\"job\":" + jobId + ",\"status\":\"" + status + "\"}";
+    }
+
+    public String rejectedJson(String reason) {
+        return rejectedJson(jobId, reason);
+    }
+
+    /**
+     * Rejection of a job that was never created, e.g. because no admission slot was left.
+     */
+    public static String rejectedJson(long jobId, String reason) {
+        return "{\"job\":" + jobId + ",\"status\":\"" + STATUS_REJECTED + "\",\"reason\":\"" + escapeJson(reason) + "\"}";
+    }
+
+    private String errorJson(Exception exception) {
+        return "{\"job\":" + jobId + ",\"status\":\"" + STATUS_FAILED + "\",\"error\":\"" + escapeJson(String.valueOf(exception.getMessage())) + "\"}";
+    }
+
+    private String resultJson(Polyhedron polyhedron) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"job\":").append(jobId).append(",\"status\":\"").append(STATUS_DONE).append('"');
+        builder.append(",\"file\":\"").append(escapeJson(filePath.getFileName().toString())).append('"');
+        if (metrics.contains(Metric.TRIANGLES)) {
+            builder.append(",\"triangles\":").append(polyhedron.getTriangleCount());
+        }
+        if (metrics.contains(Metric.VOLUME)) {
+            builder.append(",\"volume\":").append(polyhedron.getVolume());
+        }
+        if (metrics.contains(Metric.AREA)) {
+            builder.append(",\"area\":").append(polyhedron.getSurfaceArea());
+        }
+        if (metrics.contains(Metric.BBOX) && polyhedron.getBoundingBox() != null) {
+            builder.append(",\"boundingBox\":[");
+            double[] boundingBox = polyhedron.getBoundingBox();
+            for (int i = 0; i < boundingBox.length; i++) {
+                builder.append(i == 0 ? "" : ",").append(boundingBox[i]);
+            }
+            builder.append(']');
+        }
+        return builder.append('}').toString();
+    }
+
+    static String escapeJson(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (char character : text.toCharArray()) {
+            switch (character) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        builder.append(character);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public int compareTo(AnalysisJob other) {
+        if (priority != other.priority) {
+            return Integer.compare(other.priority, priority);
+        }
+        return Long.compare(jobId, other.jobId);
+    }
+
+    /**
+     * Stream that aborts reading once the job is cancelled.
+     */
+    private class CancellableInputStream extends FilterInputStream
+    {
+        private CancellableInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkCancelled();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            checkCancelled();
+            return super.read(bytes, offset, length);
+        }
+
+        private void checkCancelled() throws InterruptedIOException {
+            if (cancelled) {
+                throw new InterruptedIOException("Job " + jobId + " was cancelled");
+            }
+        }
+    }
+}
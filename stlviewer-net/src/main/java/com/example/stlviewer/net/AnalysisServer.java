@@ -0,0 +1,340 @@
+package com.example.stlviewer.net;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless service that analyzes STL files on a bounded pool of workers. Clients connect over TCP and
+ * submit jobs with a line based protocol, the results are streamed back as one JSON object per line: <br>
+ * {@code submit <priority> <metrics> path <file path>} analyzes a file below the path root of the server, <br>
+ * {@code submit <priority> <metrics> upload <byte count>} followed by the raw bytes analyzes an uploaded file, <br>
+ * {@code cancel <job id>} cancels a queued or running job. <br>
+ * Metrics are a comma separated list of {@code volume}, {@code area}, {@code bbox} and {@code triangles}, or {@code all}.
+ * A job is rejected if the number of queued and running jobs has reached the admission limit. The slot of a job
+ * is reserved before its upload is received, so a saturated server doesn't store uploads it won't analyze.
+ * The payload of a rejected or invalid upload is read and dropped, unless it is larger than
+ * {@link #MAX_DISCARDED_BYTE_SIZE} or its size can't be parsed, then the connection is closed. An upload
+ * larger than the maximum upload size is never read, the connection is closed as well. <br>
+ * Path jobs are only accepted if a path root is configured, and only for files below it. <br>
+ * Usage: {@code AnalysisServer [--port 5100] [--workers <cores>] [--max-pending 256] [--max-upload <bytes>]
+ * [--path-root <directory>]}
+ *
+ * @author  Lukas Erdmann
+ */
+public class AnalysisServer
+{
+    public static final int DEFAULT_PORT = 5100;
+    public static final int DEFAULT_MAX_PENDING_JOBS = 256;
+    public static final String COMMAND_SUBMIT = "submit";
+    public static final String COMMAND_CANCEL = "cancel";
+    public static final String SOURCE_PATH = "path";
+    public static final String SOURCE_UPLOAD = "upload";
+    public static final int SUBMIT_PART_COUNT = 5;
+    public static final long TRANSFER_CHUNK_BYTE_SIZE = 1 << 20;
+    public static final long MAX_DISCARDED_BYTE_SIZE = 16 << 20;
+    public static final long DEFAULT_MAX_UPLOAD_BYTE_SIZE = 1L << 30;
+
+    private final int port;
+    private final int maxPendingJobs;
+    private final long maxUploadByteSize;
+    private final Path pathRoot;
+    private final ThreadPoolExecutor workerPool;
+    private final AtomicLong nextJobId = new AtomicLong(1);
+    private final AtomicInteger pendingJobCount = new AtomicInteger();
+    private final ConcurrentHashMap<Long, AnalysisJob> activeJobs = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a server that only accepts uploads.
+     */
+    public AnalysisServer(int port, int workerCount, int maxPendingJobs) {
+        this.port = port;
+        this.maxPendingJobs = maxPendingJobs;
+        this.maxUploadByteSize = DEFAULT_MAX_UPLOAD_BYTE_SIZE;
+        this.pathRoot = null;
+        this.workerPool = createWorkerPool(workerCount);
+    }
+
+    /**
+     * @param maxUploadByteSize Size of the largest upload that is received
+     * @param pathRoot          Directory whose files may be analyzed by path, null to reject path jobs
+     * @throws IOException  If the path root doesn't exist
+     */
+    public AnalysisServer(int port, int workerCount, int maxPendingJobs, long maxUploadByteSize, Path pathRoot) throws IOException {
+        this.port = port;
+        this.maxPendingJobs = maxPendingJobs;
+        this.maxUploadByteSize = maxUploadByteSize;
+        // The real path, so links can't lead out of the root
+        this.pathRoot = pathRoot == null ? null : pathRoot.toRealPath();
+        this.workerPool = createWorkerPool(workerCount);
+    }
+
+    private static ThreadPoolExecutor createWorkerPool(int workerCount) {
+        // Jobs are comparable, so the priority queue hands the workers the most important job first
+        return new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>());
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int maxPending = DEFAULT_MAX_PENDING_JOBS;
+        long maxUpload = DEFAULT_MAX_UPLOAD_BYTE_SIZE;
+        Path pathRoot = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--workers" -> workers = Integer.parseInt(args[++i]);
+                case "--max-pending" -> maxPending = Integer.parseInt(args[++i]);
+                case "--max-upload" -> maxUpload = Long.parseLong(args[++i]);
+                case "--path-root" -> pathRoot = Paths.get(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        new AnalysisServer(port, workers, maxPending, maxUpload, pathRoot).start();
+    }
+
+    public void start() throws IOException {
+        try (ServerSocketChannel serverSocket = ServerSocketChannel.open().bind(new InetSocketAddress(port))) {
+            System.out.println("The analysis server is reachable on port: " + port);
+            while (true) {
+                try {
+                    SocketChannel clientChannel = serverSocket.accept();
+                    new Thread(() -> handleClient(clientChannel), "analysis-client").start();
+                } catch (IOException e) {
+                    System.err.println("Error accepting client connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleClient(SocketChannel clientChannel) {
+        try (ChannelLineInputStream input = new ChannelLineInputStream(clientChannel);
+             PrintWriter output = new PrintWriter(new BufferedOutputStream(clientChannel.socket().getOutputStream()), true)) {
+            String command;
+            while ((command = input.readLine()) != null) {
+                if (!processCommand(command, input, output)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error processing analysis client: " + e.getMessage());
+        } finally {
+            try {
+                clientChannel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing client socket: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return  False if the connection has to be closed because the rest of the stream can't be read as commands
+     */
+    private boolean processCommand(String command, ChannelLineInputStream input, PrintWriter output) throws IOException {
+        String[] commandParts = command.trim().split(" ", SUBMIT_PART_COUNT);
+        if (commandParts[0].equals(COMMAND_SUBMIT) && commandParts.length == SUBMIT_PART_COUNT
+                && commandParts[3].equals(SOURCE_UPLOAD)) {
+            return processUpload(commandParts, input, output);
+        }
+        try {
+            if (commandParts[0].equals(COMMAND_SUBMIT) && commandParts.length == SUBMIT_PART_COUNT) {
+                int priority = Integer.parseInt(commandParts[1]);
+                EnumSet<AnalysisJob.Metric> metrics = AnalysisJob.parseMetrics(commandParts[2]);
+                if (commandParts[3].equals(SOURCE_PATH)) {
+                    Path filePath = resolvePath(commandParts[4]);
+                    if (reserveSlot()) {
+                        submit(priority, metrics, filePath, false, output);
+                    } else {
+                        output.println(rejectedJson());
+                    }
+                } else {
+                    output.println(errorJson("Invalid source: " + commandParts[3]));
+                }
+            } else if (commandParts[0].equals(COMMAND_CANCEL) && commandParts.length == 2) {
+                cancel(Long.parseLong(commandParts[1]), output);
+            } else {
+                output.println(errorJson("Invalid command: " + command));
+            }
+        } catch (IllegalArgumentException illegalArgumentException) {
+            output.println(errorJson(illegalArgumentException.getMessage()));
+        }
+        return true;
+    }
+
+    /**
+     * Handles an upload submit. The size is parsed first, so the payload can be dropped whenever the job
+     * isn't accepted, and the slot is reserved before anything is written to disk.
+     *
+     * @return  False if the connection has to be closed
+     */
+    private boolean processUpload(String[] commandParts, ChannelLineInputStream input, PrintWriter output) throws IOException {
+        long byteCount;
+        try {
+            byteCount = Long.parseLong(commandParts[4]);
+        } catch (NumberFormatException numberFormatException) {
+            byteCount = -1;
+        }
+        if (byteCount < 0) {
+            output.println(errorJson("Invalid upload size, closing connection: " + commandParts[4]));
+            return false;
+        }
+        if (byteCount > maxUploadByteSize) {
+            output.println(errorJson("Upload of " + byteCount + " bytes exceeds the maximum of " + maxUploadByteSize
+                    + " bytes, closing connection"));
+            return false;
+        }
+
+        int priority;
+        EnumSet<AnalysisJob.Metric> metrics;
+        try {
+            priority = Integer.parseInt(commandParts[1]);
+            metrics = AnalysisJob.parseMetrics(commandParts[2]);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            output.println(errorJson(illegalArgumentException.getMessage()));
+            return discardUpload(byteCount, input, output);
+        }
+        if (!reserveSlot()) {
+            output.println(rejectedJson());
+            return discardUpload(byteCount, input, output);
+        }
+
+        Path uploadPath;
+        try {
+            uploadPath = receiveUpload(byteCount, input);
+        } catch (IOException | RuntimeException exception) {
+            pendingJobCount.decrementAndGet();
+            throw exception;
+        }
+        submit(priority, metrics, uploadPath, true, output);
+        return true;
+    }
+
+    /**
+     * Drops the payload of an upload that isn't analyzed, or gives up on the connection if it is too large.
+     *
+     * @return  False if the connection has to be closed
+     */
+    private static boolean discardUpload(long byteCount, ChannelLineInputStream input, PrintWriter output) throws IOException {
+        if (byteCount > MAX_DISCARDED_BYTE_SIZE) {
+            output.println(errorJson("Upload of " + byteCount + " bytes not read, closing connection"));
+            return false;
+        }
+        return input.discard(byteCount) == byteCount;
+    }
+
+    /**
+     * Resolves the file of a path job below the path root.
+     *
+     * @throws IllegalArgumentException If path jobs are disabled or the file is outside of the root
+     */
+    private Path resolvePath(String filePathText) {
+        if (pathRoot == null) {
+            throw new IllegalArgumentException("Path jobs are disabled, upload the file instead");
+        }
+        try {
+            Path filePath = pathRoot.resolve(filePathText).toRealPath();
+            if (filePath.startsWith(pathRoot) && Files.isRegularFile(filePath)) {
+                return filePath;
+            }
+        } catch (IOException | InvalidPathException exception) {
+            // Reported like a path outside of the root, so clients can't probe the file system
+        }
+        throw new IllegalArgumentException("No such file below the path root: " + filePathText);
+    }
+
+    /**
+     * Takes one of the admission slots, which is given back once the job has completed.
+     *
+     * @return  False if the admission limit has been reached
+     */
+    private boolean reserveSlot() {
+        if (pendingJobCount.incrementAndGet() > maxPendingJobs) {
+            pendingJobCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hands a job whose slot has been reserved to the worker pool.
+     */
+    private void submit(int priority, EnumSet<AnalysisJob.Metric> metrics, Path filePath, boolean isUpload, PrintWriter output) {
+        long jobId = nextJobId.getAndIncrement();
+        AnalysisJob job = new AnalysisJob(jobId, priority, filePath, isUpload, metrics, output::println, () -> {
+            activeJobs.remove(jobId);
+            pendingJobCount.decrementAndGet();
+        });
+        activeJobs.put(jobId, job);
+        output.println(job.statusJson(AnalysisJob.STATUS_ACCEPTED));
+        workerPool.execute(job);
+    }
+
+    private String rejectedJson() {
+        return AnalysisJob.rejectedJson(nextJobId.getAndIncrement(), "too many pending jobs");
+    }
+
+    private void cancel(long jobId, PrintWriter output) {
+        AnalysisJob job = activeJobs.get(jobId);
+        if (job == null) {
+            output.println("{\"job\":" + jobId + ",\"status\":\"" + AnalysisJob.STATUS_FAILED + "\",\"error\":\"unknown job\"}");
+            return;
+        }
+        job.cancel();
+        // A job that is still queued is removed and completed right away, a running job reports the cancellation itself
+        if (workerPool.remove(job)) {
+            job.complete();
+            output.println(job.statusJson(AnalysisJob.STATUS_CANCELLED));
+        }
+    }
+
+    /**
+     * Receives an uploaded file into a temporary file with {@link FileChannel#transferFrom}.
+     */
+    private Path receiveUpload(long byteCount, ChannelLineInputStream input) throws IOException {
+        Path uploadPath = Files.createTempFile("stlviewer-analysis-", ".stl");
+        try (FileChannel uploadChannel = FileChannel.open(uploadPath, StandardOpenOption.WRITE)) {
+            long transferred = 0;
+            while (transferred < byteCount) {
+                long chunk = input.transferTo(uploadChannel, transferred, java.lang.Math.min(TRANSFER_CHUNK_BYTE_SIZE, byteCount - transferred));
+                if (chunk <= 0) {
+                    throw new EOFException("Connection closed after " + transferred + " of " + byteCount + " bytes");
+                }
+                transferred += chunk;
+            }
+        } catch (IOException ioException) {
+            Files.deleteIfExists(uploadPath);
+            throw ioException;
+        }
+        return uploadPath;
+    }
+
+    private static String errorJson(String message) {
+        return "{\"status\":\"" + AnalysisJob.STATUS_FAILED + "\",\"error\":\"" + AnalysisJob.escapeJson(String.valueOf(message)) + "\"}";
+    }
+
+    public int getPendingJobCount() {
+        return pendingJobCount.get();
+    }
+
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.stlviewer.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Client for the binary remote control protocol. Commands are written into a local buffer and sent
+ * when {@link #flush()} is called, so many commands can be pipelined without waiting for the acks.
+ * The acks are read back in order with {@link #readAck()}.
+ *
+ * @author  Lukas Erdmann
+ */
+public class BinaryCommandClient implements Closeable
+{
+    public static final int MAX_FRAMES_PER_WRITE = 512;
+
+    private final Socket socket;
+    private final DataInputStream input;
+    private final OutputStream output;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(CommandFrame.FRAME_BYTE_SIZE * MAX_FRAMES_PER_WRITE);
+    private final byte[] ackBytes = new byte[CommandFrame.FRAME_BYTE_SIZE];
+    private int nextSequenceId = 0;
+
+    public BinaryCommandClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.output = new BufferedOutputStream(socket.getOutputStream());
+        output.write(CommandFrame.MAGIC);
+    }
+
+    /**
+     * Queues a single command that is acknowledged on its own.
+     *
+     * @param opcode    {@link CommandFrame#OPCODE_TRANSLATE} or {@link CommandFrame#OPCODE_ROTATE}
+     * @param axis      Axis byte
+     * @param amount    Offset or angle
+     * @return          The sequence id the ack will carry
+     */
+    public int sendCommand(byte opcode, byte axis, double amount) throws IOException {
+        int sequenceId = nextSequenceId++;
+        appendFrame(new CommandFrame(opcode, axis, amount, sequenceId, false));
+        return sequenceId;
+    }
+
+    /**
+     * Queues a batch of commands that the server acknowledges with a single ack. The sequence ids
+     * of the given frames are replaced by ids of this client.
+     *
+     * @param commands  Commands of the batch, must not be empty
+     * @return          The sequence id the ack of the batch will carry
+     */
+    public int sendBatch(List<CommandFrame> commands) throws IOException {
+        if (commands.isEmpty()) {
+            throw new IllegalArgumentException("A batch must contain at least one command.");
+        }
+        int sequenceId = 0;
+        for (int i = 0; i < commands.size(); i++) {
+            CommandFrame command = commands.get(i);
+            sequenceId = nextSequenceId++;
+            appendFrame(new CommandFrame(command.getOpcode(), command.getAxis(), command.getAmount(),
+                    sequenceId, i < commands.size() - 1));
+        }
+        return sequenceId;
+    }
+
+    /**
+     * Sends all queued commands to the server.
+     */
+    public void flush() throws IOException {
+        writeBuffer.flip();
+        output.write(writeBuffer.array(), 0, writeBuffer.limit());
+        writeBuffer.clear();
+        output.flush();
+    }
+
+    /**
+     * Blocks until the next ack arrives. The amount of an ack is the number of commands it covers.
+     *
+     * @return  The ack frame
+     */
+    public CommandFrame readAck() throws IOException {
+        input.readFully(ackBytes);
+        return CommandFrame.readFrom(ByteBuffer.wrap(ackBytes));
+    }
+
+    /**
+     * Sends all queued commands and closes the sending side of the connection. The server answers the
+     * remaining commands and then closes the connection, so {@link #readAck()} ends with an
+     * {@link java.io.EOFException} once all acks have been read.
+     */
+    public void finishSending() throws IOException {
+        flush();
+        socket.shutdownOutput();
+    }
+
+    private void appendFrame(CommandFrame frame) throws IOException {
+        if (writeBuffer.remaining() < CommandFrame.FRAME_BYTE_SIZE) {
+            // Hand the full buffer to the stream but leave flushing to the caller
+            writeBuffer.flip();
+            output.write(writeBuffer.array(), 0, writeBuffer.limit());
+            writeBuffer.clear();
+        }
+        frame.writeTo(writeBuffer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
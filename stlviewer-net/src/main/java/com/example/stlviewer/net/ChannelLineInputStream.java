@@ -0,0 +1,93 @@
+package com.example.stlviewer.net;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered input stream of a socket channel that can mix line based commands with raw file transfers.
+ * Lines are read byte by byte from the buffer, so no data after a command line is consumed by a reader.
+ * Raw payloads are moved into files with {@link #transferTo(FileChannel, long, long)}, which first hands
+ * over the bytes that are already buffered and then lets the file channel pull directly from the socket.
+ *
+ * @author  Lukas Erdmann
+ */
+public class ChannelLineInputStream extends BufferedInputStream
+{
+    private static final int LINE_FEED = '\n';
+    private static final int CARRIAGE_RETURN = '\r';
+
+    private final SocketChannel socketChannel;
+
+    public ChannelLineInputStream(SocketChannel socketChannel) throws IOException {
+        super(socketChannel.socket().getInputStream());
+        this.socketChannel = socketChannel;
+    }
+
+    /**
+     * Reads a line terminated by a line feed. A trailing carriage return is removed.
+     *
+     * @return  The line without its terminator, or null if the stream has ended
+     */
+    public String readLine() throws IOException {
+        ByteArrayOutputStream lineBytes = new ByteArrayOutputStream();
+        int nextByte;
+        while ((nextByte = read()) != -1 && nextByte != LINE_FEED) {
+            lineBytes.write(nextByte);
+        }
+        if (nextByte == -1 && lineBytes.size() == 0) {
+            return null;
+        }
+        String line = lineBytes.toString(StandardCharsets.UTF_8);
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == CARRIAGE_RETURN) {
+            line = line.substring(0, line.length() - 1);
+        }
+        return line;
+    }
+
+    /**
+     * Transfers up to the given number of bytes of the stream into a file. Bytes that are already
+     * buffered are written first, afterwards the transfer is delegated to
+     * {@link FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)}.
+     *
+     * @param target    File channel to write to
+     * @param position  Position in the file to start writing at
+     * @param byteCount Maximum number of bytes to transfer
+     * @return          Number of bytes transferred, 0 if the stream has ended
+     */
+    public synchronized long transferTo(FileChannel target, long position, long byteCount) throws IOException {
+        int bufferedBytes = count - pos;
+        if (bufferedBytes > 0) {
+            int written = target.write(ByteBuffer.wrap(buf, pos, (int) java.lang.Math.min(bufferedBytes, byteCount)), position);
+            pos += written;
+            return written;
+        }
+        return target.transferFrom(socketChannel, position, byteCount);
+    }
+
+    /**
+     * Reads and drops a payload that won't be used, so the next command line can be read.
+     *
+     * @param byteCount Number of bytes to drop
+     * @return          Number of bytes dropped, less than requested if the stream has ended
+     */
+    public long discard(long byteCount) throws IOException {
+        long discarded = 0;
+        while (discarded < byteCount) {
+            long skipped = skip(byteCount - discarded);
+            if (skipped <= 0) {
+                // skip may return 0 before the end, a read tells the two apart
+                if (read() == -1) {
+                    break;
+                }
+                skipped = 1;
+            }
+            discarded += skipped;
+        }
+        return discarded;
+    }
+}
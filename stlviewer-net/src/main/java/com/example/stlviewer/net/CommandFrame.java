@@ -0,0 +1,153 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.res.Strings;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A single fixed-size frame of the binary remote control protocol. <br>
+ * Layout (big endian, 14 bytes): opcode (1), axis (1), amount as float64 (8), sequence id (4). <br>
+ * The highest bit of the opcode byte marks a frame that is followed by more frames of the same batch.
+ * The server acknowledges only the last frame of a batch, so a single frame is simply a batch of one.
+ * The viewer only rotates around x and y, a batch with a rotation around z is answered with a nack.
+ * A binary connection is opened by sending {@link #MAGIC} before the first frame.
+ *
+ * @author  Lukas Erdmann
+ */
+public class CommandFrame
+{
+    public static final byte[] MAGIC = {(byte) 0xB5, 'S', 'T', 'L'};
+    public static final int FRAME_BYTE_SIZE = 14;
+    public static final int OPCODE_POS = 0;
+    public static final int AXIS_POS = 1;
+    public static final int AMOUNT_POS = 2;
+    public static final int SEQUENCE_POS = 10;
+    public static final byte OPCODE_TRANSLATE = 1;
+    public static final byte OPCODE_ROTATE = 2;
+    public static final byte OPCODE_ACK = 3;
+    public static final byte OPCODE_NACK = 4;
+    public static final byte OPCODE_MASK = 0x7F;
+    public static final byte FLAG_BATCH_CONTINUES = (byte) 0x80;
+    public static final byte AXIS_X = 0;
+    public static final byte AXIS_Y = 1;
+    public static final byte AXIS_Z = 2;
+
+    private final byte opcode;
+    private final byte axis;
+    private final double amount;
+    private final int sequenceId;
+    private final boolean batchContinues;
+
+    public CommandFrame(byte opcode, byte axis, double amount, int sequenceId, boolean batchContinues) {
+        this.opcode = opcode;
+        this.axis = axis;
+        this.amount = amount;
+        this.sequenceId = sequenceId;
+        this.batchContinues = batchContinues;
+    }
+
+    public CommandFrame(byte opcode, byte axis, double amount, int sequenceId) {
+        this(opcode, axis, amount, sequenceId, false);
+    }
+
+    /**
+     * Writes the frame at the current position of the buffer and advances it by {@link #FRAME_BYTE_SIZE}.
+     *
+     * @param buffer    Buffer with at least {@link #FRAME_BYTE_SIZE} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        write(buffer, opcode, axis, amount, sequenceId, batchContinues);
+    }
+
+    /**
+     * Writes a frame from its fields without creating a frame object, for the acks of the server.
+     *
+     * @param buffer    Buffer with at least {@link #FRAME_BYTE_SIZE} bytes remaining
+     */
+    public static void write(ByteBuffer buffer, byte opcode, byte axis, double amount, int sequenceId,
+                             boolean batchContinues) {
+        buffer.put(batchContinues ? (byte) (opcode | FLAG_BATCH_CONTINUES) : opcode);
+        buffer.put(axis);
+        buffer.putDouble(amount);
+        buffer.putInt(sequenceId);
+    }
+
+    /**
+     * Reads a frame from the current position of the buffer and advances it by {@link #FRAME_BYTE_SIZE}.
+     *
+     * @param buffer    Buffer with at least {@link #FRAME_BYTE_SIZE} bytes remaining
+     * @return          The decoded frame
+     */
+    public static CommandFrame readFrom(ByteBuffer buffer) {
+        byte opcodeByte = buffer.get();
+        byte axis = buffer.get();
+        double amount = buffer.getDouble();
+        int sequenceId = buffer.getInt();
+        return new CommandFrame((byte) (opcodeByte & OPCODE_MASK), axis, amount, sequenceId,
+                (opcodeByte & FLAG_BATCH_CONTINUES) != 0);
+    }
+
+    /**
+     * Maps an axis byte to the axis name used by the text protocol and the viewer controller.
+     *
+     * @param axis  Axis byte
+     * @return      The axis name or null if the byte is not a valid axis
+     */
+    public static String axisName(byte axis) {
+        switch (axis) {
+            case AXIS_X:
+                return Strings.AXIS_X;
+            case AXIS_Y:
+                return Strings.AXIS_Y;
+            case AXIS_Z:
+                return Strings.AXIS_Z;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Maps an axis name to the axis byte of the binary protocol.
+     *
+     * @param axis  Axis name (x, y or z)
+     * @return      The axis byte
+     */
+    public static byte axisByte(String axis) {
+        switch (axis.toLowerCase()) {
+            case Strings.AXIS_X:
+                return AXIS_X;
+            case Strings.AXIS_Y:
+                return AXIS_Y;
+            case Strings.AXIS_Z:
+                return AXIS_Z;
+            default:
+                throw new IllegalArgumentException(Strings.INVALID_AXIS + axis);
+        }
+    }
+
+    public byte getOpcode() {
+        return opcode;
+    }
+
+    public byte getAxis() {
+        return axis;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public int getSequenceId() {
+        return sequenceId;
+    }
+
+    public boolean isBatchContinues() {
+        return batchContinues;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandFrame{opcode=" + opcode + ", axis=" + axis + ", amount=" + amount +
+                ", sequenceId=" + sequenceId + ", batchContinues=" + batchContinues + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.stlviewer.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input stream over a file that is still being written. Reads block until the writer has published
+ * more bytes with {@link #setAvailableBytes(long)} or has marked the file complete with {@link #finish()}.
+ * This lets a reader parse a file while it is being received. If the writer gives up with
+ * {@link #fail(IOException)}, reads throw instead of ending the stream, so a partial file is never taken
+ * for a complete one.
+ *
+ * @author  Lukas Erdmann
+ */
+public class GrowingFileInputStream extends InputStream
+{
+    private final FileChannel fileChannel;
+    private long position = 0;
+    private long availableBytes = 0;
+    private boolean finished = false;
+    private IOException failure;
+
+    public GrowingFileInputStream(Path path) throws IOException {
+        this.fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Publishes the number of bytes that have been written to the file so far.
+     *
+     * @param availableBytes    Number of bytes that can be read
+     */
+    public synchronized void setAvailableBytes(long availableBytes) {
+        this.availableBytes = availableBytes;
+        notifyAll();
+    }
+
+    /**
+     * Marks the file as complete. Readers receive the end of the stream after the last published byte.
+     */
+    public synchronized void finish() {
+        this.finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Marks the file as incomplete. Waiting and later reads throw an exception caused by the given one.
+     *
+     * @param cause Reason the file won't be completed
+     */
+    public synchronized void fail(IOException cause) {
+        this.failure = cause;
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] singleByte = new byte[1];
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (position >= availableBytes && !finished && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for data", interruptedException);
+            }
+        }
+        if (failure != null) {
+            throw new IOException("File is incomplete: " + failure.getMessage(), failure);
+        }
+        if (position >= availableBytes) {
+            return -1;
+        }
+        int readable = (int) java.lang.Math.min(length, availableBytes - position);
+        int read = fileChannel.read(ByteBuffer.wrap(bytes, offset, readable), position);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.control.PolyhedronController;
+import com.example.stlviewer.control.STLReader;
+import com.example.stlviewer.model.ViewState;
+import com.example.stlviewer.util.MemoryEstimator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Viewer without a display. It keeps the transform as plain values and applies the queued remote commands
+ * on its own pulse thread, just like the JavaFX viewer does on the application thread. Used to run the
+ * TCP server for load tests and on machines without a display.
+ *
+ * @author  Lukas Erdmann
+ */
+public class HeadlessViewerController implements RemoteControllable
+{
+    public static final long PULSE_INTERVAL_MICROS = 16_667;
+
+    private final MemoryEstimator memoryEstimator = MemoryEstimator.fromSystemProperties();
+    private final RemoteCommandQueue remoteCommandQueue = new RemoteCommandQueue();
+    private final double[] translation = new double[RemoteCommand.AXIS_COUNT];
+    private final double[] rotation = new double[RemoteCommand.AXIS_COUNT];
+    private final double[] pendingTranslation = new double[RemoteCommand.AXIS_COUNT];
+    private final double[] pendingRotation = new double[RemoteCommand.AXIS_COUNT];
+    private final CopyOnWriteArrayList<Consumer<ViewState>> viewStateListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService pulseExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread pulseThread = new Thread(runnable, "headless-pulse");
+        pulseThread.setDaemon(true);
+        return pulseThread;
+    });
+    private volatile PolyhedronController polyhedronController = new PolyhedronController();
+    private volatile String filePath;
+    private ViewState lastPublishedState;
+    private volatile long appliedCommandCount;
+
+    public HeadlessViewerController() {
+        pulseExecutor.scheduleAtFixedRate(this::pulse, PULSE_INTERVAL_MICROS, PULSE_INTERVAL_MICROS, TimeUnit.MICROSECONDS);
+    }
+
+    private void pulse() {
+        int drained = remoteCommandQueue.drain(pendingTranslation, pendingRotation);
+        for (int axisIndex = 0; axisIndex < RemoteCommand.AXIS_COUNT; axisIndex++) {
+            translation[axisIndex] += pendingTranslation[axisIndex];
+            rotation[axisIndex] += pendingRotation[axisIndex];
+            pendingTranslation[axisIndex] = 0;
+            pendingRotation[axisIndex] = 0;
+        }
+        appliedCommandCount += drained;
+
+        ViewState state = new ViewState(translation[0], translation[1], translation[2], rotation[0], rotation[1],
+                filePath, polyhedronController.getPolyhedron().getTriangleCount());
+        if (!state.equals(lastPublishedState)) {
+            lastPublishedState = state;
+            for (Consumer<ViewState> listener : viewStateListeners) {
+                listener.accept(state);
+            }
+        }
+    }
+
+    @Override
+    public void submitRemoteCommand(RemoteCommand command) {
+        remoteCommandQueue.submit(command);
+    }
+
+    /**
+     * Reads the model on the calling thread with a reader of its own, so concurrent uploads don't share
+     * one. The model and its path are swapped together on the pulse thread, like the JavaFX viewer does on
+     * the application thread, so a view state never pairs a model with the path of another.
+     */
+    @Override
+    public void openRemoteFile(InputStream inputStream, String remoteFilePath, long byteCount) throws IOException {
+        PolyhedronController newPolyhedronController = new PolyhedronController();
+        if (memoryEstimator.chooseLoadMode(MemoryEstimator.estimateTriangleCount(byteCount)) == MemoryEstimator.LoadMode.LEAN) {
+            newPolyhedronController.enableVertexSharing();
+        }
+        new STLReader().readSTLStream(inputStream, newPolyhedronController);
+        pulseExecutor.execute(() -> {
+            polyhedronController = newPolyhedronController;
+            String previousFilePath = filePath;
+            filePath = remoteFilePath;
+            // Every model of the headless viewer is an upload, the replaced one isn't needed anymore
+            if (previousFilePath != null && !previousFilePath.equals(remoteFilePath)) {
+                try {
+                    Files.deleteIfExists(Paths.get(previousFilePath));
+                } catch (IOException ioException) {
+                    System.err.println("Error deleting uploaded file: " + ioException.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public String getFilePath() {
+        return filePath;
+    }
+
+    @Override
+    public void addViewStateListener(Consumer<ViewState> listener) {
+        viewStateListeners.add(listener);
+    }
+
+    /**
+     * @return  Number of commands applied by the pulse thread so far
+     */
+    public long getAppliedCommandCount() {
+        return appliedCommandCount;
+    }
+
+    public void shutdown() {
+        pulseExecutor.shutdownNow();
+    }
+}
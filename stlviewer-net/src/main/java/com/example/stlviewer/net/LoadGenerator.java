@@ -0,0 +1,292 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.util.LatencyHistogram;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scripted load generator for the TCP control server. It opens a number of concurrent binary protocol
+ * connections and sends alternating rotate and translate commands at a fixed total rate. <br>
+ * The round trip latency of every command is measured from the time it was scheduled to be sent, not from
+ * the time it actually was sent, so a stalled server can't hide its latency by slowing down the sender. <br>
+ * Usage: {@code LoadGenerator [--host localhost] [--port 5000] [--connections 8] [--rate 10000]
+ * [--duration 10] [--warmup 2] [--local]}. With {@code --local} a server with a
+ * {@link HeadlessViewerController} is started in the same process.
+ *
+ * @author  Lukas Erdmann
+ */
+public class LoadGenerator
+{
+    public static final String DEFAULT_HOST = "localhost";
+    public static final int DEFAULT_PORT = 5000;
+    public static final int DEFAULT_CONNECTIONS = 8;
+    public static final int DEFAULT_RATE = 10_000;
+    public static final int DEFAULT_DURATION_SECONDS = 10;
+    public static final int DEFAULT_WARMUP_SECONDS = 2;
+    public static final int IN_FLIGHT_WINDOW = 1 << 16;
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+    public static final long SERVER_STARTUP_WAIT_MILLIS = 500;
+
+    private final String host;
+    private final int port;
+    private final int connections;
+    private final int rate;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+
+    public LoadGenerator(String host, int port, int connections, int rate, int durationSeconds, int warmupSeconds) {
+        if (connections < 1 || rate < connections) {
+            throw new IllegalArgumentException("At least one connection and one command per second and connection are required.");
+        }
+        this.host = host;
+        this.port = port;
+        this.connections = connections;
+        this.rate = rate;
+        this.durationSeconds = durationSeconds;
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = DEFAULT_HOST;
+        int port = DEFAULT_PORT;
+        int connections = DEFAULT_CONNECTIONS;
+        int rate = DEFAULT_RATE;
+        int duration = DEFAULT_DURATION_SECONDS;
+        int warmup = DEFAULT_WARMUP_SECONDS;
+        boolean local = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host" -> host = args[++i];
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--connections" -> connections = Integer.parseInt(args[++i]);
+                case "--rate" -> rate = Integer.parseInt(args[++i]);
+                case "--duration" -> duration = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--local" -> local = true;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        if (local) {
+            startLocalServer(port);
+        }
+
+        LoadGenerator loadGenerator = new LoadGenerator(host, port, connections, rate, duration, warmup);
+        System.out.println(loadGenerator.run());
+        System.exit(0);
+    }
+
+    /**
+     * Starts a server with a headless viewer on a daemon thread.
+     *
+     * @param port  Port to listen on
+     */
+    public static void startLocalServer(int port) throws InterruptedException {
+        TCPServer server = new TCPServer(port, new HeadlessViewerController());
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.start();
+            } catch (IOException ioException) {
+                System.err.println("Error starting local server: " + ioException.getMessage());
+            }
+        }, "local-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        Thread.sleep(SERVER_STARTUP_WAIT_MILLIS);
+    }
+
+    /**
+     * Runs the warmup and the measurement phase.
+     *
+     * @return  Report of the measurement phase
+     */
+    public Report run() throws IOException, InterruptedException {
+        if (warmupSeconds > 0) {
+            runPhase(warmupSeconds);
+        }
+        return runPhase(durationSeconds);
+    }
+
+    private Report runPhase(int seconds) throws IOException, InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicLong sentCount = new AtomicLong();
+        AtomicLong failedCount = new AtomicLong();
+        long intervalNanos = NANOS_PER_SECOND * connections / rate;
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        long endNanos = startNanos + seconds * NANOS_PER_SECOND;
+        CountDownLatch finished = new CountDownLatch(connections);
+
+        List<Connection> connectionList = new ArrayList<>();
+        boolean connected = false;
+        try {
+            for (int i = 0; i < connections; i++) {
+                // Stagger the connections so their commands are spread evenly over each interval
+                long offsetNanos = intervalNanos * i / connections;
+                connectionList.add(new Connection(new BinaryCommandClient(host, port), startNanos + offsetNanos, endNanos,
+                        intervalNanos, histogram, sentCount, failedCount, finished));
+            }
+            connected = true;
+        } finally {
+            if (!connected) {
+                // A later connection failed, the earlier ones were never started and would stay open
+                for (Connection connection : connectionList) {
+                    connection.close();
+                }
+            }
+        }
+        for (Connection connection : connectionList) {
+            connection.start();
+        }
+        finished.await();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return new Report(connections, rate, sentCount.get(), failedCount.get(), elapsedNanos, histogram);
+    }
+
+    /**
+     * One connection with a sender thread that paces the commands and a receiver thread that matches acks
+     * to the scheduled send times.
+     */
+    private static class Connection
+    {
+        private final BinaryCommandClient client;
+        private final long startNanos;
+        private final long endNanos;
+        private final long intervalNanos;
+        private final LatencyHistogram histogram;
+        private final AtomicLong sentCount;
+        private final AtomicLong failedCount;
+        private final CountDownLatch finished;
+        private final AtomicLongArray scheduledNanos = new AtomicLongArray(IN_FLIGHT_WINDOW);
+
+        private Connection(BinaryCommandClient client, long startNanos, long endNanos, long intervalNanos,
+                           LatencyHistogram histogram, AtomicLong sentCount, AtomicLong failedCount, CountDownLatch finished) {
+            this.client = client;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.intervalNanos = intervalNanos;
+            this.histogram = histogram;
+            this.sentCount = sentCount;
+            this.failedCount = failedCount;
+            this.finished = finished;
+        }
+
+        private void start() {
+            new Thread(this::send, "load-sender").start();
+            new Thread(this::receive, "load-receiver").start();
+        }
+
+        private void close() {
+            try {
+                client.close();
+            } catch (IOException ioException) {
+                System.err.println("Error closing connection: " + ioException.getMessage());
+            }
+        }
+
+        private void send() {
+            long nextNanos = startNanos;
+            int commandIndex = 0;
+            try {
+                while (nextNanos < endNanos) {
+                    long waitNanos = nextNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        LockSupport.parkNanos(waitNanos);
+                        continue;
+                    }
+                    byte opcode = commandIndex % 2 == 0 ? CommandFrame.OPCODE_ROTATE : CommandFrame.OPCODE_TRANSLATE;
+                    byte axis = (byte) (commandIndex % 3 == 0 ? CommandFrame.AXIS_X : CommandFrame.AXIS_Y);
+                    // Record the time before sending, the ack may arrive before sendCommand returns
+                    scheduledNanos.set(commandIndex % IN_FLIGHT_WINDOW, nextNanos);
+                    client.sendCommand(opcode, axis, 0.5);
+                    client.flush();
+                    sentCount.incrementAndGet();
+                    commandIndex++;
+                    nextNanos += intervalNanos;
+                }
+            } catch (IOException ioException) {
+                System.err.println("Error sending command: " + ioException.getMessage());
+            } finally {
+                // The server closes the connection after the last ack, which ends the receiver, also after an error
+                try {
+                    client.finishSending();
+                } catch (IOException ioException) {
+                    // The server may never close the connection now, so the receiver is ended by closing it here
+                    close();
+                }
+            }
+        }
+
+        private void receive() {
+            try {
+                while (true) {
+                    CommandFrame ack = client.readAck();
+                    long now = System.nanoTime();
+                    if (ack.getOpcode() != CommandFrame.OPCODE_ACK) {
+                        failedCount.incrementAndGet();
+                    }
+                    histogram.record(now - scheduledNanos.get(ack.getSequenceId() % IN_FLIGHT_WINDOW));
+                }
+            } catch (EOFException eofException) {
+                // All acks have been received
+            } catch (IOException ioException) {
+                System.err.println("Error receiving ack: " + ioException.getMessage());
+            } finally {
+                close();
+                finished.countDown();
+            }
+        }
+    }
+
+    /**
+     * Result of a load generator run.
+     */
+    public static class Report
+    {
+        private final int connections;
+        private final int targetRate;
+        private final long sentCount;
+        private final long failedCount;
+        private final long elapsedNanos;
+        private final LatencyHistogram histogram;
+
+        public Report(int connections, int targetRate, long sentCount, long failedCount, long elapsedNanos, LatencyHistogram histogram) {
+            this.connections = connections;
+            this.targetRate = targetRate;
+            this.sentCount = sentCount;
+            this.failedCount = failedCount;
+            this.elapsedNanos = elapsedNanos;
+            this.histogram = histogram;
+        }
+
+        public double getThroughput() {
+            return histogram.getCount() * (double) NANOS_PER_SECOND / elapsedNanos;
+        }
+
+        public long getSentCount() {
+            return sentCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("connections=%d targetRate=%d/s sent=%d acked=%d failed=%d throughput=%.0f/s%nlatency %s",
+                    connections, targetRate, sentCount, histogram.getCount(), failedCount, getThroughput(), histogram.toSummary());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.res.Strings;
+
+/**
+ * A transform command received from a remote client. Commands are queued by the network threads
+ * and applied to the scene by the JavaFX application thread.
+ *
+ * @author  Lukas Erdmann
+ */
+public class RemoteCommand
+{
+    public enum Type
+    {
+        TRANSLATE,
+        ROTATE
+    }
+
+    public static final int AXIS_COUNT = 3;
+
+    private final Type type;
+    private final int axisIndex;
+    private final double amount;
+
+    public RemoteCommand(Type type, String axis, double amount) {
+        this.type = type;
+        this.axisIndex = axisIndex(axis);
+        this.amount = amount;
+    }
+
+    /**
+     * Maps an axis name to its index (x = 0, y = 1, z = 2).
+     *
+     * @param axis  Axis name
+     * @return      Index of the axis
+     */
+    public static int axisIndex(String axis) {
+        switch (axis.toLowerCase()) {
+            case Strings.AXIS_X:
+                return 0;
+            case Strings.AXIS_Y:
+                return 1;
+            case Strings.AXIS_Z:
+                return 2;
+            default:
+                throw new IllegalArgumentException(Strings.INVALID_AXIS + axis);
+        }
+    }
+
+    /**
+     * Maps an axis index back to its name.
+     *
+     * @param axisIndex Index of the axis
+     * @return          Axis name
+     */
+    public static String axisName(int axisIndex) {
+        switch (axisIndex) {
+            case 0:
+                return Strings.AXIS_X;
+            case 1:
+                return Strings.AXIS_Y;
+            case 2:
+                return Strings.AXIS_Z;
+            default:
+                throw new IllegalArgumentException(Strings.INVALID_AXIS + axisIndex);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getAxisIndex() {
+        return axisIndex;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteCommand{" + type + " " + axisName(axisIndex) + " " + amount + "}";
+    }
+}
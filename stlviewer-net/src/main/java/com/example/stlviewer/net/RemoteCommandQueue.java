@@ -0,0 +1,51 @@
+package com.example.stlviewer.net;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Multi-producer queue for remote transform commands. Any number of network threads may submit
+ * commands without locking, while a single consumer drains the queue once per frame. <br>
+ * Draining sums all pending commands per transform and axis. Every transform property is updated by
+ * adding the amount to its current value, so the summed update leaves the scene in exactly the same
+ * state as applying the commands one by one.
+ *
+ * @author  Lukas Erdmann
+ */
+public class RemoteCommandQueue
+{
+    private final ConcurrentLinkedQueue<RemoteCommand> pendingCommands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Adds a command to the queue. Safe to call from any thread.
+     *
+     * @param command   Command to add
+     */
+    public void submit(RemoteCommand command) {
+        pendingCommands.offer(command);
+    }
+
+    /**
+     * Removes all pending commands and sums them per type and axis. Must only be called by one consumer thread.
+     *
+     * @param translation   Receives the summed translation per axis, indexed by {@link RemoteCommand#axisIndex(String)}
+     * @param rotation      Receives the summed rotation per axis, indexed by {@link RemoteCommand#axisIndex(String)}
+     * @return              Number of commands that were drained
+     */
+    public int drain(double[] translation, double[] rotation) {
+        int drained = 0;
+        RemoteCommand command;
+        while ((command = pendingCommands.poll()) != null) {
+            if (command.getType() == RemoteCommand.Type.TRANSLATE) {
+                translation[command.getAxisIndex()] += command.getAmount();
+            } else {
+                rotation[command.getAxisIndex()] += command.getAmount();
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    public boolean isEmpty() {
+        return pendingCommands.isEmpty();
+    }
+}
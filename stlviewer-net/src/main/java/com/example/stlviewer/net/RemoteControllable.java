@@ -0,0 +1,46 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.model.ViewState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Operations of a viewer that can be controlled by the TCP server. Implemented by the JavaFX viewer and by
+ * {@link HeadlessViewerController}, which allows running the server without a display.
+ *
+ * @author  Lukas Erdmann
+ */
+public interface RemoteControllable
+{
+    /**
+     * Queues a transform command. Safe to call from any thread.
+     *
+     * @param command   Command to apply
+     */
+    void submitRemoteCommand(RemoteCommand command);
+
+    /**
+     * Loads a model from a stream and makes it the current model. If the model is loaded, the viewer owns
+     * the file the stream is written to: downloads are served from it, and it is deleted once another model
+     * replaces the current one.
+     *
+     * @param inputStream       Stream with the content of the STL file
+     * @param remoteFilePath    Path of the file the stream is written to
+     * @param byteCount         Size of the file once the stream has ended, it chooses the load mode
+     */
+    void openRemoteFile(InputStream inputStream, String remoteFilePath, long byteCount) throws IOException;
+
+    /**
+     * @return  Path of the currently loaded model, or null if no model is loaded
+     */
+    String getFilePath();
+
+    /**
+     * Registers a listener that is notified whenever the transform or the loaded model changes.
+     *
+     * @param listener  Listener to notify
+     */
+    void addViewStateListener(Consumer<ViewState> listener);
+}
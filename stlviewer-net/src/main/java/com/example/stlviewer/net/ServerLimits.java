@@ -0,0 +1,127 @@
+package com.example.stlviewer.net;
+
+/**
+ * Limits the TCP server enforces to protect itself and other clients from a misbehaving client. <br>
+ * The defaults can be overridden with the system properties {@code stlviewer.server.maxConnections},
+ * {@code stlviewer.server.idleTimeoutMillis}, {@code stlviewer.server.subscriberIdleTimeoutMillis},
+ * {@code stlviewer.server.commandsPerSecond} and {@code stlviewer.server.maxUploadBytes}.
+ * A value of 0 disables the respective limit.
+ *
+ * @author  Lukas Erdmann
+ */
+public class ServerLimits
+{
+    public static final int DEFAULT_MAX_CONNECTIONS = 64;
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    public static final int DEFAULT_SUBSCRIBER_IDLE_TIMEOUT_MILLIS = 60 * 60 * 1000;
+    public static final int DEFAULT_COMMANDS_PER_SECOND = 10_000;
+    public static final long DEFAULT_MAX_UPLOAD_BYTES = 1L << 30;
+
+    private final int maxConnections;
+    private final int idleTimeoutMillis;
+    private final int subscriberIdleTimeoutMillis;
+    private final int commandsPerSecond;
+    private final long maxUploadBytes;
+
+    /**
+     * @param maxConnections    Maximum number of concurrent connections
+     * @param idleTimeoutMillis Time after which a connection without input is closed
+     * @param subscriberIdleTimeoutMillis   Idle timeout of a subscribed connection, which mostly listens and
+     *                                      keeps its slot with an empty line now and then
+     * @param commandsPerSecond Maximum sustained command rate per client, bursts of up to one second are allowed
+     * @param maxUploadBytes    Size of the largest file a client may upload
+     */
+    public ServerLimits(int maxConnections, int idleTimeoutMillis, int subscriberIdleTimeoutMillis, int commandsPerSecond,
+                        long maxUploadBytes) {
+        this.maxConnections = maxConnections;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.subscriberIdleTimeoutMillis = subscriberIdleTimeoutMillis;
+        this.commandsPerSecond = commandsPerSecond;
+        this.maxUploadBytes = maxUploadBytes;
+    }
+
+    /**
+     * @return  Limits configured by system properties, or the defaults
+     */
+    public static ServerLimits fromSystemProperties() {
+        return new ServerLimits(
+                Integer.getInteger("stlviewer.server.maxConnections", DEFAULT_MAX_CONNECTIONS),
+                Integer.getInteger("stlviewer.server.idleTimeoutMillis", DEFAULT_IDLE_TIMEOUT_MILLIS),
+                Integer.getInteger("stlviewer.server.subscriberIdleTimeoutMillis", DEFAULT_SUBSCRIBER_IDLE_TIMEOUT_MILLIS),
+                Integer.getInteger("stlviewer.server.commandsPerSecond", DEFAULT_COMMANDS_PER_SECOND),
+                Long.getLong("stlviewer.server.maxUploadBytes", DEFAULT_MAX_UPLOAD_BYTES));
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public int getSubscriberIdleTimeoutMillis() {
+        return subscriberIdleTimeoutMillis;
+    }
+
+    public int getCommandsPerSecond() {
+        return commandsPerSecond;
+    }
+
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    /**
+     * @param byteCount Announced size of an upload
+     * @return          True if the upload may be received
+     */
+    public boolean isUploadAllowed(long byteCount) {
+        return maxUploadBytes <= 0 || byteCount <= maxUploadBytes;
+    }
+
+    /**
+     * Creates a token bucket for a single client. The bucket is not thread-safe, every client handler uses its own.
+     *
+     * @return  Rate limiter for one client
+     */
+    public RateLimiter createRateLimiter() {
+        return new RateLimiter(commandsPerSecond);
+    }
+
+    /**
+     * Token bucket that refills at the configured rate and holds at most one second worth of tokens.
+     */
+    public static class RateLimiter
+    {
+        private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+        private final int commandsPerSecond;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private RateLimiter(int commandsPerSecond) {
+            this.commandsPerSecond = commandsPerSecond;
+            this.tokens = commandsPerSecond;
+        }
+
+        /**
+         * Takes a token if one is available.
+         *
+         * @return  True if the command may be executed
+         */
+        public boolean tryAcquire() {
+            if (commandsPerSecond <= 0) {
+                return true;
+            }
+            long now = System.nanoTime();
+            tokens = java.lang.Math.min(commandsPerSecond, tokens + (now - lastRefillNanos) * commandsPerSecond / NANOS_PER_SECOND);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
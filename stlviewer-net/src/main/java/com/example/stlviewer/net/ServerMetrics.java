@@ -0,0 +1,156 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.util.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters, gauges and latency histograms of the TCP server. All methods are thread-safe and lock-free,
+ * every client handler records into the same instance. The values can be queried with the {@code stats}
+ * command of the text protocol.
+ *
+ * @author  Lukas Erdmann
+ */
+public class ServerMetrics
+{
+    public static final String MESSAGE_STATS = "stats";
+    public static final int RATE_WINDOW_SECONDS = 10;
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder totalConnections = new LongAdder();
+    private final LongAdder rejectedConnections = new LongAdder();
+    private final LongAdder idleTimeouts = new LongAdder();
+    private final LongAdder connectionErrors = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder rateLimitedCommands = new LongAdder();
+    private final ConcurrentHashMap<String, LatencyHistogram> commandLatencies = new ConcurrentHashMap<>();
+    // Ring of per second command counts, each slot remembers the second it counts for
+    private final AtomicLongArray secondCounts = new AtomicLongArray(RATE_WINDOW_SECONDS + 1);
+    private final AtomicLongArray secondStamps = new AtomicLongArray(RATE_WINDOW_SECONDS + 1);
+
+    /**
+     * Reserves a connection slot if fewer than the given number of connections are active.
+     *
+     * @param maxConnections    Maximum number of connections, 0 for no limit
+     * @return                  True if the connection was admitted
+     */
+    public boolean tryOpenConnection(int maxConnections) {
+        while (true) {
+            int active = activeConnections.get();
+            if (maxConnections > 0 && active >= maxConnections) {
+                rejectedConnections.increment();
+                return false;
+            }
+            if (activeConnections.compareAndSet(active, active + 1)) {
+                totalConnections.increment();
+                return true;
+            }
+        }
+    }
+
+    public void closeConnection() {
+        activeConnections.decrementAndGet();
+    }
+
+    public void recordIdleTimeout() {
+        idleTimeouts.increment();
+    }
+
+    public void recordConnectionError() {
+        connectionErrors.increment();
+    }
+
+    public void recordParseError() {
+        parseErrors.increment();
+    }
+
+    public void recordRateLimited() {
+        rateLimitedCommands.increment();
+    }
+
+    /**
+     * Records an executed command and its execution time.
+     *
+     * @param commandName   Name of the command, e.g. rotate
+     * @param elapsedNanos  Execution time in nanoseconds
+     */
+    public void recordCommand(String commandName, long elapsedNanos) {
+        commands.increment();
+        commandLatencies.computeIfAbsent(commandName, name -> new LatencyHistogram()).record(elapsedNanos);
+
+        long second = System.nanoTime() / NANOS_PER_SECOND;
+        int slot = (int) (second % secondCounts.length());
+        long stamp = secondStamps.get(slot);
+        if (stamp != second && secondStamps.compareAndSet(slot, stamp, second)) {
+            // First command of a new second in this slot, drop the count of the old second
+            secondCounts.set(slot, 0);
+        }
+        secondCounts.incrementAndGet(slot);
+    }
+
+    /**
+     * @return  Average number of commands per second over the last complete seconds of the window
+     */
+    public double getCommandsPerSecond() {
+        long currentSecond = System.nanoTime() / NANOS_PER_SECOND;
+        long count = 0;
+        for (int slot = 0; slot < secondCounts.length(); slot++) {
+            long stamp = secondStamps.get(slot);
+            if (stamp < currentSecond && stamp >= currentSecond - RATE_WINDOW_SECONDS) {
+                count += secondCounts.get(slot);
+            }
+        }
+        return (double) count / RATE_WINDOW_SECONDS;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public long getCommandCount() {
+        return commands.sum();
+    }
+
+    public long getParseErrorCount() {
+        return parseErrors.sum();
+    }
+
+    public LatencyHistogram getCommandLatency(String commandName) {
+        return commandLatencies.get(commandName);
+    }
+
+    /**
+     * Formats all metrics as a single line of {@code key=value} pairs. Latencies are given in microseconds.
+     *
+     * @return  Stats line
+     */
+    public String toStatsLine() {
+        StringBuilder builder = new StringBuilder(MESSAGE_STATS);
+        builder.append(" activeConnections=").append(activeConnections.get());
+        builder.append(" totalConnections=").append(totalConnections.sum());
+        builder.append(" rejectedConnections=").append(rejectedConnections.sum());
+        builder.append(" idleTimeouts=").append(idleTimeouts.sum());
+        builder.append(" connectionErrors=").append(connectionErrors.sum());
+        builder.append(" commands=").append(commands.sum());
+        builder.append(String.format(" commandsPerSecond=%.1f", getCommandsPerSecond()));
+        builder.append(" parseErrors=").append(parseErrors.sum());
+        builder.append(" rateLimited=").append(rateLimitedCommands.sum());
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(commandLatencies).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            builder.append(String.format(" %1$s.p50us=%2$.1f %1$s.p99us=%3$.1f %1$s.p999us=%4$.1f %1$s.maxus=%5$.1f",
+                    entry.getKey(),
+                    histogram.getValueAtPercentile(50) / LatencyHistogram.NANOS_PER_MICRO,
+                    histogram.getValueAtPercentile(99) / LatencyHistogram.NANOS_PER_MICRO,
+                    histogram.getValueAtPercentile(99.9) / LatencyHistogram.NANOS_PER_MICRO,
+                    histogram.getMax() / LatencyHistogram.NANOS_PER_MICRO));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.stlviewer.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Scanner;
+
+public class TCPClient
+{
+    private final String host;
+    private final int port;
+
+    public TCPClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public void start() {
+        System.out.println("Connecting to server: " + host + ":" + port);
+        try (SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress(host, port));
+             ChannelLineInputStream input = new ChannelLineInputStream(socketChannel);
+             PrintWriter output = new PrintWriter(socketChannel.socket().getOutputStream(), true);
+             Scanner scanner = new Scanner(System.in)) {
+
+            handleUserInput(socketChannel, input, output, scanner);
+        } catch (IOException ioException) {
+            System.err.println("Error connecting to server: " + ioException.getMessage());
+        }
+    }
+
+    private void handleUserInput(SocketChannel socketChannel, ChannelLineInputStream input, PrintWriter output, Scanner scanner) throws IOException {
+        while (true) {
+            String commandType = fetchCommandType(scanner);
+            if (commandType.equals(TCPClientHandler.COMMAND_UPLOAD)) {
+                uploadFile(fetchPath(scanner, "Enter path of the STL file to upload: ", true), socketChannel, output);
+                continue;
+            } else if (commandType.equals(TCPClientHandler.COMMAND_DOWNLOAD)) {
+                downloadFile(fetchPath(scanner, "Enter path to save the model to: ", false), input, output);
+                continue;
+            }
+            String axis = fetchAxis(scanner);
+            double amount = fetchAmount(scanner);
+
+            String command = commandType + " " + axis + " " + amount;
+            output.println(command);
+        }
+    }
+
+    /**
+     * Sends a local STL file to the server. The file is moved into the socket with {@link FileChannel#transferTo}.
+     */
+    private void uploadFile(Path path, SocketChannel socketChannel, PrintWriter output) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long byteCount = fileChannel.size();
+            output.println(TCPClientHandler.COMMAND_UPLOAD + " " + byteCount);
+            long transferred = 0;
+            while (transferred < byteCount) {
+                transferred += fileChannel.transferTo(transferred, byteCount - transferred, socketChannel);
+            }
+            System.out.println("Uploaded " + transferred + " bytes");
+        }
+    }
+
+    /**
+     * Fetches the model that is currently loaded on the server. Replies to earlier commands that are still
+     * pending are skipped until the size line of the download arrives.
+     */
+    private void downloadFile(Path path, ChannelLineInputStream input, PrintWriter output) throws IOException {
+        output.println(TCPClientHandler.COMMAND_DOWNLOAD);
+        String line;
+        while ((line = input.readLine()) != null && !line.startsWith(TCPClientHandler.COMMAND_DOWNLOAD + " ")) {
+            if (line.startsWith("Error")) {
+                System.out.println(line);
+                return;
+            }
+        }
+        if (line == null) {
+            throw new EOFException("Connection closed by server");
+        }
+
+        long byteCount = Long.parseLong(line.substring(TCPClientHandler.COMMAND_DOWNLOAD.length() + 1).trim());
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long transferred = 0;
+            while (transferred < byteCount) {
+                long chunk = input.transferTo(fileChannel, transferred, byteCount - transferred);
+                if (chunk <= 0) {
+                    throw new EOFException("Connection closed after " + transferred + " of " + byteCount + " bytes");
+                }
+                transferred += chunk;
+            }
+            System.out.println("Downloaded " + transferred + " bytes to " + path);
+        }
+    }
+
+    private String fetchCommandType(Scanner scanner) {
+        while (true) {
+            System.out.print("Enter command type (rotate, translate, upload, download): ");
+            String commandType = scanner.nextLine().trim().toLowerCase();
+            if (commandType.equals("rotate") || commandType.equals("translate")
+                    || commandType.equals(TCPClientHandler.COMMAND_UPLOAD) || commandType.equals(TCPClientHandler.COMMAND_DOWNLOAD)) {
+                return commandType;
+            } else {
+                System.out.println("Invalid command type. Please enter rotate, translate, upload or download.");
+            }
+        }
+    }
+
+    private Path fetchPath(Scanner scanner, String prompt, boolean mustExist) {
+        while (true) {
+            System.out.print(prompt);
+            Path path = Paths.get(scanner.nextLine().trim());
+            if (mustExist && !Files.isRegularFile(path)) {
+                System.out.println("File not found. Please enter a valid path.");
+            } else {
+                return path;
+            }
+        }
+    }
+
+    private String fetchAxis(Scanner scanner) {
+        while (true) {
+            System.out.print("Enter axis (x, y, z): ");
+            String axis = scanner.nextLine().trim().toLowerCase();
+            if (axis.equals("x") || axis.equals("y") || axis.equals("z")) {
+                return axis;
+            } else {
+                System.out.println("Invalid axis. Please enter x, y, or z.");
+            }
+        }
+    }
+
+    private double fetchAmount(Scanner scanner) {
+        while (true) {
+            System.out.print("Enter amount: ");
+            try {
+                return Double.parseDouble(scanner.nextLine().trim());
+            } catch (NumberFormatException numberFormatException) {
+                System.out.println("Invalid amount. Please enter a valid number.");
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.stlviewer.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.stlviewer.events.TcpCommandEvent;
+import com.example.stlviewer.res.Strings;
+
+public class TCPClientHandler extends Thread
+{
+    public static final String COMMAND_UPLOAD = "upload";
+    public static final String COMMAND_DOWNLOAD = "download";
+    public static final String COMMAND_SUBSCRIBE = "subscribe";
+    public static final String COMMAND_UNSUBSCRIBE = "unsubscribe";
+    public static final String COMMAND_STATS = ServerMetrics.MESSAGE_STATS;
+    public static final long TRANSFER_CHUNK_BYTE_SIZE = 1 << 20;
+    public static final long MAX_DISCARDED_BYTE_SIZE = 16 << 20;
+
+    private final SocketChannel clientChannel;
+    private final Socket clientSocket;
+    private final RemoteControllable viewerController;
+    private final ViewStateBroadcaster viewStateBroadcaster;
+    private final ServerMetrics serverMetrics;
+    private final ServerLimits serverLimits;
+    private final ServerLimits.RateLimiter rateLimiter;
+    private ViewStateBroadcaster.Subscriber subscription;
+
+    public TCPClientHandler(SocketChannel clientChannel, RemoteControllable viewerController, ViewStateBroadcaster viewStateBroadcaster,
+                            ServerMetrics serverMetrics, ServerLimits serverLimits) {
+        this.clientChannel = clientChannel;
+        this.clientSocket = clientChannel.socket();
+        this.viewerController = viewerController;
+        this.viewStateBroadcaster = viewStateBroadcaster;
+        this.serverMetrics = serverMetrics;
+        this.serverLimits = serverLimits;
+        this.rateLimiter = serverLimits.createRateLimiter();
+    }
+
+    @Override
+    public void run() {
+        System.out.println("Client connected: " + clientSocket.getInetAddress());
+
+        try (ChannelLineInputStream input = new ChannelLineInputStream(clientChannel);
+             OutputStream output = new BufferedOutputStream(clientSocket.getOutputStream())) {
+
+            // Reads block at most for the idle timeout, afterwards the connection is closed
+            clientSocket.setSoTimeout(serverLimits.getIdleTimeoutMillis());
+            if (isBinaryProtocol(input)) {
+                processBinaryCommands(new DataInputStream(input), output);
+            } else {
+                processCommands(input, new PrintWriter(output, true));
+            }
+
+        } catch (SocketTimeoutException e) {
+            serverMetrics.recordIdleTimeout();
+            System.out.println("Client idle, closing connection: " + clientSocket.getInetAddress());
+        } catch (IOException e) {
+            serverMetrics.recordConnectionError();
+            System.err.println("Error processing client commands: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            serverMetrics.closeConnection();
+            if (subscription != null) {
+                viewStateBroadcaster.unsubscribe(subscription);
+            }
+            try {
+                clientSocket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing client socket: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks whether the client opened the connection with the magic bytes of the binary protocol.
+     * The decision is made on the first byte, so text clients are never blocked waiting for more input.
+     * If the connection is a text connection, the stream is reset to its start.
+     */
+    private boolean isBinaryProtocol(BufferedInputStream input) throws IOException {
+        input.mark(CommandFrame.MAGIC.length);
+        int firstByte = input.read();
+        if (firstByte != (CommandFrame.MAGIC[0] & 0xFF)) {
+            input.reset();
+            return false;
+        }
+        for (int i = 1; i < CommandFrame.MAGIC.length; i++) {
+            if (input.read() != CommandFrame.MAGIC[i]) {
+                throw new IOException("Invalid binary protocol header");
+            }
+        }
+        return true;
+    }
+
+    private void processCommands(ChannelLineInputStream input, PrintWriter output) throws IOException {
+        String command;
+        while ((command = input.readLine()) != null) {
+            if (command.isEmpty()) {
+                // Only resets the idle timeout, e.g. of a subscriber that has nothing else to send
+                continue;
+            }
+            TcpCommandEvent commandEvent = new TcpCommandEvent();
+            commandEvent.begin();
+            long startNanos = System.nanoTime();
+            String[] commandParts = command.split(" ");
+            boolean isValid = true;
+            if (!rateLimiter.tryAcquire()) {
+                serverMetrics.recordRateLimited();
+                output.println("Rate limit exceeded, command dropped: " + command);
+                commitCommandEvent(commandEvent, commandParts[0], TcpCommandEvent.PROTOCOL_TEXT, false);
+                // The payload of a dropped upload follows the command line and must not be read as commands
+                if (commandParts[0].equals(COMMAND_UPLOAD) && commandParts.length == 2 && !discardUpload(commandParts[1], input, output)) {
+                    return;
+                }
+                continue;
+            }
+            if (commandParts[0].equals(COMMAND_STATS) && commandParts.length == 1) {
+                output.println(serverMetrics.toStatsLine());
+            } else if (commandParts[0].equals(COMMAND_UPLOAD) && commandParts.length == 2) {
+                if (isUploadTooLarge(commandParts[1])) {
+                    // The payload is too large to be skipped, so the connection is given up
+                    output.println("Upload exceeds the maximum of " + serverLimits.getMaxUploadBytes() + " bytes, closing connection");
+                    serverMetrics.recordParseError();
+                    commitCommandEvent(commandEvent, commandParts[0], TcpCommandEvent.PROTOCOL_TEXT, false);
+                    return;
+                }
+                isValid = receiveUpload(commandParts[1], input, output);
+            } else if (commandParts[0].equals(COMMAND_DOWNLOAD) && commandParts.length == 1) {
+                sendDownload(output);
+            } else if (commandParts[0].equals(COMMAND_SUBSCRIBE) && commandParts.length == 1) {
+                if (subscription == null) {
+                    subscription = viewStateBroadcaster.subscribe(output);
+                    // Subscribers mostly listen, so they get a longer timeout, but still can't hold a connection slot forever
+                    clientSocket.setSoTimeout(serverLimits.getSubscriberIdleTimeoutMillis());
+                }
+            } else if (commandParts[0].equals(COMMAND_UNSUBSCRIBE) && commandParts.length == 1) {
+                if (subscription != null) {
+                    viewStateBroadcaster.unsubscribe(subscription);
+                    subscription = null;
+                    clientSocket.setSoTimeout(serverLimits.getIdleTimeoutMillis());
+                }
+            } else if (commandParts.length == 3) {
+                try {
+                    isValid = executeCommand(commandParts, output);
+                    if (isValid) {
+                        output.println("Executed command: " + command);
+                    }
+                } catch (Exception exception) {
+                    isValid = false;
+                    output.println("Error executing command: " + exception.getMessage());
+                }
+            } else {
+                isValid = false;
+                output.println("Invalid command: " + command + ". Expected format: <command> <axis> <amount>");
+            }
+
+            if (isValid) {
+                serverMetrics.recordCommand(commandParts[0], System.nanoTime() - startNanos);
+            } else {
+                serverMetrics.recordParseError();
+            }
+            commitCommandEvent(commandEvent, commandParts[0], TcpCommandEvent.PROTOCOL_TEXT, isValid);
+        }
+    }
+
+    /**
+     * Commits the flight recorder event of a command if a recording wants it.
+     */
+    private void commitCommandEvent(TcpCommandEvent commandEvent, String command, String protocol, boolean successful) {
+        if (commandEvent.shouldCommit()) {
+            commandEvent.command = command;
+            commandEvent.protocol = protocol;
+            commandEvent.client = String.valueOf(clientSocket.getRemoteSocketAddress());
+            commandEvent.successful = successful;
+            commandEvent.commit();
+        }
+    }
+
+    /**
+     * Receives an STL file of the given size that follows the command line. The bytes are moved from the
+     * socket into a temporary file with {@link FileChannel#transferFrom}, while a loader thread parses the
+     * part of the file that has already arrived. The model is displayed once the upload is complete. If the
+     * connection ends early, the loader fails instead of displaying a partial model, and the file is deleted.
+     * The client is answered once the loader is done, with an error if the file couldn't be read.
+     * A loaded file is handed to the viewer, which deletes it once another model replaces it.
+     */
+    private boolean receiveUpload(String byteCountText, ChannelLineInputStream input, PrintWriter output) throws IOException {
+        long byteCount;
+        try {
+            byteCount = Long.parseLong(byteCountText);
+        } catch (NumberFormatException numberFormatException) {
+            output.println("Invalid value for upload size: " + byteCountText);
+            return false;
+        }
+        if (byteCount < 0) {
+            output.println("Invalid value for upload size: " + byteCountText);
+            return false;
+        }
+
+        Path uploadPath = Files.createTempFile("stlviewer-upload-", ".stl");
+        uploadPath.toFile().deleteOnExit();
+        GrowingFileInputStream uploadStream = new GrowingFileInputStream(uploadPath);
+        AtomicReference<Exception> loadFailure = new AtomicReference<>();
+        Thread loaderThread = new Thread(() -> {
+            try (uploadStream) {
+                viewerController.openRemoteFile(uploadStream, uploadPath.toString(), byteCount);
+            } catch (Exception exception) {
+                System.err.println("Error loading uploaded file: " + exception.getMessage());
+                loadFailure.set(exception);
+                deleteUpload(uploadPath);
+            }
+        });
+        loaderThread.start();
+
+        long transferred = 0;
+        try (FileChannel uploadChannel = FileChannel.open(uploadPath, StandardOpenOption.WRITE)) {
+            while (transferred < byteCount) {
+                long chunk = input.transferTo(uploadChannel, transferred, java.lang.Math.min(TRANSFER_CHUNK_BYTE_SIZE, byteCount - transferred));
+                if (chunk <= 0) {
+                    throw new EOFException("Connection closed after " + transferred + " of " + byteCount + " bytes");
+                }
+                transferred += chunk;
+                uploadStream.setAvailableBytes(transferred);
+            }
+        } catch (IOException | RuntimeException exception) {
+            uploadStream.fail(exception instanceof IOException ? (IOException) exception : new IOException(exception));
+            throw exception;
+        }
+        uploadStream.finish();
+        try {
+            loaderThread.join();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading the uploaded file");
+        }
+        if (loadFailure.get() != null) {
+            output.println("Error loading uploaded file: " + loadFailure.get().getMessage());
+            return false;
+        }
+        output.println("Uploaded " + transferred + " bytes");
+        return true;
+    }
+
+    /**
+     * @return  True if the announced size of an upload exceeds the limit, an invalid size is reported by the upload
+     */
+    private boolean isUploadTooLarge(String byteCountText) {
+        try {
+            return !serverLimits.isUploadAllowed(Long.parseLong(byteCountText));
+        } catch (NumberFormatException numberFormatException) {
+            return false;
+        }
+    }
+
+    /**
+     * Drops the payload of an upload that isn't received. A payload whose size is unknown or larger than
+     * {@link #MAX_DISCARDED_BYTE_SIZE} can't be skipped cheaply, so the connection is closed instead.
+     *
+     * @return  False if the connection has to be closed
+     */
+    private static boolean discardUpload(String byteCountText, ChannelLineInputStream input, PrintWriter output) throws IOException {
+        long byteCount;
+        try {
+            byteCount = Long.parseLong(byteCountText);
+        } catch (NumberFormatException numberFormatException) {
+            byteCount = -1;
+        }
+        if (byteCount < 0 || byteCount > MAX_DISCARDED_BYTE_SIZE) {
+            output.println("Upload payload not read, closing connection");
+            return false;
+        }
+        return input.discard(byteCount) == byteCount;
+    }
+
+    private static void deleteUpload(Path uploadPath) {
+        try {
+            Files.deleteIfExists(uploadPath);
+        } catch (IOException ioException) {
+            System.err.println("Error deleting uploaded file: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Sends the currently loaded STL file. A line with the size is followed by the raw bytes, which are
+     * moved from the file into the socket with {@link FileChannel#transferTo}.
+     */
+    private void sendDownload(PrintWriter output) throws IOException {
+        String filePath = viewerController.getFilePath();
+        if (filePath == null) {
+            output.println("Error executing command: no model loaded");
+            return;
+        }
+
+        // Hold the writer lock so no broadcast message is written in the middle of the payload
+        synchronized (output) {
+            try (FileChannel modelChannel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+                long byteCount = modelChannel.size();
+                output.println(COMMAND_DOWNLOAD + " " + byteCount);
+                long transferred = 0;
+                while (transferred < byteCount) {
+                    transferred += modelChannel.transferTo(transferred, byteCount - transferred, clientChannel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads binary frames until the client closes the connection. Every frame is executed as soon as it
+     * arrives, but the ack is only written for the last frame of a batch. Acks are flushed once the client
+     * has no further frames in flight, so pipelined commands share a single write.
+     */
+    private void processBinaryCommands(DataInputStream input, OutputStream output) throws IOException {
+        byte[] frameBytes = new byte[CommandFrame.FRAME_BYTE_SIZE];
+        ByteBuffer frame = ByteBuffer.wrap(frameBytes);
+        byte[] ackBytes = new byte[CommandFrame.FRAME_BYTE_SIZE];
+        ByteBuffer ack = ByteBuffer.wrap(ackBytes);
+        int batchSize = 0;
+        boolean batchFailed = false;
+
+        while (true) {
+            try {
+                input.readFully(frameBytes);
+            } catch (EOFException eofException) {
+                break;
+            }
+            // Decode in place to avoid an allocation per frame
+            byte opcodeByte = frameBytes[CommandFrame.OPCODE_POS];
+            byte opcode = (byte) (opcodeByte & CommandFrame.OPCODE_MASK);
+            String axis = CommandFrame.axisName(frameBytes[CommandFrame.AXIS_POS]);
+            double amount = frame.getDouble(CommandFrame.AMOUNT_POS);
+            int sequenceId = frame.getInt(CommandFrame.SEQUENCE_POS);
+
+            batchSize++;
+            TcpCommandEvent commandEvent = new TcpCommandEvent();
+            commandEvent.begin();
+            long startNanos = System.nanoTime();
+            String commandName = opcode == CommandFrame.OPCODE_ROTATE ? "rotate" : "translate";
+            boolean isValid = false;
+            if (!rateLimiter.tryAcquire()) {
+                serverMetrics.recordRateLimited();
+                batchFailed = true;
+            } else if (executeCommand(opcode, axis, amount)) {
+                serverMetrics.recordCommand(commandName, System.nanoTime() - startNanos);
+                isValid = true;
+            } else {
+                serverMetrics.recordParseError();
+                batchFailed = true;
+            }
+            commitCommandEvent(commandEvent, commandName, TcpCommandEvent.PROTOCOL_BINARY, isValid);
+
+            if ((opcodeByte & CommandFrame.FLAG_BATCH_CONTINUES) == 0) {
+                ack.clear();
+                CommandFrame.write(ack, batchFailed ? CommandFrame.OPCODE_NACK : CommandFrame.OPCODE_ACK,
+                        CommandFrame.AXIS_X, batchSize, sequenceId, false);
+                output.write(ackBytes);
+                if (input.available() == 0) {
+                    output.flush();
+                }
+                batchSize = 0;
+                batchFailed = false;
+            }
+        }
+        output.flush();
+    }
+
+    private boolean executeCommand(String[] commandParts, PrintWriter output) {
+        String commandType = commandParts[0];
+        String axis = commandParts[1];
+        double amount;
+
+        try {
+            amount = Double.parseDouble(commandParts[2]);
+        } catch (NumberFormatException numberFormatException) {
+            output.println("Invalid value for amount: " + commandParts[2]);
+            return false;
+        }
+
+        switch (commandType) {
+            case "translate":
+                viewerController.submitRemoteCommand(new RemoteCommand(RemoteCommand.Type.TRANSLATE, axis, amount));
+                return true;
+            case "rotate":
+                if (!isRotationAxis(axis)) {
+                    output.println(Strings.UNSUPPORTED_ROTATION_AXIS + axis);
+                    return false;
+                }
+                viewerController.submitRemoteCommand(new RemoteCommand(RemoteCommand.Type.ROTATE, axis, amount));
+                return true;
+            default:
+                output.println("Invalid command: " + commandType);
+                return false;
+        }
+    }
+
+    private boolean executeCommand(byte opcode, String axis, double amount) {
+        if (axis == null || Double.isNaN(amount)) {
+            return false;
+        }
+        switch (opcode) {
+            case CommandFrame.OPCODE_TRANSLATE:
+                viewerController.submitRemoteCommand(new RemoteCommand(RemoteCommand.Type.TRANSLATE, axis, amount));
+                return true;
+            case CommandFrame.OPCODE_ROTATE:
+                if (!isRotationAxis(axis)) {
+                    return false;
+                }
+                viewerController.submitRemoteCommand(new RemoteCommand(RemoteCommand.Type.ROTATE, axis, amount));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The viewer only rotates around x and y, so a rotation around z is rejected instead of acknowledged
+     * and then ignored.
+     */
+    private static boolean isRotationAxis(String axis) {
+        return axis.equalsIgnoreCase(Strings.AXIS_X) || axis.equalsIgnoreCase(Strings.AXIS_Y);
+    }
+}
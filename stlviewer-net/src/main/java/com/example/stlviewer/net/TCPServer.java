@@ -0,0 +1,67 @@
+package com.example.stlviewer.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+public class TCPServer
+{
+    private final int port;
+    private final RemoteControllable viewerController;
+    private final ServerLimits serverLimits;
+    private final ServerMetrics serverMetrics = new ServerMetrics();
+    private final ViewStateBroadcaster viewStateBroadcaster = new ViewStateBroadcaster();
+
+    public TCPServer(int port, RemoteControllable viewerController) {
+        this(port, viewerController, ServerLimits.fromSystemProperties());
+    }
+
+    public TCPServer(int port, RemoteControllable viewerController, ServerLimits serverLimits) {
+        this.port = port;
+        this.viewerController = viewerController;
+        this.serverLimits = serverLimits;
+        viewerController.addViewStateListener(viewStateBroadcaster::publish);
+    }
+
+    public void start() throws IOException
+    {
+        try (ServerSocketChannel serverSocket = createSocket()) {
+            System.out.println("The server is reachable on port: " + port);
+            acceptClients(serverSocket);
+        }
+    }
+
+    private ServerSocketChannel createSocket() throws IOException {
+        // Use a channel so file transfers can move data between the socket and files without copying
+        return ServerSocketChannel.open().bind(new InetSocketAddress(port));
+    }
+
+    private void acceptClients(ServerSocketChannel serverSocket) {
+        while (true) {
+            try {
+                handleClient(serverSocket.accept());
+            } catch (IOException e) {
+                serverMetrics.recordConnectionError();
+                System.err.println("Error accepting client connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handleClient(SocketChannel clientChannel) throws IOException {
+        if (!serverMetrics.tryOpenConnection(serverLimits.getMaxConnections())) {
+            // Tell the client why it is dropped, the limit keeps the threads of the other clients available
+            try (clientChannel) {
+                clientChannel.write(ByteBuffer.wrap("Server busy: connection limit reached\n".getBytes(StandardCharsets.UTF_8)));
+            }
+            return;
+        }
+        new TCPClientHandler(clientChannel, viewerController, viewStateBroadcaster, serverMetrics, serverLimits).start();
+    }
+
+    public ServerMetrics getServerMetrics() {
+        return serverMetrics;
+    }
+}
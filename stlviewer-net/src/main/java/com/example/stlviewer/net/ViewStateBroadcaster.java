@@ -0,0 +1,171 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.model.ViewState;
+
+import java.io.PrintWriter;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publish/subscribe channel that mirrors the view state of the viewer to remote clients. <br>
+ * Every subscriber has its own writer thread and a single slot for the newest state. Publishing only
+ * replaces that slot, so a slow subscriber never blocks the publisher or other subscribers; intermediate
+ * states are coalesced and the subscriber receives one delta against the last state it was sent. <br>
+ * Message format: {@code state <sequence> [tx=..] [ty=..] [tz=..] [rx=..] [ry=..] [triangles=..] [model=..]},
+ * containing only the fields that changed. The first message of a subscription contains all fields.
+ *
+ * @author  Lukas Erdmann
+ */
+public class ViewStateBroadcaster
+{
+    public static final String MESSAGE_STATE = "state";
+
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile PublishedState latestState;
+    private long nextSequenceNumber = 1;
+
+    /**
+     * Publishes a new view state to all subscribers. Must be called from a single thread, i.e. the
+     * JavaFX application thread.
+     *
+     * @param state State to publish
+     */
+    public void publish(ViewState state) {
+        PublishedState publishedState = new PublishedState(nextSequenceNumber++, state);
+        latestState = publishedState;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(publishedState);
+        }
+    }
+
+    /**
+     * Registers a subscriber that receives delta messages on the given writer. The subscriber immediately
+     * receives the full current state, if one has been published. A newer state published in the meantime
+     * is not replaced by it.
+     *
+     * @param output    Writer of the subscribing client
+     * @return          Handle to cancel the subscription
+     */
+    public Subscriber subscribe(PrintWriter output) {
+        Subscriber subscriber = new Subscriber(output);
+        subscribers.add(subscriber);
+        subscriber.start();
+        PublishedState currentState = latestState;
+        if (currentState != null) {
+            subscriber.offer(currentState);
+        }
+        return subscriber;
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.close();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Builds the delta message between two states.
+     *
+     * @param sequenceNumber    Sequence number of the new state
+     * @param previous          State the subscriber has last been sent, or null
+     * @param current           New state
+     * @return                  The message, or null if nothing changed
+     */
+    static String encodeDelta(long sequenceNumber, ViewState previous, ViewState current) {
+        StringBuilder builder = new StringBuilder(MESSAGE_STATE).append(' ').append(sequenceNumber);
+        int length = builder.length();
+        appendIfChanged(builder, "tx", previous == null ? Double.NaN : previous.getTranslateX(), current.getTranslateX());
+        appendIfChanged(builder, "ty", previous == null ? Double.NaN : previous.getTranslateY(), current.getTranslateY());
+        appendIfChanged(builder, "tz", previous == null ? Double.NaN : previous.getTranslateZ(), current.getTranslateZ());
+        appendIfChanged(builder, "rx", previous == null ? Double.NaN : previous.getRotateX(), current.getRotateX());
+        appendIfChanged(builder, "ry", previous == null ? Double.NaN : previous.getRotateY(), current.getRotateY());
+        if (current.isModelChanged(previous)) {
+            builder.append(" triangles=").append(current.getTriangleCount());
+            // The path is the last field, so it may contain spaces
+            builder.append(" model=").append(current.getModelPath());
+        }
+        return builder.length() == length ? null : builder.toString();
+    }
+
+    private static void appendIfChanged(StringBuilder builder, String key, double previous, double current) {
+        if (Double.compare(previous, current) != 0) {
+            builder.append(' ').append(key).append('=').append(current);
+        }
+    }
+
+    private static class PublishedState
+    {
+        private final long sequenceNumber;
+        private final ViewState state;
+
+        private PublishedState(long sequenceNumber, ViewState state) {
+            this.sequenceNumber = sequenceNumber;
+            this.state = state;
+        }
+    }
+
+    public class Subscriber extends Thread
+    {
+        private final PrintWriter output;
+        private final AtomicReference<PublishedState> pendingState = new AtomicReference<>();
+        private volatile boolean closed = false;
+        private ViewState lastSentState;
+        private long lastSentSequenceNumber;
+
+        private Subscriber(PrintWriter output) {
+            this.output = output;
+            setDaemon(true);
+        }
+
+        private void offer(PublishedState state) {
+            // Replace a state the writer has not picked up yet, so slow clients receive coalesced updates,
+            // but never by an older one, e.g. the snapshot of subscribe racing with a publish
+            PublishedState pending;
+            do {
+                pending = pendingState.get();
+                if (pending != null && pending.sequenceNumber >= state.sequenceNumber) {
+                    return;
+                }
+            } while (!pendingState.compareAndSet(pending, state));
+            LockSupport.unpark(this);
+        }
+
+        @Override
+        public void run() {
+            while (!closed) {
+                PublishedState state = pendingState.getAndSet(null);
+                if (state == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                if (state.sequenceNumber <= lastSentSequenceNumber) {
+                    // A stale snapshot that arrived after the writer had already sent a newer state
+                    continue;
+                }
+                String message = encodeDelta(state.sequenceNumber, lastSentState, state.state);
+                if (message != null) {
+                    // Lock the writer so the message can't end up inside a file transfer on the same connection
+                    synchronized (output) {
+                        output.println(message);
+                    }
+                    if (output.checkError()) {
+                        // The client has gone away
+                        subscribers.remove(this);
+                        closed = true;
+                    }
+                }
+                lastSentState = state.state;
+                lastSentSequenceNumber = state.sequenceNumber;
+            }
+        }
+
+        private void close() {
+            closed = true;
+            LockSupport.unpark(this);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+module com.example.stlviewer.net {
+    requires transitive com.example.stlviewer.core;
+
+    exports com.example.stlviewer.net;
+}
@@ -0,0 +1,140 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.model.ViewState;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the encoding of frames and the acks a client handler sends for batches of frames.
+ *
+ * @author  Lukas Erdmann
+ */
+class CommandFrameTest
+{
+    // Limits of 0 are disabled, the test must not be rate limited or time out
+    private static final ServerLimits NO_LIMITS = new ServerLimits(0, 0, 0, 0, 0);
+
+    @Test
+    void frameIsDecodedAsItWasEncoded() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * CommandFrame.FRAME_BYTE_SIZE);
+        new CommandFrame(CommandFrame.OPCODE_ROTATE, CommandFrame.AXIS_Y, -12.375, Integer.MAX_VALUE, true).writeTo(buffer);
+        assertEquals(CommandFrame.FRAME_BYTE_SIZE, buffer.position());
+        new CommandFrame(CommandFrame.OPCODE_TRANSLATE, CommandFrame.AXIS_Z, Double.MIN_VALUE, 7).writeTo(buffer);
+        // The flag of a continued batch is the highest bit of the opcode byte
+        assertEquals((byte) (CommandFrame.OPCODE_ROTATE | CommandFrame.FLAG_BATCH_CONTINUES), buffer.get(CommandFrame.OPCODE_POS));
+        assertEquals(CommandFrame.OPCODE_TRANSLATE, buffer.get(CommandFrame.FRAME_BYTE_SIZE + CommandFrame.OPCODE_POS));
+
+        buffer.flip();
+        CommandFrame continued = CommandFrame.readFrom(buffer);
+        assertEquals(CommandFrame.OPCODE_ROTATE, continued.getOpcode());
+        assertEquals(CommandFrame.AXIS_Y, continued.getAxis());
+        assertEquals(-12.375, continued.getAmount());
+        assertEquals(Integer.MAX_VALUE, continued.getSequenceId());
+        assertTrue(continued.isBatchContinues());
+        CommandFrame last = CommandFrame.readFrom(buffer);
+        assertEquals(CommandFrame.OPCODE_TRANSLATE, last.getOpcode());
+        assertEquals(CommandFrame.AXIS_Z, last.getAxis());
+        assertEquals(Double.MIN_VALUE, last.getAmount());
+        assertEquals(7, last.getSequenceId());
+        assertFalse(last.isBatchContinues());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void axisNamesAndBytesAreInverse() {
+        for (byte axis : new byte[] {CommandFrame.AXIS_X, CommandFrame.AXIS_Y, CommandFrame.AXIS_Z}) {
+            assertEquals(axis, CommandFrame.axisByte(CommandFrame.axisName(axis)));
+        }
+        assertNull(CommandFrame.axisName((byte) 3));
+        assertThrows(IllegalArgumentException.class, () -> CommandFrame.axisByte("w"));
+    }
+
+    @Test
+    void batchIsAcknowledgedOnceWithItsLastSequenceId() throws IOException {
+        RecordingViewer viewer = new RecordingViewer();
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             BinaryCommandClient client = new BinaryCommandClient(InetAddress.getLoopbackAddress().getHostAddress(),
+                     ((InetSocketAddress) serverChannel.getLocalAddress()).getPort())) {
+            new TCPClientHandler(serverChannel.accept(), viewer, new ViewStateBroadcaster(), new ServerMetrics(), NO_LIMITS).start();
+
+            int batchSequenceId = client.sendBatch(List.of(
+                    new CommandFrame(CommandFrame.OPCODE_ROTATE, CommandFrame.AXIS_X, 10, 0),
+                    new CommandFrame(CommandFrame.OPCODE_TRANSLATE, CommandFrame.AXIS_Z, 2, 0),
+                    new CommandFrame(CommandFrame.OPCODE_ROTATE, CommandFrame.AXIS_Y, -5, 0)));
+            // The viewer can't rotate around z, so the whole batch is answered with a nack
+            int failedSequenceId = client.sendBatch(List.of(
+                    new CommandFrame(CommandFrame.OPCODE_TRANSLATE, CommandFrame.AXIS_X, 1, 0),
+                    new CommandFrame(CommandFrame.OPCODE_ROTATE, CommandFrame.AXIS_Z, 1, 0)));
+            int singleSequenceId = client.sendCommand(CommandFrame.OPCODE_TRANSLATE, CommandFrame.AXIS_Y, 4);
+            client.finishSending();
+
+            CommandFrame batchAck = client.readAck();
+            assertEquals(CommandFrame.OPCODE_ACK, batchAck.getOpcode());
+            assertEquals(batchSequenceId, batchAck.getSequenceId());
+            // The amount of an ack is the number of frames it covers
+            assertEquals(3, batchAck.getAmount());
+            CommandFrame failedAck = client.readAck();
+            assertEquals(CommandFrame.OPCODE_NACK, failedAck.getOpcode());
+            assertEquals(failedSequenceId, failedAck.getSequenceId());
+            assertEquals(2, failedAck.getAmount());
+            CommandFrame singleAck = client.readAck();
+            assertEquals(CommandFrame.OPCODE_ACK, singleAck.getOpcode());
+            assertEquals(singleSequenceId, singleAck.getSequenceId());
+            assertEquals(1, singleAck.getAmount());
+            // The server closes the connection after the last ack
+            assertThrows(EOFException.class, client::readAck);
+        }
+        // The valid commands of the failed batch are applied all the same
+        assertEquals(List.of("ROTATE 0 10.0", "TRANSLATE 2 2.0", "ROTATE 1 -5.0", "TRANSLATE 0 1.0", "TRANSLATE 1 4.0"),
+                viewer.getCommands());
+    }
+
+    /**
+     * Viewer that only records the commands it receives.
+     */
+    private static class RecordingViewer implements RemoteControllable
+    {
+        private final List<String> commands = new ArrayList<>();
+
+        @Override
+        public synchronized void submitRemoteCommand(RemoteCommand command) {
+            commands.add(command.getType() + " " + command.getAxisIndex() + " " + command.getAmount());
+        }
+
+        @Override
+        public void openRemoteFile(InputStream inputStream, String remoteFilePath, long byteCount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getFilePath() {
+            return null;
+        }
+
+        @Override
+        public void addViewStateListener(Consumer<ViewState> listener) {
+            // The view never changes
+        }
+
+        private synchronized List<String> getCommands() {
+            return new ArrayList<>(commands);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.res.Strings;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that draining the queue sums the pending commands per type and axis, also while producers
+ * keep submitting.
+ *
+ * @author  Lukas Erdmann
+ */
+class RemoteCommandQueueTest
+{
+    private static final int PRODUCER_COUNT = 4;
+    private static final int COMMANDS_PER_PRODUCER = 20_000;
+
+    @Test
+    void drainSumsThePendingCommandsPerTypeAndAxis() {
+        RemoteCommandQueue queue = new RemoteCommandQueue();
+        queue.submit(new RemoteCommand(RemoteCommand.Type.TRANSLATE, Strings.AXIS_X, 1.5));
+        queue.submit(new RemoteCommand(RemoteCommand.Type.ROTATE, Strings.AXIS_Y, 10));
+        queue.submit(new RemoteCommand(RemoteCommand.Type.TRANSLATE, Strings.AXIS_X, -0.5));
+        queue.submit(new RemoteCommand(RemoteCommand.Type.TRANSLATE, Strings.AXIS_Z, 3));
+        queue.submit(new RemoteCommand(RemoteCommand.Type.ROTATE, Strings.AXIS_Y, 5));
+        double[] translation = new double[RemoteCommand.AXIS_COUNT];
+        double[] rotation = new double[RemoteCommand.AXIS_COUNT];
+
+        assertEquals(5, queue.drain(translation, rotation));
+        assertArrayEquals(new double[] {1, 0, 3}, translation);
+        assertArrayEquals(new double[] {0, 15, 0}, rotation);
+        assertTrue(queue.isEmpty());
+        // Nothing is pending, so the sums stay as they are
+        assertEquals(0, queue.drain(translation, rotation));
+        assertArrayEquals(new double[] {1, 0, 3}, translation);
+    }
+
+    @Test
+    void concurrentSubmitsAreDrainedExactlyOnce() throws InterruptedException {
+        RemoteCommandQueue queue = new RemoteCommandQueue();
+        List<Thread> producers = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCER_COUNT; producer++) {
+            int axisIndex = producer % RemoteCommand.AXIS_COUNT;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < COMMANDS_PER_PRODUCER; i++) {
+                    // Halves are exact in a double, so the sums don't depend on the order of the commands
+                    RemoteCommand.Type type = i % 2 == 0 ? RemoteCommand.Type.TRANSLATE : RemoteCommand.Type.ROTATE;
+                    queue.submit(new RemoteCommand(type, RemoteCommand.axisName(axisIndex), 0.5));
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+
+        // Drain once per "frame" while the producers are running, as the viewer does
+        double[] translation = new double[RemoteCommand.AXIS_COUNT];
+        double[] rotation = new double[RemoteCommand.AXIS_COUNT];
+        int drained = 0;
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            drained += queue.drain(translation, rotation);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        drained += queue.drain(translation, rotation);
+
+        assertEquals(PRODUCER_COUNT * COMMANDS_PER_PRODUCER, drained);
+        assertTrue(queue.isEmpty());
+        double[] expected = new double[RemoteCommand.AXIS_COUNT];
+        for (int producer = 0; producer < PRODUCER_COUNT; producer++) {
+            expected[producer % RemoteCommand.AXIS_COUNT] += COMMANDS_PER_PRODUCER / 2 * 0.5;
+        }
+        assertArrayEquals(expected, translation);
+        assertArrayEquals(expected, rotation);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.stlviewer.net;
+
+import com.example.stlviewer.model.ViewState;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the delta messages of the broadcaster and that subscribers joining while states are published
+ * never receive an older state after a newer one.
+ *
+ * @author  Lukas Erdmann
+ */
+class ViewStateBroadcasterTest
+{
+    private static final int STATE_COUNT = 20_000;
+    private static final int SUBSCRIBER_COUNT = 50;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void deltaContainsOnlyTheChangedFields() {
+        ViewState first = new ViewState(1, 2, 3, 45, -30, "/models/a b.stl", 12);
+        assertEquals("state 1 tx=1.0 ty=2.0 tz=3.0 rx=45.0 ry=-30.0 triangles=12 model=/models/a b.stl",
+                ViewStateBroadcaster.encodeDelta(1, null, first));
+        ViewState moved = new ViewState(1, 2.5, 3, 45, -30, "/models/a b.stl", 12);
+        assertEquals("state 2 ty=2.5", ViewStateBroadcaster.encodeDelta(2, first, moved));
+        assertNull(ViewStateBroadcaster.encodeDelta(3, moved, moved));
+    }
+
+    @Test
+    void subscribersNeverReceiveAnOlderState() throws InterruptedException {
+        ViewStateBroadcaster broadcaster = new ViewStateBroadcaster();
+        // The state with sequence number n is translated by n, so every message changes tx
+        Thread publisher = new Thread(() -> {
+            for (int sequenceNumber = 1; sequenceNumber <= STATE_COUNT; sequenceNumber++) {
+                broadcaster.publish(new ViewState(sequenceNumber, 0, 0, 0, 0, "model.stl", 1));
+            }
+        });
+        List<StringWriter> outputs = new ArrayList<>();
+        List<ViewStateBroadcaster.Subscriber> subscribers = new ArrayList<>();
+        publisher.start();
+        try {
+            // Subscribe while the publisher is running, so the snapshots of subscribe race with publish
+            for (int i = 0; i < SUBSCRIBER_COUNT; i++) {
+                StringWriter output = new StringWriter();
+                outputs.add(output);
+                subscribers.add(broadcaster.subscribe(new PrintWriter(output)));
+            }
+            publisher.join();
+
+            for (StringWriter output : outputs) {
+                long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+                List<long[]> messages = parseMessages(output);
+                while ((messages.isEmpty() || messages.get(messages.size() - 1)[0] != STATE_COUNT)
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                    messages = parseMessages(output);
+                }
+                assertFalse(messages.isEmpty(), "no state was sent");
+                assertEquals(STATE_COUNT, messages.get(messages.size() - 1)[0], "the newest state was not sent");
+                long lastSequenceNumber = 0;
+                for (long[] message : messages) {
+                    assertTrue(message[0] > lastSequenceNumber, "state " + message[0] + " was sent after state " + lastSequenceNumber);
+                    assertEquals(message[0], message[1], "tx of state " + message[0]);
+                    lastSequenceNumber = message[0];
+                }
+            }
+        } finally {
+            for (ViewStateBroadcaster.Subscriber subscriber : subscribers) {
+                broadcaster.unsubscribe(subscriber);
+            }
+        }
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    /**
+     * Parses the complete lines written so far into pairs of sequence number and tx.
+     */
+    private static List<long[]> parseMessages(StringWriter output) {
+        String written = output.toString();
+        List<long[]> messages = new ArrayList<>();
+        // The last line may still be written by the subscriber
+        for (String line : written.substring(0, written.lastIndexOf('\n') + 1).split("\\R")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(" ");
+            assertEquals(ViewStateBroadcaster.MESSAGE_STATE, fields[0], line);
+            assertTrue(fields[2].startsWith("tx="), line);
+            messages.add(new long[] {Long.parseLong(fields[1]), (long) Double.parseDouble(fields[2].substring(3))});
+        }
+        return messages;
+    }
+}